@@ -0,0 +1,215 @@
+package com.technicalchallenge.cashflow;
+
+import com.technicalchallenge.util.BusinessDayCalendar;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates the periods and amounts of a trade leg
+ * Periods run from the start date in steps of the schedule, each end date counted from
+ * the start date so month ends do not drift, with a short final period up to maturity.
+ * Accrual uses the unadjusted period dates and the leg's day count; the payment date is
+ * the period end rolled by the business day convention on the leg's holiday calendar.
+ * Floating legs are projected from the index fixings (IndexFixings) passed in by the caller.
+ * Dates are epoch days and amounts are exact cents (FixedPointMoney), one leg at a time.
+ * Period dates are kept in a bounded LRU cache keyed by start, maturity, schedule, roll and
+ * calendar, so a repeated preview only works out day counts and amounts
+ */
+@Component
+public class CashflowEngine {
+
+    /** Schedule used for legs that do not name one */
+    public static final int DEFAULT_MONTHS = 3;
+
+    /** Period date sets kept by the default engine */
+    public static final int DEFAULT_SCHEDULE_CACHE_SIZE = 4096;
+
+    private static final BusinessDayCalendar WEEKENDS_ONLY = BusinessDayCalendar.weekendsOnly("WEEKENDS");
+    private static final IndexFixings NO_FIXINGS = IndexFixings.empty("NONE");
+
+    // LRU by access order. Calendars are keyed by identity: a holiday import compiles new
+    // calendar instances, so dates rolled on the old ones are never hit again and age out
+    private final Map<ScheduleKey, PeriodDates> scheduleCache;
+
+    public CashflowEngine() {
+        this(DEFAULT_SCHEDULE_CACHE_SIZE);
+    }
+
+    /**
+     * @param scheduleCacheSize most period date sets kept; 0 disables the cache
+     */
+    public CashflowEngine(int scheduleCacheSize) {
+        this.scheduleCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScheduleKey, PeriodDates> eldest) {
+                return size() > scheduleCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Generates the cashflows of a leg without index fixings; floating legs get zero amounts
+     * @param startDate trade start date
+     * @param maturityDate trade maturity date
+     * @param monthsInterval months per period, see parseScheduleMonths
+     * @param dayCount day count for accrual
+     * @param roll business day convention for payment dates
+     * @param calendar holiday calendar for payment dates, null for weekends only
+     * @param notional leg notional
+     * @param rate fixed rate as a decimal (0.05 for 5%), ignored for floating legs
+     * @param fixed true for a fixed leg
+     * @return the schedule, empty when maturity is not after start
+     */
+    public CashflowSchedule generate(LocalDate startDate, LocalDate maturityDate, int monthsInterval,
+                                     DayCountConvention dayCount, RollConvention roll, BusinessDayCalendar calendar,
+                                     BigDecimal notional, Double rate, boolean fixed) {
+        return generate(startDate, maturityDate, monthsInterval, dayCount, roll, calendar, notional, rate, fixed, null);
+    }
+
+    /**
+     * Generates the cashflows of a leg
+     * A floating period accrues at the index fixing on or before its accrual start plus the
+     * leg rate as a spread. Periods starting after the last known fixing are projected flat
+     * from it; periods starting before the first fixing get a zero amount and no rate
+     * @param startDate trade start date
+     * @param maturityDate trade maturity date
+     * @param monthsInterval months per period, see parseScheduleMonths
+     * @param dayCount day count for accrual
+     * @param roll business day convention for payment dates
+     * @param calendar holiday calendar for payment dates, null for weekends only
+     * @param notional leg notional
+     * @param rate fixed rate, or the spread over the index for a floating leg, as a decimal (0.05 for 5%)
+     * @param fixed true for a fixed leg
+     * @param fixings fixings of a floating leg's index, ignored for fixed legs; null for none
+     * @return the schedule, empty when maturity is not after start
+     */
+    public CashflowSchedule generate(LocalDate startDate, LocalDate maturityDate, int monthsInterval,
+                                     DayCountConvention dayCount, RollConvention roll, BusinessDayCalendar calendar,
+                                     BigDecimal notional, Double rate, boolean fixed, IndexFixings fixings) {
+        if (monthsInterval <= 0) {
+            throw new IllegalArgumentException("Schedule must be at least one month, got " + monthsInterval);
+        }
+        long start = startDate.toEpochDay();
+        long maturity = maturityDate.toEpochDay();
+        BusinessDayCalendar paymentCalendar = calendar != null ? calendar : WEEKENDS_ONLY;
+        BigDecimal notionalAmount = notional != null ? notional : BigDecimal.ZERO;
+        IndexFixings index = fixed ? null : fixings != null ? fixings : NO_FIXINGS;
+
+        // Converted to cents and scaled rate once per leg; sub-cent notionals or rates past
+        // eight decimal places stay on BigDecimal
+        long notionalCents = 0;
+        long legRate = 0;
+        boolean scaled = true;
+        try {
+            notionalCents = FixedPointMoney.toCents(notionalAmount);
+            legRate = FixedPointMoney.toScaledRate(rate != null ? rate : 0.0);
+        } catch (ArithmeticException e) {
+            scaled = false;
+        }
+
+        PeriodDates dates = periodDates(start, maturity, monthsInterval, roll, paymentCalendar);
+        CashflowSchedule schedule = new CashflowSchedule(dates);
+        for (int period = 0; period < dates.size(); period++) {
+            long periodStart = dates.accrualStart[period];
+            long days = dayCount.days(periodStart, dates.accrualEnd[period]);
+            double fraction = (double) days / dayCount.getBasis();
+
+            long fixing = 0;
+            if (index != null) {
+                fixing = index.floorScaledRate(periodStart);
+                if (fixing == IndexFixings.NO_FIXING) {
+                    schedule.set(period, fraction, 0, IndexFixings.NO_FIXING);
+                    continue;
+                }
+            }
+            long periodRate = 0;
+            long cents = 0;
+            if (scaled) {
+                try {
+                    periodRate = Math.addExact(fixing, legRate);
+                    cents = FixedPointMoney.accrue(notionalCents, periodRate, days, dayCount.getBasis());
+                } catch (ArithmeticException e) {
+                    scaled = false;
+                }
+            }
+            if (scaled) {
+                schedule.set(period, fraction, cents, periodRate);
+            } else {
+                BigDecimal exactRate = BigDecimal.valueOf(fixing, FixedPointMoney.RATE_SCALE)
+                        .add(BigDecimal.valueOf(rate != null ? rate : 0.0));
+                schedule.setExact(period, fraction, exactRate,
+                        FixedPointMoney.accrueExact(notionalAmount, exactRate, days, dayCount.getBasis()));
+            }
+        }
+        return schedule;
+    }
+
+    // Built outside the lock; two threads missing on the same key both build, and the first one in is kept
+    PeriodDates periodDates(long start, long maturity, int monthsInterval, RollConvention roll,
+                            BusinessDayCalendar calendar) {
+        ScheduleKey key = new ScheduleKey(start, maturity, monthsInterval, roll, calendar);
+        synchronized (scheduleCache) {
+            PeriodDates cached = scheduleCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PeriodDates built = PeriodDates.build(start, maturity, monthsInterval, roll, calendar);
+        synchronized (scheduleCache) {
+            PeriodDates raced = scheduleCache.putIfAbsent(key, built);
+            return raced != null ? raced : built;
+        }
+    }
+
+    /**
+     * Months per period of a calculation period schedule
+     * @param schedule Monthly, Quarterly, Semi-annually, Annually, or a tenor such as 1M, 3M, 6M, 12M or 1Y;
+     *                 null or blank for quarterly
+     * @return months per period
+     * @throws IllegalArgumentException if the schedule cannot be parsed
+     */
+    public static int parseScheduleMonths(String schedule) {
+        if (schedule == null || schedule.isBlank()) {
+            return DEFAULT_MONTHS;
+        }
+        String normalised = schedule.trim().toLowerCase(Locale.ROOT);
+        switch (normalised) {
+            case "monthly":
+                return 1;
+            case "quarterly":
+                return 3;
+            case "semi-annually":
+            case "semiannually":
+            case "half-yearly":
+                return 6;
+            case "annually":
+            case "yearly":
+                return 12;
+            default:
+                break;
+        }
+        char unit = normalised.charAt(normalised.length() - 1);
+        if (unit == 'm' || unit == 'y') {
+            try {
+                int count = Integer.parseInt(normalised.substring(0, normalised.length() - 1));
+                if (count > 0) {
+                    return unit == 'y' ? count * 12 : count;
+                }
+            } catch (NumberFormatException e) {
+                // Falls through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Invalid schedule format: " + schedule
+                + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M, 1Y");
+    }
+
+    private record ScheduleKey(long start, long maturity, int monthsInterval, RollConvention roll,
+                               BusinessDayCalendar calendar) {
+    }
+}
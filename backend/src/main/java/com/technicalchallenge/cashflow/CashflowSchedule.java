@@ -0,0 +1,135 @@
+package com.technicalchallenge.cashflow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Periods and amounts of one leg, as produced by CashflowEngine
+ * Held in parallel primitive arrays with amounts in cents (see FixedPointMoney);
+ * LocalDate and BigDecimal values are only created when a caller asks for them.
+ * The date arrays come from the engine's schedule cache and are shared, not copied.
+ * A leg too large for long cents keeps BigDecimal amounts instead
+ */
+public final class CashflowSchedule {
+
+    // Shared with the cached PeriodDates and every other schedule over the same dates; never written
+    private final long[] accrualStart;
+    private final long[] accrualEnd;
+    private final long[] paymentDate;
+    private final double[] yearFraction;
+    private final long[] amountCents;
+    // Accrual rate per period, NaN when a floating period has no fixing
+    private final double[] rates;
+    // Only set for a leg calculated on the BigDecimal fallback
+    private BigDecimal[] exactAmounts;
+    private final int size;
+
+    CashflowSchedule(PeriodDates dates) {
+        accrualStart = dates.accrualStart;
+        accrualEnd = dates.accrualEnd;
+        paymentDate = dates.paymentDate;
+        size = dates.size();
+        yearFraction = new double[size];
+        amountCents = new long[size];
+        rates = new double[size];
+    }
+
+    // Periods are set in order, so the exact amounts of earlier periods are known when the fallback starts
+    void set(int period, double fraction, long cents, long scaledRate) {
+        yearFraction[period] = fraction;
+        amountCents[period] = cents;
+        rates[period] = scaledRate == IndexFixings.NO_FIXING
+                ? Double.NaN : (double) scaledRate / FixedPointMoney.RATE_UNIT;
+        if (exactAmounts != null) {
+            exactAmounts[period] = FixedPointMoney.fromCents(cents);
+        }
+    }
+
+    void setExact(int period, double fraction, BigDecimal rate, BigDecimal amount) {
+        if (exactAmounts == null) {
+            exactAmounts = new BigDecimal[size];
+            for (int i = 0; i < period; i++) {
+                exactAmounts[i] = FixedPointMoney.fromCents(amountCents[i]);
+            }
+        }
+        yearFraction[period] = fraction;
+        rates[period] = rate.doubleValue();
+        exactAmounts[period] = amount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDate getAccrualStart(int period) {
+        return LocalDate.ofEpochDay(accrualStart[check(period)]);
+    }
+
+    public LocalDate getAccrualEnd(int period) {
+        return LocalDate.ofEpochDay(accrualEnd[check(period)]);
+    }
+
+    /**
+     * @param period period index
+     * @return payment date after the business day convention is applied
+     */
+    public LocalDate getPaymentDate(int period) {
+        return LocalDate.ofEpochDay(paymentDate[check(period)]);
+    }
+
+    public long getPaymentEpochDay(int period) {
+        return paymentDate[check(period)];
+    }
+
+    public double getYearFraction(int period) {
+        return yearFraction[check(period)];
+    }
+
+    /**
+     * @param period period index
+     * @return accrual rate as a decimal, the projected index rate plus spread for a floating
+     *         leg; null for a floating period before the index's first fixing
+     */
+    public Double getRate(int period) {
+        double rate = rates[check(period)];
+        return Double.isNaN(rate) ? null : rate;
+    }
+
+    /**
+     * @param period period index
+     * @return amount in cents
+     * @throws ArithmeticException if the leg was too large for long cents
+     */
+    public long getAmountCents(int period) {
+        check(period);
+        return exactAmounts != null ? FixedPointMoney.toCents(exactAmounts[period]) : amountCents[period];
+    }
+
+    /**
+     * @param period period index
+     * @return amount with two decimal places, for Cashflow.paymentValue
+     */
+    public BigDecimal getAmount(int period) {
+        check(period);
+        return exactAmounts != null ? exactAmounts[period] : FixedPointMoney.fromCents(amountCents[period]);
+    }
+
+    /**
+     * @return sum of all amounts in cents
+     * @throws ArithmeticException if the total overflows
+     */
+    public long getTotalCents() {
+        long total = 0;
+        for (int period = 0; period < size; period++) {
+            total = FixedPointMoney.add(total, getAmountCents(period));
+        }
+        return total;
+    }
+
+    private int check(int period) {
+        if (period < 0 || period >= size) {
+            throw new IndexOutOfBoundsException("Period " + period + " of " + size);
+        }
+        return period;
+    }
+}
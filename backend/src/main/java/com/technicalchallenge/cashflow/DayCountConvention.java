@@ -0,0 +1,88 @@
+package com.technicalchallenge.cashflow;
+
+import java.util.Locale;
+
+/**
+ * Day count conventions for accruing interest over a period
+ */
+public enum DayCountConvention {
+    ACT_360("ACT/360", 360),
+    ACT_365F("ACT/365F", 365),
+    // 30/360 ISDA (bond basis)
+    THIRTY_360("30/360", 360);
+
+    /** Convention used for legs that do not name one */
+    public static final DayCountConvention DEFAULT = ACT_360;
+
+    private final String code;
+    private final int basis;
+
+    DayCountConvention(String code, int basis) {
+        this.code = code;
+        this.basis = basis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return denominator of the year fraction, e.g. 360
+     */
+    public int getBasis() {
+        return basis;
+    }
+
+    /**
+     * Numerator of the year fraction between two days
+     * @param startEpochDay period start, as LocalDate.toEpochDay()
+     * @param endEpochDay period end, as LocalDate.toEpochDay()
+     * @return actual days, or 30/360 days for THIRTY_360
+     */
+    public long days(long startEpochDay, long endEpochDay) {
+        return this == THIRTY_360
+                ? thirty360Days(EpochDays.toPacked(startEpochDay), EpochDays.toPacked(endEpochDay))
+                : endEpochDay - startEpochDay;
+    }
+
+    /**
+     * Fraction of a year between two days
+     * @param startEpochDay period start, as LocalDate.toEpochDay()
+     * @param endEpochDay period end, as LocalDate.toEpochDay()
+     * @return year fraction under this convention
+     */
+    public double yearFraction(long startEpochDay, long endEpochDay) {
+        return (double) days(startEpochDay, endEpochDay) / basis;
+    }
+
+    private static int thirty360Days(int start, int end) {
+        int startDay = Math.min(EpochDays.day(start), 30);
+        int endDay = EpochDays.day(end);
+        if (endDay == 31 && startDay == 30) {
+            endDay = 30;
+        }
+        return 360 * (EpochDays.year(end) - EpochDays.year(start))
+                + 30 * (EpochDays.month(end) - EpochDays.month(start))
+                + (endDay - startDay);
+    }
+
+    /**
+     * Looks up a convention by its market code
+     * @param code e.g. ACT/360, ACT/365F, ACT/365 or 30/360; null or blank for the default
+     * @return the convention
+     * @throws IllegalArgumentException if the code is not supported
+     */
+    public static DayCountConvention fromCode(String code) {
+        if (code == null || code.isBlank()) {
+            return DEFAULT;
+        }
+        String normalised = code.trim().toUpperCase(Locale.ROOT).replace("ACTUAL", "ACT").replace(" ", "");
+        return switch (normalised) {
+            case "ACT/360" -> ACT_360;
+            case "ACT/365F", "ACT/365", "ACT/365FIXED" -> ACT_365F;
+            case "30/360", "30U/360", "360/360", "BONDBASIS" -> THIRTY_360;
+            default -> throw new IllegalArgumentException("Unsupported day count convention: " + code
+                    + ". Supported conventions: ACT/360, ACT/365F, 30/360");
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.technicalchallenge.cashflow;
+
+/**
+ * Calendar arithmetic on epoch days without creating LocalDate objects
+ * Conversions use the proleptic Gregorian algorithms of H. Hinnant, the same calendar as
+ * LocalDate.toEpochDay(). Dates are packed as yyyymmdd ints
+ */
+final class EpochDays {
+
+    private EpochDays() {
+    }
+
+    static int toPacked(long epochDay) {
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return year * 10000 + month * 100 + day;
+    }
+
+    static long fromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    static int year(int packed) {
+        return packed / 10000;
+    }
+
+    static int month(int packed) {
+        return packed / 100 % 100;
+    }
+
+    static int day(int packed) {
+        return packed % 100;
+    }
+
+    /**
+     * Adds months to a packed date, clamping the day to the end of a shorter month
+     * (31 January plus one month is 28 or 29 February)
+     */
+    static long plusMonths(int packed, int months) {
+        long monthIndex = year(packed) * 12L + month(packed) - 1 + months;
+        int year = (int) Math.floorDiv(monthIndex, 12);
+        int month = (int) Math.floorMod(monthIndex, 12) + 1;
+        return fromCivil(year, month, Math.min(day(packed), lengthOfMonth(year, month)));
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.technicalchallenge.cashflow;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money and rates as scaled longs for cashflow arithmetic
+ * Amounts are held as whole cents and rates in units of 1e-8 (0.05 is 5,000,000), so
+ * the inner loops of cashflow generation and aggregation are exact integer arithmetic
+ * with no objects created. BigDecimal is only used at the edges: to read a leg's
+ * notional and rate, to write Cashflow.paymentValue, and as the exact fallback when a
+ * calculation would overflow a long
+ */
+public final class FixedPointMoney {
+
+    public static final int CENTS_SCALE = 2;
+    public static final int RATE_SCALE = 8;
+    public static final long RATE_UNIT = 100_000_000L;
+
+    private FixedPointMoney() {
+    }
+
+    /**
+     * @param amount amount with at most two decimal places
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount has fractions of a cent or does not fit a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(CENTS_SCALE).longValueExact();
+    }
+
+    /**
+     * @param cents amount in cents
+     * @return the amount as a BigDecimal with two decimal places
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    /**
+     * Converts a rate using its shortest decimal form, so 0.0525 is exactly 5,250,000
+     * @param rate rate as a decimal
+     * @return the rate in units of 1e-8
+     * @throws ArithmeticException if the rate has more than eight decimal places
+     */
+    public static long toScaledRate(double rate) {
+        return BigDecimal.valueOf(rate).movePointRight(RATE_SCALE).longValueExact();
+    }
+
+    /**
+     * Interest on a notional for a period, notional * rate * days / basis, rounded half up to cents
+     * Exact: the product is split around the divisor so no intermediate value exceeds a long
+     * for any realistic notional, rate and period
+     * @param notionalCents notional in cents
+     * @param scaledRate rate in units of 1e-8
+     * @param days day count numerator of the period
+     * @param basis day count denominator, e.g. 360
+     * @return interest in cents
+     * @throws ArithmeticException if an intermediate value overflows; use accrueExact then
+     */
+    public static long accrue(long notionalCents, long scaledRate, long days, int basis) {
+        boolean negative = (notionalCents < 0) ^ (scaledRate < 0) ^ (days < 0);
+        long notionalDays = Math.abs(Math.multiplyExact(notionalCents, days));
+        long rate = Math.abs(scaledRate);
+        long divisor = Math.multiplyExact((long) basis, RATE_UNIT);
+
+        // (q * divisor + r) * rate / divisor = q * rate + r * rate / divisor
+        long quotient = notionalDays / divisor;
+        long remainder = notionalDays % divisor;
+        long remainderRate = Math.multiplyExact(remainder, rate);
+        long cents = Math.addExact(Math.multiplyExact(quotient, rate), remainderRate / divisor);
+        if ((remainderRate % divisor) * 2 >= divisor) {
+            cents++;
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * BigDecimal form of accrue with the same half up rounding, for values that overflow a long
+     * @param notional leg notional
+     * @param rate rate as a decimal
+     * @param days day count numerator of the period
+     * @param basis day count denominator
+     * @return interest rounded to cents
+     */
+    public static BigDecimal accrueExact(BigDecimal notional, BigDecimal rate, long days, int basis) {
+        return notional.multiply(rate).multiply(BigDecimal.valueOf(days))
+                .divide(BigDecimal.valueOf(basis), CENTS_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @param a amount in cents
+     * @param b amount in cents
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+}
@@ -0,0 +1,105 @@
+package com.technicalchallenge.cashflow;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable fixing history of one rate index
+ * Held as two parallel primitive arrays sorted by fixing date: epoch days and rates scaled
+ * by FixedPointMoney.RATE_UNIT. A lookup is a binary search for the latest fixing on or
+ * before a date, so projecting a leg costs one search per period and allocates nothing.
+ * Instances are thread-safe and can be shared
+ */
+public final class IndexFixings {
+
+    /** Returned by floorScaledRate when the index has no fixing on or before the date */
+    public static final long NO_FIXING = Long.MIN_VALUE;
+
+    private final String indexName;
+    private final long[] fixingDays;
+    private final long[] scaledRates;
+
+    private IndexFixings(String indexName, long[] fixingDays, long[] scaledRates) {
+        this.indexName = indexName;
+        this.fixingDays = fixingDays;
+        this.scaledRates = scaledRates;
+    }
+
+    /**
+     * History without fixings, for an index that has none loaded yet
+     * @param indexName index name
+     * @return the empty history
+     */
+    public static IndexFixings empty(String indexName) {
+        return new IndexFixings(indexName, new long[0], new long[0]);
+    }
+
+    /**
+     * Builds a history from fixings sorted by date
+     * @param indexName index name, e.g. LIBOR
+     * @param fixingDays fixing dates as epoch days, ascending without duplicates
+     * @param scaledRates rates scaled by FixedPointMoney.RATE_UNIT, one per fixing date
+     * @return the history; the arrays are copied
+     * @throws IllegalArgumentException if the arrays differ in length or the dates are not ascending
+     */
+    public static IndexFixings of(String indexName, long[] fixingDays, long[] scaledRates) {
+        if (fixingDays.length != scaledRates.length) {
+            throw new IllegalArgumentException("Index " + indexName + " has " + fixingDays.length
+                    + " fixing dates but " + scaledRates.length + " rates");
+        }
+        for (int i = 1; i < fixingDays.length; i++) {
+            if (fixingDays[i] <= fixingDays[i - 1]) {
+                throw new IllegalArgumentException("Fixings of index " + indexName + " must be in ascending date order");
+            }
+        }
+        return new IndexFixings(indexName, fixingDays.clone(), scaledRates.clone());
+    }
+
+    /**
+     * Latest fixing on or before a day
+     * @param epochDay day to look up, as LocalDate.toEpochDay()
+     * @return the rate scaled by FixedPointMoney.RATE_UNIT, or NO_FIXING if the first fixing is later
+     */
+    public long floorScaledRate(long epochDay) {
+        int position = Arrays.binarySearch(fixingDays, epochDay);
+        if (position >= 0) {
+            return scaledRates[position];
+        }
+        // -(insertion point) - 1; the floor is the entry just before the insertion point
+        int floor = -position - 2;
+        return floor >= 0 ? scaledRates[floor] : NO_FIXING;
+    }
+
+    /**
+     * Latest fixing on or before a date
+     * @param date date to look up
+     * @return the rate as a decimal (0.05 for 5%), or null if the first fixing is later
+     */
+    public Double floorRate(LocalDate date) {
+        long scaled = floorScaledRate(date.toEpochDay());
+        return scaled == NO_FIXING ? null : (double) scaled / FixedPointMoney.RATE_UNIT;
+    }
+
+    /**
+     * Date of the latest fixing on or before a date
+     * @param date date to look up
+     * @return the fixing date, or null if the first fixing is later
+     */
+    public LocalDate floorDate(LocalDate date) {
+        int position = Arrays.binarySearch(fixingDays, date.toEpochDay());
+        int floor = position >= 0 ? position : -position - 2;
+        return floor >= 0 ? LocalDate.ofEpochDay(fixingDays[floor]) : null;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public int size() {
+        return fixingDays.length;
+    }
+
+    public boolean isEmpty() {
+        return fixingDays.length == 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.technicalchallenge.cashflow;
+
+import com.technicalchallenge.util.BusinessDayCalendar;
+
+import java.util.Arrays;
+
+/**
+ * Accrual and payment dates of a leg's periods, without day count or amounts
+ * Depends only on start, maturity, schedule, roll convention and calendar, so CashflowEngine
+ * caches it and every CashflowSchedule over the same dates shares these arrays. The arrays
+ * are sized to the period count and never written after build
+ */
+final class PeriodDates {
+
+    final long[] accrualStart;
+    final long[] accrualEnd;
+    final long[] paymentDate;
+
+    private PeriodDates(long[] accrualStart, long[] accrualEnd, long[] paymentDate) {
+        this.accrualStart = accrualStart;
+        this.accrualEnd = accrualEnd;
+        this.paymentDate = paymentDate;
+    }
+
+    /**
+     * Builds the periods from the start date in steps of the schedule, each end date counted
+     * from the start date so month ends do not drift, with a short final period up to maturity
+     * @param start start epoch day
+     * @param maturity maturity epoch day
+     * @param monthsInterval months per period, at least one
+     * @param roll business day convention for payment dates
+     * @param calendar holiday calendar for payment dates
+     * @return the dates, empty when maturity is not after start
+     */
+    static PeriodDates build(long start, long maturity, int monthsInterval, RollConvention roll,
+                             BusinessDayCalendar calendar) {
+        int capacity = (int) Math.max((maturity - start) / (28L * monthsInterval) + 1, 1);
+        long[] starts = new long[capacity];
+        long[] ends = new long[capacity];
+        long[] payments = new long[capacity];
+        int size = 0;
+        int startPacked = EpochDays.toPacked(start);
+        long periodStart = start;
+        for (int period = 1; periodStart < maturity; period++) {
+            long periodEnd = Math.min(EpochDays.plusMonths(startPacked, period * monthsInterval), maturity);
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                payments = Arrays.copyOf(payments, size * 2);
+            }
+            starts[size] = periodStart;
+            ends[size] = periodEnd;
+            payments[size] = roll.adjust(periodEnd, calendar);
+            size++;
+            periodStart = periodEnd;
+        }
+        return new PeriodDates(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size), Arrays.copyOf(payments, size));
+    }
+
+    int size() {
+        return accrualStart.length;
+    }
+}
@@ -0,0 +1,59 @@
+package com.technicalchallenge.cashflow;
+
+import com.technicalchallenge.util.BusinessDayCalendar;
+
+import java.util.Locale;
+
+/**
+ * Business day conventions for moving a date that falls on a non-business day
+ */
+public enum RollConvention {
+    // Date is used as it is
+    NONE,
+    // Next business day
+    FOLLOWING,
+    // Next business day, unless that is in the next month, then the previous business day
+    MODIFIED_FOLLOWING,
+    // Previous business day
+    PRECEDING;
+
+    /**
+     * Rolls a day onto a business day
+     * @param epochDay day to roll, as LocalDate.toEpochDay()
+     * @param calendar business days to roll onto
+     * @return the rolled day
+     */
+    public long adjust(long epochDay, BusinessDayCalendar calendar) {
+        return switch (this) {
+            case NONE -> epochDay;
+            case FOLLOWING -> calendar.nextOrSameBusinessDay(epochDay);
+            case PRECEDING -> calendar.previousOrSameBusinessDay(epochDay);
+            case MODIFIED_FOLLOWING -> {
+                long following = calendar.nextOrSameBusinessDay(epochDay);
+                yield EpochDays.month(EpochDays.toPacked(following)) == EpochDays.month(EpochDays.toPacked(epochDay))
+                        ? following : calendar.previousOrSameBusinessDay(epochDay);
+            }
+        };
+    }
+
+    /**
+     * Looks up a convention by the name held in the business_day_convention table
+     * @param name e.g. Following or Modified Following; null or blank for no adjustment
+     * @return the convention
+     * @throws IllegalArgumentException if the name is not supported
+     */
+    public static RollConvention fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return NONE;
+        }
+        String normalised = name.trim().toUpperCase(Locale.ROOT).replaceAll("[ _-]+", "");
+        return switch (normalised) {
+            case "NONE", "UNADJUSTED" -> NONE;
+            case "FOLLOWING", "F" -> FOLLOWING;
+            case "MODIFIEDFOLLOWING", "MF", "MODFOLLOWING" -> MODIFIED_FOLLOWING;
+            case "PRECEDING", "P" -> PRECEDING;
+            default -> throw new IllegalArgumentException("Unsupported business day convention: " + name
+                    + ". Supported conventions: Following, Modified Following, Preceding");
+        };
+    }
+}
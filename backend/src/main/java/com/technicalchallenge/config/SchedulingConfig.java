@@ -0,0 +1,41 @@
+package com.technicalchallenge.config;
+
+import com.technicalchallenge.service.TradeMaturityRollJob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+
+/**
+ * Turns on scheduled tasks
+ * The trade outbox relay always runs, since the change feed and the trade journal depend on
+ * it. The end-of-day jobs are triggered from EndOfDaySchedule; set
+ * trade.scheduling.enabled=false to run them only on demand through /api/jobs
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Scheduled triggers of the end-of-day jobs
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "trade.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+    public static class EndOfDaySchedule {
+
+        @Autowired
+        private TradeMaturityRollJob tradeMaturityRollJob;
+
+        /**
+         * Scheduled end-of-day maturity roll for today's business date
+         */
+        @Scheduled(cron = "${trade.maturity-roll.cron:0 30 22 * * MON-FRI}")
+        public void runMaturityRoll() {
+            tradeMaturityRollJob.run(LocalDate.now());
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.cashflow.CashflowSchedule;
+import com.technicalchallenge.cashflow.DayCountConvention;
+import com.technicalchallenge.cashflow.RollConvention;
 import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.CashflowLadderBucketDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.service.CashflowLadderService;
 import com.technicalchallenge.service.CashflowService;
+import com.technicalchallenge.service.HolidayCalendarRegistry;
+import com.technicalchallenge.service.IndexFixingStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -25,8 +35,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,10 +49,20 @@ public class CashflowController {
     private CashflowService cashflowService;
     @Autowired
     private CashflowMapper cashflowMapper;
+    @Autowired
+    private CashflowEngine cashflowEngine;
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+    @Autowired
+    private IndexFixingStore indexFixingStore;
+    @Autowired
+    private CashflowLadderService cashflowLadderService;
 
     @GetMapping
     @Operation(summary = "Get all cashflows",
-               description = "Retrieves a list of all generated cashflows in the system with payment dates and amounts")
+               description = "Retrieves a list of all generated cashflows in the system with payment dates and amounts. " +
+                             "Loads the whole table; use /api/cashflows/search for paged, filtered queries",
+               deprecated = true)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved all cashflows",
                     content = @Content(mediaType = "application/json",
@@ -58,6 +76,86 @@ public class CashflowController {
                 .toList();
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search cashflows",
+               description = "Returns one page of cashflows in value date then id order, filtered by value-date range, " +
+                             "leg, trade, currency and pay/receive. Pass nextCursor back as cursor to get the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page returned; nextCursor is null on the last page",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = KeysetPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or date range"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> searchCashflows(
+            @Parameter(description = "First value date, inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @Parameter(description = "Last value date, inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @Parameter(description = "Only cashflows of this leg")
+            @RequestParam(required = false) Long legId,
+            @Parameter(description = "Only cashflows of this trade id, across its versions")
+            @RequestParam(required = false) Long tradeId,
+            @Parameter(description = "Only cashflows of legs in this currency")
+            @RequestParam(required = false) String currency,
+            @Parameter(description = "Pay or Receive")
+            @RequestParam(required = false) String payRec,
+            @Parameter(description = "Only active (true) or only inactive (false) cashflows")
+            @RequestParam(required = false) Boolean active,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int pageSize) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            return ResponseEntity.badRequest().body("fromDate must not be after toDate");
+        }
+        try {
+            KeysetPageDTO<Cashflow> page = cashflowService.findCashflows(fromDate, toDate, legId, tradeId, currency,
+                    payRec, active, cursor, pageSize);
+            List<CashflowDTO> content = page.getContent().stream().map(cashflowMapper::toDto).toList();
+            return ResponseEntity.ok(new KeysetPageDTO<>(content, page.getPageSize(), page.getNextCursor(),
+                    page.isLastPage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error searching cashflows", e);
+            return ResponseEntity.internalServerError().body("Unexpected error occurred while searching cashflows");
+        }
+    }
+
+    @GetMapping("/ladder")
+    @Operation(summary = "Get the cashflow ladder",
+               description = "Net payment amounts per currency and value-date bucket, with pay cashflows negative " +
+                             "and receive cashflows positive, over active cashflows of live trade versions")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ladder returned, ordered by currency then bucket",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowLadderBucketDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown bucket or from date after to date")
+    })
+    public ResponseEntity<?> getCashflowLadder(
+            @Parameter(description = "Bucket width: day, week (Monday to Sunday) or month")
+            @RequestParam(defaultValue = "day") String bucket,
+            @Parameter(description = "First value date, inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @Parameter(description = "Last value date, inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @Parameter(description = "Only trades in this book")
+            @RequestParam(required = false) String book,
+            @Parameter(description = "Only trades with this counterparty")
+            @RequestParam(required = false) String counterparty) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            return ResponseEntity.badRequest().body("fromDate must not be after toDate");
+        }
+        try {
+            CashflowLadderService.Bucket width = CashflowLadderService.Bucket.fromName(bucket);
+            logger.debug("Fetching {} cashflow ladder from {} to {}, book {}, counterparty {}", width, fromDate,
+                    toDate, book, counterparty);
+            return ResponseEntity.ok(cashflowLadderService.getLadder(width, fromDate, toDate, book, counterparty));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get cashflow by ID",
                description = "Retrieves a specific cashflow by its unique identifier")
@@ -127,58 +225,39 @@ public class CashflowController {
         @ApiResponse(responseCode = "400", description = "Invalid input data for cashflow generation"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<CashflowDTO>> generateCashflows(@RequestBody CashflowGenerationRequest request) {
+    public ResponseEntity<?> generateCashflows(@RequestBody CashflowGenerationRequest request) {
         List<CashflowDTO> allCashflows = new ArrayList<>();
         if (request.getLegs() == null || request.getLegs().isEmpty()) {
             return ResponseEntity.badRequest().body(allCashflows);
         }
-        for (CashflowGenerationRequest.TradeLegDTO leg : request.getLegs()) {
-            LocalDate startDate = request.getTradeStartDate();
-            LocalDate maturityDate = request.getTradeMaturityDate();
-            String schedule = leg.getCalculationPeriodSchedule();
-            int months = scheduleToMonths(schedule);
-            if (months <= 0) {
-                continue;
-            }
-            LocalDate valueDate = startDate;
-            while (valueDate.isBefore(maturityDate)) {
-                LocalDate nextValueDate = valueDate.plusMonths(months);
-                if (nextValueDate.isAfter(maturityDate)) {
-                    nextValueDate = maturityDate;
-                }
-                BigDecimal paymentValue = BigDecimal.ZERO;
-                if ("Fixed".equalsIgnoreCase(leg.getLegType())) {
-                    long days = java.time.temporal.ChronoUnit.DAYS.between(valueDate, nextValueDate);
-                    double rate = leg.getRate() != null ? leg.getRate() : 0.0;
-                    paymentValue = leg.getNotional().multiply(BigDecimal.valueOf(rate)).multiply(BigDecimal.valueOf(days)).divide(BigDecimal.valueOf(360), 2, BigDecimal.ROUND_HALF_UP);
+        if (request.getTradeStartDate() == null || request.getTradeMaturityDate() == null) {
+            return ResponseEntity.badRequest().body("Trade start and maturity dates are required");
+        }
+        try {
+            for (CashflowGenerationRequest.TradeLegDTO leg : request.getLegs()) {
+                // Same engine and fixings as trade booking, so previews match the booked cashflows
+                boolean fixed = "Fixed".equalsIgnoreCase(leg.getLegType());
+                CashflowSchedule schedule = cashflowEngine.generate(request.getTradeStartDate(), request.getTradeMaturityDate(),
+                        CashflowEngine.parseScheduleMonths(leg.getCalculationPeriodSchedule()),
+                        DayCountConvention.fromCode(leg.getDayCountConvention()),
+                        RollConvention.fromName(leg.getPaymentBusinessDayConvention()),
+                        holidayCalendarRegistry.getCalendar(leg.getHolidayCalendar()),
+                        leg.getNotional(), leg.getRate(), fixed, fixed ? null : indexFixingStore.getFixings(leg.getIndex()));
+                for (int period = 0; period < schedule.size(); period++) {
+                    CashflowDTO cf = new CashflowDTO();
+                    cf.setValueDate(schedule.getPaymentDate(period));
+                    cf.setPaymentValue(schedule.getAmount(period));
+                    cf.setPayRec(leg.getPayReceiveFlag());
+                    cf.setPaymentType(leg.getLegType());
+                    cf.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+                    cf.setRate(fixed ? leg.getRate() : schedule.getRate(period));
+                    allCashflows.add(cf);
                 }
-                // For floating, paymentValue remains 0
-                CashflowDTO cf = new CashflowDTO();
-                cf.setValueDate(nextValueDate);
-                cf.setPaymentValue(paymentValue);
-                cf.setPayRec(leg.getPayReceiveFlag());
-                cf.setPaymentType(leg.getLegType());
-                cf.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
-                cf.setRate(leg.getRate());
-                allCashflows.add(cf);
-                valueDate = nextValueDate;
             }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected cashflow generation request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
         return ResponseEntity.ok(allCashflows);
     }
-
-    private int scheduleToMonths(String schedule) {
-        if (schedule == null) return 0;
-        schedule = schedule.toLowerCase();
-        if (schedule.contains("month")) {
-            if (schedule.contains("3")) return 3;
-            if (schedule.contains("6")) return 6;
-            if (schedule.contains("12")) return 12;
-            return 1;
-        }
-        if (schedule.contains("quarter")) return 3;
-        if (schedule.contains("annual") || schedule.contains("year")) return 12;
-        return 0;
-    }
-
 }
@@ -1,13 +1,22 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.dto.BusinessDayResultDTO;
 import com.technicalchallenge.dto.HolidayCalendarDTO;
+import com.technicalchallenge.dto.HolidayDateDTO;
 import com.technicalchallenge.mapper.HolidayCalendarMapper;
 import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.service.HolidayCalendarRegistry;
 import com.technicalchallenge.service.HolidayCalendarService;
+import com.technicalchallenge.util.BusinessDayCalendar;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.StringReader;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -24,6 +33,9 @@ public class HolidayCalendarController {
     @Autowired
     private HolidayCalendarMapper holidayCalendarMapper;
 
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
     @GetMapping
     public List<HolidayCalendarDTO> getAll() {
         logger.info("Fetching all holiday calendars");
@@ -76,4 +88,46 @@ public class HolidayCalendarController {
                 .map(HolidayCalendar::getHolidayCalendar)
                 .toList();
     }
+
+    @GetMapping("/{id}/holidays")
+    public ResponseEntity<List<HolidayDateDTO>> getHolidays(@PathVariable Long id) {
+        logger.debug("Fetching holidays of holiday calendar id: {}", id);
+        return holidayCalendarService.findById(id)
+                .map(calendar -> ResponseEntity.ok(holidayCalendarService.findHolidays(calendar).stream()
+                        .map(holiday -> new HolidayDateDTO(calendar.getHolidayCalendar(),
+                                holiday.getHolidayDate(), holiday.getDescription()))
+                        .toList()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Body is a CSV holiday file, one calendar,date[,description] per line
+    @PostMapping(value = "/holidays/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> importHolidays(@RequestBody String csv) {
+        logger.info("Importing holiday file of {} characters", csv.length());
+        try {
+            return ResponseEntity.ok(holidayCalendarService.importHolidays(new StringReader(csv)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected holiday file: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing holiday file: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Unexpected error occurred while importing holidays");
+        }
+    }
+
+    // e.g. /businessDays?calendars=NY,LON&date=2025-12-24&add=2
+    @GetMapping("/businessDays")
+    public ResponseEntity<?> getBusinessDay(
+            @RequestParam(required = false) String calendars,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "0") int add) {
+        try {
+            BusinessDayCalendar calendar = holidayCalendarRegistry.getCalendar(calendars);
+            return ResponseEntity.ok(new BusinessDayResultDTO(calendar.getName(), date,
+                    calendar.isBusinessDay(date), add, calendar.addBusinessDays(date, add)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
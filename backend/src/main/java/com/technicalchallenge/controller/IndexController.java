@@ -1,13 +1,23 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.cashflow.FixedPointMoney;
+import com.technicalchallenge.cashflow.IndexFixings;
 import com.technicalchallenge.dto.IndexDTO;
+import com.technicalchallenge.dto.IndexFixingDTO;
 import com.technicalchallenge.mapper.IndexMapper;
 import com.technicalchallenge.model.Index;
+import com.technicalchallenge.service.IndexFixingStore;
 import com.technicalchallenge.service.IndexService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -24,6 +34,9 @@ public class IndexController {
     @Autowired
     private IndexMapper indexMapper;
 
+    @Autowired
+    private IndexFixingStore indexFixingStore;
+
     @GetMapping
     public List<IndexDTO> getAll() {
         logger.info("Fetching all indexes");
@@ -76,4 +89,47 @@ public class IndexController {
                 .map(Index::getIndex)
                 .toList();
     }
+
+    @GetMapping("/{id}/fixings")
+    public ResponseEntity<List<IndexFixingDTO>> getFixings(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.debug("Fetching fixings of index {} from {} to {}", id, from, to);
+        return indexService.findById(id)
+                .map(index -> indexService.findFixings(index, from, to).stream()
+                        .map(fixing -> new IndexFixingDTO(index.getIndex(), fixing.getFixingDate(), fixing.getRate()))
+                        .toList())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Rate a floating period starting on the date is projected at: the latest fixing on or before it
+    @GetMapping("/fixings/rate")
+    public ResponseEntity<IndexFixingDTO> getFixingRate(
+            @RequestParam String index,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        IndexFixings fixings = indexFixingStore.getFixings(index);
+        long scaledRate = fixings.floorScaledRate(date.toEpochDay());
+        if (scaledRate == IndexFixings.NO_FIXING) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new IndexFixingDTO(fixings.getIndexName(), fixings.floorDate(date),
+                BigDecimal.valueOf(scaledRate, FixedPointMoney.RATE_SCALE).stripTrailingZeros()));
+    }
+
+    @PostMapping(value = "/fixings/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> importFixings(@RequestBody String csv) {
+        logger.info("Importing fixings file of {} characters", csv.length());
+        try {
+            return ResponseEntity.ok(indexService.importFixings(new StringReader(csv)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected fixings file: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing fixings file: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Unexpected error occurred while importing fixings");
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.CashflowRegenerationStatusDTO;
+import com.technicalchallenge.dto.JobStatusDTO;
+import com.technicalchallenge.service.CashflowRegenerationJob;
+import com.technicalchallenge.service.TradeMaturityRollJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Jobs", description = "End-of-day batch jobs")
+public class JobController {
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    @Autowired
+    private TradeMaturityRollJob tradeMaturityRollJob;
+
+    @Autowired
+    private CashflowRegenerationJob cashflowRegenerationJob;
+
+    @PostMapping("/maturity-roll")
+    @Operation(summary = "Run the maturity roll",
+               description = "Starts the job that moves active trades past their maturity date from LIVE to DEAD. " +
+                             "A failed run for the same business date resumes from its last checkpoint")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Job started",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = JobStatusDTO.class))),
+        @ApiResponse(responseCode = "409", description = "Job is already running")
+    })
+    public ResponseEntity<?> runMaturityRoll(
+            @Parameter(description = "Business date, defaults to today. Trades maturing before it are rolled")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        LocalDate date = businessDate != null ? businessDate : LocalDate.now();
+        logger.info("Maturity roll requested for {}", date);
+        if (!tradeMaturityRollJob.start(date)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Maturity roll is already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tradeMaturityRollJob.getStatus());
+    }
+
+    @GetMapping("/maturity-roll")
+    @Operation(summary = "Get maturity roll status",
+               description = "Returns the checkpoint, progress and throughput of the latest maturity roll run")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job status returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = JobStatusDTO.class)))
+    })
+    public ResponseEntity<JobStatusDTO> getMaturityRollStatus() {
+        return ResponseEntity.ok(tradeMaturityRollJob.getStatus());
+    }
+
+    @PostMapping("/cashflow-regeneration")
+    @Operation(summary = "Regenerate cashflows after a reference data change",
+               description = "Starts the job that regenerates the cashflows of every active leg using the changed " +
+                             "holiday calendar, index, schedule or business day convention, in parallel chunks")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Job started",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowRegenerationStatusDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown reference type"),
+        @ApiResponse(responseCode = "409", description = "Job is already running")
+    })
+    public ResponseEntity<?> runCashflowRegeneration(
+            @Parameter(description = "HOLIDAY_CALENDAR, INDEX, SCHEDULE or BUSINESS_DAY_CONVENTION", required = true)
+            @RequestParam String referenceType,
+            @Parameter(description = "Id of the changed holiday calendar, index, schedule or convention", required = true)
+            @RequestParam Long referenceId) {
+        CashflowRegenerationJob.ReferenceType type;
+        try {
+            type = CashflowRegenerationJob.ReferenceType.fromName(referenceType);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.info("Cashflow regeneration requested for {} {}", type, referenceId);
+        if (!cashflowRegenerationJob.start(type, referenceId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Cashflow regeneration is already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cashflowRegenerationJob.getStatus());
+    }
+
+    @GetMapping("/cashflow-regeneration")
+    @Operation(summary = "Get cashflow regeneration status",
+               description = "Returns the progress and per-chunk timings of the latest cashflow regeneration run")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job status returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowRegenerationStatusDTO.class)))
+    })
+    public ResponseEntity<CashflowRegenerationStatusDTO> getCashflowRegenerationStatus() {
+        return ResponseEntity.ok(cashflowRegenerationJob.getStatus());
+    }
+}
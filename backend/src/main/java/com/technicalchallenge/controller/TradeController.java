@@ -1,18 +1,37 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.dto.BlotterRowsRequestDTO;
+import com.technicalchallenge.dto.BlotterRowsResponseDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeBulkActionProgressDTO;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeConcurrencyException;
 import com.technicalchallenge.mapper.TradeMapper;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeBatchService;
+import com.technicalchallenge.service.TradeBlotterService;
+import com.technicalchallenge.service.TradeBookingPipeline;
+import com.technicalchallenge.service.TradeBulkActionService;
 import com.technicalchallenge.service.TradeService;
 import com.technicalchallenge.validation.TradeValidator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,12 +42,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +69,16 @@ public class TradeController {
     private TradeService tradeService;
     @Autowired
     private TradeMapper tradeMapper;
+    @Autowired
+    private TradeBatchService tradeBatchService;
+    @Autowired
+    private TradeBookingPipeline tradeBookingPipeline;
+    @Autowired
+    private TradeBulkActionService tradeBulkActionService;
+    @Autowired
+    private TradeBlotterService tradeBlotterService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Get all trades",
@@ -75,9 +110,9 @@ public class TradeController {
             @Parameter(description = "Unique identifier of the trade", required = true)
             @PathVariable(name = "id") Long id) {
         logger.debug("Fetching trade by id: {}", id);
+        // ETag carries the version the client read, to be sent back as If-Match on update
         return tradeService.getTradeById(id)
-                .map(tradeMapper::toDto)
-                .map(ResponseEntity::ok)
+                .map(trade -> ResponseEntity.ok().eTag(eTagOf(trade)).body(tradeMapper.toDto(trade)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -109,17 +144,9 @@ public class TradeController {
 
         try {
             // Date input validations
-            if (tradeStartDate == null && tradeMaturityDate == null) {
-                return ResponseEntity.badRequest().body("Please provide at least one date (start or maturity) to filter trades");
-            }
-            if (tradeStartDate != null && tradeMaturityDate != null && tradeStartDate.isAfter(tradeMaturityDate)) {
-                return ResponseEntity.badRequest().body("Start date cannot be after maturity date");
-            }
-            if (tradeStartDate != null && tradeDate != null && tradeStartDate.isBefore(tradeDate)) {
-                return ResponseEntity.badRequest().body("Start date cannot be before trade date");
-            }
-            if (tradeMaturityDate != null && tradeDate != null && tradeMaturityDate.isBefore(tradeDate)) {
-                return ResponseEntity.badRequest().body("Maturity date cannot be before trade date");
+            String dateError = searchDateError(tradeDate, tradeStartDate, tradeMaturityDate);
+            if (dateError != null) {
+                return ResponseEntity.badRequest().body(dateError);
             }
 
             // Fetches filtered and paginated results
@@ -154,6 +181,142 @@ public class TradeController {
         }
     }
 
+    @GetMapping("/search/keyset")
+    @Operation(summary = "Get trades by counterparty, book, trader, status or date ranges, paged by cursor",
+                description = "Cursor mode of /search: each page seeks past the last row of the previous one on the sort " +
+                              "attribute and trade row id, so deep pages cost the same as the first. Pass nextCursor back " +
+                              "with the same filters and sort to get the next page; the total is only counted on request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200",
+                    description = "Successfully retrieved one page of trades, possibly empty",
+                    content = @Content(mediaType = "application/json",
+                                schema = @Schema(implementation = KeysetPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, sort attribute, page size or date validation failure"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradesByCriteriaAfterCursor(
+            @RequestParam(required = false) String counterpartyName,
+            @RequestParam(required = false) String bookName,
+            @RequestParam(required = false) Long traderUserId,
+            @RequestParam(required = false) String tradeStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeStartDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeMaturityDate,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "tradeDate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Also count all matching trades into totalItems")
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        logger.info("Fetching trades with dynamic multi-criteria search after cursor");
+
+        try {
+            String dateError = searchDateError(tradeDate, tradeStartDate, tradeMaturityDate);
+            if (dateError != null) {
+                return ResponseEntity.badRequest().body(dateError);
+            }
+
+            KeysetPageDTO<Trade> page = tradeService.getTradesWithFiltersAfterCursor(counterpartyName, bookName,
+                traderUserId, tradeStatus, tradeDate, tradeStartDate, tradeMaturityDate, cursor, pageSize,
+                sortBy, sortDir, includeTotal);
+            return ResponseEntity.ok(toDtoPage(page));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid keyset search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error fetching trades using multi-criteria search after cursor", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while fetching trades");
+        }
+    }
+
+    @GetMapping("/blotter")
+    @Operation(summary = "Get the trade blotter",
+                description = "Retrieves a paginated and sortable list of flat blotter rows (ids, book, counterparty, trader, status, " +
+                              "key dates and leg notionals) using the same filters as the trade search. Rows are read with a " +
+                              "single projection query, without loading legs or cashflows")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200",
+                    description = "Successfully retrieved blotter rows, possibly none",
+                    content = @Content(mediaType = "application/json",
+                                schema = @Schema(implementation = TradeBlotterRow.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid sort column or date validation failure"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradeBlotter(
+            @RequestParam(required = false) String counterpartyName,
+            @RequestParam(required = false) String bookName,
+            @RequestParam(required = false) Long traderUserId,
+            @RequestParam(required = false) String tradeStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeStartDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeMaturityDate,
+            @RequestParam(defaultValue = "0") int pageNumber,
+            @RequestParam(defaultValue = "50") int pageSize,
+            @RequestParam(defaultValue = "tradeDate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        logger.info("Fetching trade blotter page {}", pageNumber);
+
+        try {
+            if (tradeStartDate != null && tradeMaturityDate != null && tradeStartDate.isAfter(tradeMaturityDate)) {
+                return ResponseEntity.badRequest().body("Start date cannot be after maturity date");
+            }
+
+            Page<TradeBlotterRow> rows = tradeBlotterService.getBlotter(counterpartyName, bookName, traderUserId,
+                tradeStatus, tradeDate, tradeStartDate, tradeMaturityDate, pageNumber, pageSize, sortBy, sortDir);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", rows.getContent());
+            response.put("currentPage", rows.getNumber());
+            response.put("totalItems", rows.getTotalElements());
+            response.put("totalPages", rows.getTotalPages());
+            response.put("pageSize", rows.getSize());
+            response.put("isLastPage", rows.isLast());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid blotter request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid blotter request: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error fetching trade blotter", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while fetching the trade blotter");
+        }
+    }
+
+    @PostMapping("/blotter/rows")
+    @Operation(summary = "Get a block of trade blotter rows for the AG Grid server-side row model",
+                description = "Takes the grid's block request (start and end row, sort model, filter model, row group " +
+                              "columns and the keys of the expanded groups) and returns the rows for params.success. " +
+                              "Grouping by book, counterparty or status returns group rows with the trade count and " +
+                              "total leg notional; filtering, grouping and sorting run in the database")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the block, possibly empty",
+                    content = @Content(mediaType = "application/json",
+                                schema = @Schema(implementation = BlotterRowsResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid block bounds, or unsupported group, sort or filter column"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradeBlotterRows(@RequestBody BlotterRowsRequestDTO request) {
+        logger.debug("Fetching trade blotter rows {} to {}", request.getStartRow(), request.getEndRow());
+
+        try {
+            return ResponseEntity.ok(tradeBlotterService.getServerSideRows(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid blotter rows request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid blotter rows request: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error fetching trade blotter rows", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while fetching the trade blotter");
+        }
+    }
+
     @GetMapping("/rsql")
     public ResponseEntity<?> getTradesByRsql(
             @RequestParam String query,
@@ -190,6 +353,66 @@ public class TradeController {
     }
 }
 
+    @GetMapping("/rsql/keyset")
+    @Operation(summary = "Get trades by RSQL query, paged by cursor",
+                description = "Cursor mode of /rsql, paged like /search/keyset")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200",
+                    description = "Successfully retrieved one page of trades, possibly empty",
+                    content = @Content(mediaType = "application/json",
+                                schema = @Schema(implementation = KeysetPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid RSQL query, cursor, sort attribute or page size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradesByRsqlAfterCursor(
+            @RequestParam String query,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "tradeDate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Also count all matching trades into totalItems")
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        logger.info("Executing RSQL query after cursor: {}", query);
+
+        try {
+            KeysetPageDTO<Trade> page = tradeService.getTradesByRsqlAfterCursor(query, cursor, pageSize, sortBy,
+                sortDir, includeTotal);
+            return ResponseEntity.ok(toDtoPage(page));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid RSQL keyset request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid RSQL keyset request: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error executing RSQL query after cursor", e);
+            return ResponseEntity.internalServerError()
+                .body("Unexpected error occurred while processing RSQL query");
+        }
+    }
+
+    private KeysetPageDTO<TradeDTO> toDtoPage(KeysetPageDTO<Trade> page) {
+        List<TradeDTO> content = page.getContent().stream().map(tradeMapper::toDto).toList();
+        return new KeysetPageDTO<>(content, page.getPageSize(), page.getNextCursor(), page.isLastPage(),
+                page.getTotalItems());
+    }
+
+    // Date rules of the multi-criteria search; returns the message of the first one broken, or null
+    private static String searchDateError(LocalDate tradeDate, LocalDate tradeStartDate, LocalDate tradeMaturityDate) {
+        if (tradeStartDate == null && tradeMaturityDate == null) {
+            return "Please provide at least one date (start or maturity) to filter trades";
+        }
+        if (tradeStartDate != null && tradeMaturityDate != null && tradeStartDate.isAfter(tradeMaturityDate)) {
+            return "Start date cannot be after maturity date";
+        }
+        if (tradeStartDate != null && tradeDate != null && tradeStartDate.isBefore(tradeDate)) {
+            return "Start date cannot be before trade date";
+        }
+        if (tradeMaturityDate != null && tradeDate != null && tradeMaturityDate.isBefore(tradeDate)) {
+            return "Maturity date cannot be before trade date";
+        }
+        return null;
+    }
+
     @PostMapping
     @Operation(summary = "Create new trade",
                description = "Creates a new trade with the provided details. Automatically generates cashflows and validates business rules.")
@@ -197,12 +420,26 @@ public class TradeController {
         @ApiResponse(responseCode = "201", description = "Trade created successfully",
                     content = @Content(mediaType = "application/json",
                                      schema = @Schema(implementation = TradeDTO.class))),
+        @ApiResponse(responseCode = "202", description = "Trade accepted for asynchronous booking (mode=async)",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBookingStatusDTO.class))),
         @ApiResponse(responseCode = "400", description = "Invalid trade data or business rule violation"),
+        @ApiResponse(responseCode = "503", description = "Asynchronous booking pipeline is at capacity"),
         @ApiResponse(responseCode = "500", description = "Internal server error during trade creation")
     })
     public ResponseEntity<?> createTrade(
             @Parameter(description = "Trade details for creation", required = true)
-            @Valid @RequestBody TradeDTO tradeDTO) {
+            @Valid @RequestBody TradeDTO tradeDTO,
+            @Parameter(description = "Booking mode: sync (default) books the trade before responding, async queues it and returns a tracking ID")
+            @RequestParam(defaultValue = "sync") String mode,
+            @Parameter(description = "Client key identifying this submission; a retry with the same key returns the original trade. Defaults to the UTI")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null && tradeDTO.getIdempotencyKey() == null) {
+            tradeDTO.setIdempotencyKey(idempotencyKey);
+        }
+        if ("async".equalsIgnoreCase(mode)) {
+            return submitTradeForAsyncBooking(tradeDTO);
+        }
         logger.info("Creating new trade: {}", tradeDTO);
         try {
             Trade trade = tradeMapper.toEntity(tradeDTO);
@@ -211,12 +448,145 @@ public class TradeController {
             TradeDTO responseDTO = tradeMapper.toDto(savedTrade);
             return ResponseEntity.status(HttpStatus.OK).body(responseDTO);
 
+        } catch (DataIntegrityViolationException e) {
+            // The same submission was booked concurrently, so return that booking instead
+            Optional<Trade> original = tradeService.findOriginalBooking(tradeDTO);
+            if (original.isPresent()) {
+                logger.info("Duplicate submission booked concurrently, returning trade {}", original.get().getTradeId());
+                return ResponseEntity.ok(tradeMapper.toDto(original.get()));
+            }
+            logger.error("Error creating trade: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body("Error creating trade: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error creating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error creating trade: " + e.getMessage());
         }
     }
 
+    private ResponseEntity<?> submitTradeForAsyncBooking(TradeDTO tradeDTO) {
+        logger.info("Queueing trade for asynchronous booking: {}", tradeDTO);
+        try {
+            TradeBookingStatusDTO status = tradeBookingPipeline.submit(tradeDTO);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/trades/bookings/" + status.getTrackingId()))
+                .body(status);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Asynchronous booking rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error queueing trade: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while queueing trade");
+        }
+    }
+
+    @GetMapping("/bookings/{trackingId}")
+    @Operation(summary = "Get asynchronous booking status",
+               description = "Returns the progress of a trade submitted with mode=async, including the trade ID once assigned and any errors")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Booking status returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBookingStatusDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID")
+    })
+    public ResponseEntity<TradeBookingStatusDTO> getBookingStatus(
+            @Parameter(description = "Tracking ID returned when the trade was submitted", required = true)
+            @PathVariable String trackingId) {
+        logger.debug("Fetching booking status for tracking id: {}", trackingId);
+        return tradeBookingPipeline.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Book trades in bulk",
+               description = "Books a list of trades in chunked transactions with batched inserts. Each trade is validated and booked independently and the response reports success or failure per trade.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-trade results",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBatchResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty batch"),
+        @ApiResponse(responseCode = "500", description = "Internal server error during batch booking")
+    })
+    public ResponseEntity<?> createTradesInBatch(
+            @Parameter(description = "Trades to book", required = true)
+            @RequestBody List<TradeDTO> tradeDTOs) {
+        if (tradeDTOs == null || tradeDTOs.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one trade is required");
+        }
+        logger.info("Booking batch of {} trades", tradeDTOs.size());
+        try {
+            List<TradeBatchResultDTO> results = tradeBatchService.bookTrades(tradeDTOs);
+            long succeeded = results.stream().filter(TradeBatchResultDTO::isSuccess).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("totalSubmitted", results.size());
+            response.put("succeeded", succeeded);
+            response.put("failed", results.size() - succeeded);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error booking trade batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while booking trade batch");
+        }
+    }
+
+    @PostMapping(value = "/bulk/{action}", produces = "application/x-ndjson")
+    @Operation(summary = "Cancel or terminate trades in bulk",
+               description = "Cancels or terminates every active trade matching the search filters and/or an RSQL query. " +
+                             "Trades are updated in chunks and one JSON progress line is streamed back per chunk, " +
+                             "followed by a final COMPLETED or FAILED line")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk action started, progress is streamed as newline delimited JSON",
+                    content = @Content(mediaType = "application/x-ndjson",
+                                     schema = @Schema(implementation = TradeBulkActionProgressDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown action or no filter given")
+    })
+    public ResponseEntity<?> bulkLifecycleAction(
+            @Parameter(description = "Action to apply: cancel or terminate", required = true)
+            @PathVariable String action,
+            @RequestParam(required = false) String counterpartyName,
+            @RequestParam(required = false) String bookName,
+            @RequestParam(required = false) Long traderUserId,
+            @RequestParam(required = false) String tradeStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeStartDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate tradeMaturityDate,
+            @Parameter(description = "RSQL query, combined with the other filters if both are given")
+            @RequestParam(required = false) String query,
+            @Parameter(description = "User requesting the action, recorded in the trade audit")
+            @RequestParam(required = false) String requestedBy) {
+        logger.info("Bulk {} requested by {}", action, requestedBy);
+
+        if (!tradeBulkActionService.isSupportedAction(action)) {
+            return ResponseEntity.badRequest().body("Unsupported bulk action: " + action);
+        }
+        // Never cancel or terminate the whole trade population by accident
+        boolean hasFilter = counterpartyName != null || bookName != null || traderUserId != null
+                || tradeStatus != null || tradeDate != null || tradeStartDate != null
+                || tradeMaturityDate != null || (query != null && !query.isBlank());
+        if (!hasFilter) {
+            return ResponseEntity.badRequest().body("Please provide at least one filter or an RSQL query");
+        }
+
+        Specification<Trade> filter;
+        try {
+            filter = tradeBulkActionService.buildFilter(counterpartyName, bookName, traderUserId,
+                    tradeStatus, tradeDate, tradeStartDate, tradeMaturityDate, query);
+        } catch (RuntimeException e) {
+            logger.error("Invalid bulk {} filter: {}", action, e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid filter: " + e.getMessage());
+        }
+        StreamingResponseBody body = out -> tradeBulkActionService.run(action, filter, requestedBy,
+                progress -> writeJsonLine(out, progress));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update existing trade",
                description = "Updates an existing trade with new information. Subject to business rule validation and user privileges.")
@@ -226,11 +596,15 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Invalid trade data or business rule violation"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade"),
+        @ApiResponse(responseCode = "409", description = "Trade was amended concurrently by another user"),
+        @ApiResponse(responseCode = "412", description = "Trade no longer matches the If-Match version")
     })
     public ResponseEntity<?> updateTrade(
             @Parameter(description = "Unique identifier of the trade to update", required = true)
             @PathVariable Long id,
+            @Parameter(description = "ETag of the trade version being amended, as returned by GET /api/trades/{id}")
+            @RequestHeader(name = "If-Match", required = false) String ifMatch,
             @Parameter(description = "Updated trade details", required = true)
             @Valid @RequestBody TradeDTO tradeDTO) {
         logger.info("Updating trade with id: {}", id);
@@ -240,11 +614,27 @@ public class TradeController {
             }
 
             tradeDTO.setTradeId(id); // Ensure the ID matches
-            Trade amendedTrade = tradeService.amendTrade(id, tradeDTO);
+            Trade amendedTrade;
+            if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+                amendedTrade = tradeService.amendTrade(id, tradeDTO);
+            } else {
+                long[] expected = parseETag(ifMatch);
+                if (expected == null) {
+                    return ResponseEntity.badRequest().body("Invalid If-Match header: " + ifMatch);
+                }
+                amendedTrade = tradeService.amendTrade(id, tradeDTO, (int) expected[0], expected[1]);
+            }
             TradeDTO responseDTO = tradeMapper.toDto(amendedTrade);
 
-            return ResponseEntity.ok(responseDTO);
+            return ResponseEntity.ok().eTag(eTagOf(amendedTrade)).body(responseDTO);
 
+        } catch (TradeConcurrencyException e) {
+            logger.warn("Rejected stale update of trade {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of trade {} lost the race", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Trade " + id + " was modified by another user, reload it and retry");
         } catch (Exception e) {
             logger.error("Error updating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error updating trade: " + e.getMessage());
@@ -283,7 +673,8 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Trade cannot be terminated in current status"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to terminate trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to terminate trade"),
+        @ApiResponse(responseCode = "409", description = "Trade was amended concurrently by another user")
     })
     public ResponseEntity<?> terminateTrade(
             @Parameter(description = "Unique identifier of the trade to terminate", required = true)
@@ -293,6 +684,10 @@ public class TradeController {
             Trade terminatedTrade = tradeService.terminateTrade(id);
             TradeDTO responseDTO = tradeMapper.toDto(terminatedTrade);
             return ResponseEntity.ok(responseDTO);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of trade {} lost the race", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Trade " + id + " was modified by another user, reload it and retry");
         } catch (Exception e) {
             logger.error("Error terminating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error terminating trade: " + e.getMessage());
@@ -308,7 +703,8 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Trade cannot be cancelled in current status"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to cancel trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to cancel trade"),
+        @ApiResponse(responseCode = "409", description = "Trade was amended concurrently by another user")
     })
     public ResponseEntity<?> cancelTrade(
             @Parameter(description = "Unique identifier of the trade to cancel", required = true)
@@ -318,9 +714,47 @@ public class TradeController {
             Trade cancelledTrade = tradeService.cancelTrade(id);
             TradeDTO responseDTO = tradeMapper.toDto(cancelledTrade);
             return ResponseEntity.ok(responseDTO);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of trade {} lost the race", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Trade " + id + " was modified by another user, reload it and retry");
         } catch (Exception e) {
             logger.error("Error cancelling trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error cancelling trade: " + e.getMessage());
         }
     }
+
+    private void writeJsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Strong ETag of the form "<business version>.<row version>"
+    private static String eTagOf(Trade trade) {
+        long rowVersion = trade.getRowVersion() != null ? trade.getRowVersion() : 0L;
+        return "\"" + trade.getVersion() + "." + rowVersion + "\"";
+    }
+
+    // Returns {version, rowVersion} from an If-Match value, or null if it is not one of our ETags
+    private static long[] parseETag(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        String[] parts = value.split("\\.");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeJournalReadModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/trades/{tradeId}/history")
+@Tag(name = "Trade History", description = "Trade lifecycle history served from the trade event journal")
+public class TradeHistoryController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeHistoryController.class);
+
+    @Autowired
+    private TradeJournalReadModel tradeJournalReadModel;
+
+    @GetMapping
+    @Operation(summary = "Get trade history",
+               description = "Returns every create, amend, cancel, terminate and maturity event of a trade, oldest first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trade events returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeEvent.class))),
+        @ApiResponse(responseCode = "404", description = "No events journalled for the trade"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradeHistory(
+            @Parameter(description = "Business trade ID", required = true)
+            @PathVariable Long tradeId) {
+        logger.debug("Fetching journalled history of trade {}", tradeId);
+        try {
+            List<TradeEvent> history = tradeJournalReadModel.getHistory(tradeId);
+            if (history.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            logger.error("Error reading history of trade {}: {}", tradeId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while reading trade history");
+        }
+    }
+
+    @GetMapping("/state")
+    @Operation(summary = "Get trade state at a point in time",
+               description = "Rebuilds the trade as it was at the given time from the journal. Without a time, " +
+                             "returns the latest state from the in-memory read model")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trade state returned",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Trade did not exist at that time"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTradeState(
+            @Parameter(description = "Business trade ID", required = true)
+            @PathVariable Long tradeId,
+            @Parameter(description = "Point in time, e.g. 2025-01-17T10:15:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Fetching journalled state of trade {} as of {}", tradeId, asOf);
+        try {
+            Optional<TradeDTO> state = asOf != null
+                    ? tradeJournalReadModel.getAsOf(tradeId, asOf)
+                    : tradeJournalReadModel.getCurrent(tradeId);
+            return state.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            logger.error("Error rebuilding state of trade {}: {}", tradeId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Unexpected error occurred while rebuilding trade state");
+        }
+    }
+}
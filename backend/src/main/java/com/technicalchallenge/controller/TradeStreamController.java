@@ -0,0 +1,49 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.TradeChangeEventDTO;
+import com.technicalchallenge.service.TradeChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/trades")
+@Tag(name = "Trade Stream", description = "Live feed of trade changes as server-sent events")
+public class TradeStreamController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeStreamController.class);
+
+    @Autowired
+    private TradeChangeFeed tradeChangeFeed;
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream trade changes",
+               description = "Sends a trade-change event for every created, amended, cancelled, terminated or matured " +
+                             "trade. Several changes of one trade within the relay window arrive as one event for the " +
+                             "latest change. Reconnecting with Last-Event-ID resumes after that event without gaps")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Change feed opened",
+                    content = @Content(mediaType = "text/event-stream",
+                                     schema = @Schema(implementation = TradeChangeEventDTO.class)))
+    })
+    public SseEmitter streamTradeChanges(
+            @Parameter(description = "Offset of the last event received, sent by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @Parameter(description = "Offset to resume after, for clients that cannot set headers")
+            @RequestParam(required = false) Long lastEventId) {
+        Long resumeAfter = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        logger.info("Opening trade change feed after offset {}", resumeAfter);
+        return tradeChangeFeed.subscribe(resumeAfter);
+    }
+}
@@ -0,0 +1,20 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Column of an AG Grid server-side row request (ColumnVO)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlotterColumnDTO {
+    private String id;
+    private String displayName;
+    private String field;
+    private String aggFunc;
+}
@@ -0,0 +1,38 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * AG Grid column filter model: a text, number, date or set filter, or several conditions
+ * of one of them joined by operator
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlotterFilterDTO {
+    // text, number, date or set
+    private String filterType;
+    // Condition, e.g. contains, equals, lessThan, inRange, blank
+    private String type;
+
+    // Text or number operand, and the upper bound of a number inRange
+    private String filter;
+    private String filterTo;
+
+    // Date operands as sent by the grid, "yyyy-MM-dd" optionally followed by a time
+    private String dateFrom;
+    private String dateTo;
+
+    // Set filter values
+    private List<String> values;
+
+    // Combined filter: AND or OR over conditions
+    private String operator;
+    private List<BlotterFilterDTO> conditions;
+}
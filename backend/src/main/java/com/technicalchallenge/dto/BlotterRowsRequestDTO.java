@@ -0,0 +1,33 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Block request of the AG Grid server-side row model (IServerSideGetRowsRequest)
+ * Columns are named by their TradeBlotterRow field. While groupKeys is shorter than rowGroupCols
+ * the block holds group rows of the next grouped column, otherwise trade rows inside the groups
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlotterRowsRequestDTO {
+    // First row of the block, and the row after its last
+    private int startRow;
+    private int endRow;
+
+    private List<BlotterColumnDTO> rowGroupCols = new ArrayList<>();
+    // Keys of the expanded groups above this block, one per grouped column
+    private List<String> groupKeys = new ArrayList<>();
+    private List<BlotterSortDTO> sortModel = new ArrayList<>();
+    // Column filter by column id
+    private Map<String, BlotterFilterDTO> filterModel = new HashMap<>();
+}
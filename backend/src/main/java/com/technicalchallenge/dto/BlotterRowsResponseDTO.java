@@ -0,0 +1,24 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Rows of one AG Grid server-side block, passed to params.success
+ * rowData holds TradeBlotterRow records, or group rows with the group column, childCount,
+ * notional (sum of the active leg notionals in the group, null when they are in more than one
+ * currency) and notionalCurrency. rowCount is only set once the block reaches the last row,
+ * so the grid keeps requesting blocks until then
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlotterRowsResponseDTO {
+    private List<Object> rowData;
+    private Integer rowCount;
+}
@@ -0,0 +1,24 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Answer to a business-day query against one or more holiday calendars
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessDayResultDTO {
+    // Calendar used, e.g. NY+LON
+    private String holidayCalendar;
+    private LocalDate date;
+    private boolean businessDay;
+    private int businessDaysAdded;
+    private LocalDate result;
+}
@@ -20,5 +20,7 @@ public class CashflowGenerationRequest {
         private String calculationPeriodSchedule; // e.g. "Monthly", "Quarterly", "Annually"
         private String paymentBusinessDayConvention;
         private String payReceiveFlag; // "Pay" or "Rec"
+        private String holidayCalendar; // e.g. "NY", or "NY+LON" for both centres
+        private String dayCountConvention; // "ACT/360" (default), "ACT/365F" or "30/360"
     }
 }
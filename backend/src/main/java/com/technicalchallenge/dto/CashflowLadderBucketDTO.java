@@ -0,0 +1,30 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Payments of one currency falling in one value-date bucket of the cashflow ladder
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashflowLadderBucketDTO {
+    private String currency;
+
+    // First and last value date of the bucket, both inclusive
+    private LocalDate bucketStart;
+    private LocalDate bucketEnd;
+
+    // Gross amounts are positive; net is receive minus pay
+    private BigDecimal payAmount;
+    private BigDecimal receiveAmount;
+    private BigDecimal netAmount;
+    private long cashflowCount;
+}
@@ -0,0 +1,27 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Timing of one chunk of a cashflow regeneration run
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashflowRegenerationChunkDTO {
+    private int chunk;
+    private Long firstLegId;
+    private Long lastLegId;
+    private int legs;
+    private int cashflowsDeactivated;
+    private int cashflowsWritten;
+    private long durationMillis;
+    private String thread;
+
+    // Populated only when the chunk failed and was rolled back
+    private String error;
+}
@@ -0,0 +1,46 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of the latest cashflow regeneration run
+ * Status is RUNNING while chunks are processed, then COMPLETED, or FAILED if any chunk failed
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashflowRegenerationStatusDTO {
+    private String runId;
+
+    // HOLIDAY_CALENDAR, INDEX, SCHEDULE or BUSINESS_DAY_CONVENTION, and the id of the changed row
+    private String referenceType;
+    private Long referenceId;
+
+    // RUNNING, COMPLETED, FAILED, or NOT_RUN if there has been no run
+    private String status;
+
+    // Running totals across the chunks finished so far
+    private int legsFound;
+    private long legsRegenerated;
+    private long legsSkipped;
+    private long cashflowsDeactivated;
+    private long cashflowsWritten;
+    private int chunkCount;
+    private int chunksCompleted;
+    private int chunksFailed;
+    private double legsPerSecond;
+
+    private String error;
+    private LocalDateTime startedTime;
+    private LocalDateTime updatedTime;
+
+    // Finished chunks in chunk order
+    private List<CashflowRegenerationChunkDTO> chunks;
+}
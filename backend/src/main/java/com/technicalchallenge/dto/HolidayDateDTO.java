@@ -0,0 +1,18 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolidayDateDTO {
+    private String holidayCalendar;
+    private LocalDate holidayDate;
+    private String description;
+}
@@ -0,0 +1,24 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of a holiday file import
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolidayImportResultDTO {
+    // Calendars that received at least one new holiday, including newly created calendars
+    private List<String> holidayCalendars;
+    private int imported;
+
+    // Holidays already present in their calendar
+    private int duplicates;
+}
@@ -0,0 +1,27 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of a fixings file import
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexFixingImportResultDTO {
+    // Indexes that received a new or corrected fixing, including newly created indexes
+    private List<String> indices;
+    private int imported;
+
+    // Existing fixings whose rate was replaced by the file
+    private int updated;
+
+    // Fixings already present with the same rate
+    private int unchanged;
+}
@@ -0,0 +1,30 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * State of a batch job's latest run
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatusDTO {
+    private String jobName;
+    private LocalDate businessDate;
+
+    // RUNNING, COMPLETED, FAILED, or NOT_RUN if the job has never run
+    private String status;
+
+    private Long lastProcessedId;
+    private Long processedCount;
+    private double tradesPerSecond;
+    private LocalDateTime startedTime;
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,29 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged query
+ * There is no page number: the next page is requested by passing nextCursor back, which is
+ * null on the last page. totalItems is only filled in when the caller asked for a count
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean lastPage;
+    private Long totalItems;
+
+    public KeysetPageDTO(List<T> content, int pageSize, String nextCursor, boolean lastPage) {
+        this(content, pageSize, nextCursor, lastPage, null);
+    }
+}
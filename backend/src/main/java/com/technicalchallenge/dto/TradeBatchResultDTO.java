@@ -0,0 +1,27 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of a single trade within a bulk booking request
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBatchResultDTO {
+    // Position of the trade in the submitted list
+    private int index;
+
+    private Long tradeId;
+    private Integer version;
+    private boolean success;
+
+    // Populated only when the trade could not be booked
+    private List<String> errors;
+}
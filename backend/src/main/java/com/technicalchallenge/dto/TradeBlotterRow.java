@@ -0,0 +1,24 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One flat blotter line per trade version, selected straight from the database
+ * Only active legs are shown, in the order of the leg that started each leg's lineage, so amendments
+ * keep the leg order; leg2Notional is null for a single-leg trade
+ */
+public record TradeBlotterRow(
+        Long id,
+        Long tradeId,
+        Integer version,
+        String bookName,
+        String counterpartyName,
+        String traderName,
+        String tradeStatus,
+        LocalDate tradeDate,
+        LocalDate tradeStartDate,
+        LocalDate tradeMaturityDate,
+        BigDecimal leg1Notional,
+        BigDecimal leg2Notional) {
+}
@@ -0,0 +1,32 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a trade submitted for asynchronous booking
+ * Status is one of QUEUED, VALIDATED, ENRICHED, PERSISTED, COMPLETED, REJECTED or FAILED
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBookingStatusDTO {
+    private String trackingId;
+    private String status;
+
+    // Populated once the trade ID is known
+    private Long tradeId;
+    private Integer version;
+
+    // Populated only when the trade was rejected or failed
+    private List<String> errors;
+
+    private LocalDateTime submittedTime;
+    private LocalDateTime lastUpdatedTime;
+}
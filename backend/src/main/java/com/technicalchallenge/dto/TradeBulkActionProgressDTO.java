@@ -0,0 +1,31 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress line streamed back while a bulk cancel or terminate runs
+ * Status is RUNNING after each chunk, then COMPLETED or FAILED once
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBulkActionProgressDTO {
+    private String bulkActionId;
+    private String action;
+    private String status;
+
+    // Running totals across the chunks committed so far
+    private int chunksCommitted;
+    private long tradesUpdated;
+
+    // Populated only when the action failed
+    private String error;
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,30 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the trade change feed (GET /api/trades/stream)
+ * Subscribers resume after the last offset they processed
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeChangeEventDTO {
+    private long offset;
+    private Long tradeId;
+    private Integer version;
+
+    // CREATED, AMENDED, CANCELLED, TERMINATED or MATURED
+    private String changeType;
+    private String tradeStatus;
+    private LocalDateTime changedTime;
+
+    // Number of changes to the trade folded into this entry
+    private int coalescedChanges;
+}
@@ -35,6 +35,11 @@ public class TradeDTO {
     private LocalDate tradeExecutionDate;
 
     private String utiCode;
+
+    // Optional client-supplied key; a resubmission with the same key returns the original booking
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String idempotencyKey;
+
     private LocalDateTime lastTouchTimestamp;
     private LocalDate validityStartDate;
     private LocalDate validityEndDate;
@@ -24,6 +24,9 @@ public class TradeLegDTO {
 
     private Double rate;
 
+    // ACT/360 (default), ACT/365F or 30/360
+    private String dayCountConvention;
+
     // Currency reference
     private Long currencyId;
     private String currency;
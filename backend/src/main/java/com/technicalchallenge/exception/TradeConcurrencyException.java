@@ -0,0 +1,15 @@
+package com.technicalchallenge.exception;
+
+/**
+ * Exception thrown when a trade was changed by someone else since the caller read it
+ */
+public class TradeConcurrencyException extends RuntimeException {
+
+    /**
+     * Creates a new TradeConcurrencyException with a message
+     * @param message description of the conflicting change
+     */
+    public TradeConcurrencyException(String message) {
+        super(message);
+    }
+}
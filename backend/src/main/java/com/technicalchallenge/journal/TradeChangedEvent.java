@@ -0,0 +1,21 @@
+package com.technicalchallenge.journal;
+
+/**
+ * In-process notification that trades or their cashflows changed, published after the change commits
+ * Read models derived from trades, such as the cashflow ladder cache, listen for it to drop stale results
+ * @param tradeId business trade ID, or null when a change touched many trades at once
+ * @param version trade version that changed, or null
+ * @param changeType a TradeEvent type, or CASHFLOWS_CHANGED when only cashflows were rewritten
+ */
+public record TradeChangedEvent(Long tradeId, Integer version, String changeType) {
+
+    public static final String CASHFLOWS_CHANGED = "CASHFLOWS_CHANGED";
+
+    /**
+     * Event for cashflows rewritten outside a trade version change, e.g. by a regeneration run
+     * @return the event
+     */
+    public static TradeChangedEvent cashflowsChanged() {
+        return new TradeChangedEvent(null, null, CASHFLOWS_CHANGED);
+    }
+}
@@ -0,0 +1,49 @@
+package com.technicalchallenge.journal;
+
+import com.technicalchallenge.dto.TradeDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One trade lifecycle event as stored in the trade journal
+ * CREATED and AMENDED events carry the full trade version. Status events (CANCELLED,
+ * TERMINATED, MATURED) carry only the new status, which applies to the latest version
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeEvent {
+    public static final String CREATED = "CREATED";
+    public static final String AMENDED = "AMENDED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String TERMINATED = "TERMINATED";
+    public static final String MATURED = "MATURED";
+
+    // Assigned by the journal when the event is appended
+    private long sequence;
+
+    private String eventType;
+    private Long tradeId;
+    private Integer version;
+    private String tradeStatus;
+    private LocalDateTime occurredAt;
+
+    // Populated only for CREATED and AMENDED events
+    private TradeDTO trade;
+
+    // Outbox row the event was journalled from, so a relay restarted mid-batch can tell it was already appended
+    private Long outboxId;
+
+    /**
+     * Checks whether the event carries a full trade version
+     * @return true for CREATED and AMENDED events
+     */
+    public boolean hasSnapshot() {
+        return trade != null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.technicalchallenge.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeOutbox;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records trade lifecycle events in the trade outbox, in the caller's transaction
+ * A rolled back change leaves no event behind and a committed one cannot lose its event.
+ * TradeOutboxRelay appends the events to the trade journal and relays them to the trade
+ * change feed. Each event is also announced in-process as a TradeChangedEvent after commit
+ */
+@Component
+public class TradeEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEventPublisher.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TradeMapper tradeMapper;
+    @Autowired
+    private TradeOutboxRepository tradeOutboxRepository;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Publishes a new trade version
+     * @param eventType CREATED or AMENDED
+     * @param trade the saved trade version
+     * @param legs the legs of the version, or null if they are carried over from the previous one
+     */
+    public void publishTradeVersion(String eventType, Trade trade, List<TradeLegDTO> legs) {
+        // Snapshot is taken now, while the trade and its references are still attached
+        TradeDTO snapshot = tradeMapper.toDto(trade);
+        snapshot.setTradeLegs(legs);
+        publish(new TradeEvent(0, eventType, trade.getTradeId(), trade.getVersion(),
+                snapshot.getTradeStatus(), LocalDateTime.now(), snapshot, null));
+    }
+
+    /**
+     * Publishes a status change of the latest trade version
+     * @param eventType CANCELLED, TERMINATED or MATURED
+     * @param tradeId business trade ID
+     * @param version trade version that changed status
+     * @param tradeStatus the new status
+     */
+    public void publishStatusChange(String eventType, Long tradeId, Integer version, String tradeStatus) {
+        publish(new TradeEvent(0, eventType, tradeId, version, tradeStatus, LocalDateTime.now(), null, null));
+    }
+
+    private void publish(TradeEvent event) {
+        // Part of the trade change itself, so it commits or rolls back with it
+        tradeOutboxRepository.save(new TradeOutbox(null, event.getTradeId(), event.getVersion(),
+                event.getEventType(), event.getTradeStatus(), event.getOccurredAt(), false, null, null,
+                serialize(event), false));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            announce(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                announce(event);
+            }
+        });
+    }
+
+    private void announce(TradeEvent event) {
+        try {
+            applicationEventPublisher.publishEvent(new TradeChangedEvent(event.getTradeId(), event.getVersion(),
+                    event.getEventType()));
+        } catch (RuntimeException e) {
+            logger.error("Failed to announce {} of trade {} version {}: {}", event.getEventType(),
+                    event.getTradeId(), event.getVersion(), e.getMessage(), e);
+        }
+    }
+
+    private String serialize(TradeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Trade event could not be serialised", e);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.technicalchallenge.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of trade events in memory-mapped segment files
+ * Each record is laid out as
+ * [int payload length][int CRC32][long sequence][long tradeId][JSON payload]
+ * and the CRC covers the sequence, trade ID and payload. A segment is named after the
+ * first sequence it holds and a new one is started when the current one is full.
+ * On startup every segment is scanned to index the record positions of each trade, and a
+ * torn or corrupt record at the end of the last one is treated as the end of the journal
+ * and overwritten by the next append. The index, kept current on append, lets the events
+ * of one trade be read without scanning the rest of the journal
+ */
+@Component
+public class TradeJournal {
+    private static final Logger logger = LoggerFactory.getLogger(TradeJournal.class);
+
+    static final int HEADER_BYTES = 24;
+    private static final String SEGMENT_PREFIX = "trade-journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${trade.journal.directory:./data/journal}")
+    private String directory;
+    @Value("${trade.journal.segment-size:67108864}")
+    private int segmentSize;
+    @Value("${trade.journal.force-on-append:false}")
+    private boolean forceOnAppend;
+
+    private final List<Consumer<TradeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence = 1;
+    // Segment files by ordinal, and the records of each trade in sequence order as segment ordinal << 32 | offset
+    private final List<Path> segmentFiles = new ArrayList<>();
+    private final Map<Long, RecordPositions> positionsByTrade = new HashMap<>();
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        segmentFiles.clear();
+        positionsByTrade.clear();
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            openSegment(1);
+            return;
+        }
+
+        for (Path segment : segments.subList(0, segments.size() - 1)) {
+            indexSegment(segment);
+        }
+
+        // Only the last segment can have a partly written tail
+        Path last = segments.get(segments.size() - 1);
+        segmentFiles.add(last);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        nextSequence = firstSequence(last);
+        int position = 0;
+        Record record;
+        while ((record = readRecord(buffer, position)) != null) {
+            index(record.tradeId(), position);
+            nextSequence = record.sequence() + 1;
+            position = record.nextPosition();
+        }
+        buffer.position(position);
+        markEnd();
+        logger.info("Opened trade journal in {} with {} segments, next sequence {}", dir, segments.size(), nextSequence);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Registers a callback that receives every event after it has been appended
+     * @param listener callback, run on the appending thread
+     */
+    public void addListener(Consumer<TradeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Appends an event, assigning it the next sequence number
+     * @param event event to append
+     * @return the event with its sequence set
+     */
+    public synchronized TradeEvent append(TradeEvent event) {
+        event.setSequence(nextSequence);
+        byte[] payload = serialize(event);
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Trade event of " + recordBytes + " bytes does not fit in a journal segment");
+        }
+        if (buffer.remaining() < recordBytes + Integer.BYTES) {
+            roll();
+        }
+
+        long tradeId = event.getTradeId() != null ? event.getTradeId() : 0L;
+        index(tradeId, buffer.position());
+        buffer.putInt(payload.length);
+        buffer.putInt(crc(event.getSequence(), tradeId, payload));
+        buffer.putLong(event.getSequence());
+        buffer.putLong(tradeId);
+        buffer.put(payload);
+        markEnd();
+        if (forceOnAppend) {
+            buffer.force();
+        }
+        nextSequence++;
+
+        for (Consumer<TradeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+        return event;
+    }
+
+    /**
+     * Reads events in sequence order without touching the database
+     * @param fromSequence first sequence to return
+     * @param tradeId only return events of this trade, or null for all trades
+     * @param consumer receives each event
+     */
+    public void replay(long fromSequence, Long tradeId, Consumer<TradeEvent> consumer) {
+        long lastSequence;
+        synchronized (this) {
+            lastSequence = nextSequence - 1;
+        }
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            // Skips whole segments that end before the requested sequence
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            if (!replaySegment(segments.get(i), fromSequence, lastSequence, tradeId, consumer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the events of one trade in sequence order, touching only that trade's records
+     * @param tradeId business trade ID
+     * @param consumer receives each event
+     */
+    public void replayTrade(long tradeId, Consumer<TradeEvent> consumer) {
+        long[] positions;
+        List<Path> files;
+        synchronized (this) {
+            RecordPositions tradePositions = positionsByTrade.get(tradeId);
+            if (tradePositions == null) {
+                return;
+            }
+            positions = tradePositions.toArray();
+            files = List.copyOf(segmentFiles);
+        }
+
+        int openOrdinal = -1;
+        FileChannel readChannel = null;
+        try {
+            for (long packed : positions) {
+                int ordinal = (int) (packed >>> 32);
+                if (ordinal != openOrdinal) {
+                    if (readChannel != null) {
+                        readChannel.close();
+                    }
+                    readChannel = FileChannel.open(files.get(ordinal), StandardOpenOption.READ);
+                    openOrdinal = ordinal;
+                }
+                Record record = readRecordAt(readChannel, (int) packed);
+                if (record != null) {
+                    consumer.accept(objectMapper.readValue(record.payload(), TradeEvent.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trade journal records of trade " + tradeId, e);
+        } finally {
+            if (readChannel != null) {
+                try {
+                    readChannel.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close trade journal segment: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence of the latest appended event
+     * @return latest sequence, 0 when the journal is empty
+     */
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    // Returns false once the last appended sequence has been reached
+    private boolean replaySegment(Path segment, long fromSequence, long lastSequence, Long tradeId,
+                                  Consumer<TradeEvent> consumer) {
+        try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            int position = 0;
+            Record record;
+            while ((record = readRecord(readBuffer, position)) != null) {
+                if (record.sequence() > lastSequence) {
+                    return false;
+                }
+                position = record.nextPosition();
+                if (record.sequence() < fromSequence || (tradeId != null && tradeId != record.tradeId())) {
+                    continue;
+                }
+                consumer.accept(objectMapper.readValue(record.payload(), TradeEvent.class));
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trade journal segment " + segment, e);
+        }
+    }
+
+    // Indexes the records of a full segment; a corrupt record ends the segment as it does for replay
+    private void indexSegment(Path segment) throws IOException {
+        segmentFiles.add(segment);
+        try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            int position = 0;
+            Record record;
+            while ((record = readRecord(readBuffer, position)) != null) {
+                index(record.tradeId(), position);
+                position = record.nextPosition();
+            }
+        }
+    }
+
+    // Records a trade's record at a position of the current segment
+    private void index(long tradeId, int position) {
+        long packed = ((long) (segmentFiles.size() - 1) << 32) | position;
+        positionsByTrade.computeIfAbsent(tradeId, id -> new RecordPositions()).add(packed);
+    }
+
+    private void roll() {
+        try {
+            buffer.force();
+            channel.close();
+            openSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll trade journal segment", e);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = Paths.get(directory).resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentFiles.add(segment);
+        nextSequence = firstSequence;
+        logger.info("Started trade journal segment {}", segment.getFileName());
+    }
+
+    // A zero length after the last record marks the end of the data
+    private void markEnd() {
+        if (buffer.remaining() >= Integer.BYTES) {
+            buffer.putInt(buffer.position(), 0);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(Paths.get(directory))) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list trade journal segments", e);
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private byte[] serialize(TradeEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Trade event could not be serialised", e);
+        }
+    }
+
+    // Returns null at the end of the data or at the first record that fails its CRC check
+    private static Record readRecord(ByteBuffer source, int position) {
+        if (position + HEADER_BYTES > source.limit()) {
+            return null;
+        }
+        int length = source.getInt(position);
+        if (length <= 0 || length > source.limit() - position - HEADER_BYTES) {
+            return null;
+        }
+        int crc = source.getInt(position + 4);
+        long sequence = source.getLong(position + 8);
+        long tradeId = source.getLong(position + 16);
+        byte[] payload = new byte[length];
+        source.get(position + HEADER_BYTES, payload);
+        if (crc(sequence, tradeId, payload) != crc) {
+            logger.warn("Trade journal record at sequence {} failed its CRC check, treating it as the end of the journal", sequence);
+            return null;
+        }
+        return new Record(sequence, tradeId, payload, position + HEADER_BYTES + length);
+    }
+
+    // Reads one record with positional reads, so only its own bytes are touched
+    private static Record readRecordAt(FileChannel source, int position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(source, header, position);
+        int length = header.getInt(0);
+        if (length <= 0 || length > source.size() - position - HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+        readFully(source, record, position);
+        return readRecord(record, 0);
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (source.read(target, position + target.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    private static int crc(long sequence, long tradeId, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES * 2).putLong(sequence).putLong(tradeId).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Record(long sequence, long tradeId, byte[] payload, int nextPosition) {
+    }
+
+    // Growable list of packed record positions
+    private static final class RecordPositions {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
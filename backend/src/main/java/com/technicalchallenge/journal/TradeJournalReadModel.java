@@ -0,0 +1,130 @@
+package com.technicalchallenge.journal;
+
+import com.technicalchallenge.dto.TradeDTO;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trade state rebuilt from the trade journal rather than the database
+ * Keeps the latest state of every trade in memory, rebuilt by replaying the journal at
+ * startup and then kept current from each appended event. History and point-in-time
+ * state are answered by reading only the journal records of the requested trade, found
+ * through the journal's per-trade index, so their cost does not grow with the journal
+ */
+@Component
+public class TradeJournalReadModel {
+    private static final Logger logger = LoggerFactory.getLogger(TradeJournalReadModel.class);
+
+    @Autowired
+    private TradeJournal tradeJournal;
+
+    private final Map<Long, TradeDTO> currentTrades = new ConcurrentHashMap<>();
+    private long lastAppliedSequence;
+
+    /**
+     * Replays the whole journal into the read model and then follows new events
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Events appended during the replay wait for the lock and are skipped if already replayed
+        tradeJournal.addListener(this::apply);
+        synchronized (this) {
+            long started = System.currentTimeMillis();
+            currentTrades.clear();
+            lastAppliedSequence = 0;
+            tradeJournal.replay(1, null, this::applyLocked);
+            logger.info("Rebuilt trade read model from journal: {} trades up to sequence {} in {} ms",
+                    currentTrades.size(), lastAppliedSequence, System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * Returns the latest journalled state of a trade
+     * @param tradeId business trade ID
+     * @return latest state, empty if the journal has no events for the trade
+     */
+    public Optional<TradeDTO> getCurrent(Long tradeId) {
+        return Optional.ofNullable(currentTrades.get(tradeId));
+    }
+
+    /**
+     * Returns every journalled event of a trade, oldest first
+     * @param tradeId business trade ID
+     * @return the trade's events
+     */
+    public List<TradeEvent> getHistory(Long tradeId) {
+        List<TradeEvent> history = new ArrayList<>();
+        tradeJournal.replayTrade(tradeId, history::add);
+        return history;
+    }
+
+    /**
+     * Rebuilds the state of a trade as it was at a point in time
+     * @param tradeId business trade ID
+     * @param asOf point in time
+     * @return state at that time, empty if the trade did not exist yet
+     */
+    public Optional<TradeDTO> getAsOf(Long tradeId, LocalDateTime asOf) {
+        TradeDTO state = null;
+        for (TradeEvent event : getHistory(tradeId)) {
+            if (event.getOccurredAt().isAfter(asOf)) {
+                break;
+            }
+            state = fold(state, event);
+        }
+        return Optional.ofNullable(state);
+    }
+
+    private synchronized void apply(TradeEvent event) {
+        applyLocked(event);
+    }
+
+    private void applyLocked(TradeEvent event) {
+        if (event.getSequence() <= lastAppliedSequence) {
+            return;
+        }
+        TradeDTO updated = fold(currentTrades.get(event.getTradeId()), event);
+        if (updated != null) {
+            currentTrades.put(event.getTradeId(), updated);
+        }
+        lastAppliedSequence = event.getSequence();
+    }
+
+    // Applies one event to the previous state of the trade, without modifying it
+    static TradeDTO fold(TradeDTO previous, TradeEvent event) {
+        if (event.hasSnapshot()) {
+            TradeDTO next = event.getTrade();
+            // Legs are only journalled when they change
+            if (next.getTradeLegs() == null && previous != null) {
+                next.setTradeLegs(previous.getTradeLegs());
+            }
+            return next;
+        }
+        if (previous == null) {
+            return null;
+        }
+        TradeDTO next = copyOf(previous);
+        next.setTradeStatus(event.getTradeStatus());
+        next.setLastTouchTimestamp(event.getOccurredAt());
+        return next;
+    }
+
+    private static TradeDTO copyOf(TradeDTO trade) {
+        TradeDTO copy = new TradeDTO();
+        BeanUtils.copyProperties(trade, copy);
+        return copy;
+    }
+}
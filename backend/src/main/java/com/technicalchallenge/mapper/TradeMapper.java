@@ -118,6 +118,7 @@ public class TradeMapper {
         dto.setLegId(leg.getLegId());
         dto.setNotional(leg.getNotional());
         dto.setRate(leg.getRate());
+        dto.setDayCountConvention(leg.getDayCountConvention());
 
         if (leg.getCurrency() != null) {
             dto.setCurrencyId(leg.getCurrency().getId());
@@ -179,6 +180,7 @@ public class TradeMapper {
         leg.setLegId(dto.getLegId());
         leg.setNotional(dto.getNotional());
         leg.setRate(dto.getRate());
+        leg.setDayCountConvention(dto.getDayCountConvention());
 
 
         return leg;
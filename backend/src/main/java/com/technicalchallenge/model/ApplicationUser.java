@@ -1,6 +1,7 @@
 package com.technicalchallenge.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.technicalchallenge.service.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -10,6 +11,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@EntityListeners(ReferenceDataCacheListener.class)
 @Table(name = "application_user")
 public class ApplicationUser {
     @Id
@@ -14,10 +14,15 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cashflow")
+// Value date leads the keyset paging order of the cashflow query; leg id serves per-leg lookups and rewrites
+@Table(name = "cashflow", indexes = {
+        @jakarta.persistence.Index(name = "idx_cashflow_value_date", columnList = "value_date, id"),
+        @jakarta.persistence.Index(name = "idx_cashflow_leg_id", columnList = "leg_id")
+})
 public class Cashflow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cashflow_seq")
+    @SequenceGenerator(name = "cashflow_seq", sequenceName = "cashflow_seq", initialValue = 10000, allocationSize = 50)
     private Long id; // Changed from 'id' to match DTO
 
     private BigDecimal paymentValue;
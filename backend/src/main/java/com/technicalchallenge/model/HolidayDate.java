@@ -0,0 +1,36 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * One non-business day of a holiday calendar
+ * Weekends are implied and are not stored
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "holiday_date", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_holiday_date_calendar_date", columnNames = {"holiday_calendar_id", "holiday_date"})
+})
+public class HolidayDate {
+    // Pooled sequence ids so a holiday file import is written in batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holiday_date_seq")
+    @SequenceGenerator(name = "holiday_date_seq", sequenceName = "holiday_date_seq", initialValue = 10000, allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "holiday_calendar_id", referencedColumnName = "id")
+    private HolidayCalendar holidayCalendar;
+
+    private LocalDate holidayDate;
+    private String description;
+}
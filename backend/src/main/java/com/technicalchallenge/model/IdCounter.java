@@ -0,0 +1,23 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Counter row used to reserve blocks of business identifiers (hi/lo style)
+ * Each reservation moves nextValue forward by a whole block under a row lock
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "id_counter")
+public class IdCounter {
+    @Id
+    private String counterName;
+    private Long nextValue;
+}
@@ -0,0 +1,39 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Published rate of an index on one fixing date
+ * Rates are decimals (0.0525 for 5.25%) with up to eight decimal places
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "index_fixing", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_index_fixing_index_date", columnNames = {"index_id", "fixing_date"})
+})
+public class IndexFixing {
+    // Pooled sequence ids so a fixings file import is written in batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "index_fixing_seq")
+    @SequenceGenerator(name = "index_fixing_seq", sequenceName = "index_fixing_seq", initialValue = 10000, allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "index_id", referencedColumnName = "id")
+    private Index index;
+
+    private LocalDate fixingDate;
+
+    @Column(precision = 16, scale = 8)
+    private BigDecimal rate;
+}
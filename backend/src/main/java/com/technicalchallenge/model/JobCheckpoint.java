@@ -0,0 +1,37 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Restart point of a batch job, one row per job
+ * A rerun for the same business date carries on after lastProcessedId
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_checkpoint")
+public class JobCheckpoint {
+    @Id
+    private String jobName;
+
+    private LocalDate businessDate;
+    private Long lastProcessedId;
+    private Long processedCount;
+
+    // RUNNING, COMPLETED or FAILED
+    private String status;
+
+    private LocalDateTime startedTime;
+    private LocalDateTime updatedTime;
+}
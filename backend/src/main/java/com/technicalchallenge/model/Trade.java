@@ -14,15 +14,39 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "trade")
+// Reference data the trade mapper reads, joined into list and page queries. Legs and cashflows
+// are collections, so they are loaded for a whole page by TradeRepository.fetchLegs and
+// TradeLegRepository.fetchCashflows instead of joined here, which would page in memory
+@NamedEntityGraph(name = "Trade.summary", attributeNodes = {
+        @NamedAttributeNode("book"),
+        @NamedAttributeNode("counterparty"),
+        @NamedAttributeNode(value = "traderUser", subgraph = "user"),
+        @NamedAttributeNode(value = "tradeInputterUser", subgraph = "user"),
+        @NamedAttributeNode("tradeType"),
+        @NamedAttributeNode("tradeSubType"),
+        @NamedAttributeNode("tradeStatus")
+}, subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("userProfile")))
+// Lets the end-of-day maturity roll find matured active trades without scanning the table.
+// The book and counterparty indexes serve searches, which resolve names to these ids first
+@Table(name = "trade", indexes = {
+        @jakarta.persistence.Index(name = "idx_trade_active_maturity", columnList = "active, trade_maturity_date"),
+        @jakarta.persistence.Index(name = "idx_trade_counterparty_id", columnList = "counterparty_id"),
+        @jakarta.persistence.Index(name = "idx_trade_book_id", columnList = "book_id")
+})
 public class Trade {
+    // Pooled sequence ids let Hibernate batch inserts (IDENTITY forces one round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_seq")
+    @SequenceGenerator(name = "trade_seq", sequenceName = "trade_seq", initialValue = 10000, allocationSize = 50)
     private Long id;
 
     private Long tradeId;
     private Integer version;
 
+    // Optimistic lock on the row, bumped on every update. Separate from the business version above
+    @Version
+    private Long rowVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", referencedColumnName = "id")
     private Book book;
@@ -53,6 +77,10 @@ public class Trade {
 
     private String utiCode;
 
+    // SHA-256 of the economic content (see TradeEconomicsHash), used to skip no-op amendments
+    @Column(length = 64)
+    private String economicsHash;
+
     // Date fields
     private LocalDate tradeDate;
     private LocalDate tradeStartDate;
@@ -0,0 +1,37 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One lifecycle change applied to a trade version, such as a cancel or terminate
+ * Rows written by a bulk action share its bulkActionId
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_audit", indexes = {
+        @jakarta.persistence.Index(name = "idx_trade_audit_trade_id", columnList = "trade_id"),
+        @jakarta.persistence.Index(name = "idx_trade_audit_bulk_action_id", columnList = "bulk_action_id")
+})
+public class TradeAudit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long tradeId;
+    private Integer tradeVersion;
+    private String action;
+    private String previousStatus;
+    private String newStatus;
+    private String requestedBy;
+    private String bulkActionId;
+    private LocalDateTime auditTimestamp;
+}
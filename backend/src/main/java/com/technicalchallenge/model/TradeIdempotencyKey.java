@@ -0,0 +1,33 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records which trade was booked for an idempotency key (a client key or the UTI)
+ * The unique constraint on the key is what stops two concurrent submissions booking twice
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_idempotency_key",
+       uniqueConstraints = @UniqueConstraint(name = "uk_trade_idempotency_key", columnNames = "idempotency_key"))
+public class TradeIdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    private Long tradeId;
+    private Integer tradeVersion;
+    private LocalDateTime createdDate;
+}
@@ -14,15 +14,21 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "trade_leg")
+// Serves the per-trade leg lookups of the blotter projection and the leg fetch of trade reads
+@Table(name = "trade_leg", indexes = @jakarta.persistence.Index(name = "idx_trade_leg_trade_id", columnList = "trade_id"))
 public class TradeLeg {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_leg_seq")
+    @SequenceGenerator(name = "trade_leg_seq", sequenceName = "trade_leg_seq", initialValue = 10000, allocationSize = 50)
     private Long legId;
 
     private BigDecimal notional;
     private Double rate;
 
+    // ACT/360, ACT/365F or 30/360; null means ACT/360
+    @Column(length = 16)
+    private String dayCountConvention;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trade_id", referencedColumnName = "id")
     private Trade trade;
@@ -59,6 +65,18 @@ public class TradeLeg {
     @JoinColumn(name = "pay_rec_id", referencedColumnName = "id")
     private PayRec payReceiveFlag;
 
+    // Leg of the previous trade version this leg replaced, null for legs booked with the trade
+    private Long previousLegId;
+
+    // First leg of this leg's lineage across trade versions, null for legs booked with the trade
+    private Long originalLegId;
+
+    // Trade versions this leg belongs to; an unchanged leg moves onto each new version instead of being
+    // copied, so trade points at the latest version holding it. Null from means booked before the range
+    // was kept, null to means the leg is still on the live version
+    private Integer validFromVersion;
+    private Integer validToVersion;
+
     // Audit fields
     private Boolean active = true;
     private LocalDateTime createdDate;
@@ -0,0 +1,51 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trade change waiting to be relayed to the trade change feed and the trade journal
+ * Written in the same transaction as the trade change itself. feedOffset is given out
+ * by the relay in publish order and is what feed subscribers resume from; rows folded
+ * into a later change of the same trade are marked published without an offset.
+ * Every row is journalled, whether or not it was folded
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_outbox", indexes = {
+        @jakarta.persistence.Index(name = "idx_trade_outbox_published", columnList = "published, id"),
+        @jakarta.persistence.Index(name = "idx_trade_outbox_feed_offset", columnList = "feed_offset"),
+        @jakarta.persistence.Index(name = "idx_trade_outbox_journalled", columnList = "journalled, id")
+})
+public class TradeOutbox {
+    // Pooled sequence ids so outbox rows written by bulk actions are batched with the trade updates
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_outbox_seq")
+    @SequenceGenerator(name = "trade_outbox_seq", sequenceName = "trade_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private Long tradeId;
+    private Integer tradeVersion;
+    private String changeType;
+    private String tradeStatus;
+    private LocalDateTime createdTime;
+
+    private boolean published;
+    private Long feedOffset;
+
+    // Number of outbox rows folded into this one when it was published
+    private Integer coalescedCount;
+
+    // Journal event as JSON, with the trade version snapshot taken when the change was made
+    @Lob
+    private String eventPayload;
+    private boolean journalled;
+}
@@ -1,15 +1,24 @@
 package com.technicalchallenge.model;
 
+import com.technicalchallenge.service.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.List;
+
 @Getter
 @Setter
 @Entity
+@EntityListeners(ReferenceDataCacheListener.class)
 @Table(name = "trade_status")
 public class TradeStatus {
+    /**
+     * Statuses of trades that have ended: cancelled, terminated or matured
+     */
+    public static final List<String> CLOSED_STATUSES = List.of("CANCELLED", "TERMINATED", "DEAD");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
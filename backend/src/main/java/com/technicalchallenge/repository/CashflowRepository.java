@@ -2,9 +2,21 @@ package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Cashflow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+
 @Repository
 public interface CashflowRepository extends JpaRepository<Cashflow, Long> {
     // Custom query methods if needed
+
+    // Single set-based update instead of loading and saving every cashflow of the legs
+    @Modifying
+    @Query("UPDATE Cashflow c SET c.active = false, c.validityEndDate = :endDate " +
+           "WHERE c.tradeLeg.legId IN :legIds AND c.active = true")
+    int deactivateByLegIds(@Param("legIds") Collection<Long> legIds, @Param("endDate") LocalDate endDate);
 }
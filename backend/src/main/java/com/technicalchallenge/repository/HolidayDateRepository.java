@@ -0,0 +1,23 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.model.HolidayDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HolidayDateRepository extends JpaRepository<HolidayDate, Long> {
+    List<HolidayDate> findByHolidayCalendarOrderByHolidayDateAsc(HolidayCalendar holidayCalendar);
+
+    @Query("SELECT h.holidayDate FROM HolidayDate h WHERE h.holidayCalendar = :holidayCalendar")
+    List<LocalDate> findDatesByHolidayCalendar(@Param("holidayCalendar") HolidayCalendar holidayCalendar);
+
+    // Calendar name and date of every holiday, for compiling all calendars in one query
+    @Query("SELECT c.holidayCalendar, h.holidayDate FROM HolidayDate h JOIN h.holidayCalendar c")
+    List<Object[]> findAllCalendarDates();
+}
@@ -0,0 +1,19 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.IdCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdCounterRepository extends JpaRepository<IdCounter, String> {
+    // Row lock held only for the short block reservation transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM IdCounter c WHERE c.counterName = :counterName")
+    Optional<IdCounter> findForUpdate(@Param("counterName") String counterName);
+}
@@ -0,0 +1,19 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Index;
+import com.technicalchallenge.model.IndexFixing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface IndexFixingRepository extends JpaRepository<IndexFixing, Long> {
+    List<IndexFixing> findByIndexAndFixingDateBetweenOrderByFixingDateAsc(Index index, LocalDate from, LocalDate to);
+
+    // Index name, date and rate of every fixing in date order, for building all series in one query
+    @Query("SELECT i.index, f.fixingDate, f.rate FROM IndexFixing f JOIN f.index i ORDER BY i.index, f.fixingDate")
+    List<Object[]> findAllIndexFixings();
+}
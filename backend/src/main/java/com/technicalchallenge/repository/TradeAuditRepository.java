@@ -0,0 +1,29 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TradeAuditRepository extends JpaRepository<TradeAudit, Long> {
+    List<TradeAudit> findByBulkActionId(String bulkActionId);
+
+    // Audits a whole chunk in one INSERT ... SELECT, capturing each trade's status before it changes
+    @Modifying
+    @Query("INSERT INTO TradeAudit (tradeId, tradeVersion, action, previousStatus, newStatus, requestedBy, bulkActionId, auditTimestamp) " +
+           "SELECT t.tradeId, t.version, :action, s.tradeStatus, :newStatus, :requestedBy, :bulkActionId, :auditTimestamp " +
+           "FROM Trade t LEFT JOIN t.tradeStatus s WHERE t.id IN :ids")
+    int insertForTrades(@Param("ids") Collection<Long> ids,
+                        @Param("action") String action,
+                        @Param("newStatus") String newStatus,
+                        @Param("requestedBy") String requestedBy,
+                        @Param("bulkActionId") String bulkActionId,
+                        @Param("auditTimestamp") LocalDateTime auditTimestamp);
+}
@@ -0,0 +1,17 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TradeIdempotencyKeyRepository extends JpaRepository<TradeIdempotencyKey, Long> {
+    Optional<TradeIdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+
+    @Query("SELECT k.idempotencyKey FROM TradeIdempotencyKey k")
+    List<String> findAllKeys();
+}
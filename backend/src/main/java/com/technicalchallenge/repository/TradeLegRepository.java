@@ -1,8 +1,47 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.TradeLeg;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface TradeLegRepository extends JpaRepository<TradeLeg, Long> {}
+public interface TradeLegRepository extends JpaRepository<TradeLeg, Long> {
+
+    // Everything cashflow generation reads from an active leg of an active trade version, one row per leg
+    // instead of loading each association:
+    // legId, notional, rate, dayCountConvention, tradeStartDate, tradeMaturityDate, legRateType id and type,
+    // index name, holiday calendar name, schedule, payment BDC id and name, payRec id
+    @Query("SELECT l.legId, l.notional, l.rate, l.dayCountConvention, t.tradeStartDate, t.tradeMaturityDate, " +
+           "lt.id, lt.type, i.index, hc.holidayCalendar, s.schedule, bdc.id, bdc.bdc, pr.id " +
+           "FROM TradeLeg l JOIN l.trade t LEFT JOIN l.legRateType lt LEFT JOIN l.index i " +
+           "LEFT JOIN l.holidayCalendar hc LEFT JOIN l.calculationPeriodSchedule s " +
+           "LEFT JOIN l.paymentBusinessDayConvention bdc LEFT JOIN l.payReceiveFlag pr " +
+           "WHERE l.legId IN :legIds AND l.active = true AND t.active = true")
+    List<Object[]> findCashflowTermsByLegIds(@Param("legIds") Collection<Long> legIds);
+
+    // Locks the legs of a chunk that are still active on an active trade version, so an amendment cannot
+    // supersede them while their cashflows are rewritten
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l.legId FROM TradeLeg l WHERE l.legId IN :legIds AND l.active = true " +
+           "AND l.trade.id IN (SELECT t.id FROM Trade t WHERE t.active = true) ORDER BY l.legId")
+    List<Long> lockActiveLegIds(@Param("legIds") Collection<Long> legIds);
+
+    // Initialises the cashflows, with their reference data, of every leg of already loaded trades in one query
+    @Query("SELECT DISTINCT l FROM TradeLeg l LEFT JOIN FETCH l.cashflows c LEFT JOIN FETCH c.payRec " +
+           "LEFT JOIN FETCH c.paymentType LEFT JOIN FETCH c.paymentBusinessDayConvention " +
+           "WHERE l.trade.id IN :tradeIds")
+    List<TradeLeg> fetchCashflows(@Param("tradeIds") Collection<Long> tradeIds);
+
+    // Legs of one version of a trade, including those carried over from or onto other versions
+    @Query("SELECT l FROM TradeLeg l WHERE l.trade.tradeId = :tradeId AND (l.trade.version = :version " +
+           "OR (l.validFromVersion <= :version AND (l.validToVersion IS NULL OR l.validToVersion >= :version))) " +
+           "ORDER BY l.legId")
+    List<TradeLeg> findLegsOfVersion(@Param("tradeId") Long tradeId, @Param("version") Integer version);
+}
@@ -0,0 +1,29 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TradeOutboxRepository extends JpaRepository<TradeOutbox, Long> {
+    List<TradeOutbox> findByPublishedFalseOrderByIdAsc(Pageable pageable);
+
+    List<TradeOutbox> findByJournalledFalseOrderByIdAsc(Pageable pageable);
+
+    List<TradeOutbox> findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(Long feedOffset, Pageable pageable);
+
+    @Query("SELECT MAX(o.feedOffset) FROM TradeOutbox o")
+    Optional<Long> findMaxFeedOffset();
+
+    @Modifying
+    @Query("DELETE FROM TradeOutbox o WHERE o.published = true AND o.journalled = true AND o.createdTime < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,13 +1,22 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeStatus;
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -26,11 +35,69 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     // NEW METHODS for service layer compatibility
     Optional<Trade> findByTradeIdAndActiveTrue(Long tradeId);
 
+    // Replays may detach a superseded version, so its own associations are loaded up front
+    @EntityGraph("Trade.summary")
+    Optional<Trade> findByTradeIdAndVersion(Long tradeId, Integer version);
+
     List<Trade> findByActiveTrueOrderByTradeIdDesc();
 
     @Query("SELECT t FROM Trade t WHERE t.tradeId = :tradeId AND t.active = true ORDER BY t.version DESC")
     Optional<Trade> findLatestActiveVersionByTradeId(@Param("tradeId") Long tradeId);
 
+    @EntityGraph("Trade.summary")
     Page<Trade> findAll(Specification<Trade> spec, Pageable pageable);
 
+    @EntityGraph("Trade.summary")
+    @Query("SELECT t FROM Trade t")
+    List<Trade> findAllSummaries();
+
+    // Initialises tradeLegs and the leg reference data of already loaded trades in one query
+    @Query("SELECT DISTINCT t FROM Trade t LEFT JOIN FETCH t.tradeLegs l " +
+           "LEFT JOIN FETCH l.currency LEFT JOIN FETCH l.legRateType LEFT JOIN FETCH l.index " +
+           "LEFT JOIN FETCH l.holidayCalendar LEFT JOIN FETCH l.calculationPeriodSchedule " +
+           "LEFT JOIN FETCH l.paymentBusinessDayConvention LEFT JOIN FETCH l.fixingBusinessDayConvention " +
+           "LEFT JOIN FETCH l.payReceiveFlag WHERE t.id IN :ids")
+    List<Trade> fetchLegs(@Param("ids") Collection<Long> ids);
+
+    // Locks the rows of a chunk that are still active and not in one of the given statuses, so nothing amends
+    // or closes them between audit and update; a trade without a status is not excluded
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM Trade t WHERE t.id IN :ids AND t.active = true " +
+           "AND (t.tradeStatus IS NULL OR t.tradeStatus.id NOT IN :statusIds) ORDER BY t.id")
+    List<Long> lockActiveIdsNotInStatus(@Param("ids") Collection<Long> ids,
+                                        @Param("statusIds") Collection<Long> statusIds);
+
+    // Next page of active trades with a stored economics hash and a leg booked without a day count convention,
+    // walked by row id
+    @Query("SELECT t.id FROM Trade t WHERE t.active = true AND t.economicsHash IS NOT NULL AND t.id > :afterId " +
+           "AND EXISTS (SELECT l.legId FROM TradeLeg l WHERE l.trade = t AND l.active = true " +
+           "AND l.dayCountConvention IS NULL) ORDER BY t.id")
+    List<Long> findHashedIdsWithUnsetDayCount(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Next page of matured trades still in the given status, walked by row id
+    @Query("SELECT t.id FROM Trade t WHERE t.active = true AND t.tradeMaturityDate < :businessDate " +
+           "AND t.tradeStatus = :status AND t.id > :afterId ORDER BY t.id")
+    List<Long> findMaturedIds(@Param("businessDate") LocalDate businessDate,
+                              @Param("status") TradeStatus status,
+                              @Param("afterId") Long afterId,
+                              Pageable pageable);
+
+    // Locks the rows of a chunk that are still active and in the given status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM Trade t WHERE t.id IN :ids AND t.active = true AND t.tradeStatus = :status ORDER BY t.id")
+    List<Long> lockActiveIdsInStatus(@Param("ids") Collection<Long> ids, @Param("status") TradeStatus status);
+
+    // Business trade ID and version of each row, for journalling set-based changes
+    @Query("SELECT t.tradeId, t.version FROM Trade t WHERE t.id IN :ids")
+    List<Object[]> findTradeIdAndVersionByIds(@Param("ids") Collection<Long> ids);
+
+    // Set-based status change for bulk lifecycle actions. Bumps the row version so
+    // concurrent amendments holding the old version fail their optimistic lock
+    @Modifying
+    @Query("UPDATE Trade t SET t.tradeStatus = :status, t.lastTouchTimestamp = :timestamp, " +
+           "t.rowVersion = COALESCE(t.rowVersion, 0) + 1 WHERE t.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("status") TradeStatus status,
+                          @Param("timestamp") LocalDateTime timestamp);
+
 }
@@ -0,0 +1,255 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.FixedPointMoney;
+import com.technicalchallenge.dto.CashflowLadderBucketDTO;
+import com.technicalchallenge.journal.TradeChangedEvent;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Net payments per currency and value-date bucket, signed by PayRec
+ * The database sums active cashflows of active legs and of active trade versions that are not
+ * closed per currency and value date in one GROUP BY, so only one row per currency and day
+ * comes back; those rows are then rolled up into weeks or months in cents. Results are cached per bucket and
+ * filter until a TradeChangedEvent says a trade or its cashflows changed
+ */
+@Service
+public class CashflowLadderService {
+    private static final Logger logger = LoggerFactory.getLogger(CashflowLadderService.class);
+
+    private static final String PAY = "Pay";
+
+    /**
+     * Width of a ladder bucket
+     */
+    public enum Bucket {
+        DAY, WEEK, MONTH;
+
+        /**
+         * @param name day, week or month, in any case
+         * @return the bucket
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Bucket fromName(String name) {
+            if (name != null) {
+                for (Bucket bucket : values()) {
+                    if (bucket.name().equalsIgnoreCase(name.trim())) {
+                        return bucket;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unknown ladder bucket: " + name + ". Supported buckets: day, week, month");
+        }
+
+        // Weeks start on Monday
+        LocalDate start(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate end(LocalDate start) {
+            return switch (this) {
+                case DAY -> start;
+                case WEEK -> start.plusDays(6);
+                case MONTH -> start.with(TemporalAdjusters.lastDayOfMonth());
+            };
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.cashflow-ladder.cache-size:256}")
+    private int cacheSize;
+
+    private final Map<LadderKey, List<CashflowLadderBucketDTO>> cache = new ConcurrentHashMap<>();
+    // Bumped on every change, so a ladder computed across a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cashflow ladder
+     * @param bucket bucket width
+     * @param fromDate first value date, inclusive (optional)
+     * @param toDate last value date, inclusive (optional)
+     * @param bookName only trades in this book (optional)
+     * @param counterpartyName only trades with this counterparty (optional)
+     * @return one row per currency and bucket that has cashflows, ordered by currency then bucket
+     */
+    @Transactional(readOnly = true)
+    public List<CashflowLadderBucketDTO> getLadder(Bucket bucket, LocalDate fromDate, LocalDate toDate,
+                                                   String bookName, String counterpartyName) {
+        LadderKey key = new LadderKey(bucket, fromDate, toDate, bookName, counterpartyName);
+        List<CashflowLadderBucketDTO> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long startGeneration = generation.get();
+        long started = System.currentTimeMillis();
+        List<Object[]> dailyRows = findDailyTotals(fromDate, toDate, bookName, counterpartyName);
+        List<CashflowLadderBucketDTO> ladder = List.copyOf(rollUp(dailyRows, bucket));
+        logger.debug("Built {} cashflow ladder of {} buckets from {} daily rows in {} ms", bucket, ladder.size(),
+                dailyRows.size(), System.currentTimeMillis() - started);
+
+        if (generation.get() == startGeneration) {
+            if (cache.size() >= cacheSize) {
+                cache.clear();
+            }
+            cache.put(key, ladder);
+        }
+        return ladder;
+    }
+
+    /**
+     * Drops every cached ladder once a trade or its cashflows have changed
+     * @param event the change
+     */
+    @EventListener
+    public void onTradeChanged(TradeChangedEvent event) {
+        generation.incrementAndGet();
+        if (!cache.isEmpty()) {
+            logger.debug("Clearing {} cached cashflow ladders after {} of trade {}", cache.size(),
+                    event.changeType(), event.tradeId());
+            cache.clear();
+        }
+    }
+
+    // Rows of currency, value date, pay total, receive total and count, ordered by currency then date
+    private List<Object[]> findDailyTotals(LocalDate fromDate, LocalDate toDate, String bookName,
+                                           String counterpartyName) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Cashflow> cashflow = query.from(Cashflow.class);
+        Join<Cashflow, TradeLeg> leg = cashflow.join("tradeLeg");
+        Join<TradeLeg, Trade> trade = leg.join("trade");
+        Join<TradeLeg, Currency> currency = leg.join("currency", JoinType.LEFT);
+        Join<Cashflow, PayRec> payRec = cashflow.join("payRec", JoinType.LEFT);
+        Join<TradeLeg, PayRec> legPayRec = leg.join("payReceiveFlag", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(cashflow.get("active")));
+        predicates.add(cb.isTrue(leg.get("active")));
+        predicates.add(cb.isTrue(trade.get("active")));
+        // Cancelled, terminated and matured versions stay active but no longer pay anything
+        Join<Trade, TradeStatus> status = trade.join("tradeStatus", JoinType.LEFT);
+        predicates.add(cb.or(cb.isNull(status.get("id")),
+                cb.not(status.get("tradeStatus").in(TradeStatus.CLOSED_STATUSES))));
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(cashflow.get("valueDate"), fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(cashflow.get("valueDate"), toDate));
+        }
+        if (bookName != null && !bookName.isBlank()) {
+            Join<Trade, Book> book = trade.join("book");
+            predicates.add(cb.equal(book.get("bookName"), bookName));
+        }
+        if (counterpartyName != null && !counterpartyName.isBlank()) {
+            Join<Trade, Counterparty> counterparty = trade.join("counterparty");
+            predicates.add(cb.equal(counterparty.get("name"), counterpartyName));
+        }
+
+        // Cashflows carry the leg's PayRec; older rows without one fall back to the leg's
+        Expression<String> direction = cb.coalesce(payRec.get("payRec"), legPayRec.get("payRec"));
+        Predicate pays = cb.equal(direction, PAY);
+        Expression<BigDecimal> amount = cashflow.get("paymentValue");
+        Expression<BigDecimal> zero = cb.literal(BigDecimal.ZERO);
+        Expression<String> currencyCode = currency.get("currency");
+        Expression<LocalDate> valueDate = cashflow.get("valueDate");
+
+        query.multiselect(currencyCode, valueDate,
+                        cb.sum(cb.<BigDecimal>selectCase().when(pays, amount).otherwise(zero)),
+                        cb.sum(cb.<BigDecimal>selectCase().when(pays, zero).otherwise(amount)),
+                        cb.count(cashflow))
+                .where(predicates.toArray(new Predicate[0]))
+                .groupBy(currencyCode, valueDate)
+                .orderBy(cb.asc(currencyCode), cb.asc(valueDate));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // Rows arrive in currency and date order, so each bucket is a run of consecutive rows
+    private static List<CashflowLadderBucketDTO> rollUp(List<Object[]> dailyRows, Bucket bucket) {
+        List<CashflowLadderBucketDTO> ladder = new ArrayList<>();
+        String currency = null;
+        LocalDate bucketStart = null;
+        long payCents = 0;
+        long receiveCents = 0;
+        long count = 0;
+        for (Object[] row : dailyRows) {
+            String rowCurrency = (String) row[0];
+            LocalDate rowStart = bucket.start((LocalDate) row[1]);
+            if (bucketStart != null && (!Objects.equals(currency, rowCurrency) || !bucketStart.equals(rowStart))) {
+                ladder.add(toBucket(currency, bucketStart, bucket, payCents, receiveCents, count));
+                payCents = 0;
+                receiveCents = 0;
+                count = 0;
+            }
+            currency = rowCurrency;
+            bucketStart = rowStart;
+            payCents = FixedPointMoney.add(payCents, toCents(row[2]));
+            receiveCents = FixedPointMoney.add(receiveCents, toCents(row[3]));
+            count += ((Number) row[4]).longValue();
+        }
+        if (bucketStart != null) {
+            ladder.add(toBucket(currency, bucketStart, bucket, payCents, receiveCents, count));
+        }
+        return ladder;
+    }
+
+    private static CashflowLadderBucketDTO toBucket(String currency, LocalDate start, Bucket bucket,
+                                                    long payCents, long receiveCents, long count) {
+        return new CashflowLadderBucketDTO(currency, start, bucket.end(start),
+                FixedPointMoney.fromCents(payCents), FixedPointMoney.fromCents(receiveCents),
+                FixedPointMoney.fromCents(Math.subtractExact(receiveCents, payCents)), count);
+    }
+
+    private static long toCents(Object sum) {
+        return sum != null ? FixedPointMoney.toCents((BigDecimal) sum) : 0;
+    }
+
+    private record LadderKey(Bucket bucket, LocalDate fromDate, LocalDate toDate, String bookName,
+                             String counterpartyName) {
+        LadderKey {
+            bookName = bookName != null && !bookName.isBlank() ? bookName : null;
+            counterpartyName = counterpartyName != null && !counterpartyName.isBlank()
+                    ? counterpartyName : null;
+        }
+    }
+}
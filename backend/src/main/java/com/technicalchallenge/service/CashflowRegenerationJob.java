@@ -0,0 +1,436 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.cashflow.CashflowSchedule;
+import com.technicalchallenge.cashflow.DayCountConvention;
+import com.technicalchallenge.cashflow.RollConvention;
+import com.technicalchallenge.dto.CashflowRegenerationChunkDTO;
+import com.technicalchallenge.dto.CashflowRegenerationStatusDTO;
+import com.technicalchallenge.journal.TradeChangedEvent;
+import com.technicalchallenge.model.BusinessDayConvention;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regenerates the cashflows of every active leg that uses a changed holiday calendar,
+ * index, schedule or business day convention
+ * The affected leg ids are read first, then split into fixed chunks that run on a
+ * fork-join pool. Each chunk locks those of its legs that are still active, reads their
+ * terms in one query, generates their schedules with the CashflowEngine, and replaces
+ * their active cashflows in its own transaction, so chunks neither wait on nor roll back
+ * each other. As on an amendment the replaced cashflows are deactivated with a validity
+ * end date, in one UPDATE, and the new ones written with batched INSERTs. Run it after the
+ * reference data change has committed
+ */
+@Service
+public class CashflowRegenerationJob {
+    private static final Logger logger = LoggerFactory.getLogger(CashflowRegenerationJob.class);
+
+    public static final String JOB_NAME = "cashflow-regeneration";
+
+    /**
+     * Reference data a leg's cashflows depend on, with the TradeLeg attribute that holds it
+     */
+    public enum ReferenceType {
+        HOLIDAY_CALENDAR("holidayCalendar"),
+        INDEX("index"),
+        SCHEDULE("calculationPeriodSchedule"),
+        BUSINESS_DAY_CONVENTION("paymentBusinessDayConvention");
+
+        private final String legAttribute;
+
+        ReferenceType(String legAttribute) {
+            this.legAttribute = legAttribute;
+        }
+
+        /**
+         * @param name e.g. HOLIDAY_CALENDAR, holiday-calendar or holidayCalendar
+         * @return the reference type
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static ReferenceType fromName(String name) {
+            if (name != null) {
+                String normalised = name.trim().replace("-", "_").toUpperCase(Locale.ROOT);
+                for (ReferenceType type : values()) {
+                    if (type.name().equals(normalised) || type.name().replace("_", "").equals(normalised)) {
+                        return type;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unknown reference type: " + name
+                    + ". Supported types: HOLIDAY_CALENDAR, INDEX, SCHEDULE, BUSINESS_DAY_CONVENTION");
+        }
+    }
+
+    @Autowired
+    private TradeLegRepository tradeLegRepository;
+    @Autowired
+    private CashflowRepository cashflowRepository;
+    @Autowired
+    private CashflowEngine cashflowEngine;
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+    @Autowired
+    private IndexFixingStore indexFixingStore;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.cashflow-regeneration.chunk-size:500}")
+    private int chunkSize;
+    @Value("${trade.cashflow-regeneration.threads:4}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run lastRun;
+
+    private Timer chunkTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        chunkTimer = Timer.builder("cashflow.regeneration.chunk")
+                .description("Time to regenerate the cashflows of one chunk of legs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background unless one is already in progress
+     * @param referenceType kind of reference data that changed
+     * @param referenceId id of the changed row
+     * @return false if a run is already in progress
+     */
+    public boolean start(ReferenceType referenceType, Long referenceId) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Run run = new Run(referenceType, referenceId);
+        lastRun = run;
+        Thread runner = new Thread(() -> runClaimed(run), JOB_NAME);
+        runner.setDaemon(true);
+        runner.start();
+        return true;
+    }
+
+    /**
+     * Regenerates the cashflows of every active leg using the changed reference data
+     * @param referenceType kind of reference data that changed
+     * @param referenceId id of the changed row
+     * @return the final status, or the status of the run in progress if there is one
+     */
+    public CashflowRegenerationStatusDTO run(ReferenceType referenceType, Long referenceId) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Cashflow regeneration already running, skipping {} {}", referenceType, referenceId);
+            return getStatus();
+        }
+        Run run = new Run(referenceType, referenceId);
+        lastRun = run;
+        return runClaimed(run);
+    }
+
+    /**
+     * Returns the progress of the latest run
+     * @return status with per-chunk timings, NOT_RUN if there has been no run
+     */
+    public CashflowRegenerationStatusDTO getStatus() {
+        Run run = lastRun;
+        if (run == null) {
+            return new CashflowRegenerationStatusDTO(null, null, null, "NOT_RUN", 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                    null, null, null, List.of());
+        }
+        return run.toStatus();
+    }
+
+    // Runs the job once this thread has claimed the running flag
+    private CashflowRegenerationStatusDTO runClaimed(Run run) {
+        ForkJoinPool pool = null;
+        try {
+            List<Long> legIds = findAffectedLegIds(run.referenceType, run.referenceId);
+            run.legsFound = legIds.size();
+            run.chunkCount = (legIds.size() + chunkSize - 1) / chunkSize;
+            logger.info("Regenerating cashflows of {} legs using {} {} in {} chunks of {} on {} threads",
+                    legIds.size(), run.referenceType, run.referenceId, run.chunkCount, chunkSize, threads);
+
+            if (run.chunkCount > 0) {
+                pool = new ForkJoinPool(threads, forkJoinPool -> {
+                    ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    worker.setName(JOB_NAME + "-worker-" + worker.getPoolIndex());
+                    return worker;
+                }, null, false);
+                pool.invoke(new ChunkRangeTask(run, legIds, new TransactionTemplate(transactionManager),
+                        0, run.chunkCount));
+            }
+            run.status = run.chunksFailed.get() > 0 ? "FAILED" : "COMPLETED";
+        } catch (RuntimeException e) {
+            logger.error("Cashflow regeneration {} failed: {}", run.runId, e.getMessage(), e);
+            run.status = "FAILED";
+            run.error = e.getMessage();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            run.finish();
+            running.set(false);
+        }
+        logger.info("Cashflow regeneration {} {}: {} legs, {} cashflows written in {} chunks ({} failed), {} legs/s",
+                run.runId, run.status, run.legsRegenerated.get(), run.cashflowsWritten.get(), run.chunkCount,
+                run.chunksFailed.get(), String.format("%.0f", run.legsPerSecond));
+        return run.toStatus();
+    }
+
+    // Ids of active legs on active trade versions that use the reference, read a page at a time by id
+    private List<Long> findAffectedLegIds(ReferenceType referenceType, Long referenceId) {
+        List<Long> legIds = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> query = cb.createQuery(Long.class);
+            Root<TradeLeg> leg = query.from(TradeLeg.class);
+            Join<TradeLeg, Trade> trade = leg.join("trade");
+            query.select(leg.get("legId"))
+                    .where(cb.isTrue(leg.get("active")),
+                            cb.isTrue(trade.get("active")),
+                            cb.equal(leg.get(referenceType.legAttribute).get("id"), referenceId),
+                            cb.greaterThan(leg.get("legId"), afterId))
+                    .orderBy(cb.asc(leg.get("legId")));
+            List<Long> page = entityManager.createQuery(query)
+                    .setMaxResults(chunkSize * threads)
+                    .getResultList();
+            legIds.addAll(page);
+            if (page.size() < chunkSize * threads) {
+                return legIds;
+            }
+            afterId = page.get(page.size() - 1);
+        }
+    }
+
+    // Splits a range of chunks in half until one chunk is left, then runs it
+    private final class ChunkRangeTask extends RecursiveAction {
+        private final Run run;
+        private final List<Long> legIds;
+        private final TransactionTemplate transactionTemplate;
+        private final int firstChunk;
+        private final int chunkCount;
+
+        ChunkRangeTask(Run run, List<Long> legIds, TransactionTemplate transactionTemplate,
+                       int firstChunk, int chunkCount) {
+            this.run = run;
+            this.legIds = legIds;
+            this.transactionTemplate = transactionTemplate;
+            this.firstChunk = firstChunk;
+            this.chunkCount = chunkCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (chunkCount == 1) {
+                runChunk(run, firstChunk, legIds.subList(firstChunk * chunkSize,
+                        Math.min((firstChunk + 1) * chunkSize, legIds.size())), transactionTemplate);
+                return;
+            }
+            int half = chunkCount / 2;
+            invokeAll(new ChunkRangeTask(run, legIds, transactionTemplate, firstChunk, half),
+                    new ChunkRangeTask(run, legIds, transactionTemplate, firstChunk + half, chunkCount - half));
+        }
+    }
+
+    // Runs one chunk in its own transaction and records its timing; a failed chunk is rolled back and reported
+    private void runChunk(Run run, int chunk, List<Long> chunkLegIds, TransactionTemplate transactionTemplate) {
+        long startNanos = System.nanoTime();
+        ChunkResult result = null;
+        String error = null;
+        try {
+            result = chunkTimer.record(() -> transactionTemplate.execute(status -> regenerateChunk(chunkLegIds)));
+        } catch (RuntimeException e) {
+            logger.error("Cashflow regeneration {} chunk {} failed: {}", run.runId, chunk, e.getMessage(), e);
+            error = e.getMessage();
+        }
+        if (result != null) {
+            // Committed, so cached views of these legs' cashflows are stale
+            applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+        }
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        CashflowRegenerationChunkDTO timing = new CashflowRegenerationChunkDTO(chunk, chunkLegIds.get(0),
+                chunkLegIds.get(chunkLegIds.size() - 1), chunkLegIds.size(),
+                result != null ? result.deactivated() : 0, result != null ? result.written() : 0,
+                millis, Thread.currentThread().getName(), error);
+        run.chunkFinished(timing, result);
+        logger.debug("Cashflow regeneration {} chunk {} of {}: {} legs, {} cashflows in {} ms", run.runId, chunk + 1,
+                run.chunkCount, chunkLegIds.size(), timing.getCashflowsWritten(), millis);
+    }
+
+    private ChunkResult regenerateChunk(List<Long> legIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> regenerated = new ArrayList<>(legIds.size());
+        List<Cashflow> cashflows = new ArrayList<>();
+        // Legs superseded by an amendment since they were found drop out here
+        List<Long> lockedIds = tradeLegRepository.lockActiveLegIds(legIds);
+        if (lockedIds.isEmpty()) {
+            return new ChunkResult(0, legIds.size(), 0, 0);
+        }
+        for (Object[] row : tradeLegRepository.findCashflowTermsByLegIds(lockedIds)) {
+            Long legId = (Long) row[0];
+            LocalDate startDate = (LocalDate) row[4];
+            LocalDate maturityDate = (LocalDate) row[5];
+            if (startDate == null || maturityDate == null) {
+                logger.warn("Skipping cashflow regeneration of leg {}: trade has no start or maturity date", legId);
+                continue;
+            }
+            boolean fixed = "Fixed".equals(row[7]);
+            CashflowSchedule schedule;
+            try {
+                schedule = cashflowEngine.generate(startDate, maturityDate,
+                        CashflowEngine.parseScheduleMonths((String) row[10]),
+                        DayCountConvention.fromCode((String) row[3]),
+                        RollConvention.fromName((String) row[12]),
+                        holidayCalendarRegistry.getCalendar((String) row[9]),
+                        (BigDecimal) row[1], (Double) row[2], fixed,
+                        fixed ? null : indexFixingStore.getFixings((String) row[8]));
+            } catch (IllegalArgumentException e) {
+                // Bad terms on one leg keep its current cashflows rather than failing the chunk
+                logger.warn("Skipping cashflow regeneration of leg {}: {}", legId, e.getMessage());
+                continue;
+            }
+            regenerated.add(legId);
+
+            TradeLeg leg = entityManager.getReference(TradeLeg.class, legId);
+            LegType paymentType = reference(LegType.class, (Long) row[6]);
+            BusinessDayConvention bdc = reference(BusinessDayConvention.class, (Long) row[11]);
+            PayRec payRec = reference(PayRec.class, (Long) row[13]);
+            for (int period = 0; period < schedule.size(); period++) {
+                Cashflow cashflow = new Cashflow();
+                cashflow.setTradeLeg(leg);
+                cashflow.setValueDate(schedule.getPaymentDate(period));
+                cashflow.setRate(fixed ? (Double) row[2] : schedule.getRate(period));
+                cashflow.setPaymentValue(schedule.getAmount(period));
+                cashflow.setPaymentType(paymentType);
+                cashflow.setPayRec(payRec);
+                cashflow.setPaymentBusinessDayConvention(bdc);
+                cashflow.setCreatedDate(now);
+                cashflow.setActive(true);
+                cashflows.add(cashflow);
+            }
+        }
+
+        int deactivated = regenerated.isEmpty() ? 0
+                : cashflowRepository.deactivateByLegIds(regenerated, LocalDate.now());
+        cashflowRepository.saveAll(cashflows);
+        return new ChunkResult(regenerated.size(), legIds.size() - regenerated.size(), deactivated, cashflows.size());
+    }
+
+    private <T> T reference(Class<T> type, Long id) {
+        return id != null ? entityManager.getReference(type, id) : null;
+    }
+
+    private record ChunkResult(int regenerated, int skipped, int deactivated, int written) {
+    }
+
+    // Progress of one run, updated by the worker threads as chunks finish
+    private static final class Run {
+        private final String runId = UUID.randomUUID().toString();
+        private final ReferenceType referenceType;
+        private final Long referenceId;
+        private final LocalDateTime startedTime = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicLong legsRegenerated = new AtomicLong();
+        private final AtomicLong legsSkipped = new AtomicLong();
+        private final AtomicLong cashflowsDeactivated = new AtomicLong();
+        private final AtomicLong cashflowsWritten = new AtomicLong();
+        private final AtomicInteger chunksCompleted = new AtomicInteger();
+        private final AtomicInteger chunksFailed = new AtomicInteger();
+        private final Queue<CashflowRegenerationChunkDTO> chunks = new ConcurrentLinkedQueue<>();
+
+        private volatile int legsFound;
+        private volatile int chunkCount;
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile double legsPerSecond;
+        private volatile LocalDateTime updatedTime = startedTime;
+
+        Run(ReferenceType referenceType, Long referenceId) {
+            this.referenceType = referenceType;
+            this.referenceId = referenceId;
+        }
+
+        void chunkFinished(CashflowRegenerationChunkDTO timing, ChunkResult result) {
+            if (result != null) {
+                legsRegenerated.addAndGet(result.regenerated());
+                legsSkipped.addAndGet(result.skipped());
+                cashflowsDeactivated.addAndGet(result.deactivated());
+                cashflowsWritten.addAndGet(result.written());
+                chunksCompleted.incrementAndGet();
+            } else {
+                chunksFailed.incrementAndGet();
+            }
+            chunks.add(timing);
+            updateThroughput();
+        }
+
+        void finish() {
+            updateThroughput();
+        }
+
+        private void updateThroughput() {
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+            legsPerSecond = legsRegenerated.get() / seconds;
+            updatedTime = LocalDateTime.now();
+        }
+
+        CashflowRegenerationStatusDTO toStatus() {
+            List<CashflowRegenerationChunkDTO> finished = new ArrayList<>(chunks);
+            finished.sort(Comparator.comparingInt(CashflowRegenerationChunkDTO::getChunk));
+            return new CashflowRegenerationStatusDTO(runId, referenceType.name(), referenceId, status, legsFound,
+                    legsRegenerated.get(), legsSkipped.get(), cashflowsDeactivated.get(), cashflowsWritten.get(),
+                    chunkCount, chunksCompleted.get(), chunksFailed.get(), legsPerSecond, error,
+                    startedTime, updatedTime, finished);
+        }
+    }
+}
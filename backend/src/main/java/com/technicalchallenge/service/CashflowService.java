@@ -1,18 +1,43 @@
 package com.technicalchallenge.service;
 
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.journal.TradeChangedEvent;
 import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
 import com.technicalchallenge.repository.CashflowRepository;
 import com.technicalchallenge.repository.BusinessDayConventionRepository;
 import com.technicalchallenge.repository.LegTypeRepository;
 import com.technicalchallenge.repository.PayRecRepository;
+import com.technicalchallenge.util.KeysetCursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -26,12 +51,118 @@ public class CashflowService {
     private LegTypeRepository legTypeRepository;
     @Autowired
     private BusinessDayConventionRepository businessDayConventionRepository;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.cashflow-query.max-page-size:1000}")
+    private int maxPageSize;
 
     public List<Cashflow> getAllCashflows() {
         logger.info("Retrieving all cashflows");
         return cashflowRepository.findAll();
     }
 
+    /**
+     * Returns one page of cashflows in value date then id order, seeking past the cursor
+     * Each page is a range scan of idx_cashflow_value_date starting after the last row of the
+     * previous page, so deep pages cost the same as the first one. Reference data is fetched
+     * in the same query, so mapping the page to DTOs issues no further selects
+     * @param fromDate first value date, inclusive (optional)
+     * @param toDate last value date, inclusive (optional)
+     * @param legId only cashflows of this leg (optional)
+     * @param tradeId only cashflows of this business trade id, across its versions (optional)
+     * @param currency only cashflows of legs in this currency (optional)
+     * @param payRec only Pay or Receive cashflows, falling back to the leg's flag (optional)
+     * @param active only active or only inactive cashflows (optional)
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param pageSize rows per page, between 1 and trade.cashflow-query.max-page-size
+     * @return the page, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the page size is out of range or the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<Cashflow> findCashflows(LocalDate fromDate, LocalDate toDate, Long legId, Long tradeId,
+                                                 String currency, String payRec, Boolean active,
+                                                 String cursor, int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + maxPageSize);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Cashflow> query = cb.createQuery(Cashflow.class);
+        Root<Cashflow> cashflow = query.from(Cashflow.class);
+        // Fetched with the rows for the mapper; all to-one, so the page size is not affected
+        Join<Cashflow, PayRec> cashflowPayRec =
+                (Join<Cashflow, PayRec>) cashflow.<Cashflow, PayRec>fetch("payRec", JoinType.LEFT);
+        cashflow.fetch("paymentType", JoinType.LEFT);
+        cashflow.fetch("paymentBusinessDayConvention", JoinType.LEFT);
+        Expression<LocalDate> valueDate = cashflow.get("valueDate");
+        Expression<Long> id = cashflow.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNotNull(valueDate));
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(valueDate, fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(valueDate, toDate));
+        }
+        if (legId != null) {
+            predicates.add(cb.equal(cashflow.get("tradeLeg").get("legId"), legId));
+        }
+        if (active != null) {
+            predicates.add(cb.equal(cashflow.get("active"), active));
+        }
+        if (tradeId != null || hasText(currency) || hasText(payRec)) {
+            Join<Cashflow, TradeLeg> leg = cashflow.join("tradeLeg");
+            if (tradeId != null) {
+                Join<TradeLeg, Trade> trade = leg.join("trade");
+                predicates.add(cb.equal(trade.get("tradeId"), tradeId));
+            }
+            if (hasText(currency)) {
+                Join<TradeLeg, Currency> legCurrency = leg.join("currency");
+                predicates.add(cb.equal(legCurrency.get("currency"), currency.trim().toUpperCase(Locale.ROOT)));
+            }
+            if (hasText(payRec)) {
+                Join<TradeLeg, PayRec> legPayRec = leg.join("payReceiveFlag", JoinType.LEFT);
+                Expression<String> direction = cb.coalesce(cashflowPayRec.get("payRec"), legPayRec.get("payRec"));
+                predicates.add(cb.equal(cb.upper(direction), payRec.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> after = KeysetCursor.decode(cursor, 2);
+            LocalDate afterDate;
+            long afterId;
+            try {
+                afterDate = LocalDate.parse(after.get(0));
+                afterId = Long.parseLong(after.get(1));
+            } catch (DateTimeParseException | NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            predicates.add(cb.or(
+                    cb.greaterThan(valueDate, afterDate),
+                    cb.and(cb.equal(valueDate, afterDate), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(cashflow)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(valueDate), cb.asc(id));
+        // One row past the page tells whether there is a next page without a count query
+        List<Cashflow> rows = entityManager.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+        boolean lastPage = rows.size() <= pageSize;
+        List<Cashflow> content = lastPage ? rows : rows.subList(0, pageSize);
+        String nextCursor = null;
+        if (!lastPage) {
+            Cashflow last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getValueDate(), last.getId());
+        }
+        logger.debug("Found {} cashflows, last page {}", content.size(), lastPage);
+        return new KeysetPageDTO<>(content, pageSize, nextCursor, lastPage);
+    }
+
     public Optional<Cashflow> getCashflowById(Long id) {
         logger.debug("Retrieving cashflow by id: {}", id);
         return cashflowRepository.findById(id);
@@ -47,12 +178,19 @@ public class CashflowService {
             throw new IllegalArgumentException("Cashflow valueDate is required");
         }
         // Ensure Cashflow is saved with related entities set, not just IDs
-        return cashflowRepository.save(cashflow);
+        Cashflow saved = cashflowRepository.save(cashflow);
+        applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+        return saved;
     }
 
     public void deleteCashflow(Long id) {
         logger.warn("Deleting cashflow with id: {}", id);
         cashflowRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
     public void populateReferenceDataByName(Cashflow cashflow, CashflowDTO dto) {
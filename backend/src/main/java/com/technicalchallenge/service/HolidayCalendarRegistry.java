@@ -0,0 +1,129 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
+import com.technicalchallenge.util.BusinessDayCalendar;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled business-day calendars, one per holiday calendar
+ * All calendars are compiled from the holiday_date table at startup and recompiled as a
+ * whole after a holiday import or a calendar is saved or deleted. Joint calendars such as
+ * NY+LON are built on first use and cached in the same snapshot as the calendars they were
+ * built from, so a recompile swaps both at once and a union can never outlive its inputs
+ */
+@Component
+public class HolidayCalendarRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendarRegistry.class);
+
+    /** Calendar used for legs without a holiday calendar */
+    public static final String WEEKENDS_ONLY = "WEEKENDS";
+
+    @Autowired
+    private HolidayCalendarRepository holidayCalendarRepository;
+    @Autowired
+    private HolidayDateRepository holidayDateRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Compiles every holiday calendar from the database and swaps them in
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        long started = System.currentTimeMillis();
+        Map<String, List<LocalDate>> holidays = new HashMap<>();
+        for (HolidayCalendar calendar : holidayCalendarRepository.findAll()) {
+            holidays.put(key(calendar.getHolidayCalendar()), new ArrayList<>());
+        }
+        int holidayCount = 0;
+        for (Object[] row : holidayDateRepository.findAllCalendarDates()) {
+            holidays.computeIfAbsent(key((String) row[0]), name -> new ArrayList<>()).add((LocalDate) row[1]);
+            holidayCount++;
+        }
+
+        Map<String, BusinessDayCalendar> compiled = new HashMap<>();
+        holidays.forEach((name, dates) -> compiled.put(name, BusinessDayCalendar.of(name, dates)));
+        compiled.put(WEEKENDS_ONLY, BusinessDayCalendar.weekendsOnly(WEEKENDS_ONLY));
+        snapshot = new Snapshot(Map.copyOf(compiled), new ConcurrentHashMap<>());
+        logger.info("Compiled {} holiday calendars with {} holidays in {} ms", holidays.size(), holidayCount,
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Returns a compiled calendar
+     * @param names one calendar name, or several joined with '+' or ',' (e.g. NY+LON) for a
+     *              joint calendar; null or blank for weekends only
+     * @return the calendar
+     * @throws IllegalArgumentException if a calendar name is unknown
+     */
+    public BusinessDayCalendar getCalendar(String names) {
+        Snapshot current = currentSnapshot();
+        if (names == null || names.isBlank()) {
+            return current.calendars().get(WEEKENDS_ONLY);
+        }
+        String spec = key(names);
+        BusinessDayCalendar single = current.calendars().get(spec);
+        if (single != null) {
+            return single;
+        }
+        return current.jointCalendars().computeIfAbsent(spec, joint -> {
+            BusinessDayCalendar result = null;
+            // A '+' in a query string arrives as a space
+            for (String name : joint.split("[+, ]+")) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                BusinessDayCalendar calendar = current.calendars().get(name);
+                if (calendar == null) {
+                    throw new IllegalArgumentException("Unknown holiday calendar: " + name);
+                }
+                result = result == null ? calendar : result.union(calendar);
+            }
+            return result != null ? result : current.calendars().get(WEEKENDS_ONLY);
+        });
+    }
+
+    /**
+     * Returns the compiled calendar of a leg's holiday calendar
+     * @param holidayCalendar the calendar, or null for weekends only
+     * @return the calendar
+     */
+    public BusinessDayCalendar getCalendar(HolidayCalendar holidayCalendar) {
+        return getCalendar(holidayCalendar != null ? holidayCalendar.getHolidayCalendar() : null);
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Used before the application is ready, e.g. by a bean that runs at startup
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static String key(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Compiled calendars by name and the joint calendars built from them, replaced together on refresh
+    private record Snapshot(Map<String, BusinessDayCalendar> calendars,
+                            Map<String, BusinessDayCalendar> jointCalendars) {
+    }
+}
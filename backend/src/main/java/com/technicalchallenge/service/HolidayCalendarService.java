@@ -1,15 +1,33 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.dto.HolidayImportResultDTO;
 import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.model.HolidayDate;
 import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class HolidayCalendarService {
@@ -18,6 +36,12 @@ public class HolidayCalendarService {
     @Autowired
     private HolidayCalendarRepository holidayCalendarRepository;
 
+    @Autowired
+    private HolidayDateRepository holidayDateRepository;
+
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
     public List<HolidayCalendar> findAll() {
         logger.info("Retrieving all holiday calendars");
         return holidayCalendarRepository.findAll();
@@ -30,11 +54,113 @@ public class HolidayCalendarService {
 
     public HolidayCalendar save(HolidayCalendar holidayCalendar) {
         logger.info("Saving holiday calendar: {}", holidayCalendar);
-        return holidayCalendarRepository.save(holidayCalendar);
+        HolidayCalendar saved = holidayCalendarRepository.save(holidayCalendar);
+        // Bookings on a new or renamed calendar need it compiled
+        refreshRegistryAfterCommit();
+        return saved;
     }
 
     public void deleteById(Long id) {
         logger.warn("Deleting holiday calendar with id: {}", id);
         holidayCalendarRepository.deleteById(id);
+        refreshRegistryAfterCommit();
+    }
+
+    public List<HolidayDate> findHolidays(HolidayCalendar holidayCalendar) {
+        logger.debug("Retrieving holidays of calendar {}", holidayCalendar.getHolidayCalendar());
+        return holidayDateRepository.findByHolidayCalendarOrderByHolidayDateAsc(holidayCalendar);
+    }
+
+    /**
+     * Imports a holiday file and recompiles the business-day calendars once it has committed
+     * Each line is calendar,date[,description] with an ISO date, e.g. NY,2025-12-25,Christmas Day.
+     * An optional header line and lines starting with # are ignored. Unknown calendars are
+     * created, and holidays already present are skipped, so a file can be imported again
+     * @param csv the holiday file
+     * @return calendars touched and number of holidays imported and skipped
+     * @throws IllegalArgumentException if a line cannot be parsed; nothing is imported then
+     */
+    @Transactional
+    public HolidayImportResultDTO importHolidays(Reader csv) {
+        Map<String, Map<LocalDate, String>> holidaysByCalendar = parseHolidayFile(csv);
+
+        List<String> touched = new ArrayList<>();
+        List<HolidayDate> toSave = new ArrayList<>();
+        int duplicates = 0;
+        for (Map.Entry<String, Map<LocalDate, String>> entry : holidaysByCalendar.entrySet()) {
+            HolidayCalendar calendar = holidayCalendarRepository.findByHolidayCalendar(entry.getKey())
+                    .orElseGet(() -> {
+                        HolidayCalendar created = new HolidayCalendar();
+                        created.setHolidayCalendar(entry.getKey());
+                        logger.info("Creating holiday calendar {} for import", entry.getKey());
+                        return holidayCalendarRepository.save(created);
+                    });
+            Set<LocalDate> existing = new HashSet<>(holidayDateRepository.findDatesByHolidayCalendar(calendar));
+            int before = toSave.size();
+            for (Map.Entry<LocalDate, String> holiday : entry.getValue().entrySet()) {
+                if (existing.contains(holiday.getKey())) {
+                    duplicates++;
+                } else {
+                    toSave.add(new HolidayDate(null, calendar, holiday.getKey(), holiday.getValue()));
+                }
+            }
+            if (toSave.size() > before) {
+                touched.add(entry.getKey());
+            }
+        }
+        holidayDateRepository.saveAll(toSave);
+
+        refreshRegistryAfterCommit();
+        logger.info("Imported {} holidays into {}, skipped {} already present", toSave.size(), touched, duplicates);
+        return new HolidayImportResultDTO(touched, toSave.size(), duplicates);
+    }
+
+    // Recompiles the business-day calendars once the surrounding transaction, if any, has committed
+    private void refreshRegistryAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    holidayCalendarRegistry.refresh();
+                }
+            });
+        } else {
+            holidayCalendarRegistry.refresh();
+        }
+    }
+
+    // Calendar name to holidays, in file order; a date repeated in the file keeps its first description
+    private Map<String, Map<LocalDate, String>> parseHolidayFile(Reader csv) {
+        Map<String, Map<LocalDate, String>> holidaysByCalendar = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")
+                        || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("calendar"))) {
+                    continue;
+                }
+                String[] fields = line.split(",", 3);
+                if (fields.length < 2 || fields[0].isBlank()) {
+                    throw new IllegalArgumentException("Holiday file line " + lineNumber
+                            + " must be calendar,date[,description]: " + line);
+                }
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(fields[1].trim());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Holiday file line " + lineNumber
+                            + " has an invalid date: " + fields[1].trim());
+                }
+                String description = fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : null;
+                holidaysByCalendar.computeIfAbsent(fields[0].trim().toUpperCase(Locale.ROOT), name -> new LinkedHashMap<>())
+                        .putIfAbsent(date, description);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read holiday file", e);
+        }
+        return holidaysByCalendar;
     }
 }
@@ -0,0 +1,103 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.FixedPointMoney;
+import com.technicalchallenge.cashflow.IndexFixings;
+import com.technicalchallenge.model.Index;
+import com.technicalchallenge.repository.IndexFixingRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory fixing history of every rate index, used to project floating legs
+ * All histories are loaded from the index_fixing table in one query at startup and
+ * reloaded as a whole after a fixings import, so cashflow generation never queries
+ * fixings per trade
+ */
+@Component
+public class IndexFixingStore {
+    private static final Logger logger = LoggerFactory.getLogger(IndexFixingStore.class);
+
+    @Autowired
+    private IndexFixingRepository indexFixingRepository;
+
+    private volatile Map<String, IndexFixings> fixings;
+
+    /**
+     * Loads every index's fixings from the database and swaps them in
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = indexFixingRepository.findAllIndexFixings();
+        Map<String, IndexFixings> loaded = new HashMap<>();
+        // Rows arrive grouped by index in date order, so each run of rows becomes one series
+        long[] days = new long[rows.size()];
+        long[] rates = new long[rows.size()];
+        int runStart = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            days[i] = ((LocalDate) row[1]).toEpochDay();
+            rates[i] = ((BigDecimal) row[2]).movePointRight(FixedPointMoney.RATE_SCALE).longValueExact();
+            boolean lastOfIndex = i + 1 == rows.size() || !row[0].equals(rows.get(i + 1)[0]);
+            if (lastOfIndex) {
+                String name = key((String) row[0]);
+                loaded.put(name, IndexFixings.of(name, Arrays.copyOfRange(days, runStart, i + 1),
+                        Arrays.copyOfRange(rates, runStart, i + 1)));
+                runStart = i + 1;
+            }
+        }
+        fixings = Map.copyOf(loaded);
+        logger.info("Loaded {} fixings for {} indices in {} ms", rows.size(), loaded.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Returns the fixing history of an index
+     * @param indexName index name, e.g. LIBOR
+     * @return the history, empty if the index has no fixings or the name is null
+     */
+    public IndexFixings getFixings(String indexName) {
+        if (indexName == null || indexName.isBlank()) {
+            return IndexFixings.empty(null);
+        }
+        String name = key(indexName);
+        IndexFixings history = currentFixings().get(name);
+        return history != null ? history : IndexFixings.empty(name);
+    }
+
+    /**
+     * Returns the fixing history of a leg's index
+     * @param index the index, or null for a leg without one
+     * @return the history, empty if the index has no fixings
+     */
+    public IndexFixings getFixings(Index index) {
+        return getFixings(index != null ? index.getIndex() : null);
+    }
+
+    private Map<String, IndexFixings> currentFixings() {
+        Map<String, IndexFixings> current = fixings;
+        if (current == null) {
+            // Used before the application is ready, e.g. by a bean that runs at startup
+            refresh();
+            current = fixings;
+        }
+        return current;
+    }
+
+    private static String key(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+}
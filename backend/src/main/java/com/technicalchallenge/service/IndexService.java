@@ -1,15 +1,35 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.cashflow.FixedPointMoney;
+import com.technicalchallenge.dto.IndexFixingImportResultDTO;
 import com.technicalchallenge.model.Index;
+import com.technicalchallenge.model.IndexFixing;
+import com.technicalchallenge.repository.IndexFixingRepository;
 import com.technicalchallenge.repository.IndexRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class IndexService {
@@ -18,6 +38,12 @@ public class IndexService {
     @Autowired
     private IndexRepository indexRepository;
 
+    @Autowired
+    private IndexFixingRepository indexFixingRepository;
+
+    @Autowired
+    private IndexFixingStore indexFixingStore;
+
     public List<Index> findAll() {
         logger.info("Retrieving all indexes");
         return indexRepository.findAll();
@@ -37,4 +63,127 @@ public class IndexService {
         logger.warn("Deleting index with id: {}", id);
         indexRepository.deleteById(id);
     }
+
+    /**
+     * Fixings of an index between two dates
+     * @param index the index
+     * @param from first fixing date, inclusive
+     * @param to last fixing date, inclusive
+     * @return the fixings in date order
+     */
+    public List<IndexFixing> findFixings(Index index, LocalDate from, LocalDate to) {
+        logger.debug("Retrieving fixings of index {} from {} to {}", index.getIndex(), from, to);
+        return indexFixingRepository.findByIndexAndFixingDateBetweenOrderByFixingDateAsc(index, from, to);
+    }
+
+    /**
+     * Loads a fixings file, one fixing per line as index,date,rate (e.g. LIBOR,2025-01-02,0.0531)
+     * A header line and lines starting with # are skipped. Unknown indices are created, and a
+     * fixing already present for the same date is replaced when the file has a different rate,
+     * so a corrected file can be loaded again
+     * @param csv the file
+     * @return counts of new, corrected and unchanged fixings
+     * @throws IllegalArgumentException if a line is malformed, naming the line number
+     */
+    @Transactional
+    public IndexFixingImportResultDTO importFixings(Reader csv) {
+        Map<String, TreeMap<LocalDate, BigDecimal>> fixingsByIndex = parseFixingsFile(csv);
+
+        List<String> touched = new ArrayList<>();
+        List<IndexFixing> toSave = new ArrayList<>();
+        int imported = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (Map.Entry<String, TreeMap<LocalDate, BigDecimal>> entry : fixingsByIndex.entrySet()) {
+            Index index = indexRepository.findByIndex(entry.getKey())
+                    .orElseGet(() -> {
+                        Index created = new Index();
+                        created.setIndex(entry.getKey());
+                        logger.info("Creating index {} for fixings import", entry.getKey());
+                        return indexRepository.save(created);
+                    });
+            TreeMap<LocalDate, BigDecimal> rates = entry.getValue();
+            Map<LocalDate, IndexFixing> existing = new HashMap<>();
+            for (IndexFixing fixing : indexFixingRepository.findByIndexAndFixingDateBetweenOrderByFixingDateAsc(
+                    index, rates.firstKey(), rates.lastKey())) {
+                existing.put(fixing.getFixingDate(), fixing);
+            }
+            int before = toSave.size();
+            for (Map.Entry<LocalDate, BigDecimal> rate : rates.entrySet()) {
+                IndexFixing fixing = existing.get(rate.getKey());
+                if (fixing == null) {
+                    toSave.add(new IndexFixing(null, index, rate.getKey(), rate.getValue()));
+                    imported++;
+                } else if (fixing.getRate() == null || fixing.getRate().compareTo(rate.getValue()) != 0) {
+                    fixing.setRate(rate.getValue());
+                    toSave.add(fixing);
+                    updated++;
+                } else {
+                    unchanged++;
+                }
+            }
+            if (toSave.size() > before) {
+                touched.add(entry.getKey());
+            }
+        }
+        indexFixingRepository.saveAll(toSave);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexFixingStore.refresh();
+                }
+            });
+        } else {
+            indexFixingStore.refresh();
+        }
+        logger.info("Imported {} fixings into {}, corrected {}, {} unchanged", imported, touched, updated, unchanged);
+        return new IndexFixingImportResultDTO(touched, imported, updated, unchanged);
+    }
+
+    private Map<String, TreeMap<LocalDate, BigDecimal>> parseFixingsFile(Reader csv) {
+        Map<String, TreeMap<LocalDate, BigDecimal>> fixingsByIndex = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")
+                        || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("index"))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3 || fields[0].isBlank()) {
+                    throw new IllegalArgumentException("Fixings file line " + lineNumber
+                            + " must be index,date,rate: " + line);
+                }
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(fields[1].trim());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Fixings file line " + lineNumber
+                            + " has an invalid date: " + fields[1].trim());
+                }
+                BigDecimal rate;
+                try {
+                    rate = new BigDecimal(fields[2].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Fixings file line " + lineNumber
+                            + " has an invalid rate: " + fields[2].trim());
+                }
+                if (rate.stripTrailingZeros().scale() > FixedPointMoney.RATE_SCALE) {
+                    throw new IllegalArgumentException("Fixings file line " + lineNumber
+                            + " has more than " + FixedPointMoney.RATE_SCALE + " decimal places: " + rate);
+                }
+                // A date repeated in the file takes its last rate
+                fixingsByIndex.computeIfAbsent(fields[0].trim().toUpperCase(Locale.ROOT), name -> new TreeMap<>())
+                        .put(date, rate);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fixings file", e);
+        }
+        return fixingsByIndex;
+    }
 }
@@ -0,0 +1,97 @@
+package com.technicalchallenge.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Trigram index over the names of one reference table, for substring search without a table scan
+ * Names and terms are compared in lower case, matching lower(name) LIKE '%term%'. A term of three
+ * or more characters only checks the names holding its rarest trigram; shorter terms check every
+ * name, which is cheap at reference table sizes. Immutable once built, so it is shared between
+ * threads as part of a cache snapshot
+ */
+final class NameSearchIndex {
+
+    private static final int GRAM = 3;
+
+    // Row ids in ascending order and their lower-cased names, by position
+    private final long[] ids;
+    private final String[] names;
+    // Positions of the names holding each trigram, ascending
+    private final Map<String, int[]> positionsByGram;
+
+    /**
+     * @param namesById name of each row by primary key; rows without a name are left out
+     */
+    NameSearchIndex(Map<Long, String> namesById) {
+        TreeMap<Long, String> sorted = new TreeMap<>();
+        namesById.forEach((id, name) -> {
+            if (id != null && name != null) {
+                sorted.put(id, name.toLowerCase(Locale.ROOT));
+            }
+        });
+        ids = new long[sorted.size()];
+        names = new String[sorted.size()];
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int position = 0;
+        for (Map.Entry<Long, String> entry : sorted.entrySet()) {
+            ids[position] = entry.getKey();
+            names[position] = entry.getValue();
+            for (String gram : grams(entry.getValue())) {
+                positions.computeIfAbsent(gram, g -> new ArrayList<>()).add(position);
+            }
+            position++;
+        }
+        positionsByGram = new HashMap<>(positions.size() * 2);
+        positions.forEach((gram, list) -> positionsByGram.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @param term part of the name, any case
+     * @return ids of the rows whose name contains the term, ascending
+     */
+    List<Long> idsContaining(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        List<Long> matches = new ArrayList<>();
+        if (needle.length() < GRAM) {
+            for (int position = 0; position < names.length; position++) {
+                if (names[position].contains(needle)) {
+                    matches.add(ids[position]);
+                }
+            }
+            return matches;
+        }
+
+        // Every match holds all trigrams of the term, so the shortest list bounds the candidates
+        int[] candidates = null;
+        for (String gram : grams(needle)) {
+            int[] positions = positionsByGram.get(gram);
+            if (positions == null) {
+                return matches;
+            }
+            if (candidates == null || positions.length < candidates.length) {
+                candidates = positions;
+            }
+        }
+        for (int position : candidates) {
+            if (names[position].contains(needle)) {
+                matches.add(ids[position]);
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start + GRAM <= text.length(); start++) {
+            grams.add(text.substring(start, start + GRAM));
+        }
+        return grams;
+    }
+}
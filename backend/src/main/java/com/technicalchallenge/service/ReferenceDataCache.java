@@ -0,0 +1,247 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.*;
+import com.technicalchallenge.repository.*;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the static reference tables used to enrich trades and legs
+ * Each table is held as an immutable snapshot of case-insensitive name maps and an id map.
+ * A table is reloaded as a whole and swapped in with a single write, so readers always
+ * see either the old or the new contents of a table and never a mix of both.
+ * Tables are loaded when the application starts and reloaded after any committed write
+ * to them (see ReferenceDataCacheListener). Each snapshot also holds a trigram index of the
+ * names, so name searches resolve to ids without a leading-wildcard LIKE on the table
+ * The cached entities are detached and shared between threads, so callers must only
+ * link them to other entities and never modify them
+ */
+@Component
+public class ReferenceDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    // Positions of the name keys held for each table
+    private static final int NAME = 0;
+    private static final int LOGIN_ID = 1;
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CounterpartyRepository counterpartyRepository;
+    @Autowired
+    private TradeStatusRepository tradeStatusRepository;
+    @Autowired
+    private ApplicationUserRepository applicationUserRepository;
+    @Autowired
+    private TradeTypeRepository tradeTypeRepository;
+    @Autowired
+    private TradeSubTypeRepository tradeSubTypeRepository;
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    @Autowired
+    private LegTypeRepository legTypeRepository;
+    @Autowired
+    private IndexRepository indexRepository;
+    @Autowired
+    private HolidayCalendarRepository holidayCalendarRepository;
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    @Autowired
+    private BusinessDayConventionRepository businessDayConventionRepository;
+    @Autowired
+    private PayRecRepository payRecRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Class<?>, TableDefinition<?>> definitions = new LinkedHashMap<>();
+    private final Map<Class<?>, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+
+    private record TableDefinition<T>(Supplier<List<T>> loader, Function<T, Long> id, List<Function<T, String>> keys) {
+    }
+
+    private record Snapshot<T>(Map<Long, T> byId, List<Map<String, T>> byKey, NameSearchIndex names) {
+    }
+
+    /**
+     * Registers the cached tables. Runs lazily so the repositories are always injected
+     */
+    private synchronized void registerTables() {
+        if (!definitions.isEmpty()) {
+            return;
+        }
+        register(Book.class, bookRepository::findAll, Book::getId, List.of(Book::getBookName));
+        register(Counterparty.class, counterpartyRepository::findAll, Counterparty::getId, List.of(Counterparty::getName));
+        register(TradeStatus.class, tradeStatusRepository::findAll, TradeStatus::getId, List.of(TradeStatus::getTradeStatus));
+        register(ApplicationUser.class, applicationUserRepository::findAll, ApplicationUser::getId,
+                List.of(ApplicationUser::getFirstName, ApplicationUser::getLoginId));
+        register(TradeType.class, tradeTypeRepository::findAll, TradeType::getId, List.of(TradeType::getTradeType));
+        register(TradeSubType.class, tradeSubTypeRepository::findAll, TradeSubType::getId, List.of(TradeSubType::getTradeSubType));
+        register(Currency.class, currencyRepository::findAll, Currency::getId, List.of(Currency::getCurrency));
+        register(LegType.class, legTypeRepository::findAll, LegType::getId, List.of(LegType::getType));
+        register(Index.class, indexRepository::findAll, Index::getId, List.of(Index::getIndex));
+        register(HolidayCalendar.class, holidayCalendarRepository::findAll, HolidayCalendar::getId, List.of(HolidayCalendar::getHolidayCalendar));
+        register(Schedule.class, scheduleRepository::findAll, Schedule::getId, List.of(Schedule::getSchedule));
+        register(BusinessDayConvention.class, businessDayConventionRepository::findAll, BusinessDayConvention::getId, List.of(BusinessDayConvention::getBdc));
+        register(PayRec.class, payRecRepository::findAll, PayRec::getId, List.of(PayRec::getPayRec));
+    }
+
+    private <T> void register(Class<T> type, Supplier<List<T>> loader, Function<T, Long> id, List<Function<T, String>> keys) {
+        definitions.put(type, new TableDefinition<>(loader, id, keys));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        registerTables();
+        for (Class<?> type : definitions.keySet()) {
+            refresh(type);
+        }
+        logger.info("Reference data cache loaded {} tables", snapshots.size());
+    }
+
+    /**
+     * Reloads one table from the database and swaps it in
+     * @param type entity class of the table to reload, ignored if it is not cached
+     */
+    public void refresh(Class<?> type) {
+        registerTables();
+        TableDefinition<?> definition = definitions.get(type);
+        if (definition == null) {
+            return;
+        }
+        // Runs in its own read-only transaction so it is safe to call after another transaction has committed
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        Snapshot<?> snapshot = transactionTemplate.execute(status -> build(definition));
+        snapshots.put(type, snapshot);
+        logger.debug("Reference data cache refreshed {} ({} rows)", type.getSimpleName(), snapshot.byId().size());
+    }
+
+    private <T> Snapshot<T> build(TableDefinition<T> definition) {
+        Map<Long, T> byId = new HashMap<>();
+        Map<Long, String> namesById = new HashMap<>();
+        List<Map<String, T>> byKey = new ArrayList<>();
+        for (int k = 0; k < definition.keys().size(); k++) {
+            byKey.add(new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        }
+
+        for (T row : definition.loader().get()) {
+            Long id = definition.id().apply(row);
+            byId.put(id, row);
+            namesById.put(id, definition.keys().get(NAME).apply(row));
+            for (int k = 0; k < definition.keys().size(); k++) {
+                String key = definition.keys().get(k).apply(row);
+                if (key != null) {
+                    // Keeps the first row when a name is not unique, as the database lookup would
+                    byKey.get(k).putIfAbsent(key.trim(), row);
+                }
+            }
+        }
+
+        List<Map<String, T>> frozenKeys = new ArrayList<>(byKey.size());
+        for (Map<String, T> keyMap : byKey) {
+            frozenKeys.add(Collections.unmodifiableMap(keyMap));
+        }
+        return new Snapshot<>(Collections.unmodifiableMap(byId), Collections.unmodifiableList(frozenKeys),
+                new NameSearchIndex(namesById));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Snapshot<T> snapshot(Class<T> type) {
+        Snapshot<?> snapshot = snapshots.get(type);
+        if (snapshot == null) {
+            // First use before the application finished starting
+            synchronized (this) {
+                snapshot = snapshots.get(type);
+                if (snapshot == null) {
+                    refresh(type);
+                    snapshot = snapshots.get(type);
+                }
+            }
+        }
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Reference data type is not cached: " + type.getSimpleName());
+        }
+        return (Snapshot<T>) snapshot;
+    }
+
+    /**
+     * Looks up a reference data row by its name, ignoring case
+     * @param type entity class of the reference table
+     * @param name name of the row (for users, the first name)
+     * @return the matching row, if any
+     */
+    public <T> Optional<T> findByName(Class<T> type, String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot(type).byKey().get(NAME).get(name.trim()));
+    }
+
+    /**
+     * Finds the rows whose name contains a term, ignoring case
+     * @param type entity class of the reference table
+     * @param term part of the name (for users, the first name)
+     * @return primary keys of the matching rows, ascending
+     */
+    public List<Long> findIdsByNameContaining(Class<?> type, String term) {
+        if (term == null) {
+            return List.of();
+        }
+        return snapshot(type).names().idsContaining(term);
+    }
+
+    /**
+     * Looks up a reference data row by its primary key
+     * @param type entity class of the reference table
+     * @param id primary key of the row
+     * @return the matching row, if any
+     */
+    public <T> Optional<T> findById(Class<T> type, Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot(type).byId().get(id));
+    }
+
+    /**
+     * Looks up a user by login ID, ignoring case
+     * @param loginId login ID of the user
+     * @return the matching user, if any
+     */
+    public Optional<ApplicationUser> findUserByLoginId(String loginId) {
+        if (loginId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot(ApplicationUser.class).byKey().get(LOGIN_ID).get(loginId.trim()));
+    }
+
+    /**
+     * @param type entity class to check
+     * @return true if rows of this entity are held in the cache
+     */
+    public boolean isCached(Class<?> type) {
+        registerTables();
+        return definitions.containsKey(type);
+    }
+}
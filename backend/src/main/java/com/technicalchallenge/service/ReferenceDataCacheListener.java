@@ -0,0 +1,72 @@
+package com.technicalchallenge.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * JPA entity listener on the cached reference tables
+ * Collects the tables written in a transaction and reloads them in the ReferenceDataCache
+ * once the transaction commits, so a rolled back write never reaches the cache
+ */
+@Component
+public class ReferenceDataCacheListener {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCacheListener.class);
+
+    @Autowired
+    @Lazy
+    private ReferenceDataCache referenceDataCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onReferenceDataChanged(Object entity) {
+        if (referenceDataCache == null) {
+            return;
+        }
+        Class<?> type = Hibernate.getClass(entity);
+        if (!referenceDataCache.isCached(type)) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            referenceDataCache.refresh(type);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Class<?>> changed = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (Class<?> changedType : changed) {
+                        logger.debug("Refreshing cached reference data after write to {}", changedType.getSimpleName());
+                        referenceDataCache.refresh(changedType);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReferenceDataCacheListener.this);
+                }
+            });
+            pending = changed;
+        }
+        pending.add(type);
+    }
+}
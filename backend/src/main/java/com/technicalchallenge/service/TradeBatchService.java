@@ -0,0 +1,118 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeValidationException;
+import com.technicalchallenge.model.Trade;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Books large lists of trades in chunks so that Hibernate can group the trade,
+ * leg and cashflow inserts of a whole chunk into JDBC batches
+ * Each chunk runs in its own transaction. If a chunk fails, its trades are
+ * retried one at a time so a single bad trade only fails itself
+ */
+@Service
+public class TradeBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBatchService.class);
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Books every trade in the list and reports the outcome of each one
+     * @param tradeDTOs trades to book
+     * @return one result per submitted trade, in submission order
+     */
+    public List<TradeBatchResultDTO> bookTrades(List<TradeDTO> tradeDTOs) {
+        logger.info("Booking batch of {} trades in chunks of {}", tradeDTOs.size(), chunkSize);
+        TradeBatchResultDTO[] results = new TradeBatchResultDTO[tradeDTOs.size()];
+
+        // Rejects invalid trades up front so they never roll back a chunk
+        List<Integer> bookable = new ArrayList<>(tradeDTOs.size());
+        for (int i = 0; i < tradeDTOs.size(); i++) {
+            try {
+                tradeService.validateTradeForBooking(tradeDTOs.get(i));
+                bookable.add(i);
+            } catch (RuntimeException e) {
+                results[i] = failure(i, tradeDTOs.get(i), e);
+            }
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < bookable.size(); from += chunkSize) {
+            List<Integer> chunk = bookable.subList(from, Math.min(from + chunkSize, bookable.size()));
+            try {
+                List<Trade> booked = transactionTemplate.execute(status -> bookChunk(tradeDTOs, chunk));
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = success(chunk.get(k), booked.get(k));
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Chunk of {} trades failed ({}), retrying trades individually", chunk.size(), e.getMessage());
+                entityManager.clear();
+                for (Integer index : chunk) {
+                    results[index] = bookSingle(transactionTemplate, index, tradeDTOs.get(index));
+                }
+            }
+        }
+
+        logger.info("Batch booking finished: {} of {} trades booked",
+                Arrays.stream(results).filter(TradeBatchResultDTO::isSuccess).count(), tradeDTOs.size());
+        return Arrays.asList(results);
+    }
+
+    private List<Trade> bookChunk(List<TradeDTO> tradeDTOs, List<Integer> chunk) {
+        List<Trade> booked = new ArrayList<>(chunk.size());
+        for (Integer index : chunk) {
+            booked.add(tradeService.createTrade(tradeDTOs.get(index)));
+        }
+        // Sends the outstanding insert batches and detaches the chunk so the persistence context stays small
+        entityManager.flush();
+        entityManager.clear();
+        return booked;
+    }
+
+    private TradeBatchResultDTO bookSingle(TransactionTemplate transactionTemplate, int index, TradeDTO tradeDTO) {
+        try {
+            Trade trade = transactionTemplate.execute(status -> tradeService.createTrade(tradeDTO));
+            return success(index, trade);
+        } catch (RuntimeException e) {
+            logger.warn("Trade at index {} failed to book: {}", index, e.getMessage());
+            return failure(index, tradeDTO, e);
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private TradeBatchResultDTO success(int index, Trade trade) {
+        return new TradeBatchResultDTO(index, trade.getTradeId(), trade.getVersion(), true, null);
+    }
+
+    private TradeBatchResultDTO failure(int index, TradeDTO tradeDTO, RuntimeException e) {
+        List<String> errors = e instanceof TradeValidationException validationException
+                ? validationException.getErrors()
+                : List.of(String.valueOf(e.getMessage()));
+        return new TradeBatchResultDTO(index, tradeDTO.getTradeId(), null, false, errors);
+    }
+}
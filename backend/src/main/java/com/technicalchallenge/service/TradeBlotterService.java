@@ -0,0 +1,373 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.BlotterColumnDTO;
+import com.technicalchallenge.dto.BlotterRowsRequestDTO;
+import com.technicalchallenge.dto.BlotterRowsResponseDTO;
+import com.technicalchallenge.dto.BlotterSortDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.specification.BlotterFilterSpecificationBuilder;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read path of the trade blotter
+ * Selects the flat blotter columns straight into TradeBlotterRow records with one joined query
+ * per page, plus a count: no Trade entities are loaded, so nothing is tracked by the persistence
+ * context and TradeMapper is not involved. Filters are the TradeSpecificationBuilder ones used
+ * by GET /api/trades/search, or the AG Grid filter model for server-side row model blocks
+ */
+@Service
+public class TradeBlotterService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBlotterService.class);
+
+    // Columns the server-side row model can group on
+    private static final Set<String> GROUP_COLUMNS = Set.of("bookName", "counterpartyName", "tradeStatus");
+    // Column id AG Grid gives the group column it adds when rows are grouped
+    private static final String AUTO_GROUP_COLUMN = "ag-Grid-AutoColumn";
+    // Group row fields besides the grouped column
+    private static final String CHILD_COUNT = "childCount";
+    private static final String NOTIONAL = "notional";
+    private static final String NOTIONAL_CURRENCY = "notionalCurrency";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private TradeSpecificationBuilder tradeSpecificationBuilder;
+    @Autowired
+    private BlotterFilterSpecificationBuilder blotterFilterSpecificationBuilder;
+    @Value("${trade.blotter.max-block-size:1000}")
+    private int maxBlockSize;
+
+    /**
+     * Returns one page of blotter rows
+     * @param counterpartyName counterparty name filter (optional)
+     * @param bookName book name filter (optional)
+     * @param traderUserId trader filter (optional)
+     * @param tradeStatus trade status filter (optional)
+     * @param tradeDate trade date filter (optional)
+     * @param tradeStartDate start date filter (optional)
+     * @param tradeMaturityDate maturity date filter (optional)
+     * @param pageNumber page number, 0-based
+     * @param pageSize rows per page
+     * @param sortBy a Trade attribute, or bookName, counterpartyName, traderName or tradeStatus
+     * @param sortDir asc or desc
+     * @return the page, ordered by the sort column then trade row id
+     * @throws IllegalArgumentException if the sort column is unknown
+     */
+    @Transactional(readOnly = true)
+    public Page<TradeBlotterRow> getBlotter(String counterpartyName, String bookName, Long traderUserId,
+                                            String tradeStatus, LocalDate tradeDate, LocalDate tradeStartDate,
+                                            LocalDate tradeMaturityDate, int pageNumber, int pageSize,
+                                            String sortBy, String sortDir) {
+        Specification<Trade> filter = tradeSpecificationBuilder.buildTradeSpecification(counterpartyName, bookName,
+                traderUserId, tradeStatus, tradeDate, tradeStartDate, tradeMaturityDate);
+        boolean descending = "desc".equalsIgnoreCase(sortDir);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TradeBlotterRow> query = cb.createQuery(TradeBlotterRow.class);
+        BlotterColumns columns = new BlotterColumns(query, cb);
+        Expression<?> sortColumn = columns.get(sortBy);
+        Order order = descending ? cb.desc(sortColumn) : cb.asc(sortColumn);
+        Order tieBreak = descending ? cb.desc(columns.trade.get("id")) : cb.asc(columns.trade.get("id"));
+
+        query.select(columns.row(query))
+                .where(toPredicate(filter, columns.trade, query, cb))
+                .orderBy(order, tieBreak);
+        long started = System.currentTimeMillis();
+        List<TradeBlotterRow> rows = entityManager.createQuery(query)
+                .setFirstResult(pageNumber * pageSize)
+                .setMaxResults(pageSize)
+                .getResultList();
+
+        // The count is only needed when the page does not tell the total by itself
+        long total;
+        if (pageNumber == 0 && rows.size() < pageSize) {
+            total = rows.size();
+        } else {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<Trade> countRoot = countQuery.from(Trade.class);
+            countQuery.select(cb.count(countRoot)).where(toPredicate(filter, countRoot, countQuery, cb));
+            total = entityManager.createQuery(countQuery).getSingleResult();
+        }
+        logger.debug("Read {} of {} blotter rows in {} ms", rows.size(), total, System.currentTimeMillis() - started);
+        return new PageImpl<>(rows, PageRequest.of(pageNumber, pageSize), total);
+    }
+
+    /**
+     * Returns one block of the AG Grid server-side row model
+     * Only the active version of each trade is shown. While the request's group keys do not
+     * reach the last grouped column the block holds group rows of the next one, grouped and
+     * counted in the database, each with the number of trades and the sum of their active leg
+     * notionals. The sum is only given when those legs share one currency, named in
+     * notionalCurrency; a group mixing currencies has no notional. Otherwise the block holds the
+     * TradeBlotterRow lines inside the expanded groups. Either way one query reads the block
+     * plus one row, which tells whether the block is the last one
+     * @param request block request as sent by the grid
+     * @return rows of the block, and the row count once the last block is reached
+     * @throws IllegalArgumentException if the block bounds, a grouped, sorted or filtered column is not supported
+     */
+    @Transactional(readOnly = true)
+    public BlotterRowsResponseDTO getServerSideRows(BlotterRowsRequestDTO request) {
+        int startRow = request.getStartRow();
+        int blockSize = request.getEndRow() - startRow;
+        if (startRow < 0 || blockSize < 1 || blockSize > maxBlockSize) {
+            throw new IllegalArgumentException("Block must start at or after row 0 and hold 1 to "
+                    + maxBlockSize + " rows");
+        }
+        List<String> groupColumns = new ArrayList<>();
+        for (BlotterColumnDTO column : nullToEmpty(request.getRowGroupCols())) {
+            String name = column.getField() != null ? column.getField() : column.getId();
+            if (!GROUP_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Cannot group on " + name);
+            }
+            groupColumns.add(name);
+        }
+        List<String> groupKeys = nullToEmpty(request.getGroupKeys());
+        if (groupKeys.size() > groupColumns.size()) {
+            throw new IllegalArgumentException("More group keys than grouped columns");
+        }
+        Specification<Trade> filter = blotterFilterSpecificationBuilder.buildBlotterSpecification(
+                request.getFilterModel());
+        List<BlotterSortDTO> sortModel = nullToEmpty(request.getSortModel());
+
+        long started = System.currentTimeMillis();
+        List<Object> rows = groupKeys.size() < groupColumns.size()
+                ? groupRows(groupColumns.get(groupKeys.size()), groupColumns, groupKeys, filter, sortModel,
+                        startRow, blockSize)
+                : new ArrayList<>(tradeRows(groupColumns, groupKeys, filter, sortModel, startRow, blockSize));
+        boolean lastBlock = rows.size() <= blockSize;
+        List<Object> rowData = lastBlock ? rows : rows.subList(0, blockSize);
+        logger.debug("Read server-side block {}-{} at group level {} in {} ms", startRow, startRow + rowData.size(),
+                groupKeys.size(), System.currentTimeMillis() - started);
+        return new BlotterRowsResponseDTO(rowData, lastBlock ? startRow + rowData.size() : null);
+    }
+
+    // Group rows of groupColumn below the expanded groups, one past the block
+    private List<Object> groupRows(String groupColumn, List<String> groupColumns, List<String> groupKeys,
+                                   Specification<Trade> filter, List<BlotterSortDTO> sortModel,
+                                   int startRow, int blockSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        BlotterColumns columns = new BlotterColumns(query, cb);
+        // Legs replaced by an amendment stay on the trade version inactive
+        Join<Trade, TradeLeg> legs = columns.trade.join("tradeLegs", JoinType.LEFT);
+        legs.on(cb.isTrue(legs.get("active")));
+        Join<TradeLeg, Currency> legCurrency = legs.join("currency", JoinType.LEFT);
+        Expression<?> group = columns.get(groupColumn);
+        Expression<Long> childCount = cb.countDistinct(columns.trade.get("id"));
+        Expression<BigDecimal> notional = cb.sum(legs.<BigDecimal>get("notional"));
+        Expression<Long> currencies = cb.countDistinct(legCurrency.get("id"));
+        Expression<String> currency = cb.least(legCurrency.<String>get("currency"));
+
+        List<Order> orders = new ArrayList<>();
+        for (BlotterSortDTO sort : sortModel) {
+            Expression<?> sortColumn;
+            if (groupColumn.equals(sort.getColId()) || AUTO_GROUP_COLUMN.equals(sort.getColId())) {
+                sortColumn = group;
+            } else if (CHILD_COUNT.equals(sort.getColId())) {
+                sortColumn = childCount;
+            } else if (NOTIONAL.equals(sort.getColId())) {
+                sortColumn = notional;
+            } else {
+                // Sorts on trade columns order the trade rows inside the groups
+                continue;
+            }
+            orders.add("desc".equalsIgnoreCase(sort.getSort()) ? cb.desc(sortColumn) : cb.asc(sortColumn));
+        }
+        orders.add(cb.asc(group));
+
+        query.multiselect(group, childCount, notional, currencies, currency)
+                .where(blockPredicates(columns, groupColumns, groupKeys, filter, query, cb))
+                .groupBy(group)
+                .orderBy(orders);
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult(startRow)
+                .setMaxResults(blockSize + 1)
+                .getResultList();
+
+        List<Object> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(groupColumn, tuple.get(0));
+            row.put(CHILD_COUNT, tuple.get(1));
+            // Amounts in different currencies do not add up
+            boolean singleCurrency = (Long) tuple.get(3) <= 1;
+            row.put(NOTIONAL, singleCurrency ? tuple.get(2) : null);
+            row.put(NOTIONAL_CURRENCY, singleCurrency ? tuple.get(4) : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Trade rows inside the expanded groups, one past the block
+    private List<TradeBlotterRow> tradeRows(List<String> groupColumns, List<String> groupKeys,
+                                            Specification<Trade> filter, List<BlotterSortDTO> sortModel,
+                                            int startRow, int blockSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TradeBlotterRow> query = cb.createQuery(TradeBlotterRow.class);
+        BlotterColumns columns = new BlotterColumns(query, cb);
+
+        List<Order> orders = new ArrayList<>();
+        for (BlotterSortDTO sort : sortModel) {
+            if (AUTO_GROUP_COLUMN.equals(sort.getColId())) {
+                continue;
+            }
+            Expression<?> sortColumn = columns.get(sort.getColId());
+            orders.add("desc".equalsIgnoreCase(sort.getSort()) ? cb.desc(sortColumn) : cb.asc(sortColumn));
+        }
+        orders.add(cb.asc(columns.trade.get("id")));
+
+        query.select(columns.row(query))
+                .where(blockPredicates(columns, groupColumns, groupKeys, filter, query, cb))
+                .orderBy(orders);
+        return entityManager.createQuery(query)
+                .setFirstResult(startRow)
+                .setMaxResults(blockSize + 1)
+                .getResultList();
+    }
+
+    // Active versions matching the filter model, plus one equality per expanded group; a null key is the
+    // group of trades without a value
+    private static Predicate blockPredicates(BlotterColumns columns, List<String> groupColumns, List<String> groupKeys,
+                                             Specification<Trade> filter, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(columns.trade.get("active")));
+        predicates.add(toPredicate(filter, columns.trade, query, cb));
+        for (int level = 0; level < groupKeys.size(); level++) {
+            Expression<?> group = columns.get(groupColumns.get(level));
+            String key = groupKeys.get(level);
+            predicates.add(key == null ? cb.isNull(group) : cb.equal(group, key));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static Predicate toPredicate(Specification<Trade> filter, Root<Trade> root, CriteriaQuery<?> query,
+                                         CriteriaBuilder cb) {
+        Predicate predicate = filter != null ? filter.toPredicate(root, query, cb) : null;
+        return predicate != null ? predicate : cb.conjunction();
+    }
+
+    /**
+     * Trade root of one blotter query with its outer joins to the named columns
+     * Columns are looked up by their TradeBlotterRow field name
+     */
+    private final class BlotterColumns {
+        private final CriteriaBuilder cb;
+        private final Root<Trade> trade;
+        private final Join<Trade, Book> book;
+        private final Join<Trade, Counterparty> counterparty;
+        private final Join<Trade, TradeStatus> status;
+        private final Expression<String> traderName;
+
+        private BlotterColumns(CriteriaQuery<?> query, CriteriaBuilder cb) {
+            this.cb = cb;
+            trade = query.from(Trade.class);
+            book = trade.join("book", JoinType.LEFT);
+            counterparty = trade.join("counterparty", JoinType.LEFT);
+            status = trade.join("tradeStatus", JoinType.LEFT);
+            Join<Trade, ApplicationUser> trader = trade.join("traderUser", JoinType.LEFT);
+            traderName = cb.concat(cb.concat(trader.get("firstName"), " "), trader.get("lastName"));
+        }
+
+        /**
+         * @param name bookName, counterpartyName, traderName, tradeStatus or a Trade attribute
+         * @return the column expression
+         * @throws IllegalArgumentException if the name is none of these
+         */
+        private Expression<?> get(String name) {
+            return switch (name) {
+                case "bookName" -> book.get("bookName");
+                case "counterpartyName" -> counterparty.get("name");
+                case "traderName" -> traderName;
+                case "tradeStatus" -> status.get("tradeStatus");
+                default -> {
+                    // Metamodel lookup throws IllegalArgumentException for an unknown attribute
+                    entityManager.getMetamodel().entity(Trade.class).getAttribute(name);
+                    yield trade.get(name);
+                }
+            };
+        }
+
+        private CompoundSelection<TradeBlotterRow> row(CriteriaQuery<?> query) {
+            return cb.construct(TradeBlotterRow.class,
+                    trade.get("id"), trade.get("tradeId"), trade.get("version"),
+                    book.get("bookName"), counterparty.get("name"), traderName, status.get("tradeStatus"),
+                    trade.get("tradeDate"), trade.get("tradeStartDate"), trade.get("tradeMaturityDate"),
+                    legNotional(query, false), legNotional(query, true));
+        }
+
+        // Notional of the trade's first active leg, or of its second when second is true. Legs are ordered by
+        // the leg that started their lineage, so amending a trade does not change which leg comes first
+        private Subquery<BigDecimal> legNotional(CriteriaQuery<?> query, boolean second) {
+            Subquery<Long> firstLegKey = query.subquery(Long.class);
+            Root<TradeLeg> firstLeg = firstLegKey.from(TradeLeg.class);
+            firstLegKey.select(cb.min(lineage(firstLeg))).where(activeLegOfTrade(firstLeg));
+
+            Subquery<Long> legKey = firstLegKey;
+            if (second) {
+                legKey = query.subquery(Long.class);
+                Root<TradeLeg> secondLeg = legKey.from(TradeLeg.class);
+                legKey.select(cb.min(lineage(secondLeg))).where(
+                        activeLegOfTrade(secondLeg),
+                        cb.greaterThan(lineage(secondLeg), firstLegKey));
+            }
+
+            Subquery<BigDecimal> notional = query.subquery(BigDecimal.class);
+            Root<TradeLeg> leg = notional.from(TradeLeg.class);
+            notional.select(leg.get("notional")).where(activeLegOfTrade(leg), cb.equal(lineage(leg), legKey));
+            return notional;
+        }
+
+        // Active legs of a version never share a lineage, since each replaces at most one leg
+        private Expression<Long> lineage(Root<TradeLeg> leg) {
+            return cb.coalesce(leg.<Long>get("originalLegId"), leg.<Long>get("legId"));
+        }
+
+        private Predicate activeLegOfTrade(Root<TradeLeg> leg) {
+            return cb.and(cb.equal(leg.get("trade"), trade), cb.isTrue(leg.get("active")));
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeValidationException;
+import com.technicalchallenge.journal.TradeChangedEvent;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous trade booking pipeline
+ * A submitted trade passes through four stages: validation, enrichment, persistence and
+ * cashflow generation. Each stage owns a bounded queue and its own worker threads, and
+ * takes whatever is waiting in its queue (up to the batch size) in one go, so the database
+ * stages commit a whole batch per transaction. A full downstream queue blocks the stage
+ * feeding it, and a full validation queue rejects new submissions
+ */
+@Service
+public class TradeBookingPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBookingPipeline.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String VALIDATED = "VALIDATED";
+    public static final String ENRICHED = "ENRICHED";
+    public static final String PERSISTED = "PERSISTED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeEventPublisher tradeEventPublisher;
+    @Autowired
+    private TradeIdempotencyService tradeIdempotencyService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${trade.pipeline.queue-capacity:1024}")
+    private int queueCapacity;
+    @Value("${trade.pipeline.batch-size:50}")
+    private int batchSize;
+    @Value("${trade.pipeline.stage-threads:2}")
+    private int stageThreads;
+    @Value("${trade.pipeline.status-retention:10000}")
+    private int statusRetention;
+
+    private final ConcurrentHashMap<String, TradeBookingStatusDTO> statuses = new ConcurrentHashMap<>();
+    // Finished bookings in completion order, used to drop the oldest statuses beyond the retention limit
+    private final ConcurrentLinkedQueue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    private final List<Stage> stages = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+    private Stage validationStage;
+    private Stage enrichmentStage;
+    private Stage persistenceStage;
+    private Stage cashflowStage;
+    private volatile boolean running;
+
+    // A trade moving through the pipeline. Each stage fills in what the next stage needs
+    private static final class Booking {
+        private final String trackingId;
+        private final TradeDTO tradeDTO;
+        private final LocalDateTime submittedTime;
+        private Trade trade;
+        private List<TradeLeg> legs;
+
+        private Booking(String trackingId, TradeDTO tradeDTO) {
+            this.trackingId = trackingId;
+            this.tradeDTO = tradeDTO;
+            this.submittedTime = LocalDateTime.now();
+        }
+    }
+
+    // A bounded queue drained in batches by a fixed set of worker threads
+    private final class Stage {
+        private final String name;
+        private final BlockingQueue<Booking> queue;
+        private final Consumer<List<Booking>> handler;
+        private final List<Thread> workers = new ArrayList<>();
+
+        private Stage(String name, Consumer<List<Booking>> handler) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.handler = handler;
+        }
+
+        private void start() {
+            for (int i = 0; i < stageThreads; i++) {
+                Thread worker = new Thread(this::run, "trade-pipeline-" + name + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        private void run() {
+            List<Booking> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    Booking first = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    handler.accept(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    logger.error("Pipeline stage {} failed on a batch of {} trades", name, batch.size(), e);
+                    for (Booking booking : batch) {
+                        fail(booking, FAILED, e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        // Blocks while this stage is full so a slow stage holds back the stages before it
+        private void put(Booking booking) {
+            try {
+                queue.put(booking);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(booking, FAILED, new IllegalStateException("Booking pipeline is shutting down"));
+            }
+        }
+
+        private void stop() {
+            workers.forEach(Thread::interrupt);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        validationStage = new Stage("validation", this::validate);
+        enrichmentStage = new Stage("enrichment", this::enrich);
+        persistenceStage = new Stage("persistence", this::persist);
+        cashflowStage = new Stage("cashflows", this::generateCashflows);
+        stages.addAll(List.of(validationStage, enrichmentStage, persistenceStage, cashflowStage));
+
+        running = true;
+        stages.forEach(Stage::start);
+        logger.info("Trade booking pipeline started: {} stages, {} threads each, queue capacity {}, batch size {}",
+                stages.size(), stageThreads, queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        stages.forEach(Stage::stop);
+        logger.info("Trade booking pipeline stopped");
+    }
+
+    /**
+     * Queues a trade for asynchronous booking
+     * @param tradeDTO trade to book
+     * @return status of the queued booking, holding the tracking ID to poll with
+     * @throws RejectedExecutionException if the pipeline is full
+     */
+    public TradeBookingStatusDTO submit(TradeDTO tradeDTO) {
+        Booking booking = new Booking(UUID.randomUUID().toString(), tradeDTO);
+        TradeBookingStatusDTO status = update(booking, QUEUED, null);
+        if (!running || !validationStage.queue.offer(booking)) {
+            statuses.remove(booking.trackingId);
+            throw new RejectedExecutionException("Trade booking pipeline is at capacity, please retry later");
+        }
+        logger.debug("Queued trade for asynchronous booking with tracking ID {}", booking.trackingId);
+        return status;
+    }
+
+    /**
+     * @param trackingId tracking ID returned on submission
+     * @return the latest status of the booking, empty if unknown or expired
+     */
+    public Optional<TradeBookingStatusDTO> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.get(trackingId));
+    }
+
+    private void validate(List<Booking> batch) {
+        for (Booking booking : batch) {
+            try {
+                tradeService.validateTradeForBooking(booking.tradeDTO);
+                update(booking, VALIDATED, null);
+                enrichmentStage.put(booking);
+            } catch (RuntimeException e) {
+                fail(booking, REJECTED, e);
+            }
+        }
+    }
+
+    private void enrich(List<Booking> batch) {
+        for (Booking booking : batch) {
+            try {
+                // A retried submission completes with the trade it originally booked
+                Optional<Trade> replay = tradeIdempotencyService.findReplay(booking.tradeDTO);
+                if (replay.isPresent()) {
+                    booking.trade = replay.get();
+                    update(booking, COMPLETED, null);
+                    continue;
+                }
+                booking.trade = tradeService.prepareNewTrade(booking.tradeDTO);
+                update(booking, ENRICHED, null);
+                persistenceStage.put(booking);
+            } catch (RuntimeException e) {
+                fail(booking, REJECTED, e);
+            }
+        }
+    }
+
+    private void persist(List<Booking> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::saveTradeAndLegs));
+            for (Booking booking : batch) {
+                update(booking, PERSISTED, null);
+                cashflowStage.put(booking);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Persisting batch of {} trades failed ({}), retrying trades individually", batch.size(), e.getMessage());
+            for (Booking booking : batch) {
+                try {
+                    // Rebuilds the entity as the failed attempt may have left ids on it
+                    booking.trade = tradeService.prepareNewTrade(booking.tradeDTO);
+                    transactionTemplate.executeWithoutResult(status -> saveTradeAndLegs(booking));
+                    update(booking, PERSISTED, null);
+                    cashflowStage.put(booking);
+                } catch (DataIntegrityViolationException duplicate) {
+                    // Booked concurrently under the same idempotency key
+                    Optional<Trade> original = tradeIdempotencyService.findOriginalBooking(booking.tradeDTO);
+                    if (original.isPresent()) {
+                        booking.trade = original.get();
+                        update(booking, COMPLETED, null);
+                    } else {
+                        fail(booking, FAILED, duplicate);
+                    }
+                } catch (RuntimeException single) {
+                    fail(booking, FAILED, single);
+                }
+            }
+        }
+    }
+
+    private void saveTradeAndLegs(Booking booking) {
+        booking.trade = tradeRepository.save(booking.trade);
+        booking.legs = tradeService.createTradeLegs(booking.tradeDTO, booking.trade);
+        tradeIdempotencyService.recordBooking(booking.tradeDTO, booking.trade);
+        tradeEventPublisher.publishTradeVersion(TradeEvent.CREATED, booking.trade, booking.tradeDTO.getTradeLegs());
+    }
+
+    private void generateCashflows(List<Booking> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::saveCashflows));
+            // The CREATED events went out with the trades, before these cashflows were committed
+            applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+            batch.forEach(booking -> update(booking, COMPLETED, null));
+        } catch (RuntimeException e) {
+            logger.warn("Cashflow generation for batch of {} trades failed ({}), retrying trades individually", batch.size(), e.getMessage());
+            for (Booking booking : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> saveCashflows(booking));
+                    applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+                    update(booking, COMPLETED, null);
+                } catch (RuntimeException single) {
+                    fail(booking, FAILED, new IllegalStateException(
+                            "Trade booked but cashflow generation failed: " + single.getMessage(), single));
+                }
+            }
+        }
+    }
+
+    private void saveCashflows(Booking booking) {
+        tradeService.generateCashflowsForLegs(booking.legs,
+                booking.tradeDTO.getTradeStartDate(), booking.tradeDTO.getTradeMaturityDate());
+    }
+
+    private void fail(Booking booking, String status, RuntimeException e) {
+        List<String> errors = e instanceof TradeValidationException validationException
+                ? validationException.getErrors()
+                : List.of(String.valueOf(e.getMessage()));
+        logger.warn("Asynchronous booking {} ended as {}: {}", booking.trackingId, status, errors);
+        update(booking, status, errors);
+    }
+
+    private TradeBookingStatusDTO update(Booking booking, String status, List<String> errors) {
+        Long tradeId = booking.trade != null ? booking.trade.getTradeId() : booking.tradeDTO.getTradeId();
+        Integer version = booking.trade != null ? booking.trade.getVersion() : null;
+        // Statuses are replaced rather than modified so readers never see a half updated one
+        TradeBookingStatusDTO updated = new TradeBookingStatusDTO(booking.trackingId, status, tradeId, version,
+                errors, booking.submittedTime, LocalDateTime.now());
+        statuses.put(booking.trackingId, updated);
+
+        if (COMPLETED.equals(status) || REJECTED.equals(status) || FAILED.equals(status)) {
+            finished.add(booking.trackingId);
+            if (finishedCount.incrementAndGet() > statusRetention) {
+                String expired = finished.poll();
+                if (expired != null) {
+                    finishedCount.decrementAndGet();
+                    statuses.remove(expired);
+                }
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,224 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBulkActionProgressDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.TradeAuditRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+
+import io.github.perplexhub.rsql.RSQLJPASupport;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Cancels or terminates every active trade matching a filter without loading the trades
+ * Matching trades are walked in id order in chunks. Each chunk is one transaction that
+ * locks the rows, writes their audit rows with one INSERT ... SELECT and changes their
+ * status with one UPDATE, so a failure only loses the chunk in flight
+ */
+@Service
+public class TradeBulkActionService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBulkActionService.class);
+
+    // Path action -> status it moves trades to
+    private static final Map<String, String> TARGET_STATUSES = Map.of(
+            "cancel", "CANCELLED",
+            "terminate", "TERMINATED");
+
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeAuditRepository tradeAuditRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private TradeSpecificationBuilder tradeSpecificationBuilder;
+    @Autowired
+    private TradeEventPublisher tradeEventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Checks whether a bulk action name is supported
+     * @param action action name from the request path
+     * @return true for cancel and terminate
+     */
+    public boolean isSupportedAction(String action) {
+        return action != null && TARGET_STATUSES.containsKey(action.toLowerCase());
+    }
+
+    /**
+     * Builds the trade filter for a bulk action from the search filters and an RSQL query
+     * Both can be given, in which case a trade has to match both
+     * @param counterpartyName counterparty name filter (optional)
+     * @param bookName book name filter (optional)
+     * @param traderUserId trader ID filter (optional)
+     * @param tradeStatus trade status filter (optional)
+     * @param tradeDate trade date filter (optional)
+     * @param tradeStartDate start date filter (optional)
+     * @param tradeMaturityDate maturity date filter (optional)
+     * @param rsqlQuery RSQL query (optional)
+     * @return the combined filter
+     */
+    public Specification<Trade> buildFilter(String counterpartyName, String bookName, Long traderUserId,
+                                            String tradeStatus, LocalDate tradeDate, LocalDate tradeStartDate,
+                                            LocalDate tradeMaturityDate, String rsqlQuery) {
+        Specification<Trade> filter = tradeSpecificationBuilder.buildTradeSpecification(
+                counterpartyName, bookName, traderUserId, tradeStatus, tradeDate, tradeStartDate, tradeMaturityDate);
+        if (rsqlQuery != null && !rsqlQuery.isBlank()) {
+            filter = filter.and(RSQLJPASupport.toSpecification(rsqlQuery));
+        }
+        return filter;
+    }
+
+    /**
+     * Applies a lifecycle action to every active trade matching the filter
+     * Trades that are already cancelled, terminated or matured are left alone, so a rerun after
+     * a failure picks up where the previous run stopped
+     * @param action cancel or terminate
+     * @param filter trades to act on
+     * @param requestedBy who asked for the action, recorded on the audit rows (optional)
+     * @param progressListener receives a progress update after every chunk and a final one
+     * @return the final progress, with status COMPLETED or FAILED
+     */
+    public TradeBulkActionProgressDTO run(String action, Specification<Trade> filter, String requestedBy,
+                                          Consumer<TradeBulkActionProgressDTO> progressListener) {
+        if (!isSupportedAction(action)) {
+            throw new IllegalArgumentException("Unsupported bulk action: " + action);
+        }
+        String normalisedAction = action.toLowerCase();
+        TradeStatus targetStatus = findStatus(TARGET_STATUSES.get(normalisedAction));
+        // Statuses missing from the reference data cannot be on any trade
+        List<Long> closedStatusIds = TradeStatus.CLOSED_STATUSES.stream()
+                .map(status -> referenceDataCache.findByName(TradeStatus.class, status))
+                .flatMap(Optional::stream)
+                .map(TradeStatus::getId)
+                .toList();
+
+        String bulkActionId = UUID.randomUUID().toString();
+        TradeBulkActionProgressDTO progress = new TradeBulkActionProgressDTO(
+                bulkActionId, normalisedAction, "RUNNING", 0, 0, null, LocalDateTime.now());
+        logger.info("Starting bulk {} {} in chunks of {}", normalisedAction, bulkActionId, chunkSize);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            long lastId = 0;
+            while (true) {
+                long afterId = lastId;
+                ChunkResult chunk = transactionTemplate.execute(status -> processChunk(
+                        filter, afterId, closedStatusIds, targetStatus, normalisedAction, requestedBy, bulkActionId));
+                if (chunk.scanned() == 0) {
+                    break;
+                }
+                lastId = chunk.lastId();
+                progress.setChunksCommitted(progress.getChunksCommitted() + 1);
+                progress.setTradesUpdated(progress.getTradesUpdated() + chunk.updated());
+                progress.setTimestamp(LocalDateTime.now());
+                progressListener.accept(progress);
+                if (chunk.scanned() < chunkSize) {
+                    break;
+                }
+            }
+            progress.setStatus("COMPLETED");
+        } catch (RuntimeException e) {
+            logger.error("Bulk {} {} failed after {} trades: {}", normalisedAction, bulkActionId,
+                    progress.getTradesUpdated(), e.getMessage(), e);
+            progress.setStatus("FAILED");
+            progress.setError(e.getMessage());
+        }
+
+        logger.info("Bulk {} {} {}: {} trades updated", normalisedAction, bulkActionId,
+                progress.getStatus(), progress.getTradesUpdated());
+        progress.setTimestamp(LocalDateTime.now());
+        progressListener.accept(progress);
+        return progress;
+    }
+
+    private ChunkResult processChunk(Specification<Trade> filter, long afterId, List<Long> closedStatusIds,
+                                     TradeStatus targetStatus, String action, String requestedBy, String bulkActionId) {
+        List<Long> ids = findNextIds(filter, afterId, closedStatusIds);
+        if (ids.isEmpty()) {
+            return new ChunkResult(0, afterId, 0);
+        }
+
+        // Rows amended, cancelled, terminated or matured since they were selected drop out here
+        List<Long> lockedIds = tradeRepository.lockActiveIdsNotInStatus(ids, closedStatusIds);
+        int updated = 0;
+        if (!lockedIds.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            tradeAuditRepository.insertForTrades(lockedIds, action, targetStatus.getTradeStatus(),
+                    requestedBy, bulkActionId, now);
+            updated = tradeRepository.updateStatusByIds(lockedIds, targetStatus, now);
+            String eventType = "cancel".equals(action) ? TradeEvent.CANCELLED : TradeEvent.TERMINATED;
+            for (Object[] trade : tradeRepository.findTradeIdAndVersionByIds(lockedIds)) {
+                tradeEventPublisher.publishStatusChange(eventType, (Long) trade[0], (Integer) trade[1],
+                        targetStatus.getTradeStatus());
+            }
+        }
+        return new ChunkResult(ids.size(), ids.get(ids.size() - 1), updated);
+    }
+
+    // Keyset page of row ids: only the ids are read, and each chunk starts after the last one
+    private List<Long> findNextIds(Specification<Trade> filter, long afterId, List<Long> closedStatusIds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Trade> root = query.from(Trade.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(root.get("active")));
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+        predicates.add(cb.or(
+                cb.isNull(root.get("tradeStatus")),
+                cb.not(root.get("tradeStatus").get("id").in(closedStatusIds))));
+        Predicate filterPredicate = filter != null ? filter.toPredicate(root, query, cb) : null;
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+
+        query.select(root.get("id"))
+                .where(cb.and(predicates.toArray(new Predicate[0])))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
+    private TradeStatus findStatus(String status) {
+        return referenceDataCache.findByName(TradeStatus.class, status)
+                .orElseThrow(() -> new RuntimeException(status + " status not found"));
+    }
+
+    private record ChunkResult(int scanned, long lastId, int updated) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeChangeEventDTO;
+import com.technicalchallenge.model.TradeOutbox;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent-events fan out of relayed trade changes
+ * Broadcasting only queues the changes; each subscriber is sent its changes by its own task,
+ * so a slow client never holds up the relay or other subscribers. A subscriber whose bounded
+ * queue overflows is disconnected and resumes from its Last-Event-ID when it reconnects.
+ * A new subscriber first gets every change after its Last-Event-ID from the outbox table
+ * and then follows the live changes queued since it subscribed. Each subscriber remembers
+ * the last offset it was sent, so a change that is both replayed and queued is only
+ * delivered once
+ */
+@Service
+public class TradeChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(TradeChangeFeed.class);
+
+    static final String EVENT_NAME = "trade-change";
+
+    @Autowired
+    private TradeOutboxRepository tradeOutboxRepository;
+
+    @Value("${trade.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${trade.stream.replay-page-size:1000}")
+    private int replayPageSize;
+    @Value("${trade.stream.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Unbounded because a subscriber runs at most one send task, which may be stuck on a slow client
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread sender = new Thread(runnable, "trade-change-feed-sender");
+        sender.setDaemon(true);
+        return sender;
+    });
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a change feed for a client
+     * @param lastEventId last offset the client processed, or null to receive only new changes
+     * @return emitter streaming the changes
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(timeoutMs), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, lastEventId);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // Added before the backlog is read, so every change relayed from now on is queued for it
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        logger.info("Trade change feed subscriber added after offset {}, {} subscribers",
+                lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Queues newly relayed changes for every subscriber
+     * @param changes changes in offset order
+     */
+    public void broadcast(List<TradeChangeEventDTO> changes) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(changes);
+        }
+    }
+
+    /**
+     * Returns the number of connected subscribers
+     * @return subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    static TradeChangeEventDTO toEvent(TradeOutbox change) {
+        return new TradeChangeEventDTO(change.getFeedOffset(), change.getTradeId(), change.getTradeVersion(),
+                change.getChangeType(), change.getTradeStatus(), change.getCreatedTime(),
+                change.getCoalescedCount() != null ? change.getCoalescedCount() : 1);
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<TradeChangeEventDTO> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+        // Backlog still to replay before the queue is sent; only touched by the send task
+        private Long resumeAfter;
+        private boolean started;
+        private long lastSentOffset;
+
+        Subscriber(SseEmitter emitter, Long resumeAfter) {
+            this.emitter = emitter;
+            this.resumeAfter = resumeAfter;
+        }
+
+        void offer(List<TradeChangeEventDTO> changes) {
+            if (closed) {
+                return;
+            }
+            for (TradeChangeEventDTO change : changes) {
+                if (!queue.offer(change)) {
+                    logger.info("Dropping trade change feed subscriber whose queue of {} changes is full", queueCapacity);
+                    close();
+                    emitter.complete();
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        // Starts a send task unless one is already running
+        void schedule() {
+            if (!closed && sending.compareAndSet(false, true)) {
+                senders.execute(this::sendPending);
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+
+        private void sendPending() {
+            try {
+                if (!started) {
+                    started = true;
+                    if (!replayBacklog()) {
+                        return;
+                    }
+                }
+                TradeChangeEventDTO change;
+                while (!closed && (change = queue.poll()) != null) {
+                    if (!send(change)) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Dropping trade change feed subscriber after a failed replay: {}", e.getMessage(), e);
+                close();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A change queued after the last poll but before the flag was cleared would otherwise wait
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private boolean replayBacklog() {
+            if (resumeAfter == null) {
+                lastSentOffset = tradeOutboxRepository.findMaxFeedOffset().orElse(0L);
+                return true;
+            }
+            long after = resumeAfter;
+            resumeAfter = null;
+            List<TradeOutbox> page;
+            do {
+                page = tradeOutboxRepository.findByFeedOffsetGreaterThanOrderByFeedOffsetAsc(
+                        after, PageRequest.of(0, replayPageSize));
+                for (TradeOutbox change : page) {
+                    if (!send(toEvent(change))) {
+                        return false;
+                    }
+                    after = change.getFeedOffset();
+                }
+            } while (!closed && page.size() == replayPageSize);
+            return true;
+        }
+
+        // Returns false once the client has gone away
+        private boolean send(TradeChangeEventDTO change) {
+            if (change.getOffset() <= lastSentOffset) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getOffset()))
+                        .name(EVENT_NAME)
+                        .data(change));
+                lastSentOffset = change.getOffset();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping trade change feed subscriber: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.DayCountConvention;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.util.TradeEconomicsHash;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Brings stored economics hashes in line with the day count convention being hashed
+ * Hashes stored before the convention was normalised left it out for legs booked without one,
+ * so a resubmission of such a trade would not be recognised as a no-op amendment. On startup
+ * those legs are given the default convention and their trade's hash is recomputed; once done
+ * no trade matches, so later startups only run one query
+ */
+@Component
+public class TradeEconomicsHashBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEconomicsHashBackfill.class);
+
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${trade.economics-hash.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Recomputes the hashes of every affected trade, one transaction per chunk
+     * @return number of trades whose stored hash changed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int backfill() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0L;
+        int changed = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> ids = tradeRepository.findHashedIdsWithUnsetDayCount(from, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer chunkChanged = transactionTemplate.execute(status -> rehash(ids));
+            changed += chunkChanged != null ? chunkChanged : 0;
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (changed > 0) {
+            logger.info("Recomputed the economics hash of {} trades", changed);
+        }
+        return changed;
+    }
+
+    private int rehash(List<Long> ids) {
+        int changed = 0;
+        for (Trade trade : tradeRepository.fetchLegs(ids)) {
+            List<TradeLeg> legs = new ArrayList<>();
+            for (TradeLeg leg : trade.getTradeLegs()) {
+                if (Boolean.FALSE.equals(leg.getActive())) {
+                    continue;
+                }
+                if (leg.getDayCountConvention() == null) {
+                    leg.setDayCountConvention(DayCountConvention.DEFAULT.getCode());
+                }
+                legs.add(leg);
+            }
+            // Same booking order TradeService hashes the legs in
+            legs.sort(Comparator.comparing(TradeLeg::getLegId, Comparator.nullsLast(Comparator.naturalOrder())));
+            String hash = TradeEconomicsHash.of(trade, legs);
+            if (!hash.equals(trade.getEconomicsHash())) {
+                trade.setEconomicsHash(hash);
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
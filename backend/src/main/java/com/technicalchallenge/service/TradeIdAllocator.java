@@ -0,0 +1,84 @@
+package com.technicalchallenge.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out trade ids from blocks reserved in the database
+ * Ids inside a block are handed out lock-free; only the thread that finds the
+ * current block exhausted takes a lock to reserve the next one. Ids left in a
+ * block when the application stops are skipped, so ids are unique and
+ * gap-free within a block but not across restarts
+ */
+@Component
+public class TradeIdAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdAllocator.class);
+
+    private final TradeIdBlockService tradeIdBlockService;
+    private final int blockSize;
+    private final AtomicReference<IdBlock> currentBlock = new AtomicReference<>(IdBlock.EXHAUSTED);
+    private final Object refillLock = new Object();
+
+    public TradeIdAllocator(TradeIdBlockService tradeIdBlockService,
+                            @Value("${trade.id.block-size:100}") int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Trade id block size must be positive");
+        }
+        this.tradeIdBlockService = tradeIdBlockService;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next unused trade id
+     * @return a trade id that has not been handed out before
+     */
+    public long nextTradeId() {
+        while (true) {
+            IdBlock block = currentBlock.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(IdBlock exhaustedBlock) {
+        synchronized (refillLock) {
+            // Another thread may already have replaced the block while this one waited
+            if (currentBlock.get() != exhaustedBlock) {
+                return;
+            }
+            long blockStart = reserveBlock();
+            currentBlock.set(new IdBlock(blockStart, blockStart + blockSize));
+        }
+    }
+
+    private long reserveBlock() {
+        try {
+            return tradeIdBlockService.reserveBlock(blockSize);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the counter row at the same time, the retry will lock it
+            logger.warn("Trade id counter was initialised concurrently, retrying block reservation");
+            return tradeIdBlockService.reserveBlock(blockSize);
+        }
+    }
+
+    private static final class IdBlock {
+        static final IdBlock EXHAUSTED = new IdBlock(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        IdBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
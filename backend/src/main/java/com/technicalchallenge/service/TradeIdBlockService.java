@@ -0,0 +1,57 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.IdCounter;
+import com.technicalchallenge.repository.IdCounterRepository;
+import com.technicalchallenge.repository.TradeRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reserves contiguous blocks of trade ids from the id_counter table
+ * Runs in its own transaction so the counter row lock is released as soon as
+ * the block is reserved, independently of the booking that triggered it
+ */
+@Service
+public class TradeIdBlockService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdBlockService.class);
+
+    static final String TRADE_ID_COUNTER = "TRADE_ID";
+    private static final long FIRST_TRADE_ID = 10000L;
+
+    @Autowired
+    private IdCounterRepository idCounterRepository;
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    /**
+     * Reserves the next block of trade ids
+     * @param blockSize number of ids to reserve
+     * @return the first id of the reserved block
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(int blockSize) {
+        IdCounter counter = idCounterRepository.findForUpdate(TRADE_ID_COUNTER)
+                .orElseGet(this::initialiseCounter);
+
+        long blockStart = counter.getNextValue();
+        counter.setNextValue(blockStart + blockSize);
+        idCounterRepository.save(counter);
+
+        logger.debug("Reserved trade id block [{}, {})", blockStart, blockStart + blockSize);
+        return blockStart;
+    }
+
+    private IdCounter initialiseCounter() {
+        // Starts after any trade ids already booked (e.g. the sample trades in data.sql)
+        long firstId = tradeRepository.findMaxTradeId()
+                .map(maxTradeId -> Math.max(maxTradeId + 1, FIRST_TRADE_ID))
+                .orElse(FIRST_TRADE_ID);
+        logger.info("Initialising trade id counter at {}", firstId);
+        return new IdCounter(TRADE_ID_COUNTER, firstId);
+    }
+}
@@ -0,0 +1,138 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeIdempotencyKey;
+import com.technicalchallenge.repository.TradeIdempotencyKeyRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.util.BloomFilter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Detects resubmissions of a trade that was already booked
+ * A booking is keyed on the client-supplied idempotency key, or on the UTI when no key is given.
+ * Keys seen so far are held in a Bloom filter so a new key, the common case, costs no query;
+ * only keys the filter may have seen are looked up. The unique constraint on
+ * trade_idempotency_key catches concurrent submissions and keys booked by other instances
+ */
+@Service
+public class TradeIdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdempotencyService.class);
+
+    @Autowired
+    private TradeIdempotencyKeyRepository tradeIdempotencyKeyRepository;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeLegRepository tradeLegRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BloomFilter seenKeys;
+
+    public TradeIdempotencyService(@Value("${trade.idempotency.expected-keys:1000000}") long expectedKeys,
+                                   @Value("${trade.idempotency.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.seenKeys = new BloomFilter(expectedKeys, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadKnownKeys() {
+        List<String> keys = tradeIdempotencyKeyRepository.findAllKeys();
+        keys.forEach(seenKeys::put);
+        logger.info("Loaded {} trade idempotency keys", keys.size());
+    }
+
+    /**
+     * @param tradeDTO trade being booked
+     * @return the key the booking is deduplicated on, or null if it has neither a key nor a UTI
+     */
+    public String resolveKey(TradeDTO tradeDTO) {
+        // Prefixed so a client key can never collide with a UTI
+        if (tradeDTO.getIdempotencyKey() != null && !tradeDTO.getIdempotencyKey().isBlank()) {
+            return "KEY:" + tradeDTO.getIdempotencyKey().trim();
+        }
+        if (tradeDTO.getUtiCode() != null && !tradeDTO.getUtiCode().isBlank()) {
+            return "UTI:" + tradeDTO.getUtiCode().trim();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the trade originally booked for this submission, if it is a replay
+     * Makes no query unless the Bloom filter may have seen the key
+     * @param tradeDTO trade being booked
+     * @return the originally booked trade version, empty if this is a new booking
+     */
+    public Optional<Trade> findReplay(TradeDTO tradeDTO) {
+        String key = resolveKey(tradeDTO);
+        if (key == null || !seenKeys.mightContain(key)) {
+            return Optional.empty();
+        }
+        return findBookedTrade(key);
+    }
+
+    /**
+     * Looks up the trade booked for this submission without consulting the Bloom filter
+     * Used after the unique constraint rejected a booking made concurrently or by another instance
+     * @param tradeDTO trade being booked
+     * @return the originally booked trade version, if any
+     */
+    public Optional<Trade> findOriginalBooking(TradeDTO tradeDTO) {
+        String key = resolveKey(tradeDTO);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return findBookedTrade(key).map(trade -> {
+            seenKeys.put(key);
+            return trade;
+        });
+    }
+
+    /**
+     * Records the key of a new booking in the current transaction
+     * @param tradeDTO trade that was booked
+     * @param trade saved trade
+     */
+    public void recordBooking(TradeDTO tradeDTO, Trade trade) {
+        String key = resolveKey(tradeDTO);
+        if (key == null) {
+            return;
+        }
+        tradeIdempotencyKeyRepository.save(
+                new TradeIdempotencyKey(null, key, trade.getTradeId(), trade.getVersion(), LocalDateTime.now()));
+        // Adding before commit is safe: a key from a rolled back booking only costs one extra lookup
+        seenKeys.put(key);
+    }
+
+    private Optional<Trade> findBookedTrade(String key) {
+        return tradeIdempotencyKeyRepository.findByIdempotencyKey(key)
+                .flatMap(booked -> tradeRepository.findByTradeIdAndVersion(booked.getTradeId(), booked.getTradeVersion()))
+                .map(this::withVersionLegs);
+    }
+
+    // Unchanged legs have since moved onto later versions, so a superseded version's legs come from
+    // their version range. It is detached first so the replaced collection is not orphan-removed
+    private Trade withVersionLegs(Trade trade) {
+        if (!Boolean.FALSE.equals(trade.getActive())) {
+            return trade;
+        }
+        entityManager.detach(trade);
+        trade.setTradeLegs(tradeLegRepository.findLegsOfVersion(trade.getTradeId(), trade.getVersion()));
+        return trade;
+    }
+}
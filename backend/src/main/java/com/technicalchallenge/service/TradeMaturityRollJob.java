@@ -0,0 +1,260 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.JobStatusDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.JobCheckpoint;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.JobCheckpointRepository;
+import com.technicalchallenge.repository.TradeAuditRepository;
+import com.technicalchallenge.repository.TradeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * End-of-day job that moves active trades past their maturity date from LIVE to DEAD
+ * Matured trades are read by row id in waves of one chunk per worker thread. Each chunk
+ * is its own short transaction that only locks the rows it changes, so the online blotter
+ * keeps reading and amending the rest of the trade table while the job runs. After each
+ * wave the highest finished id is checkpointed, and a rerun for the same business date
+ * resumes from there
+ */
+@Service
+public class TradeMaturityRollJob {
+    private static final Logger logger = LoggerFactory.getLogger(TradeMaturityRollJob.class);
+
+    public static final String JOB_NAME = "trade-maturity-roll";
+
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeAuditRepository tradeAuditRepository;
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TradeEventPublisher tradeEventPublisher;
+
+    @Value("${trade.maturity-roll.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${trade.maturity-roll.threads:4}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double lastTradesPerSecond;
+
+    private Counter tradesRolled;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        tradesRolled = Counter.builder("trade.maturity.roll.trades")
+                .description("Trades moved from LIVE to DEAD by the maturity roll")
+                .register(meterRegistry);
+        chunkTimer = Timer.builder("trade.maturity.roll.chunk")
+                .description("Time to roll one chunk of matured trades")
+                .register(meterRegistry);
+        Gauge.builder("trade.maturity.roll.throughput", this, job -> job.lastTradesPerSecond)
+                .description("Trades per second of the latest maturity roll run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background unless one is already in progress
+     * @param businessDate trades maturing before this date are rolled
+     * @return false if a run is already in progress
+     */
+    public boolean start(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread runner = new Thread(() -> runClaimed(businessDate), JOB_NAME);
+        runner.setDaemon(true);
+        runner.start();
+        return true;
+    }
+
+    /**
+     * Rolls every matured LIVE trade to DEAD, resuming from the checkpoint of an
+     * unfinished run for the same business date
+     * @param businessDate trades maturing before this date are rolled
+     * @return the job status once the run has finished
+     */
+    public JobStatusDTO run(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Maturity roll already running, skipping run for {}", businessDate);
+            return getStatus();
+        }
+        return runClaimed(businessDate);
+    }
+
+    // Runs the job once this thread has claimed the running flag
+    private JobStatusDTO runClaimed(LocalDate businessDate) {
+        try {
+            JobCheckpoint checkpoint = startCheckpoint(businessDate);
+            if ("COMPLETED".equals(checkpoint.getStatus())) {
+                logger.info("Maturity roll for {} already completed", businessDate);
+            } else {
+                rollMaturedTrades(checkpoint);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Maturity roll for {} could not start: {}", businessDate, e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+        return getStatus();
+    }
+
+    /**
+     * Returns the state of the latest run
+     * @return job status, NOT_RUN if the job has never run
+     */
+    public JobStatusDTO getStatus() {
+        return jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> new JobStatusDTO(JOB_NAME, checkpoint.getBusinessDate(),
+                        running.get() ? "RUNNING" : checkpoint.getStatus(), checkpoint.getLastProcessedId(),
+                        checkpoint.getProcessedCount(), lastTradesPerSecond,
+                        checkpoint.getStartedTime(), checkpoint.getUpdatedTime()))
+                .orElseGet(() -> new JobStatusDTO(JOB_NAME, null, "NOT_RUN", null, 0L, 0, null, null));
+    }
+
+    private JobCheckpoint startCheckpoint(LocalDate businessDate) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint != null && businessDate.equals(checkpoint.getBusinessDate())) {
+            if (!"COMPLETED".equals(checkpoint.getStatus())) {
+                logger.info("Resuming maturity roll for {} after trade row {}", businessDate,
+                        checkpoint.getLastProcessedId());
+            }
+            return checkpoint;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME, businessDate, 0L, 0L, "RUNNING", now, now));
+    }
+
+    private void rollMaturedTrades(JobCheckpoint checkpoint) {
+        TradeStatus live = findStatus("LIVE");
+        TradeStatus dead = findStatus("DEAD");
+        LocalDate businessDate = checkpoint.getBusinessDate();
+        String runId = JOB_NAME + ":" + businessDate;
+
+        checkpoint.setStatus("RUNNING");
+        checkpoint.setUpdatedTime(LocalDateTime.now());
+        jobCheckpointRepository.save(checkpoint);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread worker = new Thread(runnable, JOB_NAME + "-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+        long startNanos = System.nanoTime();
+        long rolledThisRun = 0;
+        try {
+            while (true) {
+                // Reads one wave of ids; plain reads, so nothing is locked until a chunk runs
+                List<List<Long>> wave = new ArrayList<>(threads);
+                long afterId = checkpoint.getLastProcessedId();
+                for (int i = 0; i < threads; i++) {
+                    List<Long> ids = tradeRepository.findMaturedIds(businessDate, live, afterId,
+                            PageRequest.of(0, chunkSize));
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    wave.add(ids);
+                    afterId = ids.get(ids.size() - 1);
+                }
+                if (wave.isEmpty()) {
+                    break;
+                }
+
+                List<Future<Integer>> chunks = new ArrayList<>(wave.size());
+                for (List<Long> ids : wave) {
+                    chunks.add(workers.submit(() -> chunkTimer.recordCallable(() ->
+                            transactionTemplate.execute(status -> rollChunk(ids, live, dead, runId)))));
+                }
+                int rolled = 0;
+                for (Future<Integer> chunk : chunks) {
+                    rolled += chunk.get();
+                }
+
+                // The whole wave is committed, so everything up to its last id is done
+                rolledThisRun += rolled;
+                tradesRolled.increment(rolled);
+                checkpoint.setLastProcessedId(afterId);
+                checkpoint.setProcessedCount(checkpoint.getProcessedCount() + rolled);
+                checkpoint.setUpdatedTime(LocalDateTime.now());
+                jobCheckpointRepository.save(checkpoint);
+                logger.debug("Maturity roll for {} checkpointed at trade row {}, {} trades rolled",
+                        businessDate, afterId, checkpoint.getProcessedCount());
+            }
+            checkpoint.setStatus("COMPLETED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checkpoint.setStatus("FAILED");
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Maturity roll for {} failed after trade row {}: {}", businessDate,
+                    checkpoint.getLastProcessedId(), e.getMessage(), e);
+            checkpoint.setStatus("FAILED");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+        lastTradesPerSecond = rolledThisRun / seconds;
+        checkpoint.setUpdatedTime(LocalDateTime.now());
+        jobCheckpointRepository.save(checkpoint);
+        logger.info("Maturity roll for {} {}: {} trades rolled in {} s ({} trades/s)", businessDate,
+                checkpoint.getStatus(), rolledThisRun, String.format("%.1f", seconds),
+                String.format("%.0f", lastTradesPerSecond));
+    }
+
+    // Locks, audits and updates one chunk. Rows amended or cancelled since they were read drop out at the lock
+    private int rollChunk(List<Long> ids, TradeStatus live, TradeStatus dead, String runId) {
+        List<Long> lockedIds = tradeRepository.lockActiveIdsInStatus(ids, live);
+        if (lockedIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        tradeAuditRepository.insertForTrades(lockedIds, "mature", dead.getTradeStatus(), JOB_NAME, runId, now);
+        int updated = tradeRepository.updateStatusByIds(lockedIds, dead, now);
+        for (Object[] trade : tradeRepository.findTradeIdAndVersionByIds(lockedIds)) {
+            tradeEventPublisher.publishStatusChange(TradeEvent.MATURED, (Long) trade[0], (Integer) trade[1],
+                    dead.getTradeStatus());
+        }
+        return updated;
+    }
+
+    private TradeStatus findStatus(String status) {
+        return referenceDataCache.findByName(TradeStatus.class, status)
+                .orElseThrow(() -> new RuntimeException(status + " status not found"));
+    }
+}
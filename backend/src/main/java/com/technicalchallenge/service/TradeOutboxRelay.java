@@ -0,0 +1,182 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeChangeEventDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeJournal;
+import com.technicalchallenge.model.TradeOutbox;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relays trade changes from the outbox table to the trade journal and the trade change feed
+ * Runs once per coalescing window. Every change is appended to the journal in outbox order
+ * and only marked journalled once the append is done, so a crash or a journal failure delays
+ * events rather than losing them. All changes of one trade written during the window are
+ * folded into a single feed entry for its latest change, so a trade amended several times in
+ * quick succession is only delivered once. Offsets are given out here, in publish order,
+ * because outbox ids are not in commit order
+ */
+@Service
+public class TradeOutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(TradeOutboxRelay.class);
+
+    @Autowired
+    private TradeOutboxRepository tradeOutboxRepository;
+    @Autowired
+    private TradeChangeFeed tradeChangeFeed;
+    @Autowired
+    private TradeJournal tradeJournal;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${trade.outbox.batch-size:1000}")
+    private int batchSize;
+    @Value("${trade.outbox.retention-hours:24}")
+    private int retentionHours;
+
+    private long lastOffset;
+    // Set on startup and after a failed run, when appended rows may not have been marked journalled
+    private boolean checkJournal = true;
+
+    @PostConstruct
+    void init() {
+        lastOffset = tradeOutboxRepository.findMaxFeedOffset().orElse(0L);
+    }
+
+    /**
+     * Publishes the outbox rows written since the previous run
+     * @return number of feed entries published
+     */
+    @Scheduled(fixedDelayString = "${trade.outbox.coalesce-window-ms:500}")
+    public synchronized int relay() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        journal(transactionTemplate);
+
+        List<TradeChangeEventDTO> published = new ArrayList<>();
+        long offsetBefore = lastOffset;
+        try {
+            List<TradeChangeEventDTO> batch;
+            do {
+                batch = transactionTemplate.execute(status -> publishBatch());
+                published.addAll(batch);
+            } while (!batch.isEmpty() && published.size() < batchSize * 10);
+        } catch (RuntimeException e) {
+            // Offsets of the rolled back batch are handed out again on the next run
+            logger.error("Trade outbox relay failed: {}", e.getMessage(), e);
+            lastOffset = offsetBefore + published.size();
+        }
+        if (!published.isEmpty()) {
+            tradeChangeFeed.broadcast(published);
+            logger.debug("Relayed {} trade changes up to offset {}", published.size(), lastOffset);
+        }
+        return published.size();
+    }
+
+    /**
+     * Deletes published outbox rows older than the retention period
+     */
+    @Scheduled(cron = "${trade.outbox.purge-cron:0 0 * * * *}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = new TransactionTemplate(transactionManager)
+                .execute(status -> tradeOutboxRepository.deletePublishedBefore(before));
+        logger.info("Purged {} published trade outbox rows older than {}", deleted, before);
+    }
+
+    // Appends the outbox rows not journalled yet, one transaction per batch
+    private void journal(TransactionTemplate transactionTemplate) {
+        try {
+            Integer journalled;
+            do {
+                journalled = transactionTemplate.execute(status -> journalBatch());
+            } while (journalled != null && journalled == batchSize);
+            checkJournal = false;
+        } catch (RuntimeException e) {
+            // The batch stays unjournalled and is retried next run; its appended events are skipped then
+            checkJournal = true;
+            logger.error("Trade journal relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int journalBatch() {
+        List<TradeOutbox> pending = tradeOutboxRepository.findByJournalledFalseOrderByIdAsc(PageRequest.of(0, batchSize));
+        for (TradeOutbox change : pending) {
+            TradeEvent event = toJournalEvent(change);
+            if (event != null && !(checkJournal && isJournalled(change))) {
+                tradeJournal.append(event);
+            }
+            change.setJournalled(true);
+        }
+        tradeOutboxRepository.saveAll(pending);
+        return pending.size();
+    }
+
+    // Only consulted after a restart or failure, so the trade's journal records are read rarely
+    private boolean isJournalled(TradeOutbox change) {
+        boolean[] found = new boolean[1];
+        tradeJournal.replayTrade(change.getTradeId(), event -> found[0] |= change.getId().equals(event.getOutboxId()));
+        return found[0];
+    }
+
+    // Null for a row without a readable event, which is skipped so it cannot hold up the rows behind it
+    private TradeEvent toJournalEvent(TradeOutbox change) {
+        if (change.getEventPayload() == null) {
+            return null;
+        }
+        try {
+            TradeEvent event = objectMapper.readValue(change.getEventPayload(), TradeEvent.class);
+            event.setOutboxId(change.getId());
+            return event;
+        } catch (JsonProcessingException e) {
+            logger.error("Skipping unreadable event of trade outbox row {}: {}", change.getId(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private List<TradeChangeEventDTO> publishBatch() {
+        List<TradeOutbox> pending = tradeOutboxRepository.findByPublishedFalseOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        // Latest change of each trade, in the order the trades first appear in the batch
+        Map<Long, List<TradeOutbox>> byTrade = new LinkedHashMap<>();
+        for (TradeOutbox change : pending) {
+            byTrade.computeIfAbsent(change.getTradeId(), tradeId -> new ArrayList<>()).add(change);
+        }
+
+        List<TradeChangeEventDTO> events = new ArrayList<>(byTrade.size());
+        for (List<TradeOutbox> changes : byTrade.values()) {
+            TradeOutbox latest = changes.get(changes.size() - 1);
+            for (TradeOutbox change : changes) {
+                change.setPublished(true);
+            }
+            latest.setFeedOffset(++lastOffset);
+            latest.setCoalescedCount(changes.size());
+            events.add(TradeChangeFeed.toEvent(latest));
+        }
+        tradeOutboxRepository.saveAll(pending);
+        return events;
+    }
+}
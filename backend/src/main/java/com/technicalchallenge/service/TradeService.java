@@ -1,13 +1,23 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.cashflow.CashflowSchedule;
+import com.technicalchallenge.cashflow.DayCountConvention;
+import com.technicalchallenge.cashflow.RollConvention;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.model.*;
 import com.technicalchallenge.repository.*;
 import com.technicalchallenge.specification.TradeSpecificationBuilder;
+import com.technicalchallenge.util.KeysetCursor;
+import com.technicalchallenge.util.TradeEconomicsHash;
 import com.technicalchallenge.validation.ValidationResult;
 import com.technicalchallenge.validation.TradeValidator;
 import com.technicalchallenge.validation.UserPrivilegeValidator;
+import com.technicalchallenge.exception.TradeConcurrencyException;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
 import com.technicalchallenge.exception.TradeValidationException;
 import com.technicalchallenge.exception.UserPrivilegeValidationException;
 
@@ -17,16 +27,25 @@ import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
 
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.sqm.NullPrecedence;
+
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,15 +53,26 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @Transactional
 public class TradeService {
     private static final Logger logger = LoggerFactory.getLogger(TradeService.class);
 
+    // Trades per IN list when loading legs and cashflows for a list of trades
+    private static final int FETCH_CHUNK_SIZE = 500;
+    // Trade attribute types a keyset cursor can carry and parse back
+    private static final Set<Class<?>> CURSOR_KEY_TYPES = Set.of(String.class, Long.class, Integer.class,
+            BigDecimal.class, Boolean.class, LocalDate.class, LocalDateTime.class);
+
     @Autowired
     private TradeRepository tradeRepository;
     @Autowired
@@ -50,31 +80,7 @@ public class TradeService {
     @Autowired
     private CashflowRepository cashflowRepository;
     @Autowired
-    private TradeStatusRepository tradeStatusRepository;
-    @Autowired
-    private BookRepository bookRepository;
-    @Autowired
-    private CounterpartyRepository counterpartyRepository;
-    @Autowired
-    private ApplicationUserRepository applicationUserRepository;
-    @Autowired
-    private TradeTypeRepository tradeTypeRepository;
-    @Autowired
-    private TradeSubTypeRepository tradeSubTypeRepository;
-    @Autowired
-    private CurrencyRepository currencyRepository;
-    @Autowired
-    private LegTypeRepository legTypeRepository;
-    @Autowired
-    private IndexRepository indexRepository;
-    @Autowired
-    private HolidayCalendarRepository holidayCalendarRepository;
-    @Autowired
-    private ScheduleRepository scheduleRepository;
-    @Autowired
-    private BusinessDayConventionRepository businessDayConventionRepository;
-    @Autowired
-    private PayRecRepository payRecRepository;
+    private ReferenceDataCache referenceDataCache;
     @Autowired
     private AdditionalInfoService additionalInfoService;
     @PersistenceContext 
@@ -85,11 +91,26 @@ public class TradeService {
     private TradeValidator tradeValidator;
     @Autowired 
     private UserPrivilegeValidator userPrivilegeValidator;
+    @Autowired
+    private TradeIdAllocator tradeIdAllocator;
+    @Autowired
+    private TradeIdempotencyService tradeIdempotencyService;
+    @Autowired
+    private TradeEventPublisher tradeEventPublisher;
+    @Autowired
+    private CashflowEngine cashflowEngine;
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+    @Autowired
+    private IndexFixingStore indexFixingStore;
+    @Value("${trade.search.max-page-size:1000}")
+    private int maxPageSize;
     
 
+    @Transactional(readOnly = true)
     public List<Trade> getAllTrades() {
         logger.info("Retrieving all trades");
-        return tradeRepository.findAll();
+        return withLegsAndCashflows(tradeRepository.findAllSummaries());
     }
 
     public Optional<Trade> getTradeById(Long tradeId) {
@@ -167,6 +188,7 @@ public class TradeService {
      * @param sortDir             Sort direction ("asc" or "desc")
      * @return                    A paginated list of trades
      */
+    @Transactional(readOnly = true)
     public Page<Trade> getTradesWithFiltersAndPagination(
         String counterpartyName,
         String bookName, 
@@ -193,7 +215,9 @@ public class TradeService {
             tradeDate, tradeStartDate, tradeMaturityDate
         );
 
-        return tradeRepository.findAll(spec, pageable);
+        Page<Trade> page = tradeRepository.findAll(spec, pageable);
+        withLegsAndCashflows(page.getContent());
+        return page;
     }
 
     /**
@@ -205,6 +229,7 @@ public class TradeService {
      * @param sortDir    Sort direction ("asc" or "desc")
      * @return           A paginated list of trades matching the RSQL filters
      */
+    @Transactional(readOnly = true)
     public Page<Trade> getTradesByRsql(String query, int pageNumber, int pageSize, String sortBy, String sortDir) {
         
         // Sorts based on ascending or descending
@@ -218,16 +243,242 @@ public class TradeService {
         // Converts RSQL query string into a JPA Specification
         Specification<Trade> spec = RSQLJPASupport.toSpecification(query);
         
-        return tradeRepository.findAll(spec, pageable);
+        Page<Trade> page = tradeRepository.findAll(spec, pageable);
+        withLegsAndCashflows(page.getContent());
+        return page;
+    }
+
+    /**
+     * Cursor mode of the multi-criteria search: seeks past the last row of the previous page on
+     * (sortBy, id) instead of skipping OFFSET rows, so a deep page costs the same as the first
+     * @param counterpartyName    Counterparty name filter (optional)
+     * @param bookName            Book name filter (optional)
+     * @param traderUserId        Trader ID filter (optional)
+     * @param tradeStatus         Trade status filter (optional)
+     * @param tradeDate           Trade date filter (optional)
+     * @param tradeStartDate      Start date filter (optional)
+     * @param tradeMaturityDate   Maturity date filter (optional)
+     * @param cursor              nextCursor of the previous page, null for the first page
+     * @param pageSize            Number of records per page
+     * @param sortBy              Trade attribute to sort by; must be a basic attribute
+     * @param sortDir             Sort direction ("asc" or "desc")
+     * @param includeTotal        Also count all matching trades
+     * @return                    One page of trades with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor, page size or sort attribute is invalid
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<Trade> getTradesWithFiltersAfterCursor(
+        String counterpartyName,
+        String bookName,
+        Long traderUserId,
+        String tradeStatus,
+        LocalDate tradeDate,
+        LocalDate tradeStartDate,
+        LocalDate tradeMaturityDate,
+        String cursor,
+        int pageSize,
+        String sortBy,
+        String sortDir,
+        boolean includeTotal) {
+
+        Specification<Trade> spec = tradeSpecificationBuilder.buildTradeSpecification(
+            counterpartyName, bookName, traderUserId, tradeStatus,
+            tradeDate, tradeStartDate, tradeMaturityDate
+        );
+        return findTradesAfter(spec, cursor, pageSize, sortBy, sortDir, includeTotal);
+    }
+
+    /**
+     * Cursor mode of the RSQL search, see {@link #getTradesWithFiltersAfterCursor}
+     * @param query        RSQL-formatted query string
+     * @param cursor       nextCursor of the previous page, null for the first page
+     * @param pageSize     Number of records per page
+     * @param sortBy       Trade attribute to sort by; must be a basic attribute
+     * @param sortDir      Sort direction ("asc" or "desc")
+     * @param includeTotal Also count all matching trades
+     * @return             One page of trades with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor, page size or sort attribute is invalid
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<Trade> getTradesByRsqlAfterCursor(String query, String cursor, int pageSize, String sortBy,
+                                                           String sortDir, boolean includeTotal) {
+        Specification<Trade> spec = RSQLJPASupport.toSpecification(query);
+        return findTradesAfter(spec, cursor, pageSize, sortBy, sortDir, includeTotal);
+    }
+
+    /**
+     * Runs one keyset page of a trade search
+     * Rows are ordered by the sort attribute, nulls after every value in either direction's
+     * reading (last ascending, first descending, as a B-tree index returns them), then by row id.
+     * The cursor holds both values of the last row; one row past the page tells whether there is
+     * a next page, so no count runs unless includeTotal is set
+     */
+    private KeysetPageDTO<Trade> findTradesAfter(Specification<Trade> spec, String cursor, int pageSize,
+                                                 String sortBy, String sortDir, boolean includeTotal) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + maxPageSize);
+        }
+        Attribute<? super Trade, ?> attribute = entityManager.getMetamodel().entity(Trade.class).getAttribute(sortBy);
+        if (attribute.isAssociation() || !CURSOR_KEY_TYPES.contains(attribute.getJavaType())) {
+            throw new IllegalArgumentException("Cannot page with a cursor on " + sortBy);
+        }
+        boolean descending = "desc".equalsIgnoreCase(sortDir);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Trade> query = cb.createQuery(Trade.class);
+        Root<Trade> trade = query.from(Trade.class);
+        Path<Comparable<Object>> key = trade.get(sortBy);
+        Path<Long> id = trade.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec != null ? spec.toPredicate(trade, query, cb) : null;
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> after = KeysetCursor.decode(cursor, 2);
+            Comparable<Object> afterKey;
+            long afterId;
+            try {
+                afterKey = parseCursorKey(attribute.getJavaType(), after.get(0));
+                afterId = Long.parseLong(after.get(1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            predicates.add(seekPredicate(cb, key, id, afterKey, afterId, descending));
+        }
+
+        Order keyOrder = descending
+                ? ((JpaOrder) cb.desc(key)).nullPrecedence(NullPrecedence.FIRST)
+                : ((JpaOrder) cb.asc(key)).nullPrecedence(NullPrecedence.LAST);
+        query.select(trade)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(keyOrder, descending ? cb.desc(id) : cb.asc(id));
+        List<Trade> rows = entityManager.createQuery(query)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Trade.summary"))
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+        boolean lastPage = rows.size() <= pageSize;
+        List<Trade> content = lastPage ? rows : rows.subList(0, pageSize);
+        String nextCursor = null;
+        if (!lastPage) {
+            Trade last = content.get(content.size() - 1);
+            Object lastKey = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(sortBy);
+            nextCursor = KeysetCursor.encode(lastKey, last.getId());
+        }
+
+        Long total = null;
+        if (includeTotal) {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<Trade> countRoot = countQuery.from(Trade.class);
+            Predicate countFilter = spec != null ? spec.toPredicate(countRoot, countQuery, cb) : null;
+            countQuery.select(cb.count(countRoot));
+            if (countFilter != null) {
+                countQuery.where(countFilter);
+            }
+            total = entityManager.createQuery(countQuery).getSingleResult();
+        }
+        withLegsAndCashflows(content);
+        logger.debug("Found {} trades after cursor, last page {}", content.size(), lastPage);
+        return new KeysetPageDTO<>(content, pageSize, nextCursor, lastPage, total);
+    }
+
+    // Rows after (afterKey, afterId) in the order of findTradesAfter, where null sorts above every value
+    private static Predicate seekPredicate(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Long> id,
+                                           Comparable<Object> afterKey, long afterId, boolean descending) {
+        Predicate idAfter = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+        if (afterKey == null) {
+            return descending
+                    ? cb.or(cb.isNotNull(key), cb.and(cb.isNull(key), idAfter))
+                    : cb.and(cb.isNull(key), idAfter);
+        }
+        Predicate beyondKey = descending ? cb.lessThan(key, afterKey) : cb.greaterThan(key, afterKey);
+        Predicate sameKey = cb.and(cb.equal(key, afterKey), idAfter);
+        return descending ? cb.or(beyondKey, sameKey) : cb.or(beyondKey, sameKey, cb.isNull(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parseCursorKey(Class<?> type, String text) {
+        if (text == null) {
+            return null;
+        }
+        Comparable<?> value;
+        if (type == Long.class) {
+            value = Long.valueOf(text);
+        } else if (type == Integer.class) {
+            value = Integer.valueOf(text);
+        } else if (type == BigDecimal.class) {
+            value = new BigDecimal(text);
+        } else if (type == Boolean.class) {
+            value = Boolean.valueOf(text);
+        } else if (type == LocalDate.class) {
+            value = LocalDate.parse(text);
+        } else if (type == LocalDateTime.class) {
+            value = LocalDateTime.parse(text);
+        } else {
+            value = text;
+        }
+        return (Comparable<Object>) value;
+    }
+
+    /**
+     * Loads everything TradeMapper.toDto reads below the trade for a list or page of trades
+     * The trades come with their reference data from the Trade.summary entity graph; this adds one
+     * query for the legs with their reference data and one for the cashflows with theirs, per
+     * chunk of trades, instead of lazy loads per trade, leg and cashflow
+     * @param trades trades loaded in the current transaction
+     * @return the same trades, with legs and cashflows initialised
+     */
+    private List<Trade> withLegsAndCashflows(List<Trade> trades) {
+        for (int from = 0; from < trades.size(); from += FETCH_CHUNK_SIZE) {
+            List<Long> ids = trades.subList(from, Math.min(from + FETCH_CHUNK_SIZE, trades.size())).stream()
+                    .map(Trade::getId)
+                    .toList();
+            tradeRepository.fetchLegs(ids);
+            tradeLegRepository.fetchCashflows(ids);
+        }
+        return trades;
     }
 
     @Transactional
     public Trade createTrade(TradeDTO tradeDTO) {
         logger.info("Creating new trade with ID: {}", tradeDTO.getTradeId());
 
+        // A retried submission returns the trade it originally booked
+        Optional<Trade> replay = tradeIdempotencyService.findReplay(tradeDTO);
+        if (replay.isPresent()) {
+            logger.info("Duplicate submission, returning trade {} version {}", replay.get().getTradeId(), replay.get().getVersion());
+            return replay.get();
+        }
+
+        Trade trade = prepareNewTrade(tradeDTO);
+
+        Trade savedTrade = tradeRepository.save(trade);
+
+        // Create trade legs and cashflows
+        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+
+        // Unique key insert, fails the booking if the same submission was booked concurrently
+        tradeIdempotencyService.recordBooking(tradeDTO, savedTrade);
+
+        tradeEventPublisher.publishTradeVersion(TradeEvent.CREATED, savedTrade, tradeDTO.getTradeLegs());
+
+        logger.info("Successfully created trade with ID: {}", savedTrade.getTradeId());
+        return savedTrade;
+    }
+
+    /**
+     * Builds version 1 of a new trade from the DTO, ready to be saved
+     * Assigns a trade ID when none is given and resolves reference data from the cache,
+     * so no database calls are made
+     * @param tradeDTO trade details
+     * @return unsaved trade entity with its reference data populated
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Trade prepareNewTrade(TradeDTO tradeDTO) {
         // Generate trade ID if not provided
         if (tradeDTO.getTradeId() == null) {
-            // Generate sequential trade ID starting from 10000
+            // Generate trade ID from the block allocator, starting from 10000
             Long generatedTradeId = generateNextTradeId();
             tradeDTO.setTradeId(generatedTradeId);
             logger.info("Generated trade ID: {}", generatedTradeId);
@@ -254,13 +505,9 @@ public class TradeService {
         // Ensure we have essential reference data
         validateReferenceData(trade);
 
-        Trade savedTrade = tradeRepository.save(trade);
-
-        // Create trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+        trade.setEconomicsHash(TradeEconomicsHash.of(trade, buildTransientLegs(tradeDTO, trade)));
 
-        logger.info("Successfully created trade with ID: {}", savedTrade.getTradeId());
-        return savedTrade;
+        return trade;
     }
         
 
@@ -269,55 +516,81 @@ public class TradeService {
     public Trade saveTrade(Trade trade, TradeDTO tradeDTO) {
         logger.info("Saving trade with ID: {}", trade.getTradeId());
 
+        validatePrivilegesAndBusinessRules(tradeDTO);
+
+        // If this is an existing trade (has ID), handle as amendment
+        if (trade.getId() != null) {
+            return amendTrade(trade.getTradeId(), tradeDTO);
+        } else {
+            return createTrade(tradeDTO);
+        }
+    }
+
+    /**
+     * Finds the trade originally booked for a submission whose booking hit the idempotency key constraint
+     * @param tradeDTO resubmitted trade
+     * @return the originally booked trade version, if any
+     */
+    @Transactional(readOnly = true)
+    public Optional<Trade> findOriginalBooking(TradeDTO tradeDTO) {
+        return tradeIdempotencyService.findOriginalBooking(tradeDTO);
+    }
+
+    /**
+     * Runs the privilege, business rule and structural checks a new trade must pass before it is booked
+     * Used by bulk booking so invalid trades are rejected before a chunk transaction is opened
+     * @param tradeDTO trade to validate
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateTradeForBooking(TradeDTO tradeDTO) {
+        validatePrivilegesAndBusinessRules(tradeDTO);
+        validateTradeCreation(tradeDTO);
+    }
+
+    private void validatePrivilegesAndBusinessRules(TradeDTO tradeDTO) {
         // Validate privileges
         boolean hasSufficientPrivileges = userPrivilegeValidator.validateUserPrivileges(
-                    tradeDTO.getInputterUserName(), "CREATE", tradeDTO);
-                if (!hasSufficientPrivileges) {
-                    throw new UserPrivilegeValidationException("This account lacks the required privileges for this operation");
-                }
+                tradeDTO.getInputterUserName(), "CREATE", tradeDTO);
+        if (!hasSufficientPrivileges) {
+            throw new UserPrivilegeValidationException("This account lacks the required privileges for this operation");
+        }
 
         // Validate trade business rules
         ValidationResult validationResult = tradeValidator.validateTradeBusinessRules(tradeDTO);
         if (!validationResult.isValid()) {
             throw new TradeValidationException("Invalid trade: ", validationResult.getErrors());
         }
-
-        // If this is an existing trade (has ID), handle as amendment
-        if (trade.getId() != null) {
-            return amendTrade(trade.getTradeId(), tradeDTO);
-        } else {
-            return createTrade(tradeDTO);
-        }
     }
 
     // FIXED: Populate reference data by names from DTO
+    // Reference data is resolved from the in-memory ReferenceDataCache, so enrichment makes no database calls
     public void populateReferenceDataByName(Trade trade, TradeDTO tradeDTO) {
         logger.debug("Populating reference data for trade");
 
         // Populate Book
         if (tradeDTO.getBookName() != null) {
-            bookRepository.findByBookName(tradeDTO.getBookName())
+            referenceDataCache.findByName(Book.class, tradeDTO.getBookName())
                     .ifPresent(trade::setBook);
         } else if (tradeDTO.getBookId() != null) {
-            bookRepository.findById(tradeDTO.getBookId())
+            referenceDataCache.findById(Book.class, tradeDTO.getBookId())
                     .ifPresent(trade::setBook);
         }
 
         // Populate Counterparty
         if (tradeDTO.getCounterpartyName() != null) {
-            counterpartyRepository.findByName(tradeDTO.getCounterpartyName())
+            referenceDataCache.findByName(Counterparty.class, tradeDTO.getCounterpartyName())
                     .ifPresent(trade::setCounterparty);
         } else if (tradeDTO.getCounterpartyId() != null) {
-            counterpartyRepository.findById(tradeDTO.getCounterpartyId())
+            referenceDataCache.findById(Counterparty.class, tradeDTO.getCounterpartyId())
                     .ifPresent(trade::setCounterparty);
         }
 
         // Populate TradeStatus
         if (tradeDTO.getTradeStatus() != null) {
-            tradeStatusRepository.findByTradeStatus(tradeDTO.getTradeStatus())
+            referenceDataCache.findByName(TradeStatus.class, tradeDTO.getTradeStatus())
                     .ifPresent(trade::setTradeStatus);
         } else if (tradeDTO.getTradeStatusId() != null) {
-            tradeStatusRepository.findById(tradeDTO.getTradeStatusId())
+            referenceDataCache.findById(TradeStatus.class, tradeDTO.getTradeStatusId())
                     .ifPresent(trade::setTradeStatus);
         }
 
@@ -330,64 +603,48 @@ public class TradeService {
         // Handle trader user by name or ID with enhanced logging
         if (tradeDTO.getTraderUserName() != null) {
             logger.debug("Looking up trader user by name: {}", tradeDTO.getTraderUserName());
-            String[] nameParts = tradeDTO.getTraderUserName().trim().split("\\s+");
-            if (nameParts.length >= 1) {
-                String firstName = nameParts[0];
-                logger.debug("Searching for user with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstName(firstName);
-                if (userOpt.isPresent()) {
-                    trade.setTraderUser(userOpt.get());
-                    logger.debug("Found trader user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
-                } else {
-                    logger.warn("Trader user not found with firstName: {}", firstName);
-                    // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginId(tradeDTO.getTraderUserName().toLowerCase());
-                    if (byLoginId.isPresent()) {
-                        trade.setTraderUser(byLoginId.get());
-                        logger.debug("Found trader user by loginId: {}", tradeDTO.getTraderUserName());
-                    } else {
-                        logger.warn("Trader user not found by loginId either: {}", tradeDTO.getTraderUserName());
-                    }
-                }
+            Optional<ApplicationUser> userOpt = findUserByName(tradeDTO.getTraderUserName());
+            if (userOpt.isPresent()) {
+                trade.setTraderUser(userOpt.get());
+                logger.debug("Found trader user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
+            } else {
+                logger.warn("Trader user not found by first name or loginId: {}", tradeDTO.getTraderUserName());
             }
         } else if (tradeDTO.getTraderUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTraderUserId())
+            referenceDataCache.findById(ApplicationUser.class, tradeDTO.getTraderUserId())
                     .ifPresent(trade::setTraderUser);
         }
 
         // Handle inputter user by name or ID with enhanced logging
         if (tradeDTO.getInputterUserName() != null) {
             logger.debug("Looking up inputter user by name: {}", tradeDTO.getInputterUserName());
-            String[] nameParts = tradeDTO.getInputterUserName().trim().split("\\s+");
-            if (nameParts.length >= 1) {
-                String firstName = nameParts[0];
-                logger.debug("Searching for inputter with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstName(firstName);
-                if (userOpt.isPresent()) {
-                    trade.setTradeInputterUser(userOpt.get());
-                    logger.debug("Found inputter user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
-                } else {
-                    logger.warn("Inputter user not found with firstName: {}", firstName);
-                    // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginId(tradeDTO.getInputterUserName().toLowerCase());
-                    if (byLoginId.isPresent()) {
-                        trade.setTradeInputterUser(byLoginId.get());
-                        logger.debug("Found inputter user by loginId: {}", tradeDTO.getInputterUserName());
-                    } else {
-                        logger.warn("Inputter user not found by loginId either: {}", tradeDTO.getInputterUserName());
-                    }
-                }
+            Optional<ApplicationUser> userOpt = findUserByName(tradeDTO.getInputterUserName());
+            if (userOpt.isPresent()) {
+                trade.setTradeInputterUser(userOpt.get());
+                logger.debug("Found inputter user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
+            } else {
+                logger.warn("Inputter user not found by first name or loginId: {}", tradeDTO.getInputterUserName());
             }
         } else if (tradeDTO.getTradeInputterUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTradeInputterUserId())
+            referenceDataCache.findById(ApplicationUser.class, tradeDTO.getTradeInputterUserId())
                     .ifPresent(trade::setTradeInputterUser);
         }
     }
 
+    // Matches on the first word of the name as a first name, then falls back to the whole name as a loginId
+    private Optional<ApplicationUser> findUserByName(String userName) {
+        String[] nameParts = userName.trim().split("\\s+");
+        Optional<ApplicationUser> byFirstName = referenceDataCache.findByName(ApplicationUser.class, nameParts[0]);
+        if (byFirstName.isPresent()) {
+            return byFirstName;
+        }
+        return referenceDataCache.findUserByLoginId(userName);
+    }
+
     private void populateTradeTypeReferences(Trade trade, TradeDTO tradeDTO) {
         if (tradeDTO.getTradeType() != null) {
             logger.debug("Looking up trade type: {}", tradeDTO.getTradeType());
-            Optional<TradeType> tradeTypeOpt = tradeTypeRepository.findByTradeType(tradeDTO.getTradeType());
+            Optional<TradeType> tradeTypeOpt = referenceDataCache.findByName(TradeType.class, tradeDTO.getTradeType());
             if (tradeTypeOpt.isPresent()) {
                 trade.setTradeType(tradeTypeOpt.get());
                 logger.debug("Found trade type: {} with ID: {}", tradeTypeOpt.get().getTradeType(), tradeTypeOpt.get().getId());
@@ -395,25 +652,16 @@ public class TradeService {
                 logger.warn("Trade type not found: {}", tradeDTO.getTradeType());
             }
         } else if (tradeDTO.getTradeTypeId() != null) {
-            tradeTypeRepository.findById(tradeDTO.getTradeTypeId())
+            referenceDataCache.findById(TradeType.class, tradeDTO.getTradeTypeId())
                     .ifPresent(trade::setTradeType);
         }
 
+        // The cache matches names ignoring case, so no fallback scan of all subtypes is needed
         if (tradeDTO.getTradeSubType() != null) {
-            Optional<TradeSubType> tradeSubTypeOpt = tradeSubTypeRepository.findByTradeSubType(tradeDTO.getTradeSubType());
-            if (tradeSubTypeOpt.isPresent()) {
-                trade.setTradeSubType(tradeSubTypeOpt.get());
-            } else {
-                List<TradeSubType> allSubTypes = tradeSubTypeRepository.findAll();
-                for (TradeSubType subType : allSubTypes) {
-                    if (subType.getTradeSubType().equalsIgnoreCase(tradeDTO.getTradeSubType())) {
-                        trade.setTradeSubType(subType);
-                        break;
-                    }
-                }
-            }
+            referenceDataCache.findByName(TradeSubType.class, tradeDTO.getTradeSubType())
+                    .ifPresent(trade::setTradeSubType);
         } else if (tradeDTO.getTradeSubTypeId() != null) {
-            tradeSubTypeRepository.findById(tradeDTO.getTradeSubTypeId())
+            referenceDataCache.findById(TradeSubType.class, tradeDTO.getTradeSubTypeId())
                     .ifPresent(trade::setTradeSubType);
         }
     }
@@ -427,6 +675,22 @@ public class TradeService {
 
     @Transactional
     public Trade amendTrade(Long tradeId, TradeDTO tradeDTO) {
+        return amendTrade(tradeId, tradeDTO, null, null);
+    }
+
+    /**
+     * Amends a trade, optionally only if it is still at the version the caller read
+     * Concurrent amendments of the same version are caught by the optimistic lock on the
+     * trade row, so only one of them can commit
+     * @param tradeId trade to amend
+     * @param tradeDTO amended trade details
+     * @param expectedVersion business version the caller read, or null to skip the check
+     * @param expectedRowVersion row version the caller read, or null to skip the check
+     * @return the new trade version, or the current one when the economics are unchanged
+     * @throws TradeConcurrencyException if the trade is no longer at the expected version
+     */
+    @Transactional
+    public Trade amendTrade(Long tradeId, TradeDTO tradeDTO, Integer expectedVersion, Long expectedRowVersion) {
         logger.info("Amending trade with ID: {}", tradeId);
 
         Optional<Trade> existingTradeOpt = getTradeById(tradeId);
@@ -435,6 +699,25 @@ public class TradeService {
         }
 
         Trade existingTrade = existingTradeOpt.get();
+        checkExpectedVersion(existingTrade, expectedVersion, expectedRowVersion);
+
+        // Build the new version first so it can be compared with the current one
+        Trade amendedTrade = mapDTOToEntity(tradeDTO);
+        amendedTrade.setTradeId(tradeId);
+
+        // Populate reference data
+        populateReferenceDataByName(amendedTrade, tradeDTO);
+
+        // A resubmission of the same economics is a no-op and keeps the current version
+        List<TradeLeg> amendedLegs = tradeDTO.getTradeLegs() != null
+                ? buildTransientLegs(tradeDTO, amendedTrade)
+                : activeLegs(existingTrade);
+        String economicsHash = TradeEconomicsHash.of(amendedTrade, amendedLegs);
+        if (economicsHash.equals(currentEconomicsHash(existingTrade))) {
+            logger.info("Amendment of trade {} leaves its economics unchanged, keeping version {}",
+                    tradeId, existingTrade.getVersion());
+            return existingTrade;
+        }
 
         // Deactivate existing trade
         existingTrade.setActive(false);
@@ -442,25 +725,23 @@ public class TradeService {
         tradeRepository.save(existingTrade);
 
         // Create new version
-        Trade amendedTrade = mapDTOToEntity(tradeDTO);
-        amendedTrade.setTradeId(tradeId);
         amendedTrade.setVersion(existingTrade.getVersion() + 1);
         amendedTrade.setActive(true);
         amendedTrade.setCreatedDate(LocalDateTime.now());
         amendedTrade.setLastTouchTimestamp(LocalDateTime.now());
-
-        // Populate reference data
-        populateReferenceDataByName(amendedTrade, tradeDTO);
+        amendedTrade.setEconomicsHash(economicsHash);
 
         // Set status to AMENDED
-        TradeStatus amendedStatus = tradeStatusRepository.findByTradeStatus("AMENDED")
+        TradeStatus amendedStatus = referenceDataCache.findByName(TradeStatus.class, "AMENDED")
                 .orElseThrow(() -> new RuntimeException("AMENDED status not found"));
         amendedTrade.setTradeStatus(amendedStatus);
 
         Trade savedTrade = tradeRepository.save(amendedTrade);
 
-        // Create new trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+        // Move unchanged legs onto the new version and rebuild only the legs whose economics changed
+        amendTradeLegs(tradeDTO, existingTrade, savedTrade);
+
+        tradeEventPublisher.publishTradeVersion(TradeEvent.AMENDED, savedTrade, tradeDTO.getTradeLegs());
 
         logger.info("Successfully amended trade with ID: {}", savedTrade.getTradeId());
         return savedTrade;
@@ -476,13 +757,16 @@ public class TradeService {
         }
 
         Trade trade = tradeOpt.get();
-        TradeStatus terminatedStatus = tradeStatusRepository.findByTradeStatus("TERMINATED")
+        TradeStatus terminatedStatus = referenceDataCache.findByName(TradeStatus.class, "TERMINATED")
                 .orElseThrow(() -> new RuntimeException("TERMINATED status not found"));
 
         trade.setTradeStatus(terminatedStatus);
         trade.setLastTouchTimestamp(LocalDateTime.now());
 
-        return tradeRepository.save(trade);
+        Trade savedTrade = tradeRepository.save(trade);
+        tradeEventPublisher.publishStatusChange(TradeEvent.TERMINATED, savedTrade.getTradeId(),
+                savedTrade.getVersion(), terminatedStatus.getTradeStatus());
+        return savedTrade;
     }
 
     @Transactional
@@ -495,13 +779,29 @@ public class TradeService {
         }
 
         Trade trade = tradeOpt.get();
-        TradeStatus cancelledStatus = tradeStatusRepository.findByTradeStatus("CANCELLED")
+        TradeStatus cancelledStatus = referenceDataCache.findByName(TradeStatus.class, "CANCELLED")
                 .orElseThrow(() -> new RuntimeException("CANCELLED status not found"));
 
         trade.setTradeStatus(cancelledStatus);
         trade.setLastTouchTimestamp(LocalDateTime.now());
 
-        return tradeRepository.save(trade);
+        Trade savedTrade = tradeRepository.save(trade);
+        tradeEventPublisher.publishStatusChange(TradeEvent.CANCELLED, savedTrade.getTradeId(),
+                savedTrade.getVersion(), cancelledStatus.getTradeStatus());
+        return savedTrade;
+    }
+
+    private void checkExpectedVersion(Trade trade, Integer expectedVersion, Long expectedRowVersion) {
+        boolean versionMoved = expectedVersion != null && !expectedVersion.equals(trade.getVersion());
+        boolean rowMoved = expectedRowVersion != null && !expectedRowVersion.equals(rowVersionOf(trade));
+        if (versionMoved || rowMoved) {
+            throw new TradeConcurrencyException("Trade " + trade.getTradeId() + " has been modified, current version is "
+                    + trade.getVersion() + "." + rowVersionOf(trade));
+        }
+    }
+
+    private static long rowVersionOf(Trade trade) {
+        return trade.getRowVersion() != null ? trade.getRowVersion() : 0L;
     }
 
     private void validateTradeCreation(TradeDTO tradeDTO) {
@@ -537,203 +837,332 @@ public class TradeService {
     }
 
     private void createTradeLegsWithCashflows(TradeDTO tradeDTO, Trade savedTrade) {
-        for (int i = 0; i < tradeDTO.getTradeLegs().size(); i++) {
-            var legDTO = tradeDTO.getTradeLegs().get(i);
+        List<TradeLeg> savedLegs = createTradeLegs(tradeDTO, savedTrade);
+
+        // Generate cashflows for each leg
+        generateCashflowsForLegs(savedLegs, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+    }
+
+    /**
+     * Saves the legs of a trade without generating their cashflows
+     * @param tradeDTO trade details holding the leg definitions
+     * @param savedTrade trade the legs belong to
+     * @return the saved legs, in the order of the DTO legs
+     */
+    public List<TradeLeg> createTradeLegs(TradeDTO tradeDTO, Trade savedTrade) {
+        List<TradeLeg> savedLegs = new ArrayList<>(tradeDTO.getTradeLegs().size());
+        for (TradeLegDTO legDTO : tradeDTO.getTradeLegs()) {
+            savedLegs.add(tradeLegRepository.save(buildTradeLeg(legDTO, savedTrade)));
+        }
+        return savedLegs;
+    }
+
+    private TradeLeg buildTradeLeg(TradeLegDTO legDTO, Trade trade) {
+        TradeLeg tradeLeg = new TradeLeg();
+        tradeLeg.setTrade(trade);
+        tradeLeg.setNotional(legDTO.getNotional());
+        tradeLeg.setRate(legDTO.getRate());
+        tradeLeg.setDayCountConvention(DayCountConvention.fromCode(legDTO.getDayCountConvention()).getCode());
+        tradeLeg.setValidFromVersion(trade.getVersion());
+        tradeLeg.setActive(true);
+        tradeLeg.setCreatedDate(LocalDateTime.now());
+
+        // Populate reference data for leg
+        populateLegReferenceData(tradeLeg, legDTO);
+        return tradeLeg;
+    }
+
+    /**
+     * Builds the legs of an amended trade's new version
+     * Only the live version's legs and cashflows are active. A leg whose economics are unchanged
+     * moves onto the new version with its cashflows untouched, widening its version range, so no
+     * rows are copied. A changed or dropped leg ends its range at the superseded version and is
+     * deactivated together with its cashflows; a changed leg is replaced by a new leg with freshly
+     * generated cashflows that links back through previousLegId. A version's legs are read back
+     * through TradeLegRepository.findLegsOfVersion.
+     * Incoming legs are matched to current legs by legId when given, otherwise by position.
+     * When the trade dates change every leg is rebuilt, as all cashflow dates move
+     * @param tradeDTO amended trade details
+     * @param existingTrade version being replaced
+     * @param amendedTrade saved new version
+     */
+    private void amendTradeLegs(TradeDTO tradeDTO, Trade existingTrade, Trade amendedTrade) {
+        List<TradeLeg> currentLegs = activeLegs(existingTrade);
+        List<TradeLeg> versionLegs = new ArrayList<>();
+        amendedTrade.setTradeLegs(versionLegs);
+
+        // No legs supplied means the legs are not being amended
+        if (tradeDTO.getTradeLegs() == null) {
+            currentLegs.forEach(leg -> versionLegs.add(carryOverLeg(leg, existingTrade, amendedTrade)));
+            return;
+        }
+        List<TradeLegDTO> legDTOs = tradeDTO.getTradeLegs();
+
+        boolean datesChanged = !Objects.equals(existingTrade.getTradeStartDate(), tradeDTO.getTradeStartDate())
+                || !Objects.equals(existingTrade.getTradeMaturityDate(), tradeDTO.getTradeMaturityDate());
+
+        List<TradeLeg> unmatched = new ArrayList<>(currentLegs);
+        List<Long> replacedLegIds = new ArrayList<>();
+        List<TradeLeg> newLegs = new ArrayList<>();
+        int carriedOver = 0;
+
+        for (int i = 0; i < legDTOs.size(); i++) {
+            TradeLegDTO legDTO = legDTOs.get(i);
+            TradeLeg currentLeg = matchLeg(legDTO, i, currentLegs, unmatched);
+            TradeLeg candidate = buildTradeLeg(legDTO, amendedTrade);
+
+            if (currentLeg != null && !datesChanged && sameLegEconomics(currentLeg, candidate)) {
+                versionLegs.add(carryOverLeg(currentLeg, existingTrade, amendedTrade));
+                carriedOver++;
+                continue;
+            }
+            if (currentLeg != null) {
+                retireLeg(currentLeg, existingTrade);
+                replacedLegIds.add(currentLeg.getLegId());
+                candidate.setPreviousLegId(currentLeg.getLegId());
+                candidate.setOriginalLegId(originalLegId(currentLeg));
+            }
+            TradeLeg newLeg = tradeLegRepository.save(candidate);
+            newLeg.setCashflows(new ArrayList<>());
+            newLegs.add(newLeg);
+            versionLegs.add(newLeg);
+        }
+
+        // Current legs with no incoming counterpart are dropped from the new version
+        for (TradeLeg removedLeg : unmatched) {
+            retireLeg(removedLeg, existingTrade);
+            replacedLegIds.add(removedLeg.getLegId());
+        }
+        if (!replacedLegIds.isEmpty()) {
+            cashflowRepository.deactivateByLegIds(replacedLegIds, LocalDate.now());
+        }
 
-            TradeLeg tradeLeg = new TradeLeg();
-            tradeLeg.setTrade(savedTrade);
-            tradeLeg.setNotional(legDTO.getNotional());
-            tradeLeg.setRate(legDTO.getRate());
-            tradeLeg.setActive(true);
-            tradeLeg.setCreatedDate(LocalDateTime.now());
+        generateCashflowsForLegs(newLegs, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+        logger.info("Amended trade {}: {} legs carried over, {} legs rebuilt, {} legs retired",
+                amendedTrade.getTradeId(), carriedOver, newLegs.size(), replacedLegIds.size());
+    }
 
-            // Populate reference data for leg
-            populateLegReferenceData(tradeLeg, legDTO);
+    // Moves an unchanged leg onto the new version; it stays in the superseded version's collection so
+    // orphan removal leaves it alone, and only its trade reference is updated
+    private TradeLeg carryOverLeg(TradeLeg leg, Trade existingTrade, Trade amendedTrade) {
+        if (leg.getValidFromVersion() == null) {
+            leg.setValidFromVersion(existingTrade.getVersion());
+        }
+        leg.setTrade(amendedTrade);
+        return leg;
+    }
 
-            TradeLeg savedLeg = tradeLegRepository.save(tradeLeg);
+    // Active legs of a trade version in booking order
+    private List<TradeLeg> activeLegs(Trade trade) {
+        List<TradeLeg> legs = new ArrayList<>();
+        if (trade.getTradeLegs() != null) {
+            for (TradeLeg leg : trade.getTradeLegs()) {
+                if (!Boolean.FALSE.equals(leg.getActive())) {
+                    legs.add(leg);
+                }
+            }
+            legs.sort(Comparator.comparing(TradeLeg::getLegId, Comparator.nullsLast(Comparator.naturalOrder())));
+        }
+        return legs;
+    }
 
-            // Generate cashflows for this leg
-            if (tradeDTO.getTradeStartDate() != null && tradeDTO.getTradeMaturityDate() != null) {
-                generateCashflows(savedLeg, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+    // Unsaved legs built from the DTO, only used to hash the incoming economics
+    private List<TradeLeg> buildTransientLegs(TradeDTO tradeDTO, Trade trade) {
+        List<TradeLeg> legs = new ArrayList<>();
+        if (tradeDTO.getTradeLegs() != null) {
+            for (TradeLegDTO legDTO : tradeDTO.getTradeLegs()) {
+                legs.add(buildTradeLeg(legDTO, trade));
             }
         }
+        return legs;
+    }
+
+    // Versions booked before the hash was stored have it computed from their legs
+    private String currentEconomicsHash(Trade trade) {
+        if (trade.getEconomicsHash() != null) {
+            return trade.getEconomicsHash();
+        }
+        return TradeEconomicsHash.of(trade, activeLegs(trade));
+    }
+
+    private TradeLeg matchLeg(TradeLegDTO legDTO, int position, List<TradeLeg> currentLegs, List<TradeLeg> unmatched) {
+        TradeLeg match = null;
+        if (legDTO.getLegId() != null) {
+            match = currentLegs.stream().filter(leg -> legDTO.getLegId().equals(leg.getLegId())).findFirst().orElse(null);
+        } else if (position < currentLegs.size()) {
+            match = currentLegs.get(position);
+        }
+        // A current leg can only be matched once
+        return match != null && unmatched.remove(match) ? match : null;
+    }
+
+    // A leg booked with the trade starts its own lineage
+    private Long originalLegId(TradeLeg leg) {
+        return leg.getOriginalLegId() != null ? leg.getOriginalLegId() : leg.getLegId();
+    }
+
+    // Ends a leg's range at the superseded version, whose collection it stays in
+    private void retireLeg(TradeLeg leg, Trade existingTrade) {
+        if (leg.getValidFromVersion() == null) {
+            leg.setValidFromVersion(existingTrade.getVersion());
+        }
+        leg.setValidToVersion(existingTrade.getVersion());
+        leg.setActive(false);
+        leg.setDeactivatedDate(LocalDateTime.now());
+    }
+
+    // True when both legs would produce the same cashflows
+    private boolean sameLegEconomics(TradeLeg current, TradeLeg candidate) {
+        return sameAmount(current.getNotional(), candidate.getNotional())
+                && Objects.equals(current.getRate(), candidate.getRate())
+                && DayCountConvention.fromCode(current.getDayCountConvention())
+                        == DayCountConvention.fromCode(candidate.getDayCountConvention())
+                && sameReference(current.getCurrency(), candidate.getCurrency(), Currency::getId)
+                && sameReference(current.getLegRateType(), candidate.getLegRateType(), LegType::getId)
+                && sameReference(current.getIndex(), candidate.getIndex(), Index::getId)
+                && sameReference(current.getHolidayCalendar(), candidate.getHolidayCalendar(), HolidayCalendar::getId)
+                && sameReference(current.getCalculationPeriodSchedule(), candidate.getCalculationPeriodSchedule(), Schedule::getId)
+                && sameReference(current.getPaymentBusinessDayConvention(), candidate.getPaymentBusinessDayConvention(), BusinessDayConvention::getId)
+                && sameReference(current.getFixingBusinessDayConvention(), candidate.getFixingBusinessDayConvention(), BusinessDayConvention::getId)
+                && sameReference(current.getPayReceiveFlag(), candidate.getPayReceiveFlag(), PayRec::getId);
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    // Compares reference data by id so a lazy proxy and a cached entity for the same row are equal
+    private static <T> boolean sameReference(T a, T b, Function<T, Long> id) {
+        return a == null ? b == null : b != null && Objects.equals(id.apply(a), id.apply(b));
+    }
+
+    /**
+     * Generates and saves the cashflows of already saved legs
+     * Nothing is generated when either date is missing
+     * @param legs saved trade legs
+     * @param startDate trade start date
+     * @param maturityDate trade maturity date
+     */
+    public void generateCashflowsForLegs(List<TradeLeg> legs, LocalDate startDate, LocalDate maturityDate) {
+        if (startDate == null || maturityDate == null) {
+            return;
+        }
+        for (TradeLeg leg : legs) {
+            generateCashflows(leg, startDate, maturityDate);
+        }
     }
 
     private void populateLegReferenceData(TradeLeg leg, TradeLegDTO legDTO) {
         // Populate currency by name or ID
         if (legDTO.getCurrency() != null) {
-            currencyRepository.findByCurrency(legDTO.getCurrency())
+            referenceDataCache.findByName(Currency.class, legDTO.getCurrency())
                     .ifPresent(leg::setCurrency);
         } else if (legDTO.getCurrencyId() != null) {
-            currencyRepository.findById(legDTO.getCurrencyId())
+            referenceDataCache.findById(Currency.class, legDTO.getCurrencyId())
                     .ifPresent(leg::setCurrency);
         }
 
         // Populate leg type by name or ID
         if (legDTO.getLegType() != null) {
-            legTypeRepository.findByType(legDTO.getLegType())
+            referenceDataCache.findByName(LegType.class, legDTO.getLegType())
                     .ifPresent(leg::setLegRateType);
         } else if (legDTO.getLegTypeId() != null) {
-            legTypeRepository.findById(legDTO.getLegTypeId())
+            referenceDataCache.findById(LegType.class, legDTO.getLegTypeId())
                     .ifPresent(leg::setLegRateType);
         }
 
         // Populate index by name or ID
         if (legDTO.getIndexName() != null) {
-            indexRepository.findByIndex(legDTO.getIndexName())
+            referenceDataCache.findByName(Index.class, legDTO.getIndexName())
                     .ifPresent(leg::setIndex);
         } else if (legDTO.getIndexId() != null) {
-            indexRepository.findById(legDTO.getIndexId())
+            referenceDataCache.findById(Index.class, legDTO.getIndexId())
                     .ifPresent(leg::setIndex);
         }
 
         // Populate holiday calendar by name or ID
         if (legDTO.getHolidayCalendar() != null) {
-            holidayCalendarRepository.findByHolidayCalendar(legDTO.getHolidayCalendar())
+            referenceDataCache.findByName(HolidayCalendar.class, legDTO.getHolidayCalendar())
                     .ifPresent(leg::setHolidayCalendar);
         } else if (legDTO.getHolidayCalendarId() != null) {
-            holidayCalendarRepository.findById(legDTO.getHolidayCalendarId())
+            referenceDataCache.findById(HolidayCalendar.class, legDTO.getHolidayCalendarId())
                     .ifPresent(leg::setHolidayCalendar);
         }
 
         // Populate schedule by name or ID
         if (legDTO.getCalculationPeriodSchedule() != null) {
-            scheduleRepository.findBySchedule(legDTO.getCalculationPeriodSchedule())
+            referenceDataCache.findByName(Schedule.class, legDTO.getCalculationPeriodSchedule())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         } else if (legDTO.getScheduleId() != null) {
-            scheduleRepository.findById(legDTO.getScheduleId())
+            referenceDataCache.findById(Schedule.class, legDTO.getScheduleId())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         }
 
         // Populate payment business day convention by name or ID
         if (legDTO.getPaymentBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getPaymentBusinessDayConvention())
+            referenceDataCache.findByName(BusinessDayConvention.class, legDTO.getPaymentBusinessDayConvention())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         } else if (legDTO.getPaymentBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getPaymentBdcId())
+            referenceDataCache.findById(BusinessDayConvention.class, legDTO.getPaymentBdcId())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         }
 
         // Populate fixing business day convention by name or ID
         if (legDTO.getFixingBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getFixingBusinessDayConvention())
+            referenceDataCache.findByName(BusinessDayConvention.class, legDTO.getFixingBusinessDayConvention())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         } else if (legDTO.getFixingBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getFixingBdcId())
+            referenceDataCache.findById(BusinessDayConvention.class, legDTO.getFixingBdcId())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         }
 
         // Populate pay/receive flag by name or ID
         if (legDTO.getPayReceiveFlag() != null) {
-            payRecRepository.findByPayRec(legDTO.getPayReceiveFlag())
+            referenceDataCache.findByName(PayRec.class, legDTO.getPayReceiveFlag())
                     .ifPresent(leg::setPayReceiveFlag);
         } else if (legDTO.getPayRecId() != null) {
-            payRecRepository.findById(legDTO.getPayRecId())
+            referenceDataCache.findById(PayRec.class, legDTO.getPayRecId())
                     .ifPresent(leg::setPayReceiveFlag);
         }
     }
 
-    /**
-     * FIXED: Generate cashflows based on schedule and maturity date
-     */
+    // Periods, payment dates and amounts come from the CashflowEngine shared with /api/cashflows/generate
     private void generateCashflows(TradeLeg leg, LocalDate startDate, LocalDate maturityDate) {
         logger.info("Generating cashflows for leg {} from {} to {}", leg.getLegId(), startDate, maturityDate);
 
-        // Use default schedule if not set
-        String schedule = "3M"; // Default to quarterly
-        if (leg.getCalculationPeriodSchedule() != null) {
-            schedule = leg.getCalculationPeriodSchedule().getSchedule();
-        }
+        String schedule = leg.getCalculationPeriodSchedule() != null ? leg.getCalculationPeriodSchedule().getSchedule() : null;
+        String bdc = leg.getPaymentBusinessDayConvention() != null ? leg.getPaymentBusinessDayConvention().getBdc() : null;
+        boolean fixed = leg.getLegRateType() != null && "Fixed".equals(leg.getLegRateType().getType());
 
-        int monthsInterval = parseSchedule(schedule);
-        List<LocalDate> paymentDates = calculatePaymentDates(startDate, maturityDate, monthsInterval);
+        CashflowSchedule cashflows = cashflowEngine.generate(startDate, maturityDate,
+                CashflowEngine.parseScheduleMonths(schedule),
+                DayCountConvention.fromCode(leg.getDayCountConvention()),
+                RollConvention.fromName(bdc),
+                holidayCalendarRegistry.getCalendar(leg.getHolidayCalendar()),
+                leg.getNotional(), leg.getRate(), fixed,
+                fixed ? null : indexFixingStore.getFixings(leg.getIndex()));
 
-        for (LocalDate paymentDate : paymentDates) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int period = 0; period < cashflows.size(); period++) {
             Cashflow cashflow = new Cashflow();
             cashflow.setTradeLeg(leg); // Fixed field name
-            cashflow.setValueDate(paymentDate);
-            cashflow.setRate(leg.getRate());
-
-            // Calculate value based on leg type
-            BigDecimal cashflowValue = calculateCashflowValue(leg, monthsInterval);
-            cashflow.setPaymentValue(cashflowValue);
-
+            cashflow.setValueDate(cashflows.getPaymentDate(period));
+            // Projected index rate plus spread on a floating leg
+            cashflow.setRate(fixed ? leg.getRate() : cashflows.getRate(period));
+            cashflow.setPaymentValue(cashflows.getAmount(period));
+            cashflow.setPaymentType(leg.getLegRateType());
             cashflow.setPayRec(leg.getPayReceiveFlag());
             cashflow.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
-            cashflow.setCreatedDate(LocalDateTime.now());
+            cashflow.setCreatedDate(now);
             cashflow.setActive(true);
 
-            cashflowRepository.save(cashflow);
-        }
-
-        logger.info("Generated {} cashflows for leg {}", paymentDates.size(), leg.getLegId());
-    }
-
-    private int parseSchedule(String schedule) {
-        if (schedule == null || schedule.trim().isEmpty()) {
-            return 3; // Default to quarterly
-        }
-
-        schedule = schedule.trim();
-
-        // Handle common schedule names
-        switch (schedule.toLowerCase()) {
-            case "monthly":
-                return 1;
-            case "quarterly":
-                return 3;
-            case "semi-annually":
-            case "semiannually":
-            case "half-yearly":
-                return 6;
-            case "annually":
-            case "yearly":
-                return 12;
-            default:
-                // Parse "1M", "3M", "12M" format
-                if (schedule.endsWith("M") || schedule.endsWith("m")) {
-                    try {
-                        return Integer.parseInt(schedule.substring(0, schedule.length() - 1));
-                    } catch (NumberFormatException e) {
-                        throw new RuntimeException("Invalid schedule format: " + schedule);
-                    }
-                }
-                throw new RuntimeException("Invalid schedule format: " + schedule + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M");
-        }
-    }
-
-    private List<LocalDate> calculatePaymentDates(LocalDate startDate, LocalDate maturityDate, int monthsInterval) {
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate currentDate = startDate.plusMonths(monthsInterval);
-
-        while (!currentDate.isAfter(maturityDate)) {
-            dates.add(currentDate);
-            currentDate = currentDate.plusMonths(monthsInterval);
-        }
-
-        return dates;
-    }
-
-    private BigDecimal calculateCashflowValue(TradeLeg leg, int monthsInterval) {
-        if (leg.getLegRateType() == null) {
-            return BigDecimal.ZERO;
-        }
-
-        String legType = leg.getLegRateType().getType();
-
-        if ("Fixed".equals(legType)) {
-            double notional = leg.getNotional().doubleValue();
-            double rate = leg.getRate();
-            double months = monthsInterval;
-
-            double result = (notional * rate * months) / 12;
-
-            return BigDecimal.valueOf(result);
-        } else if ("Floating".equals(legType)) {
-            return BigDecimal.ZERO;
+            Cashflow savedCashflow = cashflowRepository.save(cashflow);
+            if (leg.getCashflows() != null) {
+                leg.getCashflows().add(savedCashflow);
+            }
         }
 
-        return BigDecimal.ZERO;
+        logger.info("Generated {} cashflows for leg {}", cashflows.size(), leg.getLegId());
     }
 
     private void validateReferenceData(Trade trade) {
@@ -751,9 +1180,8 @@ public class TradeService {
         logger.debug("Reference data validation passed for trade");
     }
 
-    // NEW METHOD: Generate the next trade ID (sequential)
+    // Generate the next trade ID from a block reserved in the database (no table count, safe under concurrent bookings)
     private Long generateNextTradeId() {
-        // For simplicity, using a static variable. In real scenario, this should be atomic and thread-safe.
-        return 10000L + tradeRepository.count();
+        return tradeIdAllocator.nextTradeId();
     }
 }
@@ -0,0 +1,187 @@
+package com.technicalchallenge.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import com.technicalchallenge.dto.BlotterFilterDTO;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Trade;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates the AG Grid filter model of the trade blotter into a Specification for Trade entities
+ * Columns are named by their TradeBlotterRow field. Text and set filters apply to the book,
+ * counterparty, trader and status names (case-insensitive), number filters to the trade ids and
+ * version, date filters to the trade, start and maturity dates. inRange excludes both bounds, as
+ * the grid's own filters do by default
+ */
+@Component
+public class BlotterFilterSpecificationBuilder {
+
+    private static final Set<String> TEXT_COLUMNS = Set.of("bookName", "counterpartyName", "traderName", "tradeStatus");
+    private static final Set<String> NUMBER_COLUMNS = Set.of("id", "tradeId", "version");
+    private static final Set<String> DATE_COLUMNS = Set.of("tradeDate", "tradeStartDate", "tradeMaturityDate");
+
+    /**
+     * Builds a Specification combining every column filter of the model with logical AND
+     * @param filterModel column filters by column id; null or empty for no filtering
+     * @return a Specification representing all column filters
+     * @throws IllegalArgumentException if a column, filter type, condition or operand is not supported
+     */
+    public Specification<Trade> buildBlotterSpecification(Map<String, BlotterFilterDTO> filterModel) {
+        Specification<Trade> spec = Specification.where(null);
+        if (filterModel == null) {
+            return spec;
+        }
+        for (Map.Entry<String, BlotterFilterDTO> entry : filterModel.entrySet()) {
+            String column = entry.getKey();
+            BlotterFilterDTO filter = entry.getValue();
+            // Checked here so an unsupported filter fails before any query is built
+            check(column, filter);
+            spec = spec.and((root, query, cb) -> toPredicate(column, filter, root, cb));
+        }
+        return spec;
+    }
+
+    private static void check(String column, BlotterFilterDTO filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Missing filter for column " + column);
+        }
+        if (filter.getConditions() != null && !filter.getConditions().isEmpty()) {
+            filter.getConditions().forEach(condition -> check(column, condition));
+            return;
+        }
+        Set<String> columns = switch (String.valueOf(filter.getFilterType())) {
+            case "text", "set" -> TEXT_COLUMNS;
+            case "number" -> NUMBER_COLUMNS;
+            case "date" -> DATE_COLUMNS;
+            default -> throw new IllegalArgumentException("Unsupported filter type " + filter.getFilterType());
+        };
+        if (!columns.contains(column)) {
+            throw new IllegalArgumentException("Cannot apply a " + filter.getFilterType() + " filter to " + column);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate toPredicate(String column, BlotterFilterDTO filter, Root<Trade> root, CriteriaBuilder cb) {
+        List<BlotterFilterDTO> conditions = filter.getConditions();
+        if (conditions != null && !conditions.isEmpty()) {
+            Predicate[] parts = conditions.stream()
+                    .map(condition -> toPredicate(column, condition, root, cb))
+                    .toArray(Predicate[]::new);
+            return "OR".equalsIgnoreCase(filter.getOperator()) ? cb.or(parts) : cb.and(parts);
+        }
+        Expression<?> path = column(column, root, cb);
+        return switch (filter.getFilterType()) {
+            case "text" -> textPredicate((Expression<String>) path, filter, cb);
+            case "set" -> setPredicate((Expression<String>) path, filter.getValues(), cb);
+            case "number" -> comparablePredicate(path, filter.getType(),
+                    parseNumber(column, filter.getFilter()), parseNumber(column, filter.getFilterTo()), cb);
+            default -> comparablePredicate(path, filter.getType(),
+                    parseDate(filter.getDateFrom()), parseDate(filter.getDateTo()), cb);
+        };
+    }
+
+    // Blotter column on the trade, joined outer so blank filters still see trades without the association
+    private static Expression<?> column(String column, Root<Trade> root, CriteriaBuilder cb) {
+        return switch (column) {
+            case "bookName" -> root.join("book", JoinType.LEFT).get("bookName");
+            case "counterpartyName" -> root.join("counterparty", JoinType.LEFT).get("name");
+            case "tradeStatus" -> root.join("tradeStatus", JoinType.LEFT).get("tradeStatus");
+            case "traderName" -> {
+                Join<Trade, ApplicationUser> trader = root.join("traderUser", JoinType.LEFT);
+                yield cb.concat(cb.concat(trader.get("firstName"), " "), trader.get("lastName"));
+            }
+            default -> root.get(column);
+        };
+    }
+
+    private static Predicate textPredicate(Expression<String> path, BlotterFilterDTO filter, CriteriaBuilder cb) {
+        Expression<String> value = cb.lower(path);
+        String operand = filter.getFilter() == null ? "" : filter.getFilter().toLowerCase(Locale.ROOT);
+        String pattern = escapeLike(operand);
+        return switch (String.valueOf(filter.getType())) {
+            case "equals" -> cb.equal(value, operand);
+            case "notEqual" -> cb.or(cb.isNull(path), cb.notEqual(value, operand));
+            case "contains" -> cb.like(value, "%" + pattern + "%", '\\');
+            case "notContains" -> cb.or(cb.isNull(path), cb.notLike(value, "%" + pattern + "%", '\\'));
+            case "startsWith" -> cb.like(value, pattern + "%", '\\');
+            case "endsWith" -> cb.like(value, "%" + pattern, '\\');
+            case "blank" -> cb.or(cb.isNull(path), cb.equal(cb.trim(path), ""));
+            case "notBlank" -> cb.and(cb.isNotNull(path), cb.notEqual(cb.trim(path), ""));
+            default -> throw new IllegalArgumentException("Unsupported text filter " + filter.getType());
+        };
+    }
+
+    // A null entry in the set filter's values selects trades without a value
+    private static Predicate setPredicate(Expression<String> path, List<String> values, CriteriaBuilder cb) {
+        if (values == null || values.isEmpty()) {
+            return cb.disjunction();
+        }
+        List<String> present = values.stream().filter(value -> value != null).toList();
+        Predicate in = present.isEmpty() ? cb.disjunction() : path.in(present);
+        return present.size() < values.size() ? cb.or(in, cb.isNull(path)) : in;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate comparablePredicate(Expression path, String type, Comparable from, Comparable to,
+                                                 CriteriaBuilder cb) {
+        String condition = String.valueOf(type);
+        if (condition.equals("blank")) {
+            return cb.isNull(path);
+        }
+        if (condition.equals("notBlank")) {
+            return cb.isNotNull(path);
+        }
+        if (from == null || (condition.equals("inRange") && to == null)) {
+            throw new IllegalArgumentException("Missing operand for filter " + type);
+        }
+        return switch (condition) {
+            case "equals" -> cb.equal(path, from);
+            case "notEqual" -> cb.or(cb.isNull(path), cb.notEqual(path, from));
+            case "lessThan" -> cb.lessThan(path, from);
+            case "lessThanOrEqual" -> cb.lessThanOrEqualTo(path, from);
+            case "greaterThan" -> cb.greaterThan(path, from);
+            case "greaterThanOrEqual" -> cb.greaterThanOrEqualTo(path, from);
+            case "inRange" -> cb.and(cb.greaterThan(path, from), cb.lessThan(path, to));
+            default -> throw new IllegalArgumentException("Unsupported filter " + type);
+        };
+    }
+
+    private static Comparable<?> parseNumber(String column, String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        // NumberFormatException is an IllegalArgumentException
+        return column.equals("version") ? Integer.valueOf(text.trim()) : Long.valueOf(text.trim());
+    }
+
+    // The grid sends "yyyy-MM-dd HH:mm:ss"; the blotter dates have no time
+    private static LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String date = text.trim();
+        try {
+            return LocalDate.parse(date.length() > 10 ? date.substring(0, 10) : date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date " + text);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
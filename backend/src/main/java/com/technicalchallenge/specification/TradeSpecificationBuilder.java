@@ -1,10 +1,15 @@
 package com.technicalchallenge.specification;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.ReferenceDataCache;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Builds dynamic JPA Specification objects for filtering Trade entities
@@ -12,10 +17,19 @@ import java.time.LocalDate;
  * parameters such as counterparty name, book name, trader user ID, trade status,
  * and date ranges. The resulting Specification<Trade> can be used with
  * Spring Data JPA repositories to execute dynamic, criteria-based queries
+ * Counterparty and book names are resolved to ids through the reference data cache's name
+ * index first, so those filters compare the indexed foreign keys instead of scanning the
+ * joined tables with a leading-wildcard LIKE
  */
 @Component
 public class TradeSpecificationBuilder {
 
+    // Above this many matching names the IN list stops paying off; the term barely filters anyway
+    private static final int MAX_IN_LIST_IDS = 1000;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     /**
      * Builds a Specification for Trade entities based on the provided filter parameters
      * Any parameter that is {@code null} or blank (for strings) will be ignored
@@ -43,15 +57,11 @@ public class TradeSpecificationBuilder {
 
         // Filter by counterparty name
         if (counterpartyName != null && !counterpartyName.isBlank()) {
-            spec = spec.and((root, query, cb) ->
-                    cb.like(cb.lower(root.get("counterparty").get("name")), 
-                    "%" + counterpartyName.toLowerCase() + "%"));
+            spec = spec.and(nameContains("counterparty", "name", Counterparty.class, counterpartyName));
         }
         // Filter by book name
         if (bookName != null && !bookName.isBlank()) {
-            spec = spec.and((root, query, cb) ->
-                    cb.like(cb.lower(root.get("book").get("bookName")), 
-                    "%" + bookName.toLowerCase() + "%"));
+            spec = spec.and(nameContains("book", "bookName", Book.class, bookName));
         }
         // Filter by trader user ID
         if (traderUserId != null) {
@@ -85,4 +95,25 @@ public class TradeSpecificationBuilder {
         // Returns the fully constructed Specification
         return spec;
     }
-}
\ No newline at end of file
+
+    /**
+     * Case-insensitive partial match on the name of a cached reference table the trade links to
+     * @param association trade attribute holding the reference row
+     * @param nameAttribute name attribute of the reference row
+     * @param type entity class of the reference table
+     * @param term part of the name
+     * @return a Specification on the trade's foreign key, or on the joined name for very broad terms
+     */
+    private Specification<Trade> nameContains(String association, String nameAttribute, Class<?> type, String term) {
+        // Resolved once, when the specification is built, not on every query it is used in
+        List<Long> ids = referenceDataCache.findIdsByNameContaining(type, term);
+        if (ids.isEmpty()) {
+            return (root, query, cb) -> cb.disjunction();
+        }
+        if (ids.size() > MAX_IN_LIST_IDS) {
+            return (root, query, cb) -> cb.like(cb.lower(root.get(association).get(nameAttribute)),
+                    "%" + term.toLowerCase() + "%");
+        }
+        return (root, query, cb) -> root.get(association).get("id").in(ids);
+    }
+}
@@ -0,0 +1,221 @@
+package com.technicalchallenge.util;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Immutable business-day calendar compiled to a bitset
+ * Holds one bit per day for whole calendar years, set when the day is a business day
+ * (a weekday that is not a holiday), indexed by epoch day. Days outside the compiled years
+ * fall back to Saturday and Sunday as the only non-business days.
+ * The epoch-day methods do not allocate, and addBusinessDays skips 64 days at a time with
+ * Long.bitCount, so it costs one step per 64 days rather than one per day.
+ * Calendars are thread-safe and can be shared
+ */
+public final class BusinessDayCalendar {
+
+    private static final long[] NO_DAYS = new long[0];
+
+    private final String name;
+    private final long firstEpochDay;
+    private final long dayCount;
+    private final long[] businessDays;
+
+    private BusinessDayCalendar(String name, long firstEpochDay, long dayCount, long[] businessDays) {
+        this.name = name;
+        this.firstEpochDay = firstEpochDay;
+        this.dayCount = dayCount;
+        this.businessDays = businessDays;
+    }
+
+    /**
+     * Calendar with weekends as the only non-business days
+     * @param name calendar name
+     * @return the calendar
+     */
+    public static BusinessDayCalendar weekendsOnly(String name) {
+        return new BusinessDayCalendar(name, 0, 0, NO_DAYS);
+    }
+
+    /**
+     * Compiles a calendar covering every year that has a holiday
+     * @param name calendar name, e.g. NY
+     * @param holidays holiday dates; weekend dates are accepted and have no effect
+     * @return the calendar
+     */
+    public static BusinessDayCalendar of(String name, Collection<LocalDate> holidays) {
+        if (holidays.isEmpty()) {
+            return weekendsOnly(name);
+        }
+        int firstYear = Integer.MAX_VALUE;
+        int lastYear = Integer.MIN_VALUE;
+        for (LocalDate holiday : holidays) {
+            firstYear = Math.min(firstYear, holiday.getYear());
+            lastYear = Math.max(lastYear, holiday.getYear());
+        }
+        BusinessDayCalendar calendar = weekdays(name, firstYear, lastYear);
+        for (LocalDate holiday : holidays) {
+            long offset = holiday.toEpochDay() - calendar.firstEpochDay;
+            calendar.businessDays[(int) (offset >>> 6)] &= ~(1L << offset);
+        }
+        return calendar;
+    }
+
+    // All weekdays of the years set as business days
+    private static BusinessDayCalendar weekdays(String name, int firstYear, int lastYear) {
+        long first = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        long dayCount = LocalDate.of(lastYear + 1, 1, 1).toEpochDay() - first;
+        long[] bits = new long[(int) ((dayCount + 63) >>> 6)];
+        for (long offset = 0; offset < dayCount; offset++) {
+            if (isWeekday(first + offset)) {
+                bits[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+        return new BusinessDayCalendar(name, first, dayCount, bits);
+    }
+
+    /**
+     * Combines two calendars; a day is a business day only if it is one in both, as for a
+     * payment that has to settle in two financial centres
+     * @param other calendar to combine with
+     * @return the joint calendar, named e.g. NY+LON
+     */
+    public BusinessDayCalendar union(BusinessDayCalendar other) {
+        String jointName = name + "+" + other.name;
+        if (dayCount == 0 && other.dayCount == 0) {
+            return weekendsOnly(jointName);
+        }
+        // Covers the years of both calendars, taking the other's weekday rule outside its own years
+        long first = dayCount == 0 ? other.firstEpochDay
+                : other.dayCount == 0 ? firstEpochDay : Math.min(firstEpochDay, other.firstEpochDay);
+        long end = Math.max(firstEpochDay + dayCount, other.firstEpochDay + other.dayCount);
+        long jointDays = end - first;
+        long[] bits = new long[(int) ((jointDays + 63) >>> 6)];
+        for (long offset = 0; offset < jointDays; offset++) {
+            if (isBusinessDay(first + offset) && other.isBusinessDay(first + offset)) {
+                bits[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+        return new BusinessDayCalendar(jointName, first, jointDays, bits);
+    }
+
+    /**
+     * @param date date to check
+     * @return true if the date is neither a weekend nor a holiday
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    /**
+     * @param epochDay day to check, as LocalDate.toEpochDay()
+     * @return true if the day is neither a weekend nor a holiday
+     */
+    public boolean isBusinessDay(long epochDay) {
+        long offset = epochDay - firstEpochDay;
+        if (offset >= 0 && offset < dayCount) {
+            return (businessDays[(int) (offset >>> 6)] & (1L << offset)) != 0;
+        }
+        return isWeekday(epochDay);
+    }
+
+    /**
+     * Moves a date by a number of business days, not counting the start date itself
+     * @param date start date
+     * @param businessDays days to move, negative to move back
+     * @return the resulting business day, or the start date when businessDays is 0
+     */
+    public LocalDate addBusinessDays(LocalDate date, int businessDays) {
+        return LocalDate.ofEpochDay(addBusinessDays(date.toEpochDay(), businessDays));
+    }
+
+    /**
+     * Moves a day by a number of business days, not counting the start day itself
+     * @param epochDay start day, as LocalDate.toEpochDay()
+     * @param businessDays days to move, negative to move back
+     * @return the resulting business day as an epoch day, or the start day when businessDays is 0
+     */
+    public long addBusinessDays(long epochDay, int businessDays) {
+        return businessDays >= 0 ? forward(epochDay, businessDays) : backward(epochDay, -businessDays);
+    }
+
+    /**
+     * @param epochDay day to roll
+     * @return the day itself if it is a business day, otherwise the next business day
+     */
+    public long nextOrSameBusinessDay(long epochDay) {
+        return isBusinessDay(epochDay) ? epochDay : forward(epochDay, 1);
+    }
+
+    /**
+     * @param epochDay day to roll
+     * @return the day itself if it is a business day, otherwise the previous business day
+     */
+    public long previousOrSameBusinessDay(long epochDay) {
+        return isBusinessDay(epochDay) ? epochDay : backward(epochDay, 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private long forward(long epochDay, int count) {
+        long day = epochDay;
+        int remaining = count;
+        while (remaining > 0) {
+            long offset = day + 1 - firstEpochDay;
+            if (offset < 0 || offset >= dayCount) {
+                day++;
+                if (isWeekday(day)) {
+                    remaining--;
+                }
+                continue;
+            }
+            int word = (int) (offset >>> 6);
+            long bits = businessDays[word] & (-1L << offset);
+            int available = Long.bitCount(bits);
+            if (available >= remaining) {
+                for (int i = 1; i < remaining; i++) {
+                    bits &= bits - 1;
+                }
+                return firstEpochDay + ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            remaining -= available;
+            // Last day of this word, or of the compiled years if they end inside it
+            day = Math.min(firstEpochDay + ((long) word << 6) + 63, firstEpochDay + dayCount - 1);
+        }
+        return day;
+    }
+
+    private long backward(long epochDay, int count) {
+        long day = epochDay;
+        int remaining = count;
+        while (remaining > 0) {
+            long offset = day - 1 - firstEpochDay;
+            if (offset < 0 || offset >= dayCount) {
+                day--;
+                if (isWeekday(day)) {
+                    remaining--;
+                }
+                continue;
+            }
+            int word = (int) (offset >>> 6);
+            long bits = businessDays[word] & (-1L >>> (63 - (offset & 63)));
+            int available = Long.bitCount(bits);
+            if (available >= remaining) {
+                for (int i = 1; i < remaining; i++) {
+                    bits &= ~Long.highestOneBit(bits);
+                }
+                return firstEpochDay + ((long) word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            remaining -= available;
+            day = firstEpochDay + ((long) word << 6);
+        }
+        return day;
+    }
+
+    // 1970-01-01 was a Thursday, so this gives 0 for Monday through 6 for Sunday
+    private static boolean isWeekday(long epochDay) {
+        return Math.floorMod(epochDay + 3, 7) < 5;
+    }
+}
@@ -0,0 +1,81 @@
+package com.technicalchallenge.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque cursor for keyset pagination
+ * Holds the sort key values of the last row of a page, so the next page can seek past
+ * them with an index range scan instead of skipping OFFSET rows. The values are written
+ * length-prefixed (null as a marker) and base64url encoded, so any string, including
+ * separators, round-trips and clients treat the cursor as a token
+ */
+public final class KeysetCursor {
+
+    private static final char NULL_MARKER = '-';
+    private static final char LENGTH_END = ':';
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * @param values sort key values of the last row, in sort order; null values are allowed
+     * @return the cursor token
+     */
+    public static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder(64);
+        for (Object value : values) {
+            if (value == null) {
+                raw.append(NULL_MARKER);
+            } else {
+                String text = value.toString();
+                raw.append(text.length()).append(LENGTH_END).append(text);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor token returned by {@link #encode(Object...)}
+     * @param expectedValues number of sort key values the caller pages on
+     * @return the values as strings, in sort order, with nulls where null was encoded
+     * @throws IllegalArgumentException if the token is malformed or holds a different number of values
+     */
+    public static List<String> decode(String cursor, int expectedValues) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        List<String> values = new ArrayList<>(expectedValues);
+        int pos = 0;
+        while (pos < raw.length()) {
+            if (raw.charAt(pos) == NULL_MARKER) {
+                values.add(null);
+                pos++;
+                continue;
+            }
+            int lengthEnd = raw.indexOf(LENGTH_END, pos);
+            int length;
+            try {
+                length = lengthEnd > pos ? Integer.parseInt(raw, pos, lengthEnd, 10) : -1;
+            } catch (NumberFormatException e) {
+                length = -1;
+            }
+            // Compared without adding to lengthEnd, so a tampered length near Integer.MAX_VALUE cannot overflow
+            if (length < 0 || length > raw.length() - lengthEnd - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            values.add(raw.substring(lengthEnd + 1, lengthEnd + 1 + length));
+            pos = lengthEnd + 1 + length;
+        }
+        if (values.size() != expectedValues) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return Collections.unmodifiableList(values);
+    }
+}
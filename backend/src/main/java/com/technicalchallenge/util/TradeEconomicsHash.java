@@ -0,0 +1,82 @@
+package com.technicalchallenge.util;
+
+import com.technicalchallenge.cashflow.DayCountConvention;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Computes a canonical SHA-256 hash of a trade's economic content
+ * Covers the UTI, the trade dates, the reference data ids of the trade and, per leg in order,
+ * the notional, rate, day count convention and the reference data ids that drive its cashflows.
+ * Status, audit fields and inputter are left out, so two versions with the same hash
+ * describe the same deal
+ */
+public final class TradeEconomicsHash {
+
+    private TradeEconomicsHash() {
+    }
+
+    /**
+     * @param trade trade holding the header fields
+     * @param legs legs of the trade, in booking order
+     * @return lowercase hex SHA-256 of the canonical form
+     */
+    public static String of(Trade trade, List<TradeLeg> legs) {
+        StringBuilder canonical = new StringBuilder(256);
+        append(canonical, trade.getUtiCode());
+        append(canonical, trade.getTradeDate());
+        append(canonical, trade.getTradeStartDate());
+        append(canonical, trade.getTradeMaturityDate());
+        append(canonical, trade.getTradeExecutionDate());
+        append(canonical, id(trade.getBook(), book -> book.getId()));
+        append(canonical, id(trade.getCounterparty(), counterparty -> counterparty.getId()));
+        append(canonical, id(trade.getTraderUser(), user -> user.getId()));
+        append(canonical, id(trade.getTradeType(), tradeType -> tradeType.getId()));
+        append(canonical, id(trade.getTradeSubType(), tradeSubType -> tradeSubType.getId()));
+
+        int legCount = legs != null ? legs.size() : 0;
+        append(canonical, legCount);
+        for (int i = 0; i < legCount; i++) {
+            TradeLeg leg = legs.get(i);
+            // Scale-free so 1000000 and 1000000.00 hash the same
+            BigDecimal notional = leg.getNotional();
+            append(canonical, notional != null ? notional.stripTrailingZeros().toPlainString() : null);
+            append(canonical, leg.getRate());
+            append(canonical, id(leg.getCurrency(), currency -> currency.getId()));
+            append(canonical, id(leg.getLegRateType(), legType -> legType.getId()));
+            append(canonical, id(leg.getIndex(), index -> index.getId()));
+            append(canonical, id(leg.getHolidayCalendar(), calendar -> calendar.getId()));
+            append(canonical, id(leg.getCalculationPeriodSchedule(), schedule -> schedule.getId()));
+            append(canonical, id(leg.getPaymentBusinessDayConvention(), bdc -> bdc.getId()));
+            append(canonical, id(leg.getFixingBusinessDayConvention(), bdc -> bdc.getId()));
+            append(canonical, id(leg.getPayReceiveFlag(), payRec -> payRec.getId()));
+            // Normalised so a leg without a convention hashes the same as one naming the default
+            append(canonical, DayCountConvention.fromCode(leg.getDayCountConvention()).getCode());
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Reading only the id keeps lazy proxies uninitialised
+    private static <T> Long id(T reference, Function<T, Long> id) {
+        return reference != null ? id.apply(reference) : null;
+    }
+
+    // Field separator plus an explicit null marker so adjacent fields can never run together
+    private static void append(StringBuilder canonical, Object value) {
+        canonical.append(value == null ? "\u0000" : value.toString()).append('|');
+    }
+}
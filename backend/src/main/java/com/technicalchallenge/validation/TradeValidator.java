@@ -13,9 +13,7 @@ import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.model.Book;
 import com.technicalchallenge.model.Counterparty;
 import com.technicalchallenge.model.ApplicationUser;
-import com.technicalchallenge.repository.ApplicationUserRepository;
-import com.technicalchallenge.repository.BookRepository;
-import com.technicalchallenge.repository.CounterpartyRepository;
+import com.technicalchallenge.service.ReferenceDataCache;
 
 /**
  * Service responsible for validating all business rules related to trades
@@ -27,16 +25,10 @@ public class TradeValidator {
 
     private static final Logger logger = LoggerFactory.getLogger(TradeValidator.class);
 
-    private final BookRepository bookRepository;
-    private final CounterpartyRepository counterpartyRepository;
-    private final ApplicationUserRepository applicationUserRepository;
+    private final ReferenceDataCache referenceDataCache;
 
-    public TradeValidator(BookRepository bookRepository, 
-                          CounterpartyRepository counterpartyRepository, 
-                          ApplicationUserRepository applicationUserRepository) {
-        this.bookRepository = bookRepository;
-        this.counterpartyRepository = counterpartyRepository;
-        this.applicationUserRepository = applicationUserRepository;
+    public TradeValidator(ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -148,7 +140,7 @@ public class TradeValidator {
     private void validateEntityStatus(TradeDTO tradeDTO, ValidationResult result) {
 
         // Book validation
-        bookRepository.findById(tradeDTO.getBookId())
+        referenceDataCache.findById(Book.class, tradeDTO.getBookId())
             .filter(Book::isActive)
             .orElseGet(() -> {
                 result.addError("Book does not exist or is inactive");
@@ -156,7 +148,7 @@ public class TradeValidator {
             });
 
         // Counterparty validation
-        counterpartyRepository.findById(tradeDTO.getCounterpartyId())
+        referenceDataCache.findById(Counterparty.class, tradeDTO.getCounterpartyId())
             .filter(Counterparty::isActive)
             .orElseGet(() -> {
                 result.addError("Counterparty does not exist or is inactive");
@@ -164,7 +156,7 @@ public class TradeValidator {
             });
 
         // Trader validation
-        applicationUserRepository.findById(tradeDTO.getTraderUserId())
+        referenceDataCache.findById(ApplicationUser.class, tradeDTO.getTraderUserId())
             .filter(ApplicationUser::isActive)
             .orElseGet(() -> {
                 result.addError("Trader user not found or inactive");
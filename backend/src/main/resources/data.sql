@@ -10,6 +10,62 @@ INSERT INTO currency (id, currency) VALUES (1000, 'USD'), (1001, 'EUR'), (1002,
 INSERT INTO leg_type (id, type) VALUES (1000, 'Fixed'), (1001, 'Floating');
 INSERT INTO index_table (id, index) VALUES (1000, 'LIBOR'), (1001, 'EURIBOR');
 INSERT INTO holiday_calendar (id, holiday_calendar) VALUES (1000, 'NY'), (1001, 'LON');
+INSERT INTO holiday_date (id, holiday_calendar_id, holiday_date, description) VALUES
+  (1000, 1000, '2025-01-01', 'New Year''s Day'),
+  (1001, 1000, '2025-01-20', 'Martin Luther King Jr. Day'),
+  (1002, 1000, '2025-02-17', 'Presidents'' Day'),
+  (1003, 1000, '2025-05-26', 'Memorial Day'),
+  (1004, 1000, '2025-06-19', 'Juneteenth'),
+  (1005, 1000, '2025-07-04', 'Independence Day'),
+  (1006, 1000, '2025-09-01', 'Labor Day'),
+  (1007, 1000, '2025-10-13', 'Columbus Day'),
+  (1008, 1000, '2025-11-11', 'Veterans Day'),
+  (1009, 1000, '2025-11-27', 'Thanksgiving Day'),
+  (1010, 1000, '2025-12-25', 'Christmas Day'),
+  (1011, 1000, '2026-01-01', 'New Year''s Day'),
+  (1012, 1000, '2026-01-19', 'Martin Luther King Jr. Day'),
+  (1013, 1000, '2026-02-16', 'Presidents'' Day'),
+  (1014, 1000, '2026-05-25', 'Memorial Day'),
+  (1015, 1000, '2026-06-19', 'Juneteenth'),
+  (1016, 1000, '2026-07-03', 'Independence Day (observed)'),
+  (1017, 1000, '2026-09-07', 'Labor Day'),
+  (1018, 1000, '2026-10-12', 'Columbus Day'),
+  (1019, 1000, '2026-11-11', 'Veterans Day'),
+  (1020, 1000, '2026-11-26', 'Thanksgiving Day'),
+  (1021, 1000, '2026-12-25', 'Christmas Day'),
+  (1022, 1001, '2025-01-01', 'New Year''s Day'),
+  (1023, 1001, '2025-04-18', 'Good Friday'),
+  (1024, 1001, '2025-04-21', 'Easter Monday'),
+  (1025, 1001, '2025-05-05', 'Early May Bank Holiday'),
+  (1026, 1001, '2025-05-26', 'Spring Bank Holiday'),
+  (1027, 1001, '2025-08-25', 'Summer Bank Holiday'),
+  (1028, 1001, '2025-12-25', 'Christmas Day'),
+  (1029, 1001, '2025-12-26', 'Boxing Day'),
+  (1030, 1001, '2026-01-01', 'New Year''s Day'),
+  (1031, 1001, '2026-04-03', 'Good Friday'),
+  (1032, 1001, '2026-04-06', 'Easter Monday'),
+  (1033, 1001, '2026-05-04', 'Early May Bank Holiday'),
+  (1034, 1001, '2026-05-25', 'Spring Bank Holiday'),
+  (1035, 1001, '2026-08-31', 'Summer Bank Holiday'),
+  (1036, 1001, '2026-12-25', 'Christmas Day'),
+  (1037, 1001, '2026-12-28', 'Boxing Day (substitute)');
+INSERT INTO index_fixing (id, index_id, fixing_date, rate) VALUES
+  (1000, 1000, '2024-01-02', 0.0558),
+  (1001, 1000, '2024-04-01', 0.0556),
+  (1002, 1000, '2024-07-01', 0.0551),
+  (1003, 1000, '2024-10-01', 0.0497),
+  (1004, 1000, '2025-01-02', 0.0472),
+  (1005, 1000, '2025-04-01', 0.0451),
+  (1006, 1000, '2025-07-01', 0.0432),
+  (1007, 1000, '2025-10-01', 0.0418),
+  (1008, 1001, '2024-01-02', 0.0391),
+  (1009, 1001, '2024-04-02', 0.0389),
+  (1010, 1001, '2024-07-01', 0.0371),
+  (1011, 1001, '2024-10-01', 0.0318),
+  (1012, 1001, '2025-01-02', 0.0271),
+  (1013, 1001, '2025-04-01', 0.0232),
+  (1014, 1001, '2025-07-01', 0.0197),
+  (1015, 1001, '2025-10-01', 0.0201);
 INSERT INTO schedule (id, schedule) VALUES (1000, 'Monthly'), (1001, 'Quarterly');
 INSERT INTO business_day_convention (id, bdc) VALUES (1000, 'Following'), (1001, 'Modified Following');
 INSERT INTO pay_rec (id, pay_rec) VALUES (1000, 'Pay'), (1001, 'Receive');
@@ -38,9 +94,15 @@ INSERT INTO counterparty (id, name, address, phone_number, internal_code, create
 -- Sample Trades
 INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id, trade_type_id, trade_sub_type_id, trade_status_id,
                    trade_date, trade_start_date, trade_maturity_date, trade_execution_date, uti_code, last_touch_timestamp, validity_start_date, validity_end_date,
-                   active, created_date, deactivated_date) VALUES
-  (1000, 100001, 1, 1000, 1000, 1003, 1003, 1001, 1003, 1004, '2024-06-01', '2024-06-03', '2029-06-03', '2024-06-01', 'UTI-001', '2024-06-01T10:30:00', '2024-06-01', null, true, '2024-06-01T10:30:00', null),
-  (1001, 100002, 1, 1001, 1001, 1005, 1005, 1000, 1000, 1004, '2024-06-02', '2024-06-02', '2024-06-04', '2024-06-02', 'UTI-002', '2024-06-02T11:15:00', '2024-06-02', null, true, '2024-06-02T11:15:00', null);
+                   active, created_date, deactivated_date, row_version) VALUES
+  (1000, 100001, 1, 1000, 1000, 1003, 1003, 1001, 1003, 1004, '2024-06-01', '2024-06-03', '2029-06-03', '2024-06-01', 'UTI-001', '2024-06-01T10:30:00', '2024-06-01', null, true, '2024-06-01T10:30:00', null, 0),
+  (1001, 100002, 1, 1001, 1001, 1005, 1005, 1000, 1000, 1004, '2024-06-02', '2024-06-02', '2024-06-04', '2024-06-02', 'UTI-002', '2024-06-02T11:15:00', '2024-06-02', null, true, '2024-06-02T11:15:00', null, 0);
+
+-- Idempotency keys of the sample trades, so a resubmission of UTI-001 or UTI-002 replays the booked trade;
+-- ids are left to the identity column so later bookings do not collide with them
+INSERT INTO trade_idempotency_key (idempotency_key, trade_id, trade_version, created_date) VALUES
+  ('UTI:UTI-001', 100001, 1, '2024-06-01T10:30:00'),
+  ('UTI:UTI-002', 100002, 1, '2024-06-02T11:15:00');
 
 -- Sample Trade Legs
 INSERT INTO trade_leg (leg_id, notional, rate, trade_id, currency_id, leg_rate_type_id, index_id, holiday_calendar_id,
@@ -0,0 +1,95 @@
+package com.technicalchallenge.cashflow;
+
+import com.technicalchallenge.util.BusinessDayCalendar;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the cashflows of 100,000 legs per invocation
+ * Legs mix schedules, day counts, roll conventions and the NY, LON and NY+LON calendars.
+ * Run with: mvn -B test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.technicalchallenge.cashflow.CashflowEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CashflowEngineBenchmark {
+
+    private static final int LEGS = 100_000;
+    private static final int[] SCHEDULES = {1, 3, 6, 12};
+
+    private final CashflowEngine cashflowEngine = new CashflowEngine();
+
+    private LocalDate[] startDates;
+    private LocalDate[] maturityDates;
+    private int[] months;
+    private DayCountConvention[] dayCounts;
+    private RollConvention[] rolls;
+    private BusinessDayCalendar[] calendars;
+    private BigDecimal[] notionals;
+    private double[] rates;
+
+    @Setup
+    public void setUp() {
+        List<LocalDate> nyHolidays = new ArrayList<>();
+        List<LocalDate> lonHolidays = new ArrayList<>();
+        for (int year = 2025; year <= 2060; year++) {
+            nyHolidays.add(LocalDate.of(year, 1, 1));
+            nyHolidays.add(LocalDate.of(year, 7, 4));
+            nyHolidays.add(LocalDate.of(year, 12, 25));
+            lonHolidays.add(LocalDate.of(year, 1, 1));
+            lonHolidays.add(LocalDate.of(year, 12, 25));
+            lonHolidays.add(LocalDate.of(year, 12, 26));
+        }
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", nyHolidays);
+        BusinessDayCalendar lon = BusinessDayCalendar.of("LON", lonHolidays);
+        BusinessDayCalendar[] calendarChoices = {ny, lon, ny.union(lon)};
+
+        Random random = new Random(17);
+        startDates = new LocalDate[LEGS];
+        maturityDates = new LocalDate[LEGS];
+        months = new int[LEGS];
+        dayCounts = new DayCountConvention[LEGS];
+        rolls = new RollConvention[LEGS];
+        calendars = new BusinessDayCalendar[LEGS];
+        notionals = new BigDecimal[LEGS];
+        rates = new double[LEGS];
+        for (int i = 0; i < LEGS; i++) {
+            startDates[i] = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+            maturityDates[i] = startDates[i].plusYears(1 + random.nextInt(30));
+            months[i] = SCHEDULES[random.nextInt(SCHEDULES.length)];
+            dayCounts[i] = DayCountConvention.values()[random.nextInt(DayCountConvention.values().length)];
+            rolls[i] = random.nextBoolean() ? RollConvention.FOLLOWING : RollConvention.MODIFIED_FOLLOWING;
+            calendars[i] = calendarChoices[random.nextInt(calendarChoices.length)];
+            notionals[i] = BigDecimal.valueOf(1_000_000L * (1 + random.nextInt(100)));
+            rates[i] = 0.01 + random.nextInt(500) / 10_000.0;
+        }
+    }
+
+    @Benchmark
+    public void generate100kLegs(Blackhole blackhole) {
+        for (int i = 0; i < LEGS; i++) {
+            CashflowSchedule schedule = cashflowEngine.generate(startDates[i], maturityDates[i], months[i],
+                    dayCounts[i], rolls[i], calendars[i], notionals[i], rates[i], true);
+            blackhole.consume(schedule.size());
+            blackhole.consume(schedule.getTotalCents());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CashflowEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
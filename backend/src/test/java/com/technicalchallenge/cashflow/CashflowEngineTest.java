@@ -0,0 +1,190 @@
+package com.technicalchallenge.cashflow;
+
+import com.technicalchallenge.util.BusinessDayCalendar;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashflowEngineTest {
+
+    private static final BigDecimal NOTIONAL = BigDecimal.valueOf(1000000);
+
+    private final CashflowEngine cashflowEngine = new CashflowEngine();
+
+    @Test
+    void testGenerate_QuarterlyActual360() {
+        // When
+        CashflowSchedule schedule = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2026, 1, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.FOLLOWING, null, NOTIONAL, 0.05, true);
+
+        // Then - 90, 91, 92 and 92 days
+        assertEquals(4, schedule.size());
+        assertEquals(new BigDecimal("12500.00"), schedule.getAmount(0));
+        assertEquals(new BigDecimal("12638.89"), schedule.getAmount(1));
+        assertEquals(new BigDecimal("12777.78"), schedule.getAmount(2));
+        assertEquals(LocalDate.of(2026, 1, 15), schedule.getPaymentDate(3));
+    }
+
+    @Test
+    void testGenerate_MonthEndsDoNotDriftAndModifiedFollowingStaysInMonth() {
+        // When - 31 May 2025 is a Saturday
+        CashflowSchedule schedule = cashflowEngine.generate(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 6, 30), 1,
+                DayCountConvention.ACT_360, RollConvention.MODIFIED_FOLLOWING, null, NOTIONAL, 0.05, true);
+        CashflowSchedule following = cashflowEngine.generate(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 6, 30), 1,
+                DayCountConvention.ACT_360, RollConvention.FOLLOWING, null, NOTIONAL, 0.05, true);
+
+        // Then
+        assertEquals(LocalDate.of(2025, 2, 28), schedule.getAccrualEnd(0));
+        assertEquals(LocalDate.of(2025, 3, 31), schedule.getAccrualEnd(1));
+        assertEquals(LocalDate.of(2025, 5, 31), schedule.getAccrualEnd(3));
+        assertEquals(LocalDate.of(2025, 5, 30), schedule.getPaymentDate(3));
+        assertEquals(LocalDate.of(2025, 6, 2), following.getPaymentDate(3));
+    }
+
+    @Test
+    void testGenerate_RollsOffHolidaysAndEndsWithShortStub() {
+        // Given
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", List.of(LocalDate.of(2025, 12, 25)));
+
+        // When
+        CashflowSchedule schedule = cashflowEngine.generate(LocalDate.of(2025, 9, 25), LocalDate.of(2026, 1, 10), 3,
+                DayCountConvention.ACT_365F, RollConvention.FOLLOWING, ny, NOTIONAL, 0.05, true);
+
+        // Then - 10 January 2026 is a Saturday
+        assertEquals(2, schedule.size());
+        assertEquals(LocalDate.of(2025, 12, 26), schedule.getPaymentDate(0));
+        assertEquals(LocalDate.of(2025, 12, 25), schedule.getAccrualStart(1));
+        assertEquals(LocalDate.of(2026, 1, 12), schedule.getPaymentDate(1));
+        assertEquals(16 / 365.0, schedule.getYearFraction(1), 1e-12);
+    }
+
+    @Test
+    void testYearFraction_Thirty360() {
+        // Then
+        assertEquals(60 / 360.0, DayCountConvention.THIRTY_360.yearFraction(
+                LocalDate.of(2025, 1, 31).toEpochDay(), LocalDate.of(2025, 3, 31).toEpochDay()), 1e-12);
+        // End day 31 is only cut to 30 when the start day is 30 or 31
+        assertEquals(33 / 360.0, DayCountConvention.THIRTY_360.yearFraction(
+                LocalDate.of(2025, 2, 28).toEpochDay(), LocalDate.of(2025, 3, 31).toEpochDay()), 1e-12);
+        assertEquals(1.0, DayCountConvention.ACT_365F.yearFraction(
+                LocalDate.of(2025, 1, 1).toEpochDay(), LocalDate.of(2026, 1, 1).toEpochDay()), 1e-12);
+    }
+
+    @Test
+    void testGenerate_FloatingLegHasZeroAmounts() {
+        // When
+        CashflowSchedule schedule = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 7, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, NOTIONAL, 0.05, false);
+
+        // Then
+        assertEquals(2, schedule.size());
+        assertEquals(0, schedule.getAmount(0).signum());
+    }
+
+    @Test
+    void testGenerate_FloatingLegProjectsFromFixingOnOrBeforeAccrualStart() {
+        // Given
+        IndexFixings libor = IndexFixings.of("LIBOR",
+                new long[]{LocalDate.of(2025, 1, 2).toEpochDay(), LocalDate.of(2025, 4, 1).toEpochDay()},
+                new long[]{4_720_000L, 4_510_000L});
+
+        // When
+        CashflowSchedule schedule = cashflowEngine.generate(LocalDate.of(2024, 10, 15), LocalDate.of(2025, 7, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, NOTIONAL, null, false, libor);
+
+        // Then - the first period starts before the first fixing; then 90 days at 4.72% and 91 days at 4.51%
+        assertEquals(3, schedule.size());
+        assertEquals(0, schedule.getAmount(0).signum());
+        assertNull(schedule.getRate(0));
+        assertEquals(new BigDecimal("11800.00"), schedule.getAmount(1));
+        assertEquals(0.0472, schedule.getRate(1));
+        assertEquals(new BigDecimal("11400.28"), schedule.getAmount(2));
+    }
+
+    @Test
+    void testGenerate_FloatingLegAddsSpreadAndFixedLegIgnoresFixings() {
+        // Given
+        IndexFixings euribor = IndexFixings.of("EURIBOR",
+                new long[]{LocalDate.of(2025, 1, 2).toEpochDay()}, new long[]{2_710_000L});
+
+        // When
+        CashflowSchedule floating = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, NOTIONAL, 0.0025, false, euribor);
+        CashflowSchedule fixed = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, NOTIONAL, 0.05, true, euribor);
+
+        // Then - 2.96% and 5% for 90 days
+        assertEquals(new BigDecimal("7400.00"), floating.getAmount(0));
+        assertEquals(new BigDecimal("12500.00"), fixed.getAmount(0));
+        assertEquals(0.05, fixed.getRate(0));
+    }
+
+    @Test
+    void testGenerate_ReusesCachedPeriodDatesAcrossDayCountsAndNotionals() {
+        // Given
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", List.of(LocalDate.of(2025, 12, 25)));
+        long start = LocalDate.of(2025, 1, 15).toEpochDay();
+        long maturity = LocalDate.of(2026, 1, 15).toEpochDay();
+
+        // When
+        CashflowSchedule act360 = cashflowEngine.generate(LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(maturity),
+                3, DayCountConvention.ACT_360, RollConvention.FOLLOWING, ny, NOTIONAL, 0.05, true);
+        PeriodDates cached = cashflowEngine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, ny);
+        CashflowSchedule act365 = cashflowEngine.generate(LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(maturity),
+                3, DayCountConvention.ACT_365F, RollConvention.FOLLOWING, ny, NOTIONAL.add(NOTIONAL), 0.05, true);
+
+        // Then - one date set, amounts worked out per call
+        assertSame(cached, cashflowEngine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, ny));
+        assertEquals(4, cached.size());
+        assertEquals(act360.getPaymentDate(3), act365.getPaymentDate(3));
+        assertEquals(new BigDecimal("12500.00"), act360.getAmount(0));
+        assertEquals(new BigDecimal("24657.53"), act365.getAmount(0));
+    }
+
+    @Test
+    void testPeriodDates_EvictsLeastRecentlyUsedAndKeysCalendarsByInstance() {
+        // Given
+        CashflowEngine engine = new CashflowEngine(2);
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", List.of(LocalDate.of(2025, 12, 25)));
+        BusinessDayCalendar reloadedNy = BusinessDayCalendar.of("NY", List.of(LocalDate.of(2025, 12, 25)));
+        long start = LocalDate.of(2025, 1, 15).toEpochDay();
+        long maturity = LocalDate.of(2030, 1, 15).toEpochDay();
+
+        // When - the quarterly set is used again before the annual one goes in, so the monthly one is evicted
+        PeriodDates quarterly = engine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, ny);
+        PeriodDates monthly = engine.periodDates(start, maturity, 1, RollConvention.FOLLOWING, ny);
+        engine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, ny);
+        engine.periodDates(start, maturity, 12, RollConvention.FOLLOWING, ny);
+
+        // Then
+        assertSame(quarterly, engine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, ny));
+        assertNotSame(monthly, engine.periodDates(start, maturity, 1, RollConvention.FOLLOWING, ny));
+        assertNotSame(quarterly, engine.periodDates(start, maturity, 3, RollConvention.FOLLOWING, reloadedNy));
+    }
+
+    @Test
+    void testParseScheduleMonths() {
+        // Then
+        assertEquals(3, CashflowEngine.parseScheduleMonths(null));
+        assertEquals(1, CashflowEngine.parseScheduleMonths("Monthly"));
+        assertEquals(3, CashflowEngine.parseScheduleMonths("Quarterly"));
+        assertEquals(6, CashflowEngine.parseScheduleMonths("6M"));
+        assertEquals(12, CashflowEngine.parseScheduleMonths("1Y"));
+        assertThrows(IllegalArgumentException.class, () -> CashflowEngine.parseScheduleMonths("Fortnightly"));
+        assertThrows(IllegalArgumentException.class, () -> CashflowEngine.parseScheduleMonths("0M"));
+    }
+
+    @Test
+    void testEpochDays_MatchLocalDate() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(13)) {
+            int packed = EpochDays.toPacked(date.toEpochDay());
+            assertEquals(date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth(), packed);
+            assertEquals(date.toEpochDay(), EpochDays.fromCivil(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.plusMonths(7).toEpochDay(), EpochDays.plusMonths(packed, 7));
+        }
+    }
+}
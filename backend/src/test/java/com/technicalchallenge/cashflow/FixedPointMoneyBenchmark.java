@@ -0,0 +1,87 @@
+package com.technicalchallenge.cashflow;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-period interest and aggregation over one million periods: scaled longs against
+ * the BigDecimal arithmetic they replace and the old double-then-BigDecimal path
+ * Run with: mvn -B test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.technicalchallenge.cashflow.FixedPointMoneyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixedPointMoneyBenchmark {
+
+    private static final int PERIODS = 1_000_000;
+
+    private long[] notionalCents;
+    private long[] scaledRates;
+    private BigDecimal[] notionals;
+    private BigDecimal[] rates;
+    private double[] rateValues;
+    private long[] days;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        notionalCents = new long[PERIODS];
+        scaledRates = new long[PERIODS];
+        notionals = new BigDecimal[PERIODS];
+        rates = new BigDecimal[PERIODS];
+        rateValues = new double[PERIODS];
+        days = new long[PERIODS];
+        for (int i = 0; i < PERIODS; i++) {
+            notionalCents[i] = 100_000_000L * (1 + random.nextInt(1000));
+            scaledRates[i] = 100_000L * (1 + random.nextInt(800));
+            notionals[i] = FixedPointMoney.fromCents(notionalCents[i]);
+            rates[i] = BigDecimal.valueOf(scaledRates[i], FixedPointMoney.RATE_SCALE);
+            rateValues[i] = rates[i].doubleValue();
+            days[i] = 28 + random.nextInt(340);
+        }
+    }
+
+    @Benchmark
+    public long fixedPoint() {
+        long total = 0;
+        for (int i = 0; i < PERIODS; i++) {
+            total = FixedPointMoney.add(total, FixedPointMoney.accrue(notionalCents[i], scaledRates[i], days[i], 360));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < PERIODS; i++) {
+            total = total.add(FixedPointMoney.accrueExact(notionals[i], rates[i], days[i], 360));
+        }
+        return total;
+    }
+
+    // What TradeService did before the CashflowEngine: double arithmetic, then BigDecimal.valueOf per period
+    @Benchmark
+    public BigDecimal doubleThenBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < PERIODS; i++) {
+            double amount = notionals[i].doubleValue() * rateValues[i] * days[i] / 360;
+            total = total.add(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FixedPointMoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
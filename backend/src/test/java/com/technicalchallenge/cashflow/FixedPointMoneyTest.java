@@ -0,0 +1,75 @@
+package com.technicalchallenge.cashflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointMoneyTest {
+
+    @Test
+    void testAccrue_MatchesBigDecimalForRandomInputs() {
+        // Given
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            // Notionals up to 100bn with cents, rates to eight places from -1% to 20%, periods up to 400 days
+            long notionalCents = (random.nextLong() & Long.MAX_VALUE) % 10_000_000_000_000L;
+            long scaledRate = random.nextInt(21_000_000) - 1_000_000;
+            long days = 1 + random.nextInt(400);
+            int basis = random.nextBoolean() ? 360 : 365;
+
+            // When
+            long cents = FixedPointMoney.accrue(notionalCents, scaledRate, days, basis);
+
+            // Then
+            BigDecimal expected = FixedPointMoney.accrueExact(FixedPointMoney.fromCents(notionalCents),
+                    BigDecimal.valueOf(scaledRate, FixedPointMoney.RATE_SCALE), days, basis);
+            assertEquals(expected, FixedPointMoney.fromCents(cents),
+                    notionalCents + " cents at " + scaledRate + " for " + days + "/" + basis);
+        }
+    }
+
+    @Test
+    void testAccrue_RoundsHalfUpAwayFromZero() {
+        // Given - 1.00 at 1.5% for 1/360 is 0.4166... cents, 3.00 at 1.5% for 1/1 is 4.5 cents
+
+        // Then
+        assertEquals(0, FixedPointMoney.accrue(100, 1_500_000, 1, 360));
+        assertEquals(5, FixedPointMoney.accrue(300, 1_500_000, 1, 1));
+        assertEquals(-5, FixedPointMoney.accrue(-300, 1_500_000, 1, 1));
+    }
+
+    @Test
+    void testConversions_AreExactOrRejected() {
+        // Then
+        assertEquals(5_250_000L, FixedPointMoney.toScaledRate(0.0525));
+        assertEquals(10_000L, FixedPointMoney.toScaledRate(0.0001));
+        assertEquals(123_456_789L, FixedPointMoney.toCents(new BigDecimal("1234567.89")));
+        assertEquals(new BigDecimal("1234567.89"), FixedPointMoney.fromCents(123_456_789L));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.toCents(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.toScaledRate(0.123456789));
+        assertThrows(ArithmeticException.class, () -> FixedPointMoney.accrue(Long.MAX_VALUE / 10, 5_000_000, 90, 360));
+    }
+
+    @Test
+    void testGenerate_FallsBackToBigDecimalWhenCentsWouldOverflow() {
+        // Given - a notional beyond long cents, and one with fractions of a cent
+        BigDecimal huge = new BigDecimal("1000000000000000000");
+        BigDecimal subCent = new BigDecimal("1000000.005");
+        CashflowEngine cashflowEngine = new CashflowEngine();
+
+        // When
+        CashflowSchedule large = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 7, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, huge, 0.05, true);
+        CashflowSchedule fractional = cashflowEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 15), 3,
+                DayCountConvention.ACT_360, RollConvention.NONE, null, subCent, 0.05, true);
+
+        // Then - 90 days
+        assertEquals(new BigDecimal("12500000000000000.00"), large.getAmount(0));
+        assertEquals(new BigDecimal("12500.00"), fractional.getAmount(0));
+    }
+}
@@ -0,0 +1,42 @@
+package com.technicalchallenge.cashflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexFixingsTest {
+
+    private final IndexFixings fixings = IndexFixings.of("LIBOR",
+            new long[]{LocalDate.of(2025, 1, 2).toEpochDay(), LocalDate.of(2025, 4, 1).toEpochDay(),
+                    LocalDate.of(2025, 7, 1).toEpochDay()},
+            new long[]{4_720_000L, 4_510_000L, 4_320_000L});
+
+    @Test
+    void testFloorScaledRate_ExactDateBetweenDatesAndAfterLast() {
+        // When/Then
+        assertEquals(4_720_000L, fixings.floorScaledRate(LocalDate.of(2025, 1, 2).toEpochDay()));
+        assertEquals(4_720_000L, fixings.floorScaledRate(LocalDate.of(2025, 3, 31).toEpochDay()));
+        assertEquals(4_510_000L, fixings.floorScaledRate(LocalDate.of(2025, 4, 1).toEpochDay()));
+        assertEquals(4_320_000L, fixings.floorScaledRate(LocalDate.of(2030, 1, 1).toEpochDay()));
+        assertEquals(LocalDate.of(2025, 4, 1), fixings.floorDate(LocalDate.of(2025, 6, 30)));
+    }
+
+    @Test
+    void testFloorScaledRate_BeforeFirstFixing() {
+        // When/Then
+        assertEquals(IndexFixings.NO_FIXING, fixings.floorScaledRate(LocalDate.of(2025, 1, 1).toEpochDay()));
+        assertNull(fixings.floorRate(LocalDate.of(2024, 12, 31)));
+        assertNull(fixings.floorDate(LocalDate.of(2024, 12, 31)));
+        assertEquals(IndexFixings.NO_FIXING, IndexFixings.empty("SOFR").floorScaledRate(0));
+    }
+
+    @Test
+    void testOf_RejectsUnsortedDates() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> IndexFixings.of("LIBOR",
+                new long[]{LocalDate.of(2025, 4, 1).toEpochDay(), LocalDate.of(2025, 1, 2).toEpochDay()},
+                new long[]{4_510_000L, 4_720_000L}));
+    }
+}
@@ -2,19 +2,28 @@ package com.technicalchallenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.cashflow.IndexFixings;
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CashflowLadderBucketDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.service.CashflowLadderService;
 import com.technicalchallenge.service.CashflowService;
+import com.technicalchallenge.service.HolidayCalendarRegistry;
+import com.technicalchallenge.service.IndexFixingStore;
+import com.technicalchallenge.util.BusinessDayCalendar;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,12 +37,16 @@ import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(CashflowController.class)
+@Import(CashflowEngine.class)
 public class CashflowControllerTest {
 
     @Autowired
@@ -45,6 +58,15 @@ public class CashflowControllerTest {
     @MockBean
     private CashflowMapper cashflowMapper;
 
+    @MockBean
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @MockBean
+    private IndexFixingStore indexFixingStore;
+
+    @MockBean
+    private CashflowLadderService cashflowLadderService;
+
     private ObjectMapper objectMapper;
     private CashflowDTO cashflowDTO;
     private Cashflow cashflow;
@@ -238,4 +260,136 @@ public class CashflowControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testGenerateCashflows_RollsPaymentDateOffHolidayAndAccruesActual360() throws Exception {
+        // Given - quarter ending on Christmas Day, which is a NY holiday
+        when(holidayCalendarRegistry.getCalendar("NY"))
+                .thenReturn(BusinessDayCalendar.of("NY", List.of(LocalDate.of(2025, 12, 25))));
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2025, 9, 25));
+        request.setTradeMaturityDate(LocalDate.of(2025, 12, 25));
+
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(0.05);
+        legDTO.setCalculationPeriodSchedule("Quarterly");
+        legDTO.setPaymentBusinessDayConvention("Following");
+        legDTO.setHolidayCalendar("NY");
+        request.setLegs(List.of(legDTO));
+
+        // When/Then - 91 days at ACT/360
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].valueDate", is("2025-12-26")))
+                .andExpect(jsonPath("$[0].paymentValue", is(12638.89)));
+    }
+
+    @Test
+    void testGenerateCashflows_UnknownDayCountIsBadRequest() throws Exception {
+        // Given
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2025, 1, 15));
+        request.setTradeMaturityDate(LocalDate.of(2026, 1, 15));
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(0.05);
+        legDTO.setDayCountConvention("ACT/ACT");
+        request.setLegs(List.of(legDTO));
+
+        // When/Then
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGenerateCashflows_ProjectsFloatingLegFromLatestFixingPlusSpread() throws Exception {
+        // Given - LIBOR fixed at 4.72% on 2 Jan, before the period starts on 15 Jan
+        when(indexFixingStore.getFixings("LIBOR")).thenReturn(IndexFixings.of("LIBOR",
+                new long[]{LocalDate.of(2024, 10, 1).toEpochDay(), LocalDate.of(2025, 1, 2).toEpochDay()},
+                new long[]{4_970_000L, 4_720_000L}));
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2025, 1, 15));
+        request.setTradeMaturityDate(LocalDate.of(2025, 4, 15));
+
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000));
+        legDTO.setLegType("Floating");
+        legDTO.setIndex("LIBOR");
+        legDTO.setRate(0.001);
+        legDTO.setCalculationPeriodSchedule("Quarterly");
+        request.setLegs(List.of(legDTO));
+
+        // When/Then - 4.82% for 90 days at ACT/360
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].rate", is(0.0482)))
+                .andExpect(jsonPath("$[0].paymentValue", is(12050.0)));
+    }
+
+    @Test
+    void testGetCashflowLadder() throws Exception {
+        // Given
+        when(cashflowLadderService.getLadder(CashflowLadderService.Bucket.MONTH, null, null, "RATES-BOOK-1", null))
+                .thenReturn(List.of(new CashflowLadderBucketDTO("USD", LocalDate.of(2025, 12, 1),
+                        LocalDate.of(2025, 12, 31), new BigDecimal("100.00"), new BigDecimal("250.00"),
+                        new BigDecimal("150.00"), 2)));
+
+        // When/Then
+        mockMvc.perform(get("/api/cashflows/ladder").param("bucket", "month").param("book", "RATES-BOOK-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].currency", is("USD")))
+                .andExpect(jsonPath("$[0].bucketStart", is("2025-12-01")))
+                .andExpect(jsonPath("$[0].netAmount", is(150.0)));
+    }
+
+    @Test
+    void testGetCashflowLadder_UnknownBucketIsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/cashflows/ladder").param("bucket", "quarter"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(cashflowLadderService);
+    }
+
+    @Test
+    void testSearchCashflows() throws Exception {
+        // Given
+        when(cashflowService.findCashflows(LocalDate.of(2025, 1, 1), null, null, 10001L, "USD", null, true,
+                null, 50)).thenReturn(new KeysetPageDTO<>(List.of(cashflow), 50, "MTA6MjAyNS0xMi0xNTI6MTE", false));
+
+        // When/Then
+        mockMvc.perform(get("/api/cashflows/search")
+                        .param("fromDate", "2025-01-01")
+                        .param("tradeId", "10001")
+                        .param("currency", "USD")
+                        .param("active", "true")
+                        .param("pageSize", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("MTA6MjAyNS0xMi0xNTI6MTE")))
+                .andExpect(jsonPath("$.lastPage", is(false)));
+    }
+
+    @Test
+    void testSearchCashflows_InvalidCursorIsBadRequest() throws Exception {
+        // Given
+        when(cashflowService.findCashflows(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq("bogus"), anyInt())).thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        // When/Then
+        mockMvc.perform(get("/api/cashflows/search").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor: bogus"));
+    }
 }
@@ -2,9 +2,21 @@ package com.technicalchallenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.BlotterRowsRequestDTO;
+import com.technicalchallenge.dto.BlotterRowsResponseDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeBulkActionProgressDTO;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeConcurrencyException;
 import com.technicalchallenge.mapper.TradeMapper;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeBatchService;
+import com.technicalchallenge.service.TradeBlotterService;
+import com.technicalchallenge.service.TradeBookingPipeline;
+import com.technicalchallenge.service.TradeBulkActionService;
 import com.technicalchallenge.service.TradeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,17 +24,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +65,18 @@ public class TradeControllerTest {
     @MockBean
     private TradeMapper tradeMapper;
 
+    @MockBean
+    private TradeBatchService tradeBatchService;
+
+    @MockBean
+    private TradeBookingPipeline tradeBookingPipeline;
+
+    @MockBean
+    private TradeBulkActionService tradeBulkActionService;
+
+    @MockBean
+    private TradeBlotterService tradeBlotterService;
+
     private ObjectMapper objectMapper;
     private TradeDTO tradeDTO;
     private Trade trade;
@@ -242,4 +279,268 @@ public class TradeControllerTest {
 
         verify(tradeService, never()).createTrade(any(TradeDTO.class));
     }
+
+    @Test
+    void testCreateTradesInBatch() throws Exception {
+        // Given
+        TradeBatchResultDTO booked = new TradeBatchResultDTO(0, 1001L, 1, true, null);
+        TradeBatchResultDTO rejected = new TradeBatchResultDTO(1, null, null, false, List.of("Book not found or not set"));
+        when(tradeBatchService.bookTrades(anyList())).thenReturn(List.of(booked, rejected));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(tradeDTO, new TradeDTO()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSubmitted", is(2)))
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[1].errors[0]", is("Book not found or not set")));
+
+        verify(tradeBatchService).bookTrades(anyList());
+    }
+
+    @Test
+    void testCreateTradeAsync_ReturnsTrackingId() throws Exception {
+        // Given
+        TradeBookingStatusDTO queued = new TradeBookingStatusDTO("abc-123", "QUEUED", 1001L, null, null,
+                LocalDateTime.now(), LocalDateTime.now());
+        when(tradeBookingPipeline.submit(any(TradeDTO.class))).thenReturn(queued);
+
+        // When/Then
+        mockMvc.perform(post("/api/trades")
+                        .param("mode", "async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/trades/bookings/abc-123"))
+                .andExpect(jsonPath("$.trackingId", is("abc-123")))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+
+        verify(tradeBookingPipeline).submit(any(TradeDTO.class));
+        verify(tradeService, never()).saveTrade(any(Trade.class), any(TradeDTO.class));
+    }
+
+    @Test
+    void testCreateTradeAsync_PipelineFull() throws Exception {
+        // Given
+        when(tradeBookingPipeline.submit(any(TradeDTO.class)))
+                .thenThrow(new RejectedExecutionException("Trade booking pipeline is at capacity, please retry later"));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades")
+                        .param("mode", "async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testGetBookingStatus() throws Exception {
+        // Given
+        TradeBookingStatusDTO completed = new TradeBookingStatusDTO("abc-123", "COMPLETED", 1001L, 1, null,
+                LocalDateTime.now(), LocalDateTime.now());
+        when(tradeBookingPipeline.getStatus("abc-123")).thenReturn(Optional.of(completed));
+        when(tradeBookingPipeline.getStatus("unknown")).thenReturn(Optional.empty());
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/bookings/abc-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.tradeId", is(1001)));
+
+        mockMvc.perform(get("/api/trades/bookings/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetTradeById_ReturnsETag() throws Exception {
+        // Given
+        trade.setRowVersion(3L);
+        when(tradeService.getTradeById(1001L)).thenReturn(Optional.of(trade));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/1001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1.3\""));
+    }
+
+    @Test
+    void testUpdateTradeWithIfMatch_PassesExpectedVersion() throws Exception {
+        // Given
+        trade.setVersion(2);
+        trade.setRowVersion(0L);
+        when(tradeService.amendTrade(eq(1001L), any(TradeDTO.class), eq(1), eq(3L))).thenReturn(trade);
+
+        // When/Then
+        mockMvc.perform(put("/api/trades/{id}", 1001L)
+                        .header("If-Match", "\"1.3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.0\""));
+    }
+
+    @Test
+    void testUpdateTradeWithStaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        // Given
+        when(tradeService.amendTrade(eq(1001L), any(TradeDTO.class), eq(1), eq(0L)))
+                .thenThrow(new TradeConcurrencyException("Trade 1001 has been modified, current version is 2.0"));
+
+        // When/Then
+        mockMvc.perform(put("/api/trades/{id}", 1001L)
+                        .header("If-Match", "\"1.0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateTradeLosingConcurrentRace_ReturnsConflict() throws Exception {
+        // Given
+        when(tradeService.amendTrade(any(Long.class), any(TradeDTO.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Trade.class, 1L));
+
+        // When/Then
+        mockMvc.perform(put("/api/trades/{id}", 1001L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testBulkCancel_StreamsProgress() throws Exception {
+        // Given
+        when(tradeBulkActionService.isSupportedAction("cancel")).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<TradeBulkActionProgressDTO> listener = invocation.getArgument(3);
+            TradeBulkActionProgressDTO progress = new TradeBulkActionProgressDTO("bulk-1", "cancel", "RUNNING",
+                    1, 1000, null, LocalDateTime.now());
+            listener.accept(progress);
+            progress.setStatus("COMPLETED");
+            listener.accept(progress);
+            return progress;
+        }).when(tradeBulkActionService).run(eq("cancel"), isNull(), eq("ops"), any());
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/trades/bulk/cancel")
+                        .param("bookName", "FX-BOOK-1")
+                        .param("requestedBy", "ops"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"status\":\"RUNNING\"")))
+                .andExpect(content().string(containsString("\"status\":\"COMPLETED\"")));
+        verify(tradeBulkActionService).buildFilter(null, "FX-BOOK-1", null, null, null, null, null, null);
+    }
+
+    @Test
+    void testBulkAction_RejectsUnknownActionAndMissingFilter() throws Exception {
+        // Given
+        when(tradeBulkActionService.isSupportedAction("cancel")).thenReturn(true);
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/bulk/delete").param("bookName", "FX-BOOK-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/trades/bulk/cancel"))
+                .andExpect(status().isBadRequest());
+        verify(tradeBulkActionService, never()).run(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetTradeBlotter_ReturnsFlatRows() throws Exception {
+        // Given
+        TradeBlotterRow row = new TradeBlotterRow(1L, 1001L, 2, "FX-BOOK-1", "BigBank", "Simon King", "LIVE",
+                LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 6), LocalDate.of(2026, 1, 6),
+                BigDecimal.valueOf(1000000), null);
+        when(tradeBlotterService.getBlotter(isNull(), eq("FX-BOOK-1"), isNull(), isNull(), isNull(), isNull(),
+                isNull(), eq(0), eq(50), eq("counterpartyName"), eq("desc")))
+                .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 50), 1));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/blotter")
+                        .param("bookName", "FX-BOOK-1")
+                        .param("sortBy", "counterpartyName")
+                        .param("sortDir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].tradeId", is(1001)))
+                .andExpect(jsonPath("$.content[0].traderName", is("Simon King")))
+                .andExpect(jsonPath("$.content[0].leg1Notional", is(1000000)))
+                .andExpect(jsonPath("$.totalItems", is(1)));
+        verifyNoInteractions(tradeMapper);
+    }
+
+    @Test
+    void testGetTradeBlotter_RejectsUnknownSortColumn() throws Exception {
+        // Given
+        when(tradeBlotterService.getBlotter(any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt(),
+                eq("nope"), any()))
+                .thenThrow(new IllegalArgumentException("Unable to locate attribute nope"));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/blotter").param("sortBy", "nope"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetTradesByCriteriaAfterCursor_ReturnsPageWithNextCursor() throws Exception {
+        // Given
+        when(tradeService.getTradesWithFiltersAfterCursor(isNull(), eq("FX-BOOK-1"), isNull(), isNull(), isNull(),
+                eq(LocalDate.of(2025, 1, 1)), isNull(), eq("MTA6MjAyNS0wMS0wMTE6MQ"), eq(10), eq("tradeDate"),
+                eq("asc"), eq(false)))
+                .thenReturn(new KeysetPageDTO<>(List.of(trade), 10, "MTA6MjAyNS0wMS0wMTE6Mg", false));
+        when(tradeMapper.toDto(trade)).thenReturn(tradeDTO);
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/search/keyset")
+                        .param("bookName", "FX-BOOK-1")
+                        .param("tradeStartDate", "2025-01-01")
+                        .param("cursor", "MTA6MjAyNS0wMS0wMTE6MQ"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", is("MTA6MjAyNS0wMS0wMTE6Mg")))
+                .andExpect(jsonPath("$.lastPage", is(false)));
+    }
+
+    @Test
+    void testGetTradesByCriteriaAfterCursor_RejectsInvalidRequests() throws Exception {
+        // Given
+        when(tradeService.getTradesWithFiltersAfterCursor(any(), any(), any(), any(), any(), any(), any(),
+                eq("bad"), anyInt(), any(), any(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/search/keyset"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/trades/search/keyset")
+                        .param("tradeStartDate", "2025-01-01")
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor: bad"));
+    }
+
+    @Test
+    void testGetTradeBlotterRows_ReturnsBlockForTheGrid() throws Exception {
+        // Given
+        when(tradeBlotterService.getServerSideRows(any(BlotterRowsRequestDTO.class)))
+                .thenReturn(new BlotterRowsResponseDTO(List.<Object>of(Map.of("bookName", "FX-BOOK-1",
+                        "childCount", 3)), 1));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/blotter/rows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startRow\":0,\"endRow\":100,\"rowGroupCols\":[{\"id\":\"bookName\",\"field\":\"bookName\"}]," +
+                                "\"groupKeys\":[],\"sortModel\":[],\"filterModel\":{\"tradeId\":{\"filterType\":\"number\"," +
+                                "\"type\":\"greaterThan\",\"filter\":900000}}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowData[0].bookName", is("FX-BOOK-1")))
+                .andExpect(jsonPath("$.rowCount", is(1)));
+        verify(tradeBlotterService).getServerSideRows(argThat(request -> request.getEndRow() == 100
+                && "900000".equals(request.getFilterModel().get("tradeId").getFilter())));
+    }
 }
@@ -0,0 +1,198 @@
+package com.technicalchallenge.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.TradeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<TradeJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (TradeJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    private TradeJournal openJournal(int segmentSize) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        TradeJournal journal = new TradeJournal();
+        ReflectionTestUtils.setField(journal, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", segmentSize);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private TradeEvent created(long tradeId, String status) {
+        TradeDTO trade = new TradeDTO();
+        trade.setTradeId(tradeId);
+        trade.setVersion(1);
+        trade.setTradeStatus(status);
+        return new TradeEvent(0, TradeEvent.CREATED, tradeId, 1, status, LocalDateTime.of(2025, 1, 17, 10, 0), trade, null);
+    }
+
+    private List<TradeEvent> replayAll(TradeJournal journal, Long tradeId) {
+        List<TradeEvent> events = new ArrayList<>();
+        journal.replay(1, tradeId, events::add);
+        return events;
+    }
+
+    @Test
+    void testAppendAndReplay_RoundTripsEventsInOrder() throws IOException {
+        // Given
+        TradeJournal journal = openJournal(64 * 1024);
+
+        // When
+        journal.append(created(100001L, "NEW"));
+        journal.append(created(100002L, "NEW"));
+        journal.append(new TradeEvent(0, TradeEvent.CANCELLED, 100001L, 1, "CANCELLED", LocalDateTime.now(), null, null));
+
+        // Then
+        List<TradeEvent> all = replayAll(journal, null);
+        assertEquals(List.of(1L, 2L, 3L), all.stream().map(TradeEvent::getSequence).toList());
+        assertEquals(100001L, all.get(0).getTrade().getTradeId());
+
+        List<TradeEvent> firstTrade = replayAll(journal, 100001L);
+        assertEquals(List.of(TradeEvent.CREATED, TradeEvent.CANCELLED),
+                firstTrade.stream().map(TradeEvent::getEventType).toList());
+    }
+
+    @Test
+    void testAppend_RollsToNewSegmentWhenFull() throws IOException {
+        // Given - room for only a few events per segment
+        TradeJournal journal = openJournal(4096);
+
+        // When
+        for (long tradeId = 1; tradeId <= 20; tradeId++) {
+            journal.append(created(tradeId, "NEW"));
+        }
+
+        // Then
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertTrue(segments.count() > 1);
+        }
+        assertEquals(20, replayAll(journal, null).size());
+        List<TradeEvent> fromFifteen = new ArrayList<>();
+        journal.replay(15, null, fromFifteen::add);
+        assertEquals(15L, fromFifteen.get(0).getSequence());
+        assertEquals(6, fromFifteen.size());
+    }
+
+    @Test
+    void testReplayTrade_ReadsOnlyThatTradeAcrossSegmentsAndAfterReopen() throws IOException {
+        // Given - three trades interleaved over several segments
+        TradeJournal journal = openJournal(4096);
+        for (int i = 0; i < 30; i++) {
+            journal.append(created(100001L + i % 3, "NEW"));
+        }
+        List<TradeEvent> scanned = replayAll(journal, 100002L);
+
+        // When
+        List<TradeEvent> indexed = new ArrayList<>();
+        journal.replayTrade(100002L, indexed::add);
+        journal.close();
+        opened.remove(journal);
+        TradeJournal reopened = openJournal(4096);
+        reopened.append(created(100002L, "NEW"));
+        List<TradeEvent> afterReopen = new ArrayList<>();
+        reopened.replayTrade(100002L, afterReopen::add);
+        List<TradeEvent> unknown = new ArrayList<>();
+        reopened.replayTrade(999999L, unknown::add);
+
+        // Then
+        assertEquals(10, indexed.size());
+        assertEquals(scanned.stream().map(TradeEvent::getSequence).toList(),
+                indexed.stream().map(TradeEvent::getSequence).toList());
+        assertEquals(11, afterReopen.size());
+        assertEquals(31L, afterReopen.get(10).getSequence());
+        assertTrue(unknown.isEmpty());
+    }
+
+    @Test
+    void testOpen_ResumesAfterLastValidRecordAndDropsCorruptTail() throws IOException {
+        // Given - three events, then the last one is corrupted on disk
+        TradeJournal journal = openJournal(64 * 1024);
+        journal.append(created(100001L, "NEW"));
+        journal.append(created(100002L, "NEW"));
+        journal.append(created(100003L, "NEW"));
+        journal.close();
+        opened.remove(journal);
+
+        Path segment;
+        try (Stream<Path> segments = Files.list(directory)) {
+            segment = segments.findFirst().orElseThrow();
+        }
+        long lastRecordStart = lastRecordStart(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long payloadByte = lastRecordStart + TradeJournal.HEADER_BYTES + 2;
+            file.seek(payloadByte);
+            int original = file.read();
+            file.seek(payloadByte);
+            file.write(original ^ 0xFF);
+        }
+
+        // When
+        TradeJournal reopened = openJournal(64 * 1024);
+        TradeEvent appended = reopened.append(created(100004L, "NEW"));
+
+        // Then
+        assertEquals(3L, appended.getSequence());
+        assertEquals(List.of(100001L, 100002L, 100004L),
+                replayAll(reopened, null).stream().map(TradeEvent::getTradeId).toList());
+        List<TradeEvent> dropped = new ArrayList<>();
+        reopened.replayTrade(100003L, dropped::add);
+        assertTrue(dropped.isEmpty());
+    }
+
+    // Walks the record lengths to find where the last record starts
+    private long lastRecordStart(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            long position = 0;
+            long lastStart = 0;
+            int length;
+            while ((length = file.readInt()) > 0) {
+                lastStart = position;
+                position += TradeJournal.HEADER_BYTES + length;
+                file.seek(position);
+            }
+            return lastStart;
+        }
+    }
+
+    @Test
+    void testFold_StatusEventKeepsLatestVersion() {
+        // Given
+        TradeEvent create = created(100001L, "NEW");
+        TradeEvent cancel = new TradeEvent(2, TradeEvent.CANCELLED, 100001L, 1, "CANCELLED", LocalDateTime.now(), null, null);
+
+        // When
+        TradeDTO state = TradeJournalReadModel.fold(TradeJournalReadModel.fold(null, create), cancel);
+
+        // Then
+        assertEquals(100001L, state.getTradeId());
+        assertEquals("CANCELLED", state.getTradeStatus());
+        assertEquals("NEW", create.getTrade().getTradeStatus());
+    }
+}
@@ -0,0 +1,168 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.CashflowLadderBucketDTO;
+import com.technicalchallenge.journal.TradeChangedEvent;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.util.TradeTestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the cashflow ladder from a real database
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Import({CashflowLadderService.class, ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CashflowLadderServiceTest {
+
+    @Autowired
+    private CashflowLadderService cashflowLadderService;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired
+    private TradeTestData testData;
+
+    private PayRec pay;
+    private PayRec receive;
+    private Currency usd;
+    private Currency eur;
+    private Book ratesBook;
+    private Book fxBook;
+
+    @BeforeEach
+    void setUp() {
+        pay = testData.payRec("Pay");
+        receive = testData.payRec("Receive");
+        usd = testData.currency("USD");
+        eur = testData.currency("EUR");
+        ratesBook = testData.book("RATES-BOOK-1");
+        fxBook = testData.book("FX-BOOK-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+        applicationEventPublisher.publishEvent(TradeChangedEvent.cashflowsChanged());
+    }
+
+    private TradeLeg leg(long tradeId, Book book, Currency currency, boolean active) {
+        Trade trade = testData.trade(tradeId, details -> {
+            details.setBook(book);
+            details.setActive(active);
+        });
+        return leg(trade, currency);
+    }
+
+    private TradeLeg leg(Trade trade, Currency currency) {
+        return testData.leg(trade, leg -> leg.setCurrency(currency));
+    }
+
+    private void cashflow(TradeLeg leg, LocalDate valueDate, String amount, PayRec payRec, boolean active) {
+        testData.cashflow(leg, cashflow -> {
+            cashflow.setValueDate(valueDate);
+            cashflow.setPaymentValue(new BigDecimal(amount));
+            cashflow.setPayRec(payRec);
+            cashflow.setActive(active);
+        });
+    }
+
+    @Test
+    void testGetLadder_NetsPayAndReceivePerCurrencyAndWeek() {
+        // Given - 15 and 17 Dec 2025 fall in the week of Monday 15 Dec, 22 Dec in the next
+        TradeLeg usdLeg = leg(600001L, ratesBook, usd, true);
+        TradeLeg eurLeg = leg(600002L, fxBook, eur, true);
+        TradeLeg deadLeg = leg(600003L, ratesBook, usd, false);
+        cashflow(usdLeg, LocalDate.of(2025, 12, 15), "1000.00", receive, true);
+        cashflow(usdLeg, LocalDate.of(2025, 12, 17), "400.25", pay, true);
+        cashflow(usdLeg, LocalDate.of(2025, 12, 22), "50.00", pay, true);
+        cashflow(usdLeg, LocalDate.of(2025, 12, 16), "999.99", receive, false);
+        cashflow(deadLeg, LocalDate.of(2025, 12, 16), "888.88", receive, true);
+        cashflow(eurLeg, LocalDate.of(2025, 12, 18), "300.00", receive, true);
+
+        // When
+        List<CashflowLadderBucketDTO> ladder = cashflowLadderService.getLadder(
+                CashflowLadderService.Bucket.WEEK, null, null, null, null);
+
+        // Then - EUR sorts first
+        assertEquals(3, ladder.size());
+        assertEquals("EUR", ladder.get(0).getCurrency());
+        assertEquals(new BigDecimal("300.00"), ladder.get(0).getNetAmount());
+
+        CashflowLadderBucketDTO firstUsdWeek = ladder.get(1);
+        assertEquals("USD", firstUsdWeek.getCurrency());
+        assertEquals(LocalDate.of(2025, 12, 15), firstUsdWeek.getBucketStart());
+        assertEquals(LocalDate.of(2025, 12, 21), firstUsdWeek.getBucketEnd());
+        assertEquals(new BigDecimal("400.25"), firstUsdWeek.getPayAmount());
+        assertEquals(new BigDecimal("1000.00"), firstUsdWeek.getReceiveAmount());
+        assertEquals(new BigDecimal("599.75"), firstUsdWeek.getNetAmount());
+        assertEquals(2, firstUsdWeek.getCashflowCount());
+        assertEquals(new BigDecimal("-50.00"), ladder.get(2).getNetAmount());
+    }
+
+    @Test
+    void testGetLadder_FiltersByBookAndIsCachedUntilTradeChanges() {
+        // Given
+        TradeLeg usdLeg = leg(600011L, ratesBook, usd, true);
+        TradeLeg eurLeg = leg(600012L, fxBook, eur, true);
+        cashflow(usdLeg, LocalDate.of(2025, 12, 15), "1000.00", receive, true);
+        cashflow(eurLeg, LocalDate.of(2025, 12, 18), "300.00", pay, true);
+        List<CashflowLadderBucketDTO> first = cashflowLadderService.getLadder(
+                CashflowLadderService.Bucket.MONTH, null, null, "RATES-BOOK-1", null);
+
+        // When - a new cashflow is written without any change event, then one is published
+        cashflow(usdLeg, LocalDate.of(2025, 12, 20), "500.00", pay, true);
+        List<CashflowLadderBucketDTO> cached = cashflowLadderService.getLadder(
+                CashflowLadderService.Bucket.MONTH, null, null, "RATES-BOOK-1", null);
+        applicationEventPublisher.publishEvent(new TradeChangedEvent(600011L, 1, "AMENDED"));
+        List<CashflowLadderBucketDTO> refreshed = cashflowLadderService.getLadder(
+                CashflowLadderService.Bucket.MONTH, null, null, "RATES-BOOK-1", null);
+
+        // Then
+        assertEquals(1, first.size());
+        assertEquals("USD", first.get(0).getCurrency());
+        assertEquals(LocalDate.of(2025, 12, 1), first.get(0).getBucketStart());
+        assertSame(first, cached);
+        assertEquals(new BigDecimal("500.00"), refreshed.get(0).getNetAmount());
+    }
+
+    @Test
+    void testGetLadder_LeavesOutClosedTrades() {
+        // Given - one live trade and one trade in each closed status, all still active versions
+        TradeStatus live = testData.status("LIVE");
+        TradeLeg liveLeg = leg(testData.trade(600021L, trade -> trade.setTradeStatus(live)), usd);
+        cashflow(liveLeg, LocalDate.of(2025, 12, 15), "100.00", receive, true);
+        long tradeId = 600022L;
+        for (String closed : TradeStatus.CLOSED_STATUSES) {
+            TradeStatus status = testData.status(closed);
+            TradeLeg closedLeg = leg(testData.trade(tradeId++, trade -> trade.setTradeStatus(status)), usd);
+            cashflow(closedLeg, LocalDate.of(2025, 12, 15), "777.00", receive, true);
+        }
+
+        // When
+        List<CashflowLadderBucketDTO> ladder = cashflowLadderService.getLadder(
+                CashflowLadderService.Bucket.DAY, null, null, null, null);
+
+        // Then
+        assertEquals(1, ladder.size());
+        assertEquals(new BigDecimal("100.00"), ladder.get(0).getNetAmount());
+        assertEquals(1, ladder.get(0).getCashflowCount());
+    }
+}
@@ -0,0 +1,163 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.dto.CashflowRegenerationStatusDTO;
+import com.technicalchallenge.model.BusinessDayConvention;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.model.HolidayDate;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
+import com.technicalchallenge.util.TradeTestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regenerates cashflows against a real database with chunks of two legs on two workers
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+        "trade.cashflow-regeneration.chunk-size=2", "trade.cashflow-regeneration.threads=2"})
+@Import({CashflowRegenerationJob.class, CashflowEngine.class, HolidayCalendarRegistry.class, IndexFixingStore.class,
+        ReferenceDataCache.class, TradeTestData.class, CashflowRegenerationJobTest.MetricsConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CashflowRegenerationJobTest {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CashflowRegenerationJob cashflowRegenerationJob;
+    @Autowired
+    private CashflowRepository cashflowRepository;
+    @Autowired
+    private HolidayDateRepository holidayDateRepository;
+    @Autowired
+    private TradeTestData testData;
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private Trade trade(long tradeId, boolean active) {
+        return testData.trade(tradeId, trade -> {
+            trade.setTradeStartDate(LocalDate.of(2025, 9, 25));
+            trade.setTradeMaturityDate(LocalDate.of(2025, 12, 25));
+            trade.setActive(active);
+        });
+    }
+
+    private TradeLeg leg(Trade trade, HolidayCalendar calendar, LegType fixed, BusinessDayConvention following,
+                         boolean active) {
+        return testData.leg(trade, leg -> {
+            leg.setNotional(BigDecimal.valueOf(1000000));
+            leg.setRate(0.05);
+            leg.setLegRateType(fixed);
+            leg.setHolidayCalendar(calendar);
+            leg.setPaymentBusinessDayConvention(following);
+            leg.setActive(active);
+        });
+    }
+
+    private void cashflow(TradeLeg leg, String value, boolean active) {
+        testData.cashflow(leg, cashflow -> {
+            cashflow.setPaymentValue(new BigDecimal(value));
+            cashflow.setValueDate(LocalDate.of(2025, 12, 25));
+            cashflow.setActive(active);
+        });
+    }
+
+    @Test
+    void testRun_RegeneratesActiveLegsOnTheChangedCalendarInChunks() {
+        // Given - five active NY legs, one inactive NY leg, one NY leg of an inactive trade and one LON leg;
+        // Christmas Day is a NY holiday
+        HolidayCalendar ny = testData.calendar("NY");
+        HolidayCalendar lon = testData.calendar("LON");
+        holidayDateRepository.save(new HolidayDate(null, ny, LocalDate.of(2025, 12, 25), "Christmas Day"));
+        LegType fixed = testData.legType("Fixed");
+        BusinessDayConvention following = testData.convention("Following");
+
+        Trade trade = trade(500001L, true);
+        List<TradeLeg> affected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            affected.add(leg(trade, ny, fixed, following, true));
+        }
+        TradeLeg inactiveLeg = leg(trade, ny, fixed, following, false);
+        TradeLeg inactiveTradeLeg = leg(trade(500002L, false), ny, fixed, following, true);
+        TradeLeg londonLeg = leg(trade, lon, fixed, following, true);
+        cashflow(affected.get(0), "1.00", true);
+        cashflow(affected.get(0), "2.00", false);
+        cashflow(inactiveLeg, "3.00", true);
+        cashflow(inactiveTradeLeg, "4.00", true);
+        cashflow(londonLeg, "5.00", true);
+
+        // When
+        CashflowRegenerationStatusDTO status = cashflowRegenerationJob.run(
+                CashflowRegenerationJob.ReferenceType.HOLIDAY_CALENDAR, ny.getId());
+
+        // Then - one quarter of 91 days at ACT/360, paid on the 26th
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(5, status.getLegsFound());
+        assertEquals(5L, status.getLegsRegenerated());
+        assertEquals(3, status.getChunkCount());
+        assertEquals(3, status.getChunks().size());
+        assertEquals(1L, status.getCashflowsDeactivated());
+        assertEquals(5L, status.getCashflowsWritten());
+
+        Map<Long, List<Cashflow>> byLeg = cashflowRepository.findAll().stream()
+                .collect(Collectors.groupingBy(cashflow -> cashflow.getTradeLeg().getLegId()));
+        for (TradeLeg leg : affected) {
+            List<Cashflow> active = byLeg.get(leg.getLegId()).stream().filter(Cashflow::getActive).toList();
+            assertEquals(1, active.size());
+            assertEquals(new BigDecimal("12638.89"), active.get(0).getPaymentValue());
+            assertEquals(LocalDate.of(2025, 12, 26), active.get(0).getValueDate());
+        }
+        // Then - the replaced cashflow is kept, deactivated, as on an amendment
+        List<Cashflow> firstLeg = byLeg.get(affected.get(0).getLegId());
+        assertEquals(3, firstLeg.size());
+        Cashflow replaced = firstLeg.stream()
+                .filter(cashflow -> new BigDecimal("1.00").equals(cashflow.getPaymentValue()))
+                .findFirst().orElseThrow();
+        assertFalse(replaced.getActive());
+        assertEquals(LocalDate.now(), replaced.getValidityEndDate());
+        assertEquals(new BigDecimal("3.00"), byLeg.get(inactiveLeg.getLegId()).get(0).getPaymentValue());
+        assertEquals(new BigDecimal("4.00"), byLeg.get(inactiveTradeLeg.getLegId()).get(0).getPaymentValue());
+        assertEquals(new BigDecimal("5.00"), byLeg.get(londonLeg.getLegId()).get(0).getPaymentValue());
+    }
+
+    @Test
+    void testReferenceTypeFromName() {
+        // When/Then
+        assertEquals(CashflowRegenerationJob.ReferenceType.HOLIDAY_CALENDAR,
+                CashflowRegenerationJob.ReferenceType.fromName("holiday-calendar"));
+        assertEquals(CashflowRegenerationJob.ReferenceType.BUSINESS_DAY_CONVENTION,
+                CashflowRegenerationJob.ReferenceType.fromName("businessDayConvention"));
+        assertThrows(IllegalArgumentException.class, () -> CashflowRegenerationJob.ReferenceType.fromName("book"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.util.TradeTestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through cashflows of a real database with the keyset cursor
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "trade.cashflow-query.max-page-size=10"})
+@Import({CashflowService.class, ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CashflowSearchTest {
+
+    @Autowired
+    private CashflowService cashflowService;
+    @Autowired
+    private TradeTestData testData;
+
+    private PayRec pay;
+    private PayRec receive;
+    private TradeLeg usdPayLeg;
+    private TradeLeg eurReceiveLeg;
+
+    @BeforeEach
+    void setUp() {
+        pay = testData.payRec("Pay");
+        receive = testData.payRec("Receive");
+        Currency usd = testData.currency("USD");
+        Currency eur = testData.currency("EUR");
+        Trade trade = testData.trade(700001L);
+        usdPayLeg = leg(trade, usd, pay);
+        eurReceiveLeg = leg(trade, eur, receive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private TradeLeg leg(Trade trade, Currency currency, PayRec payRec) {
+        return testData.leg(trade, leg -> {
+            leg.setCurrency(currency);
+            leg.setPayReceiveFlag(payRec);
+        });
+    }
+
+    private Cashflow cashflow(TradeLeg leg, LocalDate valueDate, PayRec payRec) {
+        return testData.cashflow(leg, cashflow -> {
+            cashflow.setValueDate(valueDate);
+            cashflow.setPaymentValue(BigDecimal.TEN);
+            cashflow.setPayRec(payRec);
+        });
+    }
+
+    @Test
+    void testFindCashflows_PagesInValueDateThenIdOrder() {
+        // Given - three cashflows share 15 Dec, so the id breaks the tie across a page boundary
+        List<Cashflow> expected = List.of(
+                cashflow(usdPayLeg, LocalDate.of(2025, 12, 1), pay),
+                cashflow(usdPayLeg, LocalDate.of(2025, 12, 15), pay),
+                cashflow(eurReceiveLeg, LocalDate.of(2025, 12, 15), receive),
+                cashflow(usdPayLeg, LocalDate.of(2025, 12, 15), null),
+                cashflow(eurReceiveLeg, LocalDate.of(2026, 3, 15), receive));
+
+        // When
+        List<Long> seen = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        KeysetPageDTO<Cashflow> page;
+        do {
+            page = cashflowService.findCashflows(null, null, null, null, null, null, null, cursor, 2);
+            page.getContent().forEach(cashflow -> seen.add(cashflow.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (!page.isLastPage());
+
+        // Then
+        assertEquals(expected.stream().map(Cashflow::getId).toList(), seen);
+        assertEquals(3, pages);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testFindCashflows_FiltersByLegTradeCurrencyPayRecAndDates() {
+        // Given - the cashflow without a PayRec falls back to its Pay leg
+        Cashflow usdEarly = cashflow(usdPayLeg, LocalDate.of(2025, 12, 1), pay);
+        Cashflow usdNoFlag = cashflow(usdPayLeg, LocalDate.of(2025, 12, 15), null);
+        Cashflow eurLate = cashflow(eurReceiveLeg, LocalDate.of(2026, 3, 15), receive);
+
+        // When
+        List<Cashflow> payCashflows = cashflowService.findCashflows(null, null, null, null, null, "pay", null,
+                null, 10).getContent();
+        List<Cashflow> eurCashflows = cashflowService.findCashflows(null, null, null, 700001L, "eur", null, true,
+                null, 10).getContent();
+        List<Cashflow> legInRange = cashflowService.findCashflows(LocalDate.of(2025, 12, 2),
+                LocalDate.of(2026, 1, 1), usdPayLeg.getLegId(), null, null, null, null, null, 10).getContent();
+
+        // Then
+        assertEquals(List.of(usdEarly.getId(), usdNoFlag.getId()), payCashflows.stream().map(Cashflow::getId).toList());
+        assertEquals(List.of(eurLate.getId()), eurCashflows.stream().map(Cashflow::getId).toList());
+        assertEquals(List.of(usdNoFlag.getId()), legInRange.stream().map(Cashflow::getId).toList());
+    }
+
+    @Test
+    void testFindCashflows_RejectsPageSizeOverTheLimitAndForeignCursors() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class,
+                () -> cashflowService.findCashflows(null, null, null, null, null, null, null, null, 11));
+        assertThrows(IllegalArgumentException.class,
+                () -> cashflowService.findCashflows(null, null, null, null, null, null, null, "bogus", 10));
+    }
+}
@@ -0,0 +1,65 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
+import com.technicalchallenge.util.BusinessDayCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarRegistryTest {
+
+    // A Wednesday
+    private static final LocalDate HOLIDAY = LocalDate.of(2025, 7, 2);
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+    @Mock
+    private HolidayDateRepository holidayDateRepository;
+
+    @InjectMocks
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @BeforeEach
+    void setUp() {
+        HolidayCalendar ny = new HolidayCalendar();
+        ny.setHolidayCalendar("NY");
+        HolidayCalendar lon = new HolidayCalendar();
+        lon.setHolidayCalendar("LON");
+        when(holidayCalendarRepository.findAll()).thenReturn(List.of(ny, lon));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    @Test
+    void testGetCalendar_JointCalendarIsRebuiltAfterRefresh() {
+        // Given - a joint calendar built before LON gets a new holiday
+        when(holidayDateRepository.findAllCalendarDates())
+                .thenReturn(rows(), rows(new Object[] {"LON", HOLIDAY}));
+        holidayCalendarRegistry.refresh();
+        BusinessDayCalendar before = holidayCalendarRegistry.getCalendar("NY+LON");
+
+        // When
+        holidayCalendarRegistry.refresh();
+        BusinessDayCalendar after = holidayCalendarRegistry.getCalendar("NY+LON");
+
+        // Then - the cached union was dropped together with the calendars it was built from
+        assertTrue(before.isBusinessDay(HOLIDAY));
+        assertFalse(after.isBusinessDay(HOLIDAY));
+        assertSame(after, holidayCalendarRegistry.getCalendar("ny+lon"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.HolidayImportResultDTO;
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.model.HolidayDate;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarServiceTest {
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+
+    @Mock
+    private HolidayDateRepository holidayDateRepository;
+
+    @Mock
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @InjectMocks
+    private HolidayCalendarService holidayCalendarService;
+
+    private HolidayCalendar calendar(Long id, String name) {
+        HolidayCalendar calendar = new HolidayCalendar();
+        calendar.setId(id);
+        calendar.setHolidayCalendar(name);
+        return calendar;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportHolidays_SkipsExistingDatesAndCreatesUnknownCalendars() {
+        // Given
+        HolidayCalendar ny = calendar(1000L, "NY");
+        HolidayCalendar tky = calendar(1002L, "TKY");
+        when(holidayCalendarRepository.findByHolidayCalendar("NY")).thenReturn(Optional.of(ny));
+        when(holidayCalendarRepository.findByHolidayCalendar("TKY")).thenReturn(Optional.empty());
+        when(holidayCalendarRepository.save(any(HolidayCalendar.class))).thenReturn(tky);
+        when(holidayDateRepository.findDatesByHolidayCalendar(ny)).thenReturn(List.of(LocalDate.of(2025, 12, 25)));
+        when(holidayDateRepository.findDatesByHolidayCalendar(tky)).thenReturn(List.of());
+        String csv = """
+                calendar,date,description
+                # US holidays
+                NY,2025-12-25,Christmas Day
+                NY,2025-11-27,Thanksgiving Day
+                tky,2025-01-01,New Year's Day, Ganjitsu
+                """;
+
+        // When
+        HolidayImportResultDTO result = holidayCalendarService.importHolidays(new StringReader(csv));
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(List.of("NY", "TKY"), result.getHolidayCalendars());
+
+        ArgumentCaptor<List<HolidayDate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(holidayDateRepository).saveAll(saved.capture());
+        assertEquals(LocalDate.of(2025, 11, 27), saved.getValue().get(0).getHolidayDate());
+        assertSame(tky, saved.getValue().get(1).getHolidayCalendar());
+        assertEquals("New Year's Day, Ganjitsu", saved.getValue().get(1).getDescription());
+        verify(holidayCalendarRegistry).refresh();
+    }
+
+    @Test
+    void testImportHolidays_InvalidDateRejectsWholeFile() {
+        // Given
+        String csv = "NY,2025-12-25,Christmas Day\nLON,26/12/2025,Boxing Day\n";
+
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> holidayCalendarService.importHolidays(new StringReader(csv)));
+
+        // Then
+        assertTrue(exception.getMessage().contains("line 2"));
+        verifyNoInteractions(holidayDateRepository, holidayCalendarRegistry);
+    }
+
+    @Test
+    void testSave_RecompilesCalendarsSoNewCalendarCanBeBooked() {
+        // Given
+        HolidayCalendar sgp = calendar(null, "SGP");
+        when(holidayCalendarRepository.save(sgp)).thenReturn(calendar(1003L, "SGP"));
+
+        // When
+        HolidayCalendar saved = holidayCalendarService.save(sgp);
+
+        // Then
+        assertEquals(1003L, saved.getId());
+        InOrder inOrder = inOrder(holidayCalendarRepository, holidayCalendarRegistry);
+        inOrder.verify(holidayCalendarRepository).save(sgp);
+        inOrder.verify(holidayCalendarRegistry).refresh();
+    }
+
+    @Test
+    void testDeleteById_RecompilesCalendars() {
+        // When
+        holidayCalendarService.deleteById(1003L);
+
+        // Then
+        InOrder inOrder = inOrder(holidayCalendarRepository, holidayCalendarRegistry);
+        inOrder.verify(holidayCalendarRepository).deleteById(1003L);
+        inOrder.verify(holidayCalendarRegistry).refresh();
+    }
+}
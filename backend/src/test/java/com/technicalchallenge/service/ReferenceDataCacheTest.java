@@ -0,0 +1,147 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CounterpartyRepository counterpartyRepository;
+    @Mock
+    private TradeStatusRepository tradeStatusRepository;
+    @Mock
+    private ApplicationUserRepository applicationUserRepository;
+    @Mock
+    private TradeTypeRepository tradeTypeRepository;
+    @Mock
+    private TradeSubTypeRepository tradeSubTypeRepository;
+    @Mock
+    private CurrencyRepository currencyRepository;
+    @Mock
+    private LegTypeRepository legTypeRepository;
+    @Mock
+    private IndexRepository indexRepository;
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private BusinessDayConventionRepository businessDayConventionRepository;
+    @Mock
+    private PayRecRepository payRecRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReferenceDataCache referenceDataCache;
+
+    private Book book(Long id, String name) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBookName(name);
+        return book;
+    }
+
+    @Test
+    void testFindByName_IgnoresCase() {
+        // Given
+        when(bookRepository.findAll()).thenReturn(List.of(book(1L, "FX-BOOK-1")));
+
+        // When
+        Optional<Book> found = referenceDataCache.findByName(Book.class, "fx-book-1");
+
+        // Then
+        assertTrue(found.isPresent());
+        assertEquals(1L, found.get().getId());
+    }
+
+    @Test
+    void testFindIdsByNameContaining_MatchesAnyPartOfTheNameIgnoringCase() {
+        // Given
+        when(bookRepository.findAll()).thenReturn(List.of(book(1L, "FX-BOOK-1"), book(3L, "Rates-Book-2"),
+                book(2L, "RATES-BOOK-1"), book(4L, null)));
+
+        // When/Then - trigram lookups, a term shorter than a trigram, no match
+        assertEquals(List.of(1L, 2L), referenceDataCache.findIdsByNameContaining(Book.class, "book-1"));
+        assertEquals(List.of(2L, 3L), referenceDataCache.findIdsByNameContaining(Book.class, "RATES"));
+        assertEquals(List.of(1L, 2L, 3L), referenceDataCache.findIdsByNameContaining(Book.class, "ook-"));
+        assertEquals(List.of(1L), referenceDataCache.findIdsByNameContaining(Book.class, "x-"));
+        assertEquals(List.of(), referenceDataCache.findIdsByNameContaining(Book.class, "book-3"));
+        verify(bookRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testLookups_LoadTableOnlyOnce() {
+        // Given
+        when(bookRepository.findAll()).thenReturn(List.of(book(1L, "FX-BOOK-1"), book(2L, "RATES-BOOK-1")));
+
+        // When
+        referenceDataCache.findByName(Book.class, "FX-BOOK-1");
+        Optional<Book> byId = referenceDataCache.findById(Book.class, 2L);
+        Optional<Book> missing = referenceDataCache.findByName(Book.class, "UNKNOWN");
+
+        // Then
+        assertEquals("RATES-BOOK-1", byId.get().getBookName());
+        assertFalse(missing.isPresent());
+        verify(bookRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testRefresh_SwapsInNewTableContents() {
+        // Given
+        when(bookRepository.findAll())
+                .thenReturn(List.of(book(1L, "FX-BOOK-1")))
+                .thenReturn(List.of(book(1L, "FX-BOOK-RENAMED")));
+        assertTrue(referenceDataCache.findByName(Book.class, "FX-BOOK-1").isPresent());
+
+        // When
+        referenceDataCache.refresh(Book.class);
+
+        // Then
+        assertFalse(referenceDataCache.findByName(Book.class, "FX-BOOK-1").isPresent());
+        assertTrue(referenceDataCache.findByName(Book.class, "fx-book-renamed").isPresent());
+    }
+
+    @Test
+    void testUserLookups_ByFirstNameAndLoginId() {
+        // Given
+        ApplicationUser user = new ApplicationUser();
+        user.setId(7L);
+        user.setFirstName("Simon");
+        user.setLoginId("simon");
+        when(applicationUserRepository.findAll()).thenReturn(List.of(user));
+
+        // When & Then
+        assertEquals(7L, referenceDataCache.findByName(ApplicationUser.class, "SIMON").get().getId());
+        assertEquals(7L, referenceDataCache.findUserByLoginId("Simon").get().getId());
+        assertEquals(7L, referenceDataCache.findById(ApplicationUser.class, 7L).get().getId());
+    }
+
+    @Test
+    void testLoadAll_LoadsEveryTable() {
+        // When
+        referenceDataCache.loadAll();
+        referenceDataCache.findByName(TradeStatus.class, "NEW");
+
+        // Then
+        verify(tradeStatusRepository, times(1)).findAll();
+        verify(payRecRepository, times(1)).findAll();
+    }
+}
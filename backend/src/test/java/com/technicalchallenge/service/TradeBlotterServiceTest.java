@@ -0,0 +1,346 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.BlotterColumnDTO;
+import com.technicalchallenge.dto.BlotterFilterDTO;
+import com.technicalchallenge.dto.BlotterRowsRequestDTO;
+import com.technicalchallenge.dto.BlotterRowsResponseDTO;
+import com.technicalchallenge.dto.BlotterSortDTO;
+import com.technicalchallenge.dto.TradeBlotterRow;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.specification.BlotterFilterSpecificationBuilder;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+import com.technicalchallenge.util.SqlStatementCounter;
+import com.technicalchallenge.util.TradeTestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({TradeBlotterService.class, TradeSpecificationBuilder.class, BlotterFilterSpecificationBuilder.class,
+        ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeBlotterServiceTest {
+
+    @Autowired
+    private TradeBlotterService tradeBlotterService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TradeTestData testData;
+
+    private Book rates;
+
+    @BeforeEach
+    void setUp() {
+        // Given - three swaps and a single-leg trade in RATES-BOOK, one trade in another book
+        rates = testData.book("RATES-BOOK");
+        Book fx = testData.book("FX-BOOK");
+        Counterparty alpha = testData.counterparty("Alpha Bank");
+        Counterparty zulu = testData.counterparty("Zulu Bank");
+        ApplicationUser trader = testData.user("Simon", "King", "simon", null);
+        TradeStatus live = testData.status("LIVE");
+
+        trade(900001L, rates, alpha, trader, live, 1000000, 1000000);
+        trade(900002L, rates, zulu, trader, live, 2000000, 1500000);
+        trade(900003L, rates, alpha, trader, live, 3000000, 3000000);
+        trade(900004L, rates, zulu, trader, live, 4000000);
+        trade(900005L, fx, zulu, trader, live, 5000000, 5000000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private Trade trade(long tradeId, Book book, Counterparty counterparty, ApplicationUser trader, TradeStatus status,
+                        long... notionals) {
+        Trade saved = testData.trade(tradeId, trade -> {
+            trade.setBook(book);
+            trade.setCounterparty(counterparty);
+            trade.setTraderUser(trader);
+            trade.setTradeStatus(status);
+            trade.setTradeMaturityDate(LocalDate.of(2030, 3, 3));
+        });
+        for (long notional : notionals) {
+            testData.leg(saved, leg -> leg.setNotional(BigDecimal.valueOf(notional)));
+        }
+        return saved;
+    }
+
+    private void leg(Trade trade, long notional, Currency currency, boolean active) {
+        testData.leg(trade, leg -> {
+            leg.setNotional(BigDecimal.valueOf(notional));
+            leg.setCurrency(currency);
+            leg.setActive(active);
+        });
+    }
+
+    @Test
+    void testGetBlotter_FiltersAndSortsOnJoinedColumns() {
+        // When
+        Page<TradeBlotterRow> page = tradeBlotterService.getBlotter(null, "rates-book", null, null, null, null, null,
+                0, 10, "counterpartyName", "desc");
+
+        // Then - Zulu before Alpha, trade row id descending within a counterparty
+        assertEquals(4, page.getTotalElements());
+        assertEquals(List.of(900004L, 900002L, 900003L, 900001L),
+                page.getContent().stream().map(TradeBlotterRow::tradeId).toList());
+        TradeBlotterRow row = page.getContent().get(1);
+        assertEquals(1, row.version());
+        assertEquals("RATES-BOOK", row.bookName());
+        assertEquals("Zulu Bank", row.counterpartyName());
+        assertEquals("Simon King", row.traderName());
+        assertEquals("LIVE", row.tradeStatus());
+        assertEquals(LocalDate.of(2030, 3, 3), row.tradeMaturityDate());
+        assertEquals(0, BigDecimal.valueOf(2000000).compareTo(row.leg1Notional()));
+        assertEquals(0, BigDecimal.valueOf(1500000).compareTo(row.leg2Notional()));
+    }
+
+    @Test
+    void testGetBlotter_FiltersByPartOfTheCounterpartyName() {
+        // When
+        Page<TradeBlotterRow> page = tradeBlotterService.getBlotter("ZULU", null, null, null, null, null, null,
+                0, 10, "tradeId", "asc");
+
+        // Then
+        assertEquals(List.of(900002L, 900004L, 900005L),
+                page.getContent().stream().map(TradeBlotterRow::tradeId).toList());
+    }
+
+    @Test
+    void testGetBlotter_SingleLegTradeHasNoSecondNotional() {
+        // When
+        Page<TradeBlotterRow> page = tradeBlotterService.getBlotter(null, "RATES-BOOK", null, null, null, null, null,
+                0, 10, "tradeId", "desc");
+
+        // Then
+        TradeBlotterRow row = page.getContent().get(0);
+        assertEquals(900004L, row.tradeId());
+        assertEquals(0, BigDecimal.valueOf(4000000).compareTo(row.leg1Notional()));
+        assertNull(row.leg2Notional());
+    }
+
+    @Test
+    void testGetBlotter_ReadsPageAndCountInTwoStatements() {
+        // Given
+        SqlStatementCounter counter = SqlStatementCounter.of(entityManagerFactory);
+
+        // When
+        Page<TradeBlotterRow> page = tradeBlotterService.getBlotter(null, null, null, "LIVE", null, null, null,
+                1, 2, "tradeId", "asc");
+
+        // Then - one projection query for the rows, one count
+        counter.assertAtMost(2, "GET /api/trades/blotter");
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of(900003L, 900004L), page.getContent().stream().map(TradeBlotterRow::tradeId).toList());
+    }
+
+    @Test
+    void testGetBlotter_RejectsUnknownSortColumn() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> tradeBlotterService.getBlotter(null, null, null, null,
+                null, null, null, 0, 10, "noSuchColumn", "asc"));
+    }
+
+    private static BlotterRowsRequestDTO block(int startRow, int endRow, List<String> groupColumns,
+                                               List<String> groupKeys) {
+        BlotterRowsRequestDTO request = new BlotterRowsRequestDTO();
+        request.setStartRow(startRow);
+        request.setEndRow(endRow);
+        request.setRowGroupCols(groupColumns.stream()
+                .map(column -> new BlotterColumnDTO(column, column, column, null))
+                .toList());
+        request.setGroupKeys(groupKeys);
+        return request;
+    }
+
+    private static BlotterFilterDTO filter(String filterType, String type, String filter, String filterTo) {
+        BlotterFilterDTO model = new BlotterFilterDTO();
+        model.setFilterType(filterType);
+        model.setType(type);
+        model.setFilter(filter);
+        model.setFilterTo(filterTo);
+        return model;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> groupRow(BlotterRowsResponseDTO response, int index) {
+        return (Map<String, Object>) response.getRowData().get(index);
+    }
+
+    @Test
+    void testServerSideRows_GroupsByBookWithCountAndNotional() {
+        // Given
+        BlotterRowsRequestDTO request = block(0, 100, List.of("bookName"), List.of());
+        request.setSortModel(List.of(new BlotterSortDTO("notional", "desc")));
+
+        // When
+        BlotterRowsResponseDTO response = tradeBlotterService.getServerSideRows(request);
+
+        // Then - every leg notional of the book summed
+        assertEquals(2, response.getRowCount());
+        Map<String, Object> ratesGroup = groupRow(response, 0);
+        assertEquals("RATES-BOOK", ratesGroup.get("bookName"));
+        assertEquals(4L, ratesGroup.get("childCount"));
+        assertEquals(0, BigDecimal.valueOf(15500000).compareTo((BigDecimal) ratesGroup.get("notional")));
+        assertEquals("FX-BOOK", groupRow(response, 1).get("bookName"));
+    }
+
+    @Test
+    void testServerSideRows_OpensNestedGroupsDownToTrades() {
+        // When
+        BlotterRowsResponseDTO counterparties = tradeBlotterService.getServerSideRows(
+                block(0, 100, List.of("bookName", "counterpartyName"), List.of("RATES-BOOK")));
+        BlotterRowsRequestDTO tradesRequest = block(0, 100, List.of("bookName", "counterpartyName"),
+                List.of("RATES-BOOK", "Zulu Bank"));
+        tradesRequest.setSortModel(List.of(new BlotterSortDTO("tradeId", "desc")));
+        BlotterRowsResponseDTO trades = tradeBlotterService.getServerSideRows(tradesRequest);
+
+        // Then
+        assertEquals(2, counterparties.getRowCount());
+        assertEquals("Alpha Bank", groupRow(counterparties, 0).get("counterpartyName"));
+        assertEquals(0, BigDecimal.valueOf(8000000).compareTo((BigDecimal) groupRow(counterparties, 0).get("notional")));
+        assertEquals(2L, groupRow(counterparties, 1).get("childCount"));
+        assertEquals(List.of(900004L, 900002L),
+                trades.getRowData().stream().map(row -> ((TradeBlotterRow) row).tradeId()).toList());
+    }
+
+    @Test
+    void testServerSideRows_AppliesFilterModelAndBlockBounds() {
+        // Given - trade ids strictly between 900001 and 900005, counterparty Zulu or Alpha
+        BlotterFilterDTO counterparty = new BlotterFilterDTO();
+        counterparty.setOperator("OR");
+        counterparty.setConditions(List.of(filter("text", "startsWith", "zul", null),
+                filter("text", "equals", "ALPHA BANK", null)));
+        BlotterRowsRequestDTO first = block(0, 2, List.of(), List.of());
+        first.setFilterModel(Map.of("tradeId", filter("number", "inRange", "900001", "900005"),
+                "counterpartyName", counterparty));
+        BlotterRowsRequestDTO second = block(2, 4, List.of(), List.of());
+        second.setFilterModel(first.getFilterModel());
+
+        // When
+        BlotterRowsResponseDTO firstBlock = tradeBlotterService.getServerSideRows(first);
+        BlotterRowsResponseDTO secondBlock = tradeBlotterService.getServerSideRows(second);
+
+        // Then - last row only known once a block reaches it
+        assertNull(firstBlock.getRowCount());
+        assertEquals(List.of(900002L, 900003L),
+                firstBlock.getRowData().stream().map(row -> ((TradeBlotterRow) row).tradeId()).toList());
+        assertEquals(3, secondBlock.getRowCount());
+        assertEquals(900004L, ((TradeBlotterRow) secondBlock.getRowData().get(0)).tradeId());
+    }
+
+    @Test
+    void testServerSideRows_RejectsUnsupportedRequests() {
+        // Given
+        BlotterRowsRequestDTO numberFilterOnText = block(0, 10, List.of(), List.of());
+        numberFilterOnText.setFilterModel(Map.of("bookName", filter("number", "equals", "1", null)));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeBlotterService.getServerSideRows(block(0, 10, List.of("traderName"), List.of())));
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeBlotterService.getServerSideRows(block(10, 5, List.of(), List.of())));
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeBlotterService.getServerSideRows(numberFilterOnText));
+    }
+
+    @Test
+    void testServerSideRows_GroupsOnlyActiveVersionsAndLegsPerCurrency() {
+        // Given - an amended trade in EUR-BOOK with its superseded version and a replaced leg,
+        // and a USD-BOOK trade whose legs are in two currencies
+        Currency eur = testData.currency("EUR");
+        Currency usd = testData.currency("USD");
+        Book eurBook = testData.book("EUR-BOOK");
+        Trade superseded = testData.trade(900101L, trade -> {
+            trade.setBook(eurBook);
+            trade.setActive(false);
+        });
+        leg(superseded, 100, eur, true);
+        Trade amended = testData.trade(900101L, trade -> {
+            trade.setBook(eurBook);
+            trade.setVersion(2);
+        });
+        leg(amended, 200, eur, true);
+        leg(amended, 999, eur, false);
+        Trade crossCurrency = trade(900102L, testData.book("USD-BOOK"), null, null, null);
+        leg(crossCurrency, 300, usd, true);
+        leg(crossCurrency, 400, eur, true);
+        BlotterRowsRequestDTO request = block(0, 100, List.of("bookName"), List.of());
+        request.setFilterModel(Map.of("tradeId", filter("number", "greaterThan", "900100", null)));
+
+        // When
+        BlotterRowsResponseDTO response = tradeBlotterService.getServerSideRows(request);
+        BlotterRowsResponseDTO eurTrades = tradeBlotterService.getServerSideRows(
+                block(0, 100, List.of("bookName"), List.of("EUR-BOOK")));
+
+        // Then
+        Map<String, Object> eurGroup = groupRow(response, 0);
+        assertEquals("EUR-BOOK", eurGroup.get("bookName"));
+        assertEquals(1L, eurGroup.get("childCount"));
+        assertEquals(0, BigDecimal.valueOf(200).compareTo((BigDecimal) eurGroup.get("notional")));
+        assertEquals("EUR", eurGroup.get("notionalCurrency"));
+        Map<String, Object> usdGroup = groupRow(response, 1);
+        assertEquals("USD-BOOK", usdGroup.get("bookName"));
+        assertNull(usdGroup.get("notional"));
+        assertNull(usdGroup.get("notionalCurrency"));
+        assertEquals(List.of(2), eurTrades.getRowData().stream().map(row -> ((TradeBlotterRow) row).version()).toList());
+    }
+
+    @Test
+    void testGetBlotter_KeepsLegOrderOfTheFirstVersionAfterAnAmendment() {
+        // Given - version 1 booked with a leg that was dropped, a pay leg and a receive leg;
+        // version 2 copied the receive leg before the pay leg and kept the dropped leg inactive
+        Book amendBook = testData.book("AMEND-BOOK");
+        Trade superseded = testData.trade(900201L, trade -> {
+            trade.setBook(amendBook);
+            trade.setActive(false);
+        });
+        TradeLeg droppedLeg = testData.leg(superseded, leg -> leg.setNotional(BigDecimal.valueOf(999)));
+        TradeLeg payLeg = testData.leg(superseded, leg -> leg.setNotional(BigDecimal.valueOf(111)));
+        TradeLeg receiveLeg = testData.leg(superseded, leg -> leg.setNotional(BigDecimal.valueOf(222)));
+        Trade amended = testData.trade(900201L, trade -> {
+            trade.setBook(amendBook);
+            trade.setVersion(2);
+        });
+        for (TradeLeg original : List.of(droppedLeg, receiveLeg, payLeg)) {
+            testData.leg(amended, leg -> {
+                leg.setNotional(original.getNotional());
+                leg.setPreviousLegId(original.getLegId());
+                leg.setOriginalLegId(original.getLegId());
+                leg.setActive(original != droppedLeg);
+            });
+        }
+
+        // When
+        Page<TradeBlotterRow> page = tradeBlotterService.getBlotter(null, "AMEND-BOOK", null, null, null, null, null,
+                0, 10, "version", "desc");
+
+        // Then - the pay leg still comes first and the inactive leg is left out
+        TradeBlotterRow row = page.getContent().get(0);
+        assertEquals(2, row.version());
+        assertEquals(0, BigDecimal.valueOf(111).compareTo(row.leg1Notional()));
+        assertEquals(0, BigDecimal.valueOf(222).compareTo(row.leg2Notional()));
+    }
+}
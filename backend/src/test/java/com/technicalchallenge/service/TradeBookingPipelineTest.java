@@ -0,0 +1,142 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeValidationException;
+import com.technicalchallenge.journal.TradeChangedEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeBookingPipelineTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeIdempotencyService tradeIdempotencyService;
+
+    @Mock
+    private TradeEventPublisher tradeEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private TradeBookingPipeline tradeBookingPipeline;
+
+    private TradeDTO tradeDTO;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tradeBookingPipeline, "queueCapacity", 16);
+        ReflectionTestUtils.setField(tradeBookingPipeline, "batchSize", 8);
+        ReflectionTestUtils.setField(tradeBookingPipeline, "stageThreads", 1);
+        ReflectionTestUtils.setField(tradeBookingPipeline, "statusRetention", 100);
+
+        tradeDTO = new TradeDTO();
+        tradeDTO.setTradeStartDate(LocalDate.of(2025, 1, 17));
+        tradeDTO.setTradeMaturityDate(LocalDate.of(2026, 1, 17));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tradeBookingPipeline.stop();
+    }
+
+    private TradeBookingStatusDTO awaitFinalStatus(String trackingId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            TradeBookingStatusDTO status = tradeBookingPipeline.getStatus(trackingId).orElseThrow();
+            if (List.of("COMPLETED", "REJECTED", "FAILED").contains(status.getStatus())) {
+                return status;
+            }
+            Thread.sleep(25);
+        }
+        fail("Booking " + trackingId + " did not finish");
+        return null;
+    }
+
+    @Test
+    void testSubmit_FlowsThroughAllStages() throws Exception {
+        // Given
+        Trade trade = new Trade();
+        trade.setTradeId(10001L);
+        trade.setVersion(1);
+        List<TradeLeg> legs = List.of(new TradeLeg(), new TradeLeg());
+        when(tradeService.prepareNewTrade(tradeDTO)).thenReturn(trade);
+        when(tradeRepository.save(trade)).thenReturn(trade);
+        when(tradeService.createTradeLegs(tradeDTO, trade)).thenReturn(legs);
+        tradeBookingPipeline.start();
+
+        // When
+        TradeBookingStatusDTO queued = tradeBookingPipeline.submit(tradeDTO);
+        TradeBookingStatusDTO result = awaitFinalStatus(queued.getTrackingId());
+
+        // Then
+        assertEquals("QUEUED", queued.getStatus());
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(10001L, result.getTradeId());
+        assertEquals(1, result.getVersion());
+        verify(tradeService).validateTradeForBooking(tradeDTO);
+        verify(tradeService).generateCashflowsForLegs(legs, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+        // Cached cashflow views are told once the cashflow stage has committed
+        InOrder inOrder = inOrder(tradeService, applicationEventPublisher);
+        inOrder.verify(tradeService).generateCashflowsForLegs(legs, tradeDTO.getTradeStartDate(), tradeDTO.getTradeMaturityDate());
+        inOrder.verify(applicationEventPublisher).publishEvent(TradeChangedEvent.cashflowsChanged());
+    }
+
+    @Test
+    void testSubmit_InvalidTradeIsRejected() throws Exception {
+        // Given
+        doThrow(new TradeValidationException("Invalid trade: ", List.of("Trade date is required")))
+                .when(tradeService).validateTradeForBooking(tradeDTO);
+        tradeBookingPipeline.start();
+
+        // When
+        TradeBookingStatusDTO result = awaitFinalStatus(tradeBookingPipeline.submit(tradeDTO).getTrackingId());
+
+        // Then
+        assertEquals("REJECTED", result.getStatus());
+        assertEquals(List.of("Trade date is required"), result.getErrors());
+        verify(tradeRepository, never()).save(any(Trade.class));
+    }
+
+    @Test
+    void testSubmit_RejectsWhenPipelineIsFull() {
+        // Given - no workers, so nothing drains the validation queue
+        ReflectionTestUtils.setField(tradeBookingPipeline, "queueCapacity", 1);
+        ReflectionTestUtils.setField(tradeBookingPipeline, "stageThreads", 0);
+        tradeBookingPipeline.start();
+        tradeBookingPipeline.submit(tradeDTO);
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> tradeBookingPipeline.submit(new TradeDTO()));
+    }
+}
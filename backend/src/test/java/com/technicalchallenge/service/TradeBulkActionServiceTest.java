@@ -0,0 +1,132 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeBulkActionProgressDTO;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeAudit;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.TradeAuditRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+import com.technicalchallenge.util.TradeTestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs bulk actions against a real database, since the work is done by set-based statements
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "trade.bulk.chunk-size=2"})
+@Import({TradeBulkActionService.class, TradeSpecificationBuilder.class, ReferenceDataCache.class,
+        TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeBulkActionServiceTest {
+
+    @Autowired
+    private TradeBulkActionService tradeBulkActionService;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeAuditRepository tradeAuditRepository;
+    @Autowired
+    private TradeTestData testData;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @MockBean
+    private TradeEventPublisher tradeEventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private Trade trade(long tradeId, Book book, TradeStatus status, boolean active) {
+        return testData.trade(tradeId, trade -> {
+            trade.setBook(book);
+            trade.setTradeStatus(status);
+            trade.setActive(active);
+        });
+    }
+
+    @Test
+    void testBulkCancel_CancelsMatchingActiveTradesInChunks() {
+        // Given - five live trades in the closing book, one already cancelled,
+        // one old inactive version and one trade in another book
+        TradeStatus live = testData.status("LIVE");
+        TradeStatus cancelled = testData.status("CANCELLED");
+        testData.status("TERMINATED");
+        Book closing = testData.book("CLOSING-BOOK");
+        Book other = testData.book("OTHER-BOOK");
+        for (long tradeId = 300001; tradeId <= 300005; tradeId++) {
+            trade(tradeId, closing, live, true);
+        }
+        trade(300006, closing, cancelled, true);
+        trade(300007, closing, live, false);
+        trade(300008, other, live, true);
+
+        List<String> streamedStatuses = new ArrayList<>();
+
+        // When
+        TradeBulkActionProgressDTO result = tradeBulkActionService.run("cancel",
+                tradeBulkActionService.buildFilter(null, "CLOSING-BOOK", null, null, null, null, null, null),
+                "ops", progress -> streamedStatuses.add(progress.getStatus()));
+
+        // Then
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(5, result.getTradesUpdated());
+        assertEquals(3, result.getChunksCommitted());
+        assertEquals(List.of("RUNNING", "RUNNING", "RUNNING", "COMPLETED"), streamedStatuses);
+
+        List<Trade> trades = tradeRepository.findAll();
+        for (Trade trade : trades) {
+            boolean shouldBeCancelled = trade.getTradeId() <= 300006;
+            assertEquals(shouldBeCancelled ? cancelled.getId() : live.getId(), trade.getTradeStatus().getId(),
+                    "Unexpected status for trade " + trade.getTradeId());
+            if (trade.getTradeId() <= 300005) {
+                assertEquals(1L, trade.getRowVersion());
+            }
+        }
+
+        List<TradeAudit> audits = tradeAuditRepository.findByBulkActionId(result.getBulkActionId());
+        assertEquals(5, audits.size());
+        assertTrue(audits.stream().allMatch(audit -> "LIVE".equals(audit.getPreviousStatus())
+                && "CANCELLED".equals(audit.getNewStatus())
+                && "ops".equals(audit.getRequestedBy())));
+    }
+
+    @Test
+    void testLockActiveIdsNotInStatus_SkipsTradesClosedSinceTheyWereSelected() {
+        // Given - a chunk where one trade matured and one was cancelled after the chunk was selected
+        TradeStatus live = testData.status("LIVE");
+        TradeStatus cancelled = testData.status("CANCELLED");
+        TradeStatus dead = testData.status("DEAD");
+        Book book = testData.book("LOCK-BOOK");
+        Trade open = trade(310001, book, live, true);
+        Trade matured = trade(310002, book, dead, true);
+        Trade cancelledTrade = trade(310003, book, cancelled, true);
+        Trade withoutStatus = trade(310004, book, null, true);
+        Trade amended = trade(310005, book, live, false);
+        List<Long> chunk = List.of(open.getId(), matured.getId(), cancelledTrade.getId(),
+                withoutStatus.getId(), amended.getId());
+
+        // When
+        List<Long> lockedIds = new TransactionTemplate(transactionManager).execute(tx ->
+                tradeRepository.lockActiveIdsNotInStatus(chunk, List.of(cancelled.getId(), dead.getId())));
+
+        // Then - only the rows that are still open and active are locked for the update
+        assertEquals(List.of(open.getId(), withoutStatus.getId()), lockedIds);
+    }
+}
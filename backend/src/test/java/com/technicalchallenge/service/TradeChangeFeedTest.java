@@ -0,0 +1,103 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeChangeEventDTO;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeChangeFeedTest {
+
+    @Mock
+    private TradeOutboxRepository tradeOutboxRepository;
+
+    @InjectMocks
+    private TradeChangeFeed tradeChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tradeChangeFeed, "queueCapacity", 2);
+        ReflectionTestUtils.setField(tradeChangeFeed, "replayPageSize", 100);
+        when(tradeOutboxRepository.findMaxFeedOffset()).thenReturn(Optional.of(10L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tradeChangeFeed.stop();
+    }
+
+    private static TradeChangeEventDTO change(long offset) {
+        return new TradeChangeEventDTO(offset, 100001L, 1, "AMENDED", "LIVE", LocalDateTime.of(2025, 1, 17, 10, 0), 1);
+    }
+
+    // Counts the changes it was sent; blocks every send until released when a gate is given
+    private static class RecordingEmitter extends SseEmitter {
+        private final AtomicInteger sent = new AtomicInteger();
+        private final CountDownLatch gate;
+        private final CountDownLatch firstSend = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            firstSend.countDown();
+            try {
+                if (gate != null) {
+                    gate.await(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.incrementAndGet();
+        }
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.sent.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, emitter.sent.get());
+    }
+
+    @Test
+    void testBroadcast_SlowSubscriberDoesNotHoldUpOthersAndIsDroppedOnOverflow() throws Exception {
+        // Given - one client that stalls on its first send and one that keeps up
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        tradeChangeFeed.subscribe(slow, null);
+        tradeChangeFeed.subscribe(fast, null);
+        tradeChangeFeed.broadcast(List.of(change(11)));
+        assertTrue(slow.firstSend.await(5, TimeUnit.SECONDS));
+
+        // When - the stalled client's queue fills up, then one more change arrives
+        tradeChangeFeed.broadcast(List.of(change(12), change(13)));
+        awaitSent(fast, 3);
+        tradeChangeFeed.broadcast(List.of(change(14)));
+
+        // Then - every broadcast returned, the stalled client was dropped and the other received everything
+        assertEquals(1, tradeChangeFeed.getSubscriberCount());
+        awaitSent(fast, 4);
+        release.countDown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.util.TradeEconomicsHash;
+import com.technicalchallenge.util.TradeTestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recomputes hashes stored before the day count convention was normalised, against a real database
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "trade.economics-hash.backfill-chunk-size=1"})
+@Import({TradeEconomicsHashBackfill.class, ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeEconomicsHashBackfillTest {
+
+    @Autowired
+    private TradeEconomicsHashBackfill tradeEconomicsHashBackfill;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeLegRepository tradeLegRepository;
+    @Autowired
+    private TradeTestData testData;
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private Trade tradeWithLeg(long tradeId, String dayCountConvention, String storedHash) {
+        Trade trade = testData.trade(tradeId, details -> details.setEconomicsHash(storedHash));
+        testData.leg(trade, leg -> {
+            leg.setNotional(BigDecimal.valueOf(1000000));
+            leg.setRate(0.05);
+            leg.setDayCountConvention(dayCountConvention);
+        });
+        return trade;
+    }
+
+    @Test
+    void testBackfill_RehashesTradesWithLegsBookedWithoutConvention() {
+        // Given - two trades hashed under the old rule, one leg without a convention and one naming it
+        Trade unset = tradeWithLeg(700001L, null, "old-hash");
+        Trade named = tradeWithLeg(700002L, "ACT/360", "named-hash");
+        Trade unhashed = tradeWithLeg(700003L, null, null);
+
+        // When
+        int changed = tradeEconomicsHashBackfill.backfill();
+        int rerun = tradeEconomicsHashBackfill.backfill();
+
+        // Then - only the hashed trade with an unset convention is rehashed, and it now matches the named one
+        assertEquals(1, changed);
+        assertEquals(0, rerun);
+        Trade rehashed = tradeRepository.findById(unset.getId()).orElseThrow();
+        List<TradeLeg> legs = tradeLegRepository.findLegsOfVersion(700001L, 1);
+        assertEquals("ACT/360", legs.get(0).getDayCountConvention());
+        assertEquals(TradeEconomicsHash.of(rehashed, legs), rehashed.getEconomicsHash());
+        assertEquals("named-hash", tradeRepository.findById(named.getId()).orElseThrow().getEconomicsHash());
+        assertNull(tradeRepository.findById(unhashed.getId()).orElseThrow().getEconomicsHash());
+    }
+}
@@ -0,0 +1,89 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.IdCounter;
+import com.technicalchallenge.repository.IdCounterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books trade ids from several threads and two allocators against the real id_counter table
+ * Each block reservation commits in its own transaction, so the test itself must not hold one open
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Import(TradeIdBlockService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeIdAllocatorDatabaseTest {
+
+    private static final long FIRST_TRADE_ID = 10000L;
+    private static final int BLOCK_SIZE = 10;
+    private static final int THREADS_PER_ALLOCATOR = 4;
+    private static final int IDS_PER_THREAD = 50;
+
+    @Autowired
+    private TradeIdBlockService tradeIdBlockService;
+    @Autowired
+    private IdCounterRepository idCounterRepository;
+
+    @AfterEach
+    void tearDown() {
+        idCounterRepository.deleteAll();
+    }
+
+    @Test
+    void testNextTradeId_ConcurrentBookingsAcrossInstancesHaveNoDuplicatesOrGaps() throws Exception {
+        // Given - two application instances sharing the counter row
+        idCounterRepository.save(new IdCounter(TradeIdBlockService.TRADE_ID_COUNTER, FIRST_TRADE_ID));
+        List<TradeIdAllocator> allocators = List.of(
+                new TradeIdAllocator(tradeIdBlockService, BLOCK_SIZE),
+                new TradeIdAllocator(tradeIdBlockService, BLOCK_SIZE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(allocators.size() * THREADS_PER_ALLOCATOR);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (TradeIdAllocator allocator : allocators) {
+            for (int t = 0; t < THREADS_PER_ALLOCATOR; t++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    List<Long> ids = new ArrayList<>(IDS_PER_THREAD);
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(allocator.nextTradeId());
+                    }
+                    return ids;
+                }));
+            }
+        }
+
+        // When
+        startGate.countDown();
+        List<Long> allIds = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            allIds.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then - each allocator used up whole blocks, so together they handed out one unbroken range
+        int totalIds = allocators.size() * THREADS_PER_ALLOCATOR * IDS_PER_THREAD;
+        List<Long> expectedIds = LongStream.range(FIRST_TRADE_ID, FIRST_TRADE_ID + totalIds).boxed().toList();
+        assertEquals(expectedIds, allIds.stream().sorted().toList());
+
+        // Then - the counter moved by exactly the blocks that were reserved
+        IdCounter counter = idCounterRepository.findById(TradeIdBlockService.TRADE_ID_COUNTER).orElseThrow();
+        assertEquals(FIRST_TRADE_ID + totalIds, counter.getNextValue());
+    }
+}
@@ -0,0 +1,123 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 50;
+    private static final int THREADS = 64;
+    private static final int IDS_PER_THREAD = 1000;
+
+    @Mock
+    private TradeIdBlockService tradeIdBlockService;
+
+    private TradeIdAllocator tradeIdAllocator;
+    private ConcurrentLinkedQueue<Long> reservedBlockStarts;
+
+    @BeforeEach
+    void setUp() {
+        // Simulates the id_counter table: each reservation moves the counter by one block
+        AtomicLong counter = new AtomicLong(10000L);
+        reservedBlockStarts = new ConcurrentLinkedQueue<>();
+        lenient().when(tradeIdBlockService.reserveBlock(anyInt())).thenAnswer(invocation -> {
+            long start = counter.getAndAdd(invocation.<Integer>getArgument(0));
+            reservedBlockStarts.add(start);
+            return start;
+        });
+
+        tradeIdAllocator = new TradeIdAllocator(tradeIdBlockService, BLOCK_SIZE);
+    }
+
+    @Test
+    void testNextTradeId_SingleThreadIsSequentialWithinBlocks() {
+        // When
+        long first = tradeIdAllocator.nextTradeId();
+        long second = tradeIdAllocator.nextTradeId();
+
+        // Then
+        assertEquals(10000L, first);
+        assertEquals(10001L, second);
+        verify(tradeIdBlockService, times(1)).reserveBlock(BLOCK_SIZE);
+    }
+
+    @Test
+    void testNextTradeId_ReservesNextBlockWhenExhausted() {
+        // When
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            tradeIdAllocator.nextTradeId();
+        }
+        long firstOfSecondBlock = tradeIdAllocator.nextTradeId();
+
+        // Then
+        assertEquals(10000L + BLOCK_SIZE, firstOfSecondBlock);
+        verify(tradeIdBlockService, times(2)).reserveBlock(BLOCK_SIZE);
+    }
+
+    @Test
+    void testNextTradeId_ConcurrentBookingsHaveNoDuplicatesOrGapsInsideBlocks() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                List<Long> ids = new ArrayList<>(IDS_PER_THREAD);
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids.add(tradeIdAllocator.nextTradeId());
+                }
+                return ids;
+            }));
+        }
+
+        // When
+        startGate.countDown();
+        Set<Long> allIds = new HashSet<>();
+        int totalIds = 0;
+        for (Future<List<Long>> future : futures) {
+            List<Long> ids = future.get(30, TimeUnit.SECONDS);
+            totalIds += ids.size();
+            allIds.addAll(ids);
+        }
+        executor.shutdown();
+
+        // Then - no duplicates
+        assertEquals(THREADS * IDS_PER_THREAD, totalIds);
+        assertEquals(totalIds, allIds.size());
+
+        // Then - every reserved block was handed out completely, so no gaps inside a block
+        assertEquals(totalIds / BLOCK_SIZE, reservedBlockStarts.size());
+        for (Long blockStart : reservedBlockStarts) {
+            for (long id = blockStart; id < blockStart + BLOCK_SIZE; id++) {
+                assertTrue(allIds.contains(id), "Missing id " + id + " in block starting " + blockStart);
+            }
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveBlockSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TradeIdAllocator(tradeIdBlockService, 0));
+    }
+}
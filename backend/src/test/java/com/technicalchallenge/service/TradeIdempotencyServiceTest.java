@@ -0,0 +1,133 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeIdempotencyKey;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeIdempotencyKeyRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeIdempotencyServiceTest {
+
+    @Mock
+    private TradeIdempotencyKeyRepository tradeIdempotencyKeyRepository;
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeLegRepository tradeLegRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TradeIdempotencyService tradeIdempotencyService;
+    private TradeDTO tradeDTO;
+    private Trade trade;
+
+    @BeforeEach
+    void setUp() {
+        tradeIdempotencyService = new TradeIdempotencyService(10_000, 0.01);
+        ReflectionTestUtils.setField(tradeIdempotencyService, "tradeIdempotencyKeyRepository", tradeIdempotencyKeyRepository);
+        ReflectionTestUtils.setField(tradeIdempotencyService, "tradeRepository", tradeRepository);
+        ReflectionTestUtils.setField(tradeIdempotencyService, "tradeLegRepository", tradeLegRepository);
+        ReflectionTestUtils.setField(tradeIdempotencyService, "entityManager", entityManager);
+
+        tradeDTO = new TradeDTO();
+        tradeDTO.setUtiCode("UTI-0001");
+
+        trade = new Trade();
+        trade.setTradeId(10001L);
+        trade.setVersion(1);
+    }
+
+    @Test
+    void testFindReplay_NewUtiMakesNoQuery() {
+        // When
+        Optional<Trade> replay = tradeIdempotencyService.findReplay(tradeDTO);
+
+        // Then
+        assertFalse(replay.isPresent());
+        verifyNoInteractions(tradeIdempotencyKeyRepository, tradeRepository);
+    }
+
+    @Test
+    void testFindReplay_ReturnsOriginallyBookedVersion() {
+        // Given
+        tradeIdempotencyService.recordBooking(tradeDTO, trade);
+        when(tradeIdempotencyKeyRepository.findByIdempotencyKey("UTI:UTI-0001"))
+                .thenReturn(Optional.of(new TradeIdempotencyKey(1L, "UTI:UTI-0001", 10001L, 1, LocalDateTime.now())));
+        when(tradeRepository.findByTradeIdAndVersion(10001L, 1)).thenReturn(Optional.of(trade));
+
+        // When
+        Optional<Trade> replay = tradeIdempotencyService.findReplay(tradeDTO);
+
+        // Then
+        assertTrue(replay.isPresent());
+        assertEquals(10001L, replay.get().getTradeId());
+        verify(tradeIdempotencyKeyRepository).save(any(TradeIdempotencyKey.class));
+    }
+
+    @Test
+    void testFindReplay_SupersededVersionIsReturnedWithItsOwnLegs() {
+        // Given - version 1 was amended since, and one of its legs moved onto version 2
+        trade.setActive(false);
+        TradeLeg carriedLeg = new TradeLeg();
+        carriedLeg.setLegId(1L);
+        tradeIdempotencyService.recordBooking(tradeDTO, trade);
+        when(tradeIdempotencyKeyRepository.findByIdempotencyKey("UTI:UTI-0001"))
+                .thenReturn(Optional.of(new TradeIdempotencyKey(1L, "UTI:UTI-0001", 10001L, 1, LocalDateTime.now())));
+        when(tradeRepository.findByTradeIdAndVersion(10001L, 1)).thenReturn(Optional.of(trade));
+        when(tradeLegRepository.findLegsOfVersion(10001L, 1)).thenReturn(List.of(carriedLeg));
+
+        // When
+        Optional<Trade> replay = tradeIdempotencyService.findReplay(tradeDTO);
+
+        // Then - the legs come from the version range, with the version detached so nothing is orphan-removed
+        assertTrue(replay.isPresent());
+        assertEquals(List.of(carriedLeg), replay.get().getTradeLegs());
+        verify(entityManager).detach(trade);
+    }
+
+    @Test
+    void testLoadKnownKeys_WarmsFilterFromTable() {
+        // Given
+        when(tradeIdempotencyKeyRepository.findAllKeys()).thenReturn(List.of("UTI:UTI-0001"));
+        when(tradeIdempotencyKeyRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        tradeIdempotencyService.loadKnownKeys();
+
+        // When
+        tradeIdempotencyService.findReplay(tradeDTO);
+
+        // Then
+        verify(tradeIdempotencyKeyRepository).findByIdempotencyKey("UTI:UTI-0001");
+    }
+
+    @Test
+    void testResolveKey_ClientKeyTakesPrecedenceOverUti() {
+        // Given
+        tradeDTO.setIdempotencyKey("gateway-retry-42");
+
+        // When & Then
+        assertEquals("KEY:gateway-retry-42", tradeIdempotencyService.resolveKey(tradeDTO));
+        assertNull(tradeIdempotencyService.resolveKey(new TradeDTO()));
+    }
+}
@@ -0,0 +1,157 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+import com.technicalchallenge.util.SqlStatementCounter;
+import com.technicalchallenge.util.TradeTestData;
+import com.technicalchallenge.validation.TradeValidator;
+import com.technicalchallenge.validation.UserPrivilegeValidator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "trade.search.max-page-size=10"})
+@Import({TradeService.class, TradeSpecificationBuilder.class, ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeKeysetSearchTest {
+
+    // Maturity per trade id 700001..700008; duplicates and nulls cross page boundaries at page size 3
+    private static final LocalDate[] MATURITIES = {
+            LocalDate.of(2030, 1, 1), null, LocalDate.of(2028, 6, 1), LocalDate.of(2030, 1, 1),
+            null, LocalDate.of(2027, 3, 1), LocalDate.of(2030, 1, 1), LocalDate.of(2028, 6, 1)};
+
+    @MockBean
+    private AdditionalInfoService additionalInfoService;
+    @MockBean
+    private TradeValidator tradeValidator;
+    @MockBean
+    private UserPrivilegeValidator userPrivilegeValidator;
+    @MockBean
+    private TradeIdAllocator tradeIdAllocator;
+    @MockBean
+    private TradeIdempotencyService tradeIdempotencyService;
+    @MockBean
+    private TradeEventPublisher tradeEventPublisher;
+    @MockBean
+    private CashflowEngine cashflowEngine;
+    @MockBean
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+    @MockBean
+    private IndexFixingStore indexFixingStore;
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TradeTestData testData;
+
+    @BeforeEach
+    void setUp() {
+        // Given - eight trades in KS-BOOK and one in another book
+        Book book = testData.book("KS-BOOK");
+        for (int i = 0; i < MATURITIES.length; i++) {
+            trade(700001L + i, book, MATURITIES[i]);
+        }
+        trade(700100L, testData.book("OTHER-BOOK"), LocalDate.of(2029, 1, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private void trade(long tradeId, Book book, LocalDate maturity) {
+        testData.trade(tradeId, trade -> {
+            trade.setBook(book);
+            trade.setTradeMaturityDate(maturity);
+        });
+    }
+
+    private List<Long> walk(String sortDir, int pageSize) {
+        List<Long> tradeIds = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 10; pages++) {
+            KeysetPageDTO<Trade> page = tradeService.getTradesWithFiltersAfterCursor(null, "KS-BOOK", null, null,
+                    null, null, null, cursor, pageSize, "tradeMaturityDate", sortDir, false);
+            page.getContent().forEach(trade -> tradeIds.add(trade.getTradeId()));
+            assertNull(page.getTotalItems());
+            if (page.isLastPage()) {
+                assertNull(page.getNextCursor());
+                return tradeIds;
+            }
+            cursor = page.getNextCursor();
+        }
+        return fail("Cursor did not reach the last page");
+    }
+
+    @Test
+    void testCursorWalk_AscendingVisitsEveryTradeOnceWithNullsLast() {
+        // When
+        List<Long> tradeIds = walk("asc", 3);
+
+        // Then - maturity ascending, row id within a maturity, no maturity at the end
+        assertEquals(List.of(700006L, 700003L, 700008L, 700001L, 700004L, 700007L, 700002L, 700005L), tradeIds);
+        assertEquals(tradeIds, walk("asc", 1));
+    }
+
+    @Test
+    void testCursorWalk_DescendingVisitsEveryTradeOnceWithNullsFirst() {
+        // When
+        List<Long> tradeIds = walk("desc", 3);
+
+        // Then
+        assertEquals(List.of(700005L, 700002L, 700007L, 700004L, 700001L, 700008L, 700003L, 700006L), tradeIds);
+        assertEquals(tradeIds, walk("desc", 1));
+    }
+
+    @Test
+    void testCursorPage_RunsNoCountUnlessTotalRequested() {
+        // Given
+        KeysetPageDTO<Trade> first = tradeService.getTradesWithFiltersAfterCursor(null, "KS-BOOK", null, null,
+                null, null, null, null, 3, "tradeMaturityDate", "asc", true);
+        SqlStatementCounter counter = SqlStatementCounter.of(entityManagerFactory);
+
+        // When
+        KeysetPageDTO<Trade> second = tradeService.getTradesWithFiltersAfterCursor(null, "KS-BOOK", null, null,
+                null, null, null, first.getNextCursor(), 3, "tradeMaturityDate", "asc", false);
+
+        // Then - page, legs, cashflows
+        counter.assertAtMost(3, "GET /api/trades/search/keyset");
+        assertEquals(8L, first.getTotalItems());
+        assertNull(second.getTotalItems());
+        assertEquals(List.of(700001L, 700004L, 700007L), second.getContent().stream().map(Trade::getTradeId).toList());
+    }
+
+    @Test
+    void testCursorPage_RejectsInvalidRequests() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> tradeService.getTradesWithFiltersAfterCursor(null,
+                null, null, null, null, null, null, null, 3, "book", "asc", false));
+        assertThrows(IllegalArgumentException.class, () -> tradeService.getTradesWithFiltersAfterCursor(null,
+                null, null, null, null, null, null, null, 3, "noSuchAttribute", "asc", false));
+        assertThrows(IllegalArgumentException.class, () -> tradeService.getTradesWithFiltersAfterCursor(null,
+                null, null, null, null, null, null, "not-a-cursor", 3, "tradeMaturityDate", "asc", false));
+        assertThrows(IllegalArgumentException.class, () -> tradeService.getTradesWithFiltersAfterCursor(null,
+                null, null, null, null, null, null, null, 11, "tradeMaturityDate", "asc", false));
+    }
+}
@@ -0,0 +1,109 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.JobStatusDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.TradeAuditRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.util.TradeTestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the maturity roll against a real database with small chunks and two workers
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+        "trade.maturity-roll.chunk-size=2", "trade.maturity-roll.threads=2"})
+@Import({TradeMaturityRollJob.class, ReferenceDataCache.class, TradeTestData.class,
+        TradeMaturityRollJobTest.MetricsConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeMaturityRollJobTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2025, 6, 30);
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TradeMaturityRollJob tradeMaturityRollJob;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeAuditRepository tradeAuditRepository;
+    @Autowired
+    private TradeTestData testData;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @MockBean
+    private TradeEventPublisher tradeEventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private void trade(long tradeId, LocalDate maturityDate, TradeStatus status, boolean active) {
+        testData.trade(tradeId, trade -> {
+            trade.setTradeStatus(status);
+            trade.setTradeMaturityDate(maturityDate);
+            trade.setActive(active);
+        });
+    }
+
+    @Test
+    void testRun_RollsMaturedLiveTradesOnce() {
+        // Given - seven matured live trades, one maturing on the business date,
+        // one matured but inactive and one matured but already cancelled
+        TradeStatus live = testData.status("LIVE");
+        TradeStatus dead = testData.status("DEAD");
+        TradeStatus cancelled = testData.status("CANCELLED");
+        for (long tradeId = 400001; tradeId <= 400007; tradeId++) {
+            trade(tradeId, BUSINESS_DATE.minusDays(tradeId - 400000), live, true);
+        }
+        trade(400008, BUSINESS_DATE, live, true);
+        trade(400009, BUSINESS_DATE.minusDays(1), live, false);
+        trade(400010, BUSINESS_DATE.minusDays(1), cancelled, true);
+
+        // When
+        JobStatusDTO status = tradeMaturityRollJob.run(BUSINESS_DATE);
+        JobStatusDTO rerun = tradeMaturityRollJob.run(BUSINESS_DATE);
+
+        // Then
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(7L, status.getProcessedCount());
+        assertEquals(7L, rerun.getProcessedCount());
+        for (Trade trade : tradeRepository.findAll()) {
+            Long expected = trade.getTradeId() <= 400007 ? dead.getId()
+                    : trade.getTradeId() == 400010 ? cancelled.getId() : live.getId();
+            assertEquals(expected, trade.getTradeStatus().getId(), "Unexpected status for trade " + trade.getTradeId());
+        }
+        assertEquals(7, tradeAuditRepository.findByBulkActionId(
+                TradeMaturityRollJob.JOB_NAME + ":" + BUSINESS_DATE).size());
+        assertEquals(7.0, meterRegistry.get("trade.maturity.roll.trades").counter().count());
+        verify(tradeEventPublisher, times(7)).publishStatusChange(eq(TradeEvent.MATURED), any(), eq(1), eq("DEAD"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races several writers amending the same trade version against a real database
+ * Each writer runs in its own transaction, so the test itself must not hold one open
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeOptimisticLockingTest {
+
+    private static final int WRITERS = 8;
+    private static final long TRADE_ID = 200001L;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testConcurrentAmendsOfSameVersion_OnlyOneWriterWins() throws Exception {
+        // Given
+        Trade original = new Trade();
+        original.setTradeId(TRADE_ID);
+        original.setVersion(1);
+        original.setTradeDate(LocalDate.of(2025, 1, 15));
+        original.setActive(true);
+        original.setCreatedDate(LocalDateTime.now());
+        tradeRepository.save(original);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CyclicBarrier allRead = new CyclicBarrier(WRITERS);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+
+        // When - every writer reads version 1 before any of them writes
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                Trade current = tradeRepository.findByTradeIdAndActiveTrue(TRADE_ID).orElseThrow();
+                try {
+                    allRead.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                current.setActive(false);
+                current.setDeactivatedDate(LocalDateTime.now());
+                tradeRepository.save(current);
+
+                Trade amended = new Trade();
+                amended.setTradeId(TRADE_ID);
+                amended.setVersion(current.getVersion() + 1);
+                amended.setTradeDate(current.getTradeDate());
+                amended.setActive(true);
+                amended.setCreatedDate(LocalDateTime.now());
+                tradeRepository.save(amended);
+            })));
+        }
+
+        int wins = 0;
+        int conflicts = 0;
+        for (Future<?> writer : writers) {
+            try {
+                writer.get(30, TimeUnit.SECONDS);
+                wins++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConcurrencyFailureException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(1, wins);
+        assertEquals(WRITERS - 1, conflicts);
+        List<Trade> versions = tradeRepository.findByTradeId(TRADE_ID);
+        assertEquals(2, versions.size());
+        assertEquals(1, versions.stream().filter(Trade::getActive).count());
+        assertTrue(tradeRepository.findByTradeIdAndActiveTrue(TRADE_ID).isPresent());
+        assertEquals(2, tradeRepository.findByTradeIdAndActiveTrue(TRADE_ID).get().getVersion());
+    }
+}
@@ -0,0 +1,169 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.TradeChangeEventDTO;
+import com.technicalchallenge.journal.TradeEvent;
+import com.technicalchallenge.journal.TradeJournal;
+import com.technicalchallenge.model.TradeOutbox;
+import com.technicalchallenge.repository.TradeOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeOutboxRelayTest {
+
+    @Mock
+    private TradeOutboxRepository tradeOutboxRepository;
+    @Mock
+    private TradeChangeFeed tradeChangeFeed;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TradeJournal tradeJournal;
+
+    @InjectMocks
+    private TradeOutboxRelay tradeOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tradeOutboxRelay, "batchSize", 100);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        ReflectionTestUtils.setField(tradeOutboxRelay, "objectMapper", objectMapper);
+        when(tradeOutboxRepository.findMaxFeedOffset()).thenReturn(Optional.of(10L));
+        tradeOutboxRelay.init();
+    }
+
+    private TradeOutbox change(long id, long tradeId, int version, String changeType, String status) {
+        return new TradeOutbox(id, tradeId, version, changeType, status, LocalDateTime.of(2025, 1, 17, 10, 0),
+                false, null, null, null, false);
+    }
+
+    private TradeOutbox journalledChange(long id, long tradeId, String status) {
+        TradeOutbox change = change(id, tradeId, 1, "CANCELLED", status);
+        change.setEventPayload("{\"eventType\":\"CANCELLED\",\"tradeId\":" + tradeId
+                + ",\"version\":1,\"tradeStatus\":\"" + status + "\"}");
+        return change;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelay_CoalescesChangesOfOneTradeAndAssignsOffsetsInOrder() {
+        // Given - trade 100001 is amended twice within the window
+        TradeOutbox created = change(1, 100001L, 1, "CREATED", "NEW");
+        TradeOutbox other = change(2, 100002L, 1, "CREATED", "NEW");
+        TradeOutbox amended = change(3, 100001L, 2, "AMENDED", "NEW");
+        TradeOutbox amendedAgain = change(4, 100001L, 3, "AMENDED", "LIVE");
+        when(tradeOutboxRepository.findByPublishedFalseOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(created, other, amended, amendedAgain), List.of());
+
+        // When
+        int published = tradeOutboxRelay.relay();
+
+        // Then
+        assertEquals(2, published);
+        assertTrue(created.isPublished() && other.isPublished() && amended.isPublished() && amendedAgain.isPublished());
+        assertNull(created.getFeedOffset());
+        assertNull(amended.getFeedOffset());
+        assertEquals(11L, amendedAgain.getFeedOffset());
+        assertEquals(3, amendedAgain.getCoalescedCount());
+        assertEquals(12L, other.getFeedOffset());
+
+        ArgumentCaptor<List<TradeChangeEventDTO>> broadcast = ArgumentCaptor.forClass(List.class);
+        verify(tradeChangeFeed).broadcast(broadcast.capture());
+        TradeChangeEventDTO first = broadcast.getValue().get(0);
+        assertEquals(11L, first.getOffset());
+        assertEquals(100001L, first.getTradeId());
+        assertEquals(3, first.getVersion());
+        assertEquals("LIVE", first.getTradeStatus());
+        assertEquals(3, first.getCoalescedChanges());
+        assertEquals(12L, broadcast.getValue().get(1).getOffset());
+    }
+
+    @Test
+    void testRelay_NothingPendingBroadcastsNothing() {
+        // Given
+        when(tradeOutboxRepository.findByPublishedFalseOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        int published = tradeOutboxRelay.relay();
+
+        // Then
+        assertEquals(0, published);
+        verifyNoInteractions(tradeChangeFeed);
+    }
+
+    @Test
+    void testRelay_JournalsEveryChangeInOutboxOrder() {
+        // Given - two changes of the same trade, which the feed folds but the journal keeps
+        TradeOutbox first = journalledChange(1, 100001L, "CANCELLED");
+        TradeOutbox second = journalledChange(2, 100001L, "TERMINATED");
+        when(tradeOutboxRepository.findByJournalledFalseOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(tradeOutboxRepository.findByPublishedFalseOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        tradeOutboxRelay.relay();
+
+        // Then
+        ArgumentCaptor<TradeEvent> appended = ArgumentCaptor.forClass(TradeEvent.class);
+        verify(tradeJournal, times(2)).append(appended.capture());
+        assertEquals(List.of(1L, 2L), appended.getAllValues().stream().map(TradeEvent::getOutboxId).toList());
+        assertEquals(List.of("CANCELLED", "TERMINATED"),
+                appended.getAllValues().stream().map(TradeEvent::getTradeStatus).toList());
+        assertTrue(first.isJournalled() && second.isJournalled());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelay_RetryAfterFailedRunSkipsEventsAlreadyJournalled() {
+        // Given - the first run appends row 1, then fails on row 2 and rolls back both marks
+        TradeOutbox first = journalledChange(1, 100001L, "CANCELLED");
+        TradeOutbox second = journalledChange(2, 100002L, "CANCELLED");
+        when(tradeOutboxRepository.findByJournalledFalseOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(tradeOutboxRepository.findByPublishedFalseOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+        when(tradeJournal.append(any(TradeEvent.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("disk full"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        tradeOutboxRelay.relay();
+        first.setJournalled(false);
+        second.setJournalled(false);
+        TradeEvent appendedBefore = new TradeEvent();
+        appendedBefore.setOutboxId(1L);
+        doAnswer(invocation -> {
+            ((Consumer<TradeEvent>) invocation.getArgument(1)).accept(appendedBefore);
+            return null;
+        }).when(tradeJournal).replayTrade(eq(100001L), any());
+
+        // When
+        tradeOutboxRelay.relay();
+
+        // Then - row 1 is not appended a second time, row 2 is
+        ArgumentCaptor<TradeEvent> appended = ArgumentCaptor.forClass(TradeEvent.class);
+        verify(tradeJournal, times(3)).append(appended.capture());
+        assertEquals(List.of(1L, 2L, 2L), appended.getAllValues().stream().map(TradeEvent::getOutboxId).toList());
+        verify(tradeJournal, atLeastOnce()).replayTrade(anyLong(), any());
+        assertTrue(first.isJournalled() && second.isJournalled());
+    }
+}
@@ -0,0 +1,183 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.cashflow.CashflowEngine;
+import com.technicalchallenge.config.ModelMapperConfig;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.journal.TradeEventPublisher;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.BusinessDayConvention;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.model.TradeType;
+import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.specification.TradeSpecificationBuilder;
+import com.technicalchallenge.util.SqlStatementCounter;
+import com.technicalchallenge.util.TradeTestData;
+import com.technicalchallenge.validation.TradeValidator;
+import com.technicalchallenge.validation.UserPrivilegeValidator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the number of SQL statements behind the trade list and search endpoints; /rsql runs the
+ * same entity graph page query and fetch plan with a different Specification.
+ * Trades are mapped after the service's transaction has closed, so any association left out
+ * of the fetch plan fails the test with a LazyInitializationException instead of querying
+ */
+@DataJpaTest(properties = {"spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({TradeService.class, TradeSpecificationBuilder.class, TradeMapper.class, ModelMapperConfig.class,
+        ReferenceDataCache.class, TradeTestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeReadQueryCountTest {
+
+    private static final int TRADES = 60;
+    private static final int PAGE_SIZE = 50;
+
+    @MockBean
+    private AdditionalInfoService additionalInfoService;
+    @MockBean
+    private TradeValidator tradeValidator;
+    @MockBean
+    private UserPrivilegeValidator userPrivilegeValidator;
+    @MockBean
+    private TradeIdAllocator tradeIdAllocator;
+    @MockBean
+    private TradeIdempotencyService tradeIdempotencyService;
+    @MockBean
+    private TradeEventPublisher tradeEventPublisher;
+    @MockBean
+    private CashflowEngine cashflowEngine;
+    @MockBean
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+    @MockBean
+    private IndexFixingStore indexFixingStore;
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private TradeMapper tradeMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TradeTestData testData;
+
+    @BeforeEach
+    void setUp() {
+        // Given - 60 trades of two legs with three cashflows each, every association the mapper reads set
+        Book book = testData.book("QC-BOOK");
+        Counterparty counterparty = testData.counterparty("QC-BANK");
+        UserProfile profile = testData.userProfile("TRADER_SALES");
+        ApplicationUser trader = testData.user("QC", "qc.trader", "qc.trader", profile);
+        ApplicationUser inputter = testData.user("QC", "qc.inputter", "qc.inputter", profile);
+        TradeType tradeType = testData.tradeType("Swap");
+        TradeStatus live = testData.status("LIVE");
+        Currency usd = testData.currency("USD");
+        LegType fixed = testData.legType("Fixed");
+        BusinessDayConvention following = testData.convention("Following");
+        PayRec pay = testData.payRec("Pay");
+
+        for (int i = 0; i < TRADES; i++) {
+            LocalDate tradeDate = LocalDate.of(2025, 1, 1).plusDays(i);
+            Trade saved = testData.trade(800000L + i, trade -> {
+                trade.setBook(book);
+                trade.setCounterparty(counterparty);
+                trade.setTraderUser(trader);
+                trade.setTradeInputterUser(inputter);
+                trade.setTradeType(tradeType);
+                trade.setTradeStatus(live);
+                trade.setTradeDate(tradeDate);
+            });
+            for (int legNumber = 0; legNumber < 2; legNumber++) {
+                TradeLeg leg = testData.leg(saved, tradeLeg -> {
+                    tradeLeg.setNotional(BigDecimal.valueOf(1000000));
+                    tradeLeg.setCurrency(usd);
+                    tradeLeg.setLegRateType(fixed);
+                    tradeLeg.setPaymentBusinessDayConvention(following);
+                    tradeLeg.setFixingBusinessDayConvention(following);
+                    tradeLeg.setPayReceiveFlag(pay);
+                });
+                for (int period = 1; period <= 3; period++) {
+                    LocalDate valueDate = LocalDate.of(2025, 1, 1).plusMonths(3L * period);
+                    testData.cashflow(leg, cashflow -> {
+                        cashflow.setValueDate(valueDate);
+                        cashflow.setPaymentValue(BigDecimal.TEN);
+                        cashflow.setPayRec(pay);
+                        cashflow.setPaymentType(fixed);
+                        cashflow.setPaymentBusinessDayConvention(following);
+                    });
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.deleteAll();
+    }
+
+    private static void assertFullyMapped(TradeDTO dto) {
+        assertEquals("QC-BOOK", dto.getBookName());
+        assertEquals("QC-BANK", dto.getCounterpartyName());
+        assertEquals("QC qc.trader", dto.getTraderUserName());
+        assertEquals("LIVE", dto.getTradeStatus());
+        assertEquals(2, dto.getTradeLegs().size());
+        assertEquals("USD", dto.getTradeLegs().get(0).getCurrency());
+        assertEquals("Following", dto.getTradeLegs().get(1).getFixingBusinessDayConvention());
+        assertEquals(3, dto.getTradeLegs().get(1).getCashflows().size());
+        assertEquals("Pay", dto.getTradeLegs().get(1).getCashflows().get(2).getPayRec());
+    }
+
+    @Test
+    void testSearchPage_LoadsFiftyTradesInFourStatements() {
+        // Given
+        SqlStatementCounter counter = SqlStatementCounter.of(entityManagerFactory);
+
+        // When
+        Page<Trade> page = tradeService.getTradesWithFiltersAndPagination(null, "qc-book", null, null, null,
+                null, null, 0, PAGE_SIZE, "tradeDate", "asc");
+        List<TradeDTO> dtos = page.getContent().stream().map(tradeMapper::toDto).toList();
+
+        // Then - page, count, legs, cashflows
+        counter.assertAtMost(4, "GET /api/trades/search");
+        assertEquals(PAGE_SIZE, dtos.size());
+        assertEquals(TRADES, page.getTotalElements());
+        dtos.forEach(TradeReadQueryCountTest::assertFullyMapped);
+    }
+
+    @Test
+    void testGetAllTrades_LoadsEveryTradeInThreeStatements() {
+        // Given
+        SqlStatementCounter counter = SqlStatementCounter.of(entityManagerFactory);
+
+        // When
+        List<TradeDTO> dtos = tradeService.getAllTrades().stream().map(tradeMapper::toDto).toList();
+
+        // Then - trades, legs, cashflows
+        counter.assertAtMost(3, "GET /api/trades");
+        assertEquals(TRADES, dtos.size());
+        dtos.forEach(TradeReadQueryCountTest::assertFullyMapped);
+    }
+}
@@ -1,7 +1,10 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.cashflow.CashflowEngine;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.exception.TradeConcurrencyException;
+import com.technicalchallenge.journal.TradeEventPublisher;
 import com.technicalchallenge.model.Book;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.Counterparty;
@@ -10,19 +13,17 @@ import com.technicalchallenge.model.Schedule;
 import com.technicalchallenge.model.Trade;
 import com.technicalchallenge.model.TradeLeg;
 import com.technicalchallenge.model.TradeStatus;
-import com.technicalchallenge.repository.BookRepository;
 import com.technicalchallenge.repository.CashflowRepository;
-import com.technicalchallenge.repository.CounterpartyRepository;
 import com.technicalchallenge.repository.ScheduleRepository;
 import com.technicalchallenge.repository.TradeLegRepository;
 import com.technicalchallenge.repository.TradeRepository;
-import com.technicalchallenge.repository.TradeStatusRepository;
 import com.technicalchallenge.repository.TradeTypeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cglib.core.Local;
 
@@ -30,11 +31,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,22 +54,31 @@ class TradeServiceTest {
     private CashflowRepository cashflowRepository;
 
     @Mock
-    private TradeStatusRepository tradeStatusRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @Mock
-    private BookRepository bookRepository;
+    private TradeTypeService tradeTypeService;
 
     @Mock
-    private CounterpartyRepository counterpartyRepository;
+    private ScheduleRepository scheduleRepository;
 
     @Mock
-    private TradeTypeService tradeTypeService;
+    private AdditionalInfoService additionalInfoService;
 
     @Mock
-    private ScheduleRepository scheduleRepository;
+    private TradeIdempotencyService tradeIdempotencyService;
 
     @Mock
-    private AdditionalInfoService additionalInfoService;
+    private TradeEventPublisher tradeEventPublisher;
+
+    @Mock
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @Mock
+    private IndexFixingStore indexFixingStore;
+
+    @Spy
+    private CashflowEngine cashflowEngine = new CashflowEngine();
 
     @InjectMocks
     private TradeService tradeService;
@@ -123,10 +136,10 @@ class TradeServiceTest {
         mockStatus.setTradeStatus("NEW");
         mockLeg.setLegId(1L);
 
-        // Mocked repository methods
-        when(bookRepository.findByBookName("Book-1")).thenReturn(Optional.of(mockBook));
-        when(counterpartyRepository.findByName("Counterparty-1")).thenReturn(Optional.of(mockCounterparty));
-        when(tradeStatusRepository.findByTradeStatus("NEW")).thenReturn(Optional.of(mockStatus));
+        // Mocked reference data lookups
+        when(referenceDataCache.findByName(Book.class, "Book-1")).thenReturn(Optional.of(mockBook));
+        when(referenceDataCache.findByName(Counterparty.class, "Counterparty-1")).thenReturn(Optional.of(mockCounterparty));
+        when(referenceDataCache.findByName(TradeStatus.class, "NEW")).thenReturn(Optional.of(mockStatus));
         when(tradeLegRepository.save(any(TradeLeg.class))).thenReturn(mockLeg);
         when(tradeRepository.save(any(Trade.class))).thenReturn(trade);
 
@@ -139,6 +152,21 @@ class TradeServiceTest {
         verify(tradeRepository).save(any(Trade.class));
     }
 
+    @Test
+    void testCreateTrade_DuplicateSubmissionReturnsOriginalTrade() {
+        // Given
+        tradeDTO.setUtiCode("UTI-0001");
+        when(tradeIdempotencyService.findReplay(tradeDTO)).thenReturn(Optional.of(trade));
+
+        // When
+        Trade result = tradeService.createTrade(tradeDTO);
+
+        // Then
+        assertSame(trade, result);
+        verify(tradeRepository, never()).save(any(Trade.class));
+        verify(tradeIdempotencyService, never()).recordBooking(any(TradeDTO.class), any(Trade.class));
+    }
+
     @Test
     void testCreateTrade_InvalidDates_ShouldFail() {
         // Given
@@ -200,7 +228,7 @@ class TradeServiceTest {
         mockLeg.setLegId(1L);
 
         when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
-        when(tradeStatusRepository.findByTradeStatus("AMENDED")).thenReturn(Optional.of(new com.technicalchallenge.model.TradeStatus()));
+        when(referenceDataCache.findByName(TradeStatus.class, "AMENDED")).thenReturn(Optional.of(new com.technicalchallenge.model.TradeStatus()));
         when(tradeRepository.save(any(Trade.class))).thenReturn(trade);
         // Mocked repository to return mockLeg 
         when(tradeLegRepository.save(any(TradeLeg.class))).thenReturn(mockLeg);
@@ -213,6 +241,131 @@ class TradeServiceTest {
         verify(tradeRepository, times(2)).save(any(Trade.class)); // Save old and new
     }
 
+    @Test
+    void testAmendTrade_OneFieldAmendmentWritesNoLegOrCashflowRows() {
+        // Given - current version has both legs with a cashflow each, only the book changes and no legs are sent
+        TradeLeg currentLeg1 = new TradeLeg();
+        currentLeg1.setLegId(1L);
+        currentLeg1.setNotional(BigDecimal.valueOf(1000000));
+        currentLeg1.setRate(0.05);
+        currentLeg1.setTrade(trade);
+        Cashflow cashflow1 = new Cashflow();
+        cashflow1.setValueDate(LocalDate.of(2026, 1, 17));
+        cashflow1.setPaymentValue(BigDecimal.valueOf(50000));
+        cashflow1.setTradeLeg(currentLeg1);
+        currentLeg1.setCashflows(List.of(cashflow1));
+        TradeLeg currentLeg2 = new TradeLeg();
+        currentLeg2.setLegId(2L);
+        currentLeg2.setNotional(BigDecimal.valueOf(1000000));
+        currentLeg2.setRate(0.0);
+        currentLeg2.setTrade(trade);
+        currentLeg2.setValidFromVersion(1);
+        trade.setTradeLegs(Arrays.asList(currentLeg1, currentLeg2));
+        trade.setTradeDate(tradeDTO.getTradeDate());
+        trade.setTradeStartDate(tradeDTO.getTradeStartDate());
+        trade.setTradeMaturityDate(tradeDTO.getTradeMaturityDate());
+        tradeDTO.setTradeLegs(null);
+        tradeDTO.setBookName("Book-2");
+        Book newBook = new Book();
+        newBook.setId(2L);
+        when(referenceDataCache.findByName(Book.class, "Book-2")).thenReturn(Optional.of(newBook));
+
+        Trade newVersion = new Trade();
+        newVersion.setTradeId(100001L);
+        newVersion.setVersion(2);
+
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+        when(referenceDataCache.findByName(TradeStatus.class, "AMENDED")).thenReturn(Optional.of(new TradeStatus()));
+        when(tradeRepository.save(any(Trade.class))).thenReturn(trade, newVersion);
+
+        // When
+        Trade result = tradeService.amendTrade(100001L, tradeDTO);
+
+        // Then - the same leg rows move onto the new version with their cashflows, still active and open-ended
+        assertSame(newVersion, result);
+        assertEquals(List.of(currentLeg1, currentLeg2), result.getTradeLegs());
+        for (TradeLeg leg : result.getTradeLegs()) {
+            assertSame(newVersion, leg.getTrade());
+            assertTrue(leg.getActive());
+            assertEquals(1, leg.getValidFromVersion());
+            assertNull(leg.getValidToVersion());
+        }
+        assertSame(currentLeg1, cashflow1.getTradeLeg());
+        assertTrue(cashflow1.getActive());
+
+        // Then - no leg or cashflow row is inserted, regenerated or retired
+        verify(tradeLegRepository, never()).save(any(TradeLeg.class));
+        verify(cashflowRepository, never()).save(any(Cashflow.class));
+        verify(cashflowRepository, never()).deactivateByLegIds(anyList(), any(LocalDate.class));
+    }
+
+    @Test
+    void testAmendTrade_OnlyChangedLegIsRebuilt() {
+        // Given - the rate of the first leg changes
+        TradeLeg currentLeg1 = new TradeLeg();
+        currentLeg1.setLegId(1L);
+        currentLeg1.setNotional(BigDecimal.valueOf(1000000));
+        currentLeg1.setRate(0.04);
+        TradeLeg currentLeg2 = new TradeLeg();
+        currentLeg2.setLegId(2L);
+        currentLeg2.setNotional(BigDecimal.valueOf(1000000));
+        currentLeg2.setRate(0.0);
+        trade.setTradeLegs(Arrays.asList(currentLeg1, currentLeg2));
+        trade.setTradeStartDate(tradeDTO.getTradeStartDate());
+        trade.setTradeMaturityDate(tradeDTO.getTradeMaturityDate());
+
+        TradeLeg rebuiltLeg = new TradeLeg();
+        rebuiltLeg.setLegId(3L);
+        rebuiltLeg.setNotional(BigDecimal.valueOf(1000000));
+        rebuiltLeg.setRate(0.05);
+
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+        when(referenceDataCache.findByName(TradeStatus.class, "AMENDED")).thenReturn(Optional.of(new TradeStatus()));
+        when(tradeRepository.save(any(Trade.class))).thenReturn(trade);
+        when(tradeLegRepository.save(any(TradeLeg.class))).thenReturn(rebuiltLeg);
+
+        // When
+        tradeService.amendTrade(100001L, tradeDTO);
+
+        // Then
+        assertFalse(currentLeg1.getActive());
+        assertEquals(1, currentLeg1.getValidToVersion());
+        assertTrue(currentLeg2.getActive());
+        assertNull(currentLeg2.getValidToVersion());
+        verify(tradeLegRepository, times(1)).save(argThat(leg -> Long.valueOf(1L).equals(leg.getPreviousLegId())
+                && Long.valueOf(1L).equals(leg.getOriginalLegId())));
+        verify(cashflowRepository).deactivateByLegIds(eq(List.of(1L)), any(LocalDate.class));
+        verify(cashflowRepository, atLeastOnce()).save(any(Cashflow.class));
+    }
+
+    @Test
+    void testAmendTrade_UnchangedEconomicsKeepsCurrentVersion() {
+        // Given - the current version already holds exactly what is resubmitted
+        TradeLeg currentLeg1 = new TradeLeg();
+        currentLeg1.setLegId(1L);
+        currentLeg1.setNotional(new BigDecimal("1000000.00"));
+        currentLeg1.setRate(0.05);
+        TradeLeg currentLeg2 = new TradeLeg();
+        currentLeg2.setLegId(2L);
+        currentLeg2.setNotional(BigDecimal.valueOf(1000000));
+        currentLeg2.setRate(0.0);
+        trade.setTradeLegs(Arrays.asList(currentLeg1, currentLeg2));
+        trade.setTradeDate(tradeDTO.getTradeDate());
+        trade.setTradeStartDate(tradeDTO.getTradeStartDate());
+        trade.setTradeMaturityDate(tradeDTO.getTradeMaturityDate());
+
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+
+        // When
+        Trade result = tradeService.amendTrade(100001L, tradeDTO);
+
+        // Then
+        assertSame(trade, result);
+        assertEquals(1, result.getVersion());
+        verify(tradeRepository, never()).save(any(Trade.class));
+        verify(tradeLegRepository, never()).save(any(TradeLeg.class));
+    }
+
     @Test
     void testAmendTrade_TradeNotFound() {
         // Given
@@ -226,6 +379,18 @@ class TradeServiceTest {
         assertTrue(exception.getMessage().contains("Trade not found"));
     }
 
+    @Test
+    void testAmendTrade_StaleExpectedVersion_ShouldFail() {
+        // Given
+        trade.setVersion(2);
+        trade.setRowVersion(0L);
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+
+        // When & Then
+        assertThrows(TradeConcurrencyException.class, () -> tradeService.amendTrade(100001L, tradeDTO, 1, 0L));
+        verify(tradeRepository, never()).save(any(Trade.class));
+    }
+
       // This test has a deliberate bug for candidates to find and fix
       @Test
       void testCashflowGeneration_MonthlySchedule() {
@@ -288,9 +453,9 @@ class TradeServiceTest {
 
           // Mocked repositories
 
-          when(bookRepository.findByBookName("Book-1")).thenReturn(Optional.of(mockBook));
-          when(counterpartyRepository.findByName("Counterparty-1")).thenReturn(Optional.of(mockCounterparty));
-          when(tradeStatusRepository.findByTradeStatus("NEW")).thenReturn(Optional.of(mockStatus));
+          when(referenceDataCache.findByName(Book.class, "Book-1")).thenReturn(Optional.of(mockBook));
+          when(referenceDataCache.findByName(Counterparty.class, "Counterparty-1")).thenReturn(Optional.of(mockCounterparty));
+          when(referenceDataCache.findByName(TradeStatus.class, "NEW")).thenReturn(Optional.of(mockStatus));
           when(tradeLegRepository.save(any(TradeLeg.class))).thenReturn(savedLeg1);
           when(tradeRepository.save(any(Trade.class))).thenReturn(tradeEntity);
           when(cashflowRepository.save(any(Cashflow.class))).thenReturn(mockCashflow);
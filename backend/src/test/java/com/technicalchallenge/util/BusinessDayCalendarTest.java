@@ -0,0 +1,96 @@
+package com.technicalchallenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusinessDayCalendarTest {
+
+    private static final List<LocalDate> NY_HOLIDAYS = List.of(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 7, 4), LocalDate.of(2025, 11, 27), LocalDate.of(2025, 12, 25),
+            LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 25));
+    private static final List<LocalDate> LON_HOLIDAYS = List.of(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 18), LocalDate.of(2025, 4, 21),
+            LocalDate.of(2025, 12, 25), LocalDate.of(2025, 12, 26));
+
+    @Test
+    void testIsBusinessDay_WeekendsHolidaysAndYearsOutsideTheCalendar() {
+        // Given
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", NY_HOLIDAYS);
+
+        // Then
+        assertFalse(ny.isBusinessDay(LocalDate.of(2025, 12, 25)));
+        assertTrue(ny.isBusinessDay(LocalDate.of(2025, 12, 26)));
+        assertFalse(ny.isBusinessDay(LocalDate.of(2025, 12, 27)));
+        assertFalse(ny.isBusinessDay(LocalDate.of(2025, 12, 28)));
+        // No holidays loaded for 2030, so only the weekend rule applies
+        assertTrue(ny.isBusinessDay(LocalDate.of(2030, 1, 1)));
+        assertFalse(ny.isBusinessDay(LocalDate.of(2030, 1, 5)));
+    }
+
+    @Test
+    void testAddBusinessDays_SkipsWeekendsAndHolidaysInBothDirections() {
+        // Given
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", NY_HOLIDAYS);
+        BusinessDayCalendar lon = BusinessDayCalendar.of("LON", LON_HOLIDAYS);
+
+        // Then
+        assertEquals(LocalDate.of(2025, 12, 26), ny.addBusinessDays(LocalDate.of(2025, 12, 24), 1));
+        assertEquals(LocalDate.of(2025, 12, 29), lon.addBusinessDays(LocalDate.of(2025, 12, 24), 1));
+        assertEquals(LocalDate.of(2025, 12, 24), lon.addBusinessDays(LocalDate.of(2025, 12, 29), -1));
+        assertEquals(LocalDate.of(2025, 4, 22), lon.addBusinessDays(LocalDate.of(2025, 4, 17), 1));
+        assertEquals(LocalDate.of(2025, 12, 25), ny.addBusinessDays(LocalDate.of(2025, 12, 25), 0));
+    }
+
+    @Test
+    void testUnion_IsBusinessDayOnlyWhenOpenInBothCentres() {
+        // Given
+        BusinessDayCalendar joint = BusinessDayCalendar.of("NY", NY_HOLIDAYS)
+                .union(BusinessDayCalendar.of("LON", LON_HOLIDAYS));
+
+        // Then
+        assertEquals("NY+LON", joint.getName());
+        assertFalse(joint.isBusinessDay(LocalDate.of(2025, 7, 4)));
+        assertFalse(joint.isBusinessDay(LocalDate.of(2025, 12, 26)));
+        assertFalse(joint.isBusinessDay(LocalDate.of(2026, 12, 25)));
+        assertEquals(LocalDate.of(2025, 12, 29), joint.addBusinessDays(LocalDate.of(2025, 12, 24), 1));
+    }
+
+    @Test
+    void testAddBusinessDays_MatchesDayByDayCountingAcrossCalendarEdges() {
+        // Given
+        BusinessDayCalendar ny = BusinessDayCalendar.of("NY", NY_HOLIDAYS);
+        Set<LocalDate> holidays = Set.copyOf(NY_HOLIDAYS);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate start = LocalDate.of(2024, 6, 1).plusDays(random.nextInt(1000));
+            int days = random.nextInt(601) - 300;
+
+            // When
+            LocalDate actual = ny.addBusinessDays(start, days);
+
+            // Then
+            assertEquals(stepByDay(start, days, holidays), actual, "From " + start + " by " + days);
+        }
+    }
+
+    private static LocalDate stepByDay(LocalDate start, int days, Set<LocalDate> holidays) {
+        LocalDate date = start;
+        int step = days >= 0 ? 1 : -1;
+        for (int remaining = Math.abs(days); remaining > 0; ) {
+            date = date.plusDays(step);
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(date)) {
+                remaining--;
+            }
+        }
+        return date;
+    }
+}
@@ -0,0 +1,49 @@
+package com.technicalchallenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTripsNullsAndSeparators() {
+        // Given
+        String cursor = KeysetCursor.encode(LocalDate.of(2025, 12, 15), null, "Bank:A|-", 10042L);
+
+        // When
+        List<String> values = KeysetCursor.decode(cursor, 4);
+
+        // Then - url-safe, so it can be passed back as a query parameter unescaped
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        assertEquals(Arrays.asList("2025-12-15", null, "Bank:A|-", "10042"), values);
+    }
+
+    @Test
+    void testDecode_RejectsMalformedOrMismatchedCursors() {
+        // Given
+        String twoValues = KeysetCursor.encode("2025-12-15", 1L);
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(twoValues, 3));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!", 2));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(
+                KeysetCursor.encode("abc").substring(0, 3), 1));
+    }
+
+    @Test
+    void testDecode_RejectsLengthThatWouldOverflow() {
+        // Given - a tampered cursor whose length prefix is Integer.MAX_VALUE
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2147483647:abc".getBytes(StandardCharsets.UTF_8));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(tampered, 1));
+    }
+}
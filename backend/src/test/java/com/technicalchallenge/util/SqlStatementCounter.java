@@ -0,0 +1,56 @@
+package com.technicalchallenge.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements Hibernate prepares, to pin down the query count of a read path
+ * Needs spring.jpa.properties.hibernate.generate_statistics=true in the test's properties.
+ * Statistics are per session factory, so tests using a counter must not run in parallel
+ */
+public final class SqlStatementCounter {
+
+    private final Statistics statistics;
+
+    private SqlStatementCounter(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param entityManagerFactory the test's entity manager factory
+     * @return a counter starting from zero
+     * @throws IllegalStateException if Hibernate statistics are not enabled
+     */
+    public static SqlStatementCounter of(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Set spring.jpa.properties.hibernate.generate_statistics=true");
+        }
+        SqlStatementCounter counter = new SqlStatementCounter(statistics);
+        counter.reset();
+        return counter;
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    /**
+     * @return statements prepared since the last reset
+     */
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * @param expected most statements the code under test may have run since the last reset
+     * @param what description of the code under test, for the failure message
+     */
+    public void assertAtMost(long expected, String what) {
+        long actual = count();
+        assertTrue(actual <= expected, () -> what + " ran " + actual + " SQL statements, expected at most " + expected);
+    }
+}
@@ -0,0 +1,220 @@
+package com.technicalchallenge.util;
+
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.BusinessDayConvention;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.model.LegType;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.model.TradeType;
+import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.repository.ApplicationUserRepository;
+import com.technicalchallenge.repository.BookRepository;
+import com.technicalchallenge.repository.BusinessDayConventionRepository;
+import com.technicalchallenge.repository.CashflowRepository;
+import com.technicalchallenge.repository.CounterpartyRepository;
+import com.technicalchallenge.repository.CurrencyRepository;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayDateRepository;
+import com.technicalchallenge.repository.LegTypeRepository;
+import com.technicalchallenge.repository.PayRecRepository;
+import com.technicalchallenge.repository.TradeAuditRepository;
+import com.technicalchallenge.repository.TradeLegRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.repository.TradeStatusRepository;
+import com.technicalchallenge.repository.TradeTypeRepository;
+import com.technicalchallenge.repository.UserProfileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Saves the reference data, trades, legs and cashflows the database tests build on
+ * Import it into a @DataJpaTest and call deleteAll() after each test. Trades, legs and
+ * cashflows start as active version 1 rows; each test sets only the fields it is about
+ */
+@Component
+public class TradeTestData {
+
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private TradeLegRepository tradeLegRepository;
+    @Autowired
+    private CashflowRepository cashflowRepository;
+    @Autowired
+    private TradeAuditRepository tradeAuditRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CounterpartyRepository counterpartyRepository;
+    @Autowired
+    private ApplicationUserRepository applicationUserRepository;
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+    @Autowired
+    private TradeTypeRepository tradeTypeRepository;
+    @Autowired
+    private TradeStatusRepository tradeStatusRepository;
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    @Autowired
+    private PayRecRepository payRecRepository;
+    @Autowired
+    private LegTypeRepository legTypeRepository;
+    @Autowired
+    private BusinessDayConventionRepository businessDayConventionRepository;
+    @Autowired
+    private HolidayCalendarRepository holidayCalendarRepository;
+    @Autowired
+    private HolidayDateRepository holidayDateRepository;
+
+    public Book book(String name) {
+        Book book = new Book();
+        book.setBookName(name);
+        book.setActive(true);
+        return bookRepository.save(book);
+    }
+
+    public Counterparty counterparty(String name) {
+        Counterparty counterparty = new Counterparty();
+        counterparty.setName(name);
+        counterparty.setActive(true);
+        return counterpartyRepository.save(counterparty);
+    }
+
+    public UserProfile userProfile(String userType) {
+        UserProfile profile = new UserProfile();
+        profile.setUserType(userType);
+        return userProfileRepository.save(profile);
+    }
+
+    /**
+     * @param profile profile of the user, may be null
+     */
+    public ApplicationUser user(String firstName, String lastName, String loginId, UserProfile profile) {
+        ApplicationUser user = new ApplicationUser();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setLoginId(loginId);
+        user.setUserProfile(profile);
+        user.setActive(true);
+        return applicationUserRepository.save(user);
+    }
+
+    public TradeType tradeType(String name) {
+        TradeType tradeType = new TradeType();
+        tradeType.setTradeType(name);
+        return tradeTypeRepository.save(tradeType);
+    }
+
+    public TradeStatus status(String name) {
+        TradeStatus status = new TradeStatus();
+        status.setTradeStatus(name);
+        return tradeStatusRepository.save(status);
+    }
+
+    public Currency currency(String code) {
+        Currency currency = new Currency();
+        currency.setCurrency(code);
+        return currencyRepository.save(currency);
+    }
+
+    public PayRec payRec(String name) {
+        PayRec payRec = new PayRec();
+        payRec.setPayRec(name);
+        return payRecRepository.save(payRec);
+    }
+
+    public LegType legType(String name) {
+        LegType legType = new LegType();
+        legType.setType(name);
+        return legTypeRepository.save(legType);
+    }
+
+    public BusinessDayConvention convention(String name) {
+        BusinessDayConvention convention = new BusinessDayConvention();
+        convention.setBdc(name);
+        return businessDayConventionRepository.save(convention);
+    }
+
+    public HolidayCalendar calendar(String name) {
+        HolidayCalendar calendar = new HolidayCalendar();
+        calendar.setHolidayCalendar(name);
+        return holidayCalendarRepository.save(calendar);
+    }
+
+    /**
+     * Saves an active version 1 trade with no other fields set
+     */
+    public Trade trade(long tradeId) {
+        return trade(tradeId, trade -> { });
+    }
+
+    /**
+     * Saves an active version 1 trade
+     * @param details sets the fields the test is about before the trade is saved
+     */
+    public Trade trade(long tradeId, Consumer<Trade> details) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        trade.setVersion(1);
+        trade.setActive(true);
+        details.accept(trade);
+        return tradeRepository.save(trade);
+    }
+
+    /**
+     * Saves an active leg of a trade
+     * @param details sets the fields the test is about before the leg is saved
+     */
+    public TradeLeg leg(Trade trade, Consumer<TradeLeg> details) {
+        TradeLeg leg = new TradeLeg();
+        leg.setTrade(trade);
+        leg.setActive(true);
+        details.accept(leg);
+        return tradeLegRepository.save(leg);
+    }
+
+    /**
+     * Saves an active cashflow of a leg
+     * @param details sets the fields the test is about before the cashflow is saved
+     */
+    public Cashflow cashflow(TradeLeg leg, Consumer<Cashflow> details) {
+        Cashflow cashflow = new Cashflow();
+        cashflow.setTradeLeg(leg);
+        cashflow.setActive(true);
+        details.accept(cashflow);
+        return cashflowRepository.save(cashflow);
+    }
+
+    /**
+     * Deletes everything the tests saved, children first
+     * Reference rows go through the repositories one by one so the reference data cache is refreshed
+     */
+    public void deleteAll() {
+        cashflowRepository.deleteAllInBatch();
+        tradeLegRepository.deleteAllInBatch();
+        tradeAuditRepository.deleteAllInBatch();
+        tradeRepository.deleteAllInBatch();
+        holidayDateRepository.deleteAllInBatch();
+        applicationUserRepository.deleteAll();
+        userProfileRepository.deleteAll();
+        bookRepository.deleteAll();
+        counterpartyRepository.deleteAll();
+        tradeTypeRepository.deleteAll();
+        tradeStatusRepository.deleteAll();
+        currencyRepository.deleteAll();
+        payRecRepository.deleteAll();
+        legTypeRepository.deleteAll();
+        businessDayConventionRepository.deleteAll();
+        holidayCalendarRepository.deleteAll();
+    }
+}